@@ -0,0 +1,465 @@
+package com.iopho.android.dataAccess;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.util.HttpStatusException;
+import com.iopho.android.util.HttpURLDownloader;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataAccessMetrics is a registry of metrics about the data-access layer, recording where the time
+ * of remote requests goes. Per endpoint, it records:
+ * <ul>
+ *     <li>the number of requests, and how many of them failed.</li>
+ *     <li>the bytes received over the wire, and after content decoding.</li>
+ *     <li>a {@link LatencyHistogram} of each phase of a request: connect, first byte (waiting for
+ *         the response headers), download (reading the body) and parse (interpreting the body),
+ *         and of the request as a whole.</li>
+ * </ul>
+ * It also counts errors by exception type, and reports the hit ratio of registered caches.
+ *
+ * Requests are recorded by registering the DataAccessMetrics as a
+ * {@link HttpURLDownloader.Listener}. Recording is lock-free and does not allocate once an
+ * endpoint has been seen. Take a {@link Snapshot} to read the metrics.
+ *
+ * This class is thread safe.
+ */
+public class DataAccessMetrics implements HttpURLDownloader.Listener {
+
+    /**
+     * A CacheCounters exposes the hit and miss counts of a cache. Counts are read when a
+     * {@link Snapshot} is taken, so caches need not count twice.
+     */
+    public interface CacheCounters {
+
+        /**
+         * @return the number of lookups served by the cache.
+         */
+        long getHitCount();
+
+        /**
+         * @return the number of lookups not served by the cache.
+         */
+        long getMissCount();
+    }
+
+    private final ConcurrentMap<String, Endpoint> mEndpoints;
+    private final ConcurrentMap<String, AtomicLong> mErrorCounts;
+    private final ConcurrentMap<String, CacheCounters> mCaches;
+
+    /**
+     * Construct a new, empty, DataAccessMetrics.
+     */
+    public DataAccessMetrics() {
+
+        this.mEndpoints = new ConcurrentHashMap<>();
+        this.mErrorCounts = new ConcurrentHashMap<>();
+        this.mCaches = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Record a successful request.
+     *
+     * @see {@link HttpURLDownloader.Listener#onResponse(String, HttpURLDownloader.Timings, long,
+     * long)}
+     */
+    @Override
+    public void onResponse(final String endpointKey, final HttpURLDownloader.Timings timings,
+                           final long wireBytes, final long decodedBytes) {
+
+        Preconditions.checkNotNull(endpointKey, "endpointKey must not be null.");
+        Preconditions.checkNotNull(timings, "timings must not be null.");
+
+        final Endpoint endpoint = getEndpoint(endpointKey);
+        endpoint.mRequestCount.incrementAndGet();
+        endpoint.mWireBytes.addAndGet(wireBytes);
+        endpoint.mDecodedBytes.addAndGet(decodedBytes);
+        endpoint.mConnectLatency.recordNanos(timings.getConnectNanos());
+        endpoint.mFirstByteLatency.recordNanos(timings.getFirstByteNanos());
+        endpoint.mDownloadLatency.recordNanos(timings.getDownloadNanos());
+        endpoint.mParseLatency.recordNanos(timings.getHandleNanos());
+        endpoint.mTotalLatency.recordNanos(timings.getTotalNanos());
+    }
+
+    /**
+     * Record a failed request.
+     *
+     * @see {@link HttpURLDownloader.Listener#onFailure(String, Exception)}
+     */
+    @Override
+    public void onFailure(final String endpointKey, final Exception ex) {
+        recordError(endpointKey, ex);
+    }
+
+    /**
+     * Record a failed request, counting it against both the endpoint and the type of error.
+     *
+     * @param endpointKey key identifying the requested endpoint.
+     * @param ex the error the request failed with.
+     */
+    public void recordError(final String endpointKey, final Throwable ex) {
+
+        Preconditions.checkNotNull(endpointKey, "endpointKey must not be null.");
+        Preconditions.checkNotNull(ex, "ex must not be null.");
+
+        final Endpoint endpoint = getEndpoint(endpointKey);
+        endpoint.mRequestCount.incrementAndGet();
+        endpoint.mErrorCount.incrementAndGet();
+
+        final String errorType = getErrorType(ex);
+        AtomicLong errorCount = mErrorCounts.get(errorType);
+        if (errorCount == null) {
+            final AtomicLong newErrorCount = new AtomicLong();
+            errorCount = mErrorCounts.putIfAbsent(errorType, newErrorCount);
+            if (errorCount == null) {
+                errorCount = newErrorCount;
+            }
+        }
+        errorCount.incrementAndGet();
+    }
+
+    /**
+     * Register a cache whose hit ratio is to be reported. Replaces any cache previously registered
+     * under the same name.
+     *
+     * @param name the name of the cache, e.g. "http".
+     * @param cacheCounters the {@link CacheCounters} of the cache.
+     */
+    public void registerCache(final String name, final CacheCounters cacheCounters) {
+
+        Preconditions.checkNotNull(name, "name must not be null.");
+        Preconditions.checkNotNull(cacheCounters, "cacheCounters must not be null.");
+        mCaches.put(name, cacheCounters);
+    }
+
+    /**
+     * Take a snapshot of all metrics. Requests recorded while the snapshot is taken may be only
+     * partly included.
+     *
+     * @return a new {@link Snapshot}.
+     */
+    public Snapshot snapshot() {
+
+        final Map<String, EndpointSnapshot> endpoints = new TreeMap<>();
+        for (Map.Entry<String, Endpoint> entry : mEndpoints.entrySet()) {
+            endpoints.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        final Map<String, Long> errorCounts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : mErrorCounts.entrySet()) {
+            errorCounts.put(entry.getKey(), entry.getValue().get());
+        }
+
+        final Map<String, CacheSnapshot> caches = new TreeMap<>();
+        for (Map.Entry<String, CacheCounters> entry : mCaches.entrySet()) {
+            caches.put(entry.getKey(), new CacheSnapshot(
+                    entry.getValue().getHitCount(), entry.getValue().getMissCount()));
+        }
+
+        return new Snapshot(endpoints, errorCounts, caches);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    private Endpoint getEndpoint(final String endpointKey) {
+
+        Endpoint endpoint = mEndpoints.get(endpointKey);
+        if (endpoint == null) {
+            final Endpoint newEndpoint = new Endpoint();
+            endpoint = mEndpoints.putIfAbsent(endpointKey, newEndpoint);
+            if (endpoint == null) {
+                endpoint = newEndpoint;
+            }
+        }
+        return endpoint;
+    }
+
+    /*
+     * The simple name of the error's class. HTTP status errors are told apart by response code,
+     * e.g. "HttpStatusException(429)".
+     */
+    private static String getErrorType(final Throwable ex) {
+
+        if (ex instanceof HttpStatusException) {
+            return ex.getClass().getSimpleName() +
+                    "(" + ((HttpStatusException) ex).getResponseCode() + ")";
+        }
+        return ex.getClass().getSimpleName();
+    }
+
+    /*
+     * The live metrics of a single endpoint.
+     */
+    private static class Endpoint {
+
+        private final AtomicLong mRequestCount = new AtomicLong();
+        private final AtomicLong mErrorCount = new AtomicLong();
+        private final AtomicLong mWireBytes = new AtomicLong();
+        private final AtomicLong mDecodedBytes = new AtomicLong();
+        private final LatencyHistogram mConnectLatency = new LatencyHistogram();
+        private final LatencyHistogram mFirstByteLatency = new LatencyHistogram();
+        private final LatencyHistogram mDownloadLatency = new LatencyHistogram();
+        private final LatencyHistogram mParseLatency = new LatencyHistogram();
+        private final LatencyHistogram mTotalLatency = new LatencyHistogram();
+
+        EndpointSnapshot snapshot() {
+            return new EndpointSnapshot(mRequestCount.get(), mErrorCount.get(),
+                    mWireBytes.get(), mDecodedBytes.get(),
+                    mConnectLatency.snapshot(), mFirstByteLatency.snapshot(),
+                    mDownloadLatency.snapshot(), mParseLatency.snapshot(),
+                    mTotalLatency.snapshot());
+        }
+    }
+
+    /**
+     * An immutable point-in-time copy of all metrics.
+     */
+    public static class Snapshot {
+
+        private final Map<String, EndpointSnapshot> mEndpoints;
+        private final Map<String, Long> mErrorCounts;
+        private final Map<String, CacheSnapshot> mCaches;
+
+        private Snapshot(final Map<String, EndpointSnapshot> endpoints,
+                         final Map<String, Long> errorCounts,
+                         final Map<String, CacheSnapshot> caches) {
+
+            this.mEndpoints = Collections.unmodifiableMap(endpoints);
+            this.mErrorCounts = Collections.unmodifiableMap(errorCounts);
+            this.mCaches = Collections.unmodifiableMap(caches);
+        }
+
+        /**
+         * @return the metrics of each requested endpoint, keyed and sorted by endpoint key.
+         */
+        public Map<String, EndpointSnapshot> getEndpoints() {
+            return mEndpoints;
+        }
+
+        /**
+         * @return the number of errors of each type, keyed and sorted by type (the simple name of
+         * the exception class).
+         */
+        public Map<String, Long> getErrorCounts() {
+            return mErrorCounts;
+        }
+
+        /**
+         * @return the counters of each registered cache, keyed and sorted by name.
+         */
+        public Map<String, CacheSnapshot> getCaches() {
+            return mCaches;
+        }
+
+        /**
+         * Write a human readable report of the metrics, e.g. from an Activity's dump() method.
+         * Latencies are reported in milliseconds.
+         *
+         * @param prefix a prefix written at the start of every line.
+         * @param writer the {@link PrintWriter} to write the report to.
+         */
+        public void dump(final String prefix, final PrintWriter writer) {
+
+            Preconditions.checkNotNull(prefix, "prefix must not be null.");
+            Preconditions.checkNotNull(writer, "writer must not be null.");
+
+            writer.println(prefix + "Endpoints:");
+            for (Map.Entry<String, EndpointSnapshot> entry : mEndpoints.entrySet()) {
+                final EndpointSnapshot endpoint = entry.getValue();
+                writer.println(String.format("%s  %s: requests=%d errors=%d wireBytes=%d " +
+                                "decodedBytes=%d", prefix, entry.getKey(),
+                        endpoint.getRequestCount(), endpoint.getErrorCount(),
+                        endpoint.getWireBytes(), endpoint.getDecodedBytes()));
+                dumpLatency(prefix, writer, "connect", endpoint.getConnectLatency());
+                dumpLatency(prefix, writer, "firstByte", endpoint.getFirstByteLatency());
+                dumpLatency(prefix, writer, "download", endpoint.getDownloadLatency());
+                dumpLatency(prefix, writer, "parse", endpoint.getParseLatency());
+                dumpLatency(prefix, writer, "total", endpoint.getTotalLatency());
+            }
+
+            writer.println(prefix + "Errors:");
+            for (Map.Entry<String, Long> entry : mErrorCounts.entrySet()) {
+                writer.println(prefix + "  " + entry.getKey() + ": " + entry.getValue());
+            }
+
+            writer.println(prefix + "Caches:");
+            for (Map.Entry<String, CacheSnapshot> entry : mCaches.entrySet()) {
+                final CacheSnapshot cache = entry.getValue();
+                writer.println(String.format("%s  %s: hits=%d misses=%d hitRatio=%.2f",
+                        prefix, entry.getKey(), cache.getHitCount(), cache.getMissCount(),
+                        cache.getHitRatio()));
+            }
+        }
+
+        @Override
+        public String toString() {
+
+            final StringWriter stringWriter = new StringWriter();
+            final PrintWriter printWriter = new PrintWriter(stringWriter);
+            dump("", printWriter);
+            printWriter.flush();
+            return stringWriter.toString();
+        }
+
+        private static void dumpLatency(final String prefix, final PrintWriter writer,
+                                        final String phase,
+                                        final LatencyHistogram.Snapshot latency) {
+
+            writer.println(String.format("%s    %-9s p50=%.1f p95=%.1f p99=%.1f max=%.1f",
+                    prefix, phase, toMillis(latency.getPercentileMicros(50)),
+                    toMillis(latency.getPercentileMicros(95)),
+                    toMillis(latency.getPercentileMicros(99)),
+                    toMillis(latency.getMaxMicros())));
+        }
+
+        private static double toMillis(final long micros) {
+            return micros / (double) TimeUnit.MILLISECONDS.toMicros(1);
+        }
+    }
+
+    /**
+     * An immutable point-in-time copy of the metrics of a single endpoint.
+     */
+    public static class EndpointSnapshot {
+
+        private final long mRequestCount;
+        private final long mErrorCount;
+        private final long mWireBytes;
+        private final long mDecodedBytes;
+        private final LatencyHistogram.Snapshot mConnectLatency;
+        private final LatencyHistogram.Snapshot mFirstByteLatency;
+        private final LatencyHistogram.Snapshot mDownloadLatency;
+        private final LatencyHistogram.Snapshot mParseLatency;
+        private final LatencyHistogram.Snapshot mTotalLatency;
+
+        private EndpointSnapshot(final long requestCount, final long errorCount,
+                                 final long wireBytes, final long decodedBytes,
+                                 final LatencyHistogram.Snapshot connectLatency,
+                                 final LatencyHistogram.Snapshot firstByteLatency,
+                                 final LatencyHistogram.Snapshot downloadLatency,
+                                 final LatencyHistogram.Snapshot parseLatency,
+                                 final LatencyHistogram.Snapshot totalLatency) {
+
+            this.mRequestCount = requestCount;
+            this.mErrorCount = errorCount;
+            this.mWireBytes = wireBytes;
+            this.mDecodedBytes = decodedBytes;
+            this.mConnectLatency = connectLatency;
+            this.mFirstByteLatency = firstByteLatency;
+            this.mDownloadLatency = downloadLatency;
+            this.mParseLatency = parseLatency;
+            this.mTotalLatency = totalLatency;
+        }
+
+        /**
+         * @return the number of requests, successful or not.
+         */
+        public long getRequestCount() {
+            return mRequestCount;
+        }
+
+        /**
+         * @return the number of failed requests.
+         */
+        public long getErrorCount() {
+            return mErrorCount;
+        }
+
+        /**
+         * @return total bytes received over the wire.
+         */
+        public long getWireBytes() {
+            return mWireBytes;
+        }
+
+        /**
+         * @return total bytes after content decoding, or read from the response cache.
+         */
+        public long getDecodedBytes() {
+            return mDecodedBytes;
+        }
+
+        /**
+         * @return latencies of opening a connection, of successful requests.
+         */
+        public LatencyHistogram.Snapshot getConnectLatency() {
+            return mConnectLatency;
+        }
+
+        /**
+         * @return latencies from sending a request to receiving the response headers, of
+         * successful requests.
+         */
+        public LatencyHistogram.Snapshot getFirstByteLatency() {
+            return mFirstByteLatency;
+        }
+
+        /**
+         * @return latencies of reading the response body, of successful requests.
+         */
+        public LatencyHistogram.Snapshot getDownloadLatency() {
+            return mDownloadLatency;
+        }
+
+        /**
+         * @return latencies of interpreting the response body, of successful requests.
+         */
+        public LatencyHistogram.Snapshot getParseLatency() {
+            return mParseLatency;
+        }
+
+        /**
+         * @return latencies of successful requests as a whole.
+         */
+        public LatencyHistogram.Snapshot getTotalLatency() {
+            return mTotalLatency;
+        }
+    }
+
+    /**
+     * An immutable point-in-time copy of the counters of a cache.
+     */
+    public static class CacheSnapshot {
+
+        private final long mHitCount;
+        private final long mMissCount;
+
+        private CacheSnapshot(final long hitCount, final long missCount) {
+            this.mHitCount = hitCount;
+            this.mMissCount = missCount;
+        }
+
+        /**
+         * @return the number of lookups served by the cache.
+         */
+        public long getHitCount() {
+            return mHitCount;
+        }
+
+        /**
+         * @return the number of lookups not served by the cache.
+         */
+        public long getMissCount() {
+            return mMissCount;
+        }
+
+        /**
+         * @return the fraction of lookups served by the cache, or 0 if there were none.
+         */
+        public double getHitRatio() {
+            final long lookupCount = mHitCount + mMissCount;
+            return (lookupCount == 0) ? 0 : (double) mHitCount / lookupCount;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.iopho.android.dataAccess;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A LatencyHistogram counts latencies in log-linear buckets, in the manner of an HDR histogram:
+ * latencies are recorded in microseconds, exactly below 32us, and above it in buckets whose width
+ * doubles with every power of two. Any recorded latency is thus reported within 6.25% (1/16) of
+ * its actual value, from a fixed, small, number of counters. Latencies above
+ * {@link #MAX_TRACKABLE_MICROS} are counted as that value.
+ *
+ * Recording is lock-free and does not allocate, so it is cheap enough to do on every request.
+ *
+ * This class is thread safe.
+ */
+public class LatencyHistogram {
+
+    // 2^5 sub-buckets: exact below 32us, then 16 buckets per power of two.
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * The highest trackable latency, in microseconds (~134 seconds). Beyond any request timeout.
+     */
+    public static final long MAX_TRACKABLE_MICROS = (1L << 27) - 1;
+
+    private static final int BUCKET_COUNT = getBucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+    private final AtomicLongArray mCounts;
+    private final AtomicLong mTotalMicros;
+    private final AtomicLong mMaxMicros;
+
+    /**
+     * Construct a new, empty, LatencyHistogram.
+     */
+    public LatencyHistogram() {
+
+        this.mCounts = new AtomicLongArray(BUCKET_COUNT);
+        this.mTotalMicros = new AtomicLong();
+        this.mMaxMicros = new AtomicLong();
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos the latency, in nanoseconds. Negative latencies are recorded as 0.
+     */
+    public void recordNanos(final long nanos) {
+
+        final long micros = Math.min(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)),
+                MAX_TRACKABLE_MICROS);
+
+        mCounts.incrementAndGet(getBucketIndex(micros));
+        mTotalMicros.addAndGet(micros);
+
+        long maxMicros = mMaxMicros.get();
+        while (micros > maxMicros && !mMaxMicros.compareAndSet(maxMicros, micros)) {
+            maxMicros = mMaxMicros.get();
+        }
+    }
+
+    /**
+     * Take a snapshot of the histogram. Latencies recorded while the snapshot is taken may or may
+     * not be included.
+     *
+     * @return a new {@link Snapshot}.
+     */
+    public Snapshot snapshot() {
+
+        final long[] counts = new long[BUCKET_COUNT];
+        long totalCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = mCounts.get(i);
+            totalCount += counts[i];
+        }
+        return new Snapshot(counts, totalCount, mTotalMicros.get(), mMaxMicros.get());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /*
+     * Buckets [0, SUB_BUCKET_COUNT) hold latencies 0..31us exactly. Above that, each power of two
+     * [2^k, 2^(k+1)) is split into SUB_BUCKET_HALF_COUNT buckets of width 2^(k - 4).
+     */
+    private static int getBucketIndex(final long micros) {
+
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        final int powerOfTwo = 63 - Long.numberOfLeadingZeros(micros);
+        final int shift = powerOfTwo - (SUB_BUCKET_BITS - 1);
+        final int subBucket = (int) (micros >> shift) - SUB_BUCKET_HALF_COUNT;
+        return SUB_BUCKET_COUNT + (powerOfTwo - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT +
+                subBucket;
+    }
+
+    /*
+     * The highest latency counted by the given bucket, in microseconds.
+     */
+    private static long getBucketHighestMicros(final int bucketIndex) {
+
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        final int powerOfTwo = SUB_BUCKET_BITS + (bucketIndex - SUB_BUCKET_COUNT) /
+                SUB_BUCKET_HALF_COUNT;
+        final int shift = powerOfTwo - (SUB_BUCKET_BITS - 1);
+        final long subBucket = SUB_BUCKET_HALF_COUNT + (bucketIndex - SUB_BUCKET_COUNT) %
+                SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * An immutable point-in-time copy of a {@link LatencyHistogram}.
+     */
+    public static class Snapshot {
+
+        private final long[] mCounts;
+        private final long mTotalCount;
+        private final long mTotalMicros;
+        private final long mMaxMicros;
+
+        private Snapshot(final long[] counts, final long totalCount, final long totalMicros,
+                         final long maxMicros) {
+
+            this.mCounts = counts;
+            this.mTotalCount = totalCount;
+            this.mTotalMicros = totalMicros;
+            this.mMaxMicros = maxMicros;
+        }
+
+        /**
+         * @return the number of recorded latencies.
+         */
+        public long getCount() {
+            return mTotalCount;
+        }
+
+        /**
+         * @return the mean recorded latency, in microseconds, or 0 if none was recorded.
+         */
+        public long getMeanMicros() {
+            return (mTotalCount == 0) ? 0 : mTotalMicros / mTotalCount;
+        }
+
+        /**
+         * @return the highest recorded latency, in microseconds, or 0 if none was recorded.
+         */
+        public long getMaxMicros() {
+            return mMaxMicros;
+        }
+
+        /**
+         * @param percentile the percentile. Must be in range: (0, 100].
+         * @return the latency, in microseconds, at or below which the given percentage of
+         * recorded latencies fall, or 0 if none was recorded.
+         */
+        public long getPercentileMicros(final double percentile) {
+
+            Preconditions.checkArgument(percentile > 0 && percentile <= 100,
+                    "percentile must be in range (0, 100].");
+
+            if (mTotalCount == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mTotalCount));
+            long count = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                count += mCounts[i];
+                if (count >= rank) {
+                    return Math.min(getBucketHighestMicros(i), mMaxMicros);
+                }
+            }
+            return mMaxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "[ Count=" + getCount() +
+                    ", MeanMicros=" + getMeanMicros() +
+                    ", P50Micros=" + getPercentileMicros(50) +
+                    ", P95Micros=" + getPercentileMicros(95) +
+                    ", P99Micros=" + getPercentileMicros(99) +
+                    ", MaxMicros=" + getMaxMicros() +
+                    " ]";
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.iopho.android.dataAccess.catalog;
+
+/**
+ * Table and column names of the movie catalog database.
+ *
+ * Record tables ({@link MovieEntry}, {@link ReviewEntry}, {@link VideoLinkEntry}) are keyed by
+ * TMDB id and carry a version, incremented every time the stored record changes, along with the
+ * time (System#currentTimeMillis) it was last written. List tables ({@link PopularMovieEntry},
+ * {@link TopRatedMovieEntry}) hold the ordering of movies within a TMDB movie list, and
+ * {@link MoviePageEntry} the pagination metadata and fetch time of each stored list page.
+ */
+final class MovieCatalogContract {
+
+    static final String DATABASE_NAME = "movie_catalog.db";
+    static final int DATABASE_VERSION = 2;
+
+    private MovieCatalogContract() {}
+
+    /**
+     * Columns shared by all record tables.
+     */
+    static class RecordColumns {
+        static final String VERSION    = "version";
+        static final String UPDATED_AT = "updated_at";
+    }
+
+    static final class MovieEntry extends RecordColumns {
+        static final String TABLE_NAME             = "movie";
+        static final String ID                     = "_id";
+        static final String POSTER_PATH            = "poster_path";
+        static final String IS_ADULT               = "is_adult";
+        static final String OVERVIEW               = "overview";
+        static final String RELEASE_DATE           = "release_date";
+        static final String GENRE_IDS              = "genre_ids";
+        static final String ORIGINAL_TITLE         = "original_title";
+        static final String ORIGINAL_LANGUAGE_CODE = "original_language_code";
+        static final String TITLE                  = "title";
+        static final String BACKDROP_PATH          = "backdrop_path";
+        static final String POPULARITY             = "popularity";
+        static final String VOTE_COUNT             = "vote_count";
+        static final String HAS_VIDEO              = "has_video";
+        static final String AVERAGE_VOTE           = "average_vote";
+    }
+
+    static final class ReviewEntry extends RecordColumns {
+        static final String TABLE_NAME = "review";
+        static final String ID         = "_id";
+        static final String MOVIE_ID   = "movie_id";
+        static final String POSITION   = "position";
+        static final String AUTHOR     = "author";
+        static final String CONTENT    = "content";
+    }
+
+    static final class VideoLinkEntry extends RecordColumns {
+        static final String TABLE_NAME = "video_link";
+        static final String ID         = "_id";
+        static final String MOVIE_ID   = "movie_id";
+        static final String POSITION   = "position";
+        static final String KEY        = "key";
+        static final String NAME       = "name";
+        static final String SITE       = "site";
+        static final String SIZE       = "size";
+        static final String TYPE       = "type";
+    }
+
+    /**
+     * Columns shared by the movie list ordering tables.
+     */
+    static class MovieListOrderColumns {
+        static final String PAGE_NUMBER = "page_number";
+        static final String POSITION    = "position";
+        static final String MOVIE_ID    = "movie_id";
+    }
+
+    static final class PopularMovieEntry extends MovieListOrderColumns {
+        static final String TABLE_NAME = "popular_movie";
+    }
+
+    static final class TopRatedMovieEntry extends MovieListOrderColumns {
+        static final String TABLE_NAME = "top_rated_movie";
+    }
+
+    static final class MoviePageEntry {
+        static final String TABLE_NAME         = "movie_page";
+        static final String LIST_NAME          = "list_name";
+        static final String PAGE_NUMBER        = "page_number";
+        static final String TOTAL_PAGE_COUNT   = "total_page_count";
+        static final String TOTAL_RESULT_COUNT = "total_result_count";
+        static final String UPDATED_AT         = "updated_at";
+    }
+}
@@ -0,0 +1,122 @@
+package com.iopho.android.dataAccess.catalog;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.MovieEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.MovieListOrderColumns;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.MoviePageEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.PopularMovieEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.ReviewEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.TopRatedMovieEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.VideoLinkEntry;
+
+/**
+ * A MovieCatalogDbHelper creates and upgrades the movie catalog database.
+ *
+ * The catalog only ever holds data fetched from TMDB, so an upgrade simply drops and recreates all
+ * tables; the catalog is repopulated as the app is used.
+ */
+class MovieCatalogDbHelper extends SQLiteOpenHelper {
+
+    private static final String[] TABLE_NAMES = {
+            MovieEntry.TABLE_NAME,
+            ReviewEntry.TABLE_NAME,
+            VideoLinkEntry.TABLE_NAME,
+            PopularMovieEntry.TABLE_NAME,
+            TopRatedMovieEntry.TABLE_NAME,
+            MoviePageEntry.TABLE_NAME
+    };
+
+    /**
+     * Construct a new MovieCatalogDbHelper.
+     *
+     * @param context the current {@link android.content.Context}
+     */
+    MovieCatalogDbHelper(final Context context) {
+        super(context, MovieCatalogContract.DATABASE_NAME, null,
+                MovieCatalogContract.DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+
+        db.execSQL("CREATE TABLE " + MovieEntry.TABLE_NAME + " (" +
+                MovieEntry.ID + " INTEGER PRIMARY KEY, " +
+                MovieEntry.POSTER_PATH + " TEXT NOT NULL, " +
+                MovieEntry.IS_ADULT + " INTEGER NOT NULL, " +
+                MovieEntry.OVERVIEW + " TEXT NOT NULL, " +
+                MovieEntry.RELEASE_DATE + " INTEGER NOT NULL, " +
+                MovieEntry.GENRE_IDS + " TEXT NOT NULL, " +
+                MovieEntry.ORIGINAL_TITLE + " TEXT NOT NULL, " +
+                MovieEntry.ORIGINAL_LANGUAGE_CODE + " TEXT NOT NULL, " +
+                MovieEntry.TITLE + " TEXT NOT NULL, " +
+                MovieEntry.BACKDROP_PATH + " TEXT NOT NULL, " +
+                MovieEntry.POPULARITY + " REAL NOT NULL, " +
+                MovieEntry.VOTE_COUNT + " INTEGER NOT NULL, " +
+                MovieEntry.HAS_VIDEO + " INTEGER NOT NULL, " +
+                MovieEntry.AVERAGE_VOTE + " REAL NOT NULL, " +
+                MovieEntry.VERSION + " INTEGER NOT NULL, " +
+                MovieEntry.UPDATED_AT + " INTEGER NOT NULL);");
+
+        db.execSQL("CREATE TABLE " + ReviewEntry.TABLE_NAME + " (" +
+                ReviewEntry.ID + " TEXT PRIMARY KEY, " +
+                ReviewEntry.MOVIE_ID + " INTEGER NOT NULL, " +
+                ReviewEntry.POSITION + " INTEGER NOT NULL, " +
+                ReviewEntry.AUTHOR + " TEXT NOT NULL, " +
+                ReviewEntry.CONTENT + " TEXT NOT NULL, " +
+                ReviewEntry.VERSION + " INTEGER NOT NULL, " +
+                ReviewEntry.UPDATED_AT + " INTEGER NOT NULL);");
+        db.execSQL("CREATE INDEX " + ReviewEntry.TABLE_NAME + "_" + ReviewEntry.MOVIE_ID +
+                " ON " + ReviewEntry.TABLE_NAME + " (" + ReviewEntry.MOVIE_ID + ", " +
+                ReviewEntry.POSITION + ");");
+
+        db.execSQL("CREATE TABLE " + VideoLinkEntry.TABLE_NAME + " (" +
+                VideoLinkEntry.ID + " TEXT PRIMARY KEY, " +
+                VideoLinkEntry.MOVIE_ID + " INTEGER NOT NULL, " +
+                VideoLinkEntry.POSITION + " INTEGER NOT NULL, " +
+                VideoLinkEntry.KEY + " TEXT NOT NULL, " +
+                VideoLinkEntry.NAME + " TEXT NOT NULL, " +
+                VideoLinkEntry.SITE + " TEXT NOT NULL, " +
+                VideoLinkEntry.SIZE + " INTEGER NOT NULL, " +
+                VideoLinkEntry.TYPE + " TEXT NOT NULL, " +
+                VideoLinkEntry.VERSION + " INTEGER NOT NULL, " +
+                VideoLinkEntry.UPDATED_AT + " INTEGER NOT NULL);");
+        db.execSQL("CREATE INDEX " + VideoLinkEntry.TABLE_NAME + "_" + VideoLinkEntry.MOVIE_ID +
+                " ON " + VideoLinkEntry.TABLE_NAME + " (" + VideoLinkEntry.MOVIE_ID + ", " +
+                VideoLinkEntry.POSITION + ");");
+
+        createMovieListOrderTable(db, PopularMovieEntry.TABLE_NAME);
+        createMovieListOrderTable(db, TopRatedMovieEntry.TABLE_NAME);
+
+        db.execSQL("CREATE TABLE " + MoviePageEntry.TABLE_NAME + " (" +
+                MoviePageEntry.LIST_NAME + " TEXT NOT NULL, " +
+                MoviePageEntry.PAGE_NUMBER + " INTEGER NOT NULL, " +
+                MoviePageEntry.TOTAL_PAGE_COUNT + " INTEGER NOT NULL, " +
+                MoviePageEntry.TOTAL_RESULT_COUNT + " INTEGER NOT NULL, " +
+                MoviePageEntry.UPDATED_AT + " INTEGER NOT NULL, " +
+                "PRIMARY KEY (" + MoviePageEntry.LIST_NAME + ", " +
+                MoviePageEntry.PAGE_NUMBER + "));");
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+
+        for (String tableName : TABLE_NAMES) {
+            db.execSQL("DROP TABLE IF EXISTS " + tableName);
+        }
+        onCreate(db);
+    }
+
+    private static void createMovieListOrderTable(final SQLiteDatabase db,
+                                                  final String tableName) {
+
+        db.execSQL("CREATE TABLE " + tableName + " (" +
+                MovieListOrderColumns.PAGE_NUMBER + " INTEGER NOT NULL, " +
+                MovieListOrderColumns.POSITION + " INTEGER NOT NULL, " +
+                MovieListOrderColumns.MOVIE_ID + " INTEGER NOT NULL, " +
+                "PRIMARY KEY (" + MovieListOrderColumns.PAGE_NUMBER + ", " +
+                MovieListOrderColumns.POSITION + "));");
+    }
+}
@@ -0,0 +1,514 @@
+package com.iopho.android.dataAccess.catalog;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.StringDef;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Longs;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.MovieEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.MovieListOrderColumns;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.MoviePageEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.PopularMovieEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.RecordColumns;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.ReviewEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.TopRatedMovieEntry;
+import com.iopho.android.dataAccess.catalog.MovieCatalogContract.VideoLinkEntry;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A MovieCatalogStore persists TMDB data to a local SQLite database so that it survives process
+ * restarts and can be displayed before (or without) a network request.
+ *
+ * {@link Movie}s, {@link Review}s and {@link VideoLink}s are stored as versioned records keyed by
+ * TMDB id: a record's version is incremented every time it is written with different content. Pages
+ * of the popular and top rated {@link MovieList}s are stored as orderings over movie records, so a
+ * movie appearing in both lists is stored once.
+ *
+ * All methods perform disk I/O and must not be invoked on the UI thread. Failures surface as
+ * {@link android.database.SQLException}s.
+ *
+ * This class is thread safe.
+ */
+public class MovieCatalogStore {
+
+    /**
+     * The TMDB movie lists held by the catalog.
+     */
+    public static class MovieList {
+        public static final String POPULAR   = PopularMovieEntry.TABLE_NAME;
+        public static final String TOP_RATED = TopRatedMovieEntry.TABLE_NAME;
+
+        @Retention(RetentionPolicy.SOURCE)
+        @StringDef({
+                POPULAR,
+                TOP_RATED
+        })
+        public @interface Def {}
+    }
+
+    private static final Joiner GENRE_ID_JOINER = Joiner.on(',');
+    private static final Splitter GENRE_ID_SPLITTER = Splitter.on(',').omitEmptyStrings();
+
+    private final MovieCatalogDbHelper mDbHelper;
+
+    /**
+     * Construct a new MovieCatalogStore. The database is opened lazily, on first use.
+     *
+     * @param context the current {@link Context}
+     */
+    public MovieCatalogStore(final Context context) {
+
+        Preconditions.checkNotNull(context, "context must not be null.");
+        this.mDbHelper = new MovieCatalogDbHelper(context.getApplicationContext());
+    }
+
+    /**
+     * Read a stored page of a movie list.
+     *
+     * @param movieList the {@link MovieList} to read.
+     * @param pageNumber the page number to read.
+     * @return the stored page, or null if the page has not been stored.
+     */
+    public DataPage<Movie> getMoviePage(final @MovieList.Def String movieList,
+                                        final int pageNumber) {
+
+        checkMovieList(movieList);
+
+        final SQLiteDatabase db = mDbHelper.getReadableDatabase();
+        final String[] pageArgs = {movieList, Integer.toString(pageNumber)};
+
+        final int totalPageCount;
+        final int totalResultCount;
+        final Cursor pageCursor = db.query(MoviePageEntry.TABLE_NAME,
+                new String[] {MoviePageEntry.TOTAL_PAGE_COUNT, MoviePageEntry.TOTAL_RESULT_COUNT},
+                MoviePageEntry.LIST_NAME + " = ? AND " + MoviePageEntry.PAGE_NUMBER + " = ?",
+                pageArgs, null, null, null);
+        try {
+            if (!pageCursor.moveToFirst()) {
+                return null;
+            }
+            totalPageCount = pageCursor.getInt(0);
+            totalResultCount = pageCursor.getInt(1);
+        } finally {
+            pageCursor.close();
+        }
+
+        final Cursor movieCursor = db.rawQuery("SELECT m.* FROM " + movieList + " o" +
+                " JOIN " + MovieEntry.TABLE_NAME + " m" +
+                " ON m." + MovieEntry.ID + " = o." + MovieListOrderColumns.MOVIE_ID +
+                " WHERE o." + MovieListOrderColumns.PAGE_NUMBER + " = ?" +
+                " ORDER BY o." + MovieListOrderColumns.POSITION,
+                new String[] {Integer.toString(pageNumber)});
+        try {
+            final List<Movie> movies = new ArrayList<>(movieCursor.getCount());
+            while (movieCursor.moveToNext()) {
+                movies.add(readMovie(movieCursor));
+            }
+            return new DataPage<>(pageNumber, totalPageCount, totalResultCount, movies);
+        } finally {
+            movieCursor.close();
+        }
+    }
+
+    /**
+     * @param movieList a {@link MovieList}.
+     * @param pageNumber a page number.
+     * @return the time (System#currentTimeMillis) the given page was last stored, or -1 if the
+     * page has not been stored.
+     */
+    public long getMoviePageUpdatedAt(final @MovieList.Def String movieList,
+                                      final int pageNumber) {
+
+        checkMovieList(movieList);
+
+        final Cursor cursor = mDbHelper.getReadableDatabase().query(MoviePageEntry.TABLE_NAME,
+                new String[] {MoviePageEntry.UPDATED_AT},
+                MoviePageEntry.LIST_NAME + " = ? AND " + MoviePageEntry.PAGE_NUMBER + " = ?",
+                new String[] {movieList, Integer.toString(pageNumber)}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : -1;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Store a page of a movie list, replacing any previously stored version of the page.
+     *
+     * @param movieList the {@link MovieList} the page belongs to.
+     * @param moviePage the page to store.
+     * @return the {@link MovieListDiff} from the previously stored version of the page (empty if
+     * nothing changed). All movies are inserted if the page was not previously stored.
+     */
+    public MovieListDiff putMoviePage(final @MovieList.Def String movieList,
+                                      final DataPage<Movie> moviePage) {
+
+        checkMovieList(movieList);
+        Preconditions.checkNotNull(moviePage, "moviePage must not be null.");
+
+        final long now = System.currentTimeMillis();
+        final String pageNumber = Integer.toString(moviePage.getPageNumber());
+        final SQLiteDatabase db = mDbHelper.getWritableDatabase();
+
+        final List<Long> newMovieIds = new ArrayList<>(moviePage.getResults().size());
+        final Set<Long> changedMovieIds = new HashSet<>();
+        final List<Long> oldMovieIds;
+
+        db.beginTransaction();
+        try {
+            oldMovieIds = getMovieIds(db, movieList, pageNumber);
+            db.delete(movieList, MovieListOrderColumns.PAGE_NUMBER + " = ?",
+                    new String[] {pageNumber});
+
+            final List<Movie> movies = moviePage.getResults();
+            for (int i = 0; i < movies.size(); i++) {
+                final Movie movie = movies.get(i);
+                if (putRecord(db, MovieEntry.TABLE_NAME, MovieEntry.ID,
+                        Long.toString(movie.getID()), toContentValues(movie), now)) {
+                    changedMovieIds.add(movie.getID());
+                }
+                newMovieIds.add(movie.getID());
+
+                final ContentValues orderValues = new ContentValues();
+                orderValues.put(MovieListOrderColumns.PAGE_NUMBER, moviePage.getPageNumber());
+                orderValues.put(MovieListOrderColumns.POSITION, i);
+                orderValues.put(MovieListOrderColumns.MOVIE_ID, movie.getID());
+                db.insertOrThrow(movieList, null, orderValues);
+            }
+
+            final ContentValues pageValues = new ContentValues();
+            pageValues.put(MoviePageEntry.LIST_NAME, movieList);
+            pageValues.put(MoviePageEntry.PAGE_NUMBER, moviePage.getPageNumber());
+            pageValues.put(MoviePageEntry.TOTAL_PAGE_COUNT, moviePage.getTotalPageCount());
+            pageValues.put(MoviePageEntry.TOTAL_RESULT_COUNT, moviePage.getTotalResultCount());
+            pageValues.put(MoviePageEntry.UPDATED_AT, now);
+            db.replaceOrThrow(MoviePageEntry.TABLE_NAME, null, pageValues);
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        return MovieListDiff.compute(oldMovieIds, newMovieIds, changedMovieIds);
+    }
+
+    /**
+     * @param movieId a TMDB movie id.
+     * @return the stored reviews of the given movie, in their original order. Empty if none are
+     * stored.
+     */
+    public List<Review> getMovieReviews(final long movieId) {
+
+        final Cursor cursor = mDbHelper.getReadableDatabase().query(ReviewEntry.TABLE_NAME,
+                new String[] {ReviewEntry.ID, ReviewEntry.AUTHOR, ReviewEntry.CONTENT},
+                ReviewEntry.MOVIE_ID + " = ?", new String[] {Long.toString(movieId)},
+                null, null, ReviewEntry.POSITION);
+        try {
+            final List<Review> reviews = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                reviews.add(new Review(cursor.getString(0), cursor.getString(1),
+                        cursor.getString(2)));
+            }
+            return reviews;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Store the reviews of a movie, replacing any previously stored reviews of the movie. Reviews
+     * without a TMDB id cannot be keyed and are not stored.
+     *
+     * @param movieId a TMDB movie id.
+     * @param reviews the movie's reviews.
+     */
+    public void putMovieReviews(final long movieId, final List<Review> reviews) {
+
+        Preconditions.checkNotNull(reviews, "reviews must not be null.");
+
+        final long now = System.currentTimeMillis();
+        final SQLiteDatabase db = mDbHelper.getWritableDatabase();
+        final List<String> reviewIds = new ArrayList<>(reviews.size());
+
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < reviews.size(); i++) {
+                final Review review = reviews.get(i);
+                if (review.getID() == null) {
+                    continue;
+                }
+
+                final ContentValues values = new ContentValues();
+                values.put(ReviewEntry.ID, review.getID());
+                values.put(ReviewEntry.MOVIE_ID, movieId);
+                values.put(ReviewEntry.POSITION, i);
+                values.put(ReviewEntry.AUTHOR, review.getAuthor());
+                values.put(ReviewEntry.CONTENT, review.getContent());
+                putRecord(db, ReviewEntry.TABLE_NAME, ReviewEntry.ID, review.getID(), values, now);
+                reviewIds.add(review.getID());
+            }
+
+            deleteOtherRecords(db, ReviewEntry.TABLE_NAME, ReviewEntry.ID, ReviewEntry.MOVIE_ID,
+                    movieId, reviewIds);
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @param movieId a TMDB movie id.
+     * @return the stored video links of the given movie, in their original order. Empty if none
+     * are stored.
+     */
+    public List<VideoLink> getMovieVideoLinks(final long movieId) {
+
+        final Cursor cursor = mDbHelper.getReadableDatabase().query(VideoLinkEntry.TABLE_NAME,
+                new String[] {VideoLinkEntry.ID, VideoLinkEntry.KEY, VideoLinkEntry.NAME,
+                        VideoLinkEntry.SITE, VideoLinkEntry.SIZE, VideoLinkEntry.TYPE},
+                VideoLinkEntry.MOVIE_ID + " = ?", new String[] {Long.toString(movieId)},
+                null, null, VideoLinkEntry.POSITION);
+        try {
+            final List<VideoLink> videoLinks = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                videoLinks.add(new VideoLink(cursor.getString(0), cursor.getString(1),
+                        cursor.getString(2), cursor.getString(3), cursor.getInt(4),
+                        VideoLink.Type.transformToType(cursor.getString(5))));
+            }
+            return videoLinks;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Store the video links of a movie, replacing any previously stored video links of the movie.
+     *
+     * @param movieId a TMDB movie id.
+     * @param videoLinks the movie's video links.
+     */
+    public void putMovieVideoLinks(final long movieId, final List<VideoLink> videoLinks) {
+
+        Preconditions.checkNotNull(videoLinks, "videoLinks must not be null.");
+
+        final long now = System.currentTimeMillis();
+        final SQLiteDatabase db = mDbHelper.getWritableDatabase();
+        final List<String> videoLinkIds = new ArrayList<>(videoLinks.size());
+
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < videoLinks.size(); i++) {
+                final VideoLink videoLink = videoLinks.get(i);
+
+                final ContentValues values = new ContentValues();
+                values.put(VideoLinkEntry.ID, videoLink.getID());
+                values.put(VideoLinkEntry.MOVIE_ID, movieId);
+                values.put(VideoLinkEntry.POSITION, i);
+                values.put(VideoLinkEntry.KEY, videoLink.getKey());
+                values.put(VideoLinkEntry.NAME, videoLink.getName());
+                values.put(VideoLinkEntry.SITE, videoLink.getSite());
+                values.put(VideoLinkEntry.SIZE, videoLink.getSize());
+                values.put(VideoLinkEntry.TYPE, videoLink.getType());
+                putRecord(db, VideoLinkEntry.TABLE_NAME, VideoLinkEntry.ID, videoLink.getID(),
+                        values, now);
+                videoLinkIds.add(videoLink.getID());
+            }
+
+            deleteOtherRecords(db, VideoLinkEntry.TABLE_NAME, VideoLinkEntry.ID,
+                    VideoLinkEntry.MOVIE_ID, movieId, videoLinkIds);
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Close the underlying database. It is reopened on next use.
+     */
+    public void close() {
+        mDbHelper.close();
+    }
+
+    /*
+     * The ids of the movies of a stored movie list page, in list order.
+     */
+    private static List<Long> getMovieIds(final SQLiteDatabase db, final String movieList,
+                                          final String pageNumber) {
+
+        final Cursor cursor = db.query(movieList, new String[] {MovieListOrderColumns.MOVIE_ID},
+                MovieListOrderColumns.PAGE_NUMBER + " = ?", new String[] {pageNumber},
+                null, null, MovieListOrderColumns.POSITION);
+        try {
+            final List<Long> movieIds = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                movieIds.add(cursor.getLong(0));
+            }
+            return movieIds;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /*
+     * Movie list names are used as table names and so must never come from elsewhere.
+     */
+    private static void checkMovieList(final String movieList) {
+
+        Preconditions.checkNotNull(movieList, "movieList must not be null.");
+        Preconditions.checkArgument(
+                MovieList.POPULAR.equals(movieList) || MovieList.TOP_RATED.equals(movieList),
+                "movieList must be a MovieList.");
+    }
+
+    /*
+     * Insert or update a versioned record. The record's version is incremented only if its content
+     * changed. Returns true iff the record was inserted or its content changed.
+     */
+    private static boolean putRecord(final SQLiteDatabase db, final String tableName,
+                                     final String idColumn, final String id,
+                                     final ContentValues values, final long now) {
+
+        final String[] idArgs = {id};
+        final long version;
+        final boolean isChanged;
+
+        final Cursor cursor = db.query(tableName, null, idColumn + " = ?", idArgs,
+                null, null, null);
+        try {
+            if (cursor.moveToFirst()) {
+                final long storedVersion =
+                        cursor.getLong(cursor.getColumnIndexOrThrow(RecordColumns.VERSION));
+                isChanged = !isContentEqual(cursor, values);
+                version = isChanged ? storedVersion + 1 : storedVersion;
+            } else {
+                values.put(RecordColumns.VERSION, 1);
+                values.put(RecordColumns.UPDATED_AT, now);
+                db.insertOrThrow(tableName, null, values);
+                return true;
+            }
+        } finally {
+            cursor.close();
+        }
+
+        values.put(RecordColumns.VERSION, version);
+        values.put(RecordColumns.UPDATED_AT, now);
+        db.update(tableName, values, idColumn + " = ?", idArgs);
+        return isChanged;
+    }
+
+    /*
+     * Compare the current row of the given cursor with the given values, column by column, using
+     * the type of each value.
+     */
+    private static boolean isContentEqual(final Cursor cursor, final ContentValues values) {
+
+        for (Map.Entry<String, Object> value : values.valueSet()) {
+            final int columnIndex = cursor.getColumnIndexOrThrow(value.getKey());
+            final Object newValue = value.getValue();
+
+            final boolean isEqual;
+            if (newValue == null) {
+                isEqual = cursor.isNull(columnIndex);
+            } else if (newValue instanceof Double || newValue instanceof Float) {
+                isEqual = cursor.getDouble(columnIndex) == ((Number) newValue).doubleValue();
+            } else if (newValue instanceof Number) {
+                isEqual = cursor.getLong(columnIndex) == ((Number) newValue).longValue();
+            } else if (newValue instanceof Boolean) {
+                isEqual = (cursor.getInt(columnIndex) != 0) == (Boolean) newValue;
+            } else {
+                isEqual = newValue.toString().equals(cursor.getString(columnIndex));
+            }
+
+            if (!isEqual) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Delete the records of the given movie whose ids are not in the given list.
+     */
+    private static void deleteOtherRecords(final SQLiteDatabase db, final String tableName,
+                                           final String idColumn, final String movieIdColumn,
+                                           final long movieId, final List<String> keepIds) {
+
+        final StringBuilder whereClause = new StringBuilder(movieIdColumn).append(" = ?");
+        final String[] whereArgs = new String[keepIds.size() + 1];
+        whereArgs[0] = Long.toString(movieId);
+
+        if (!keepIds.isEmpty()) {
+            whereClause.append(" AND ").append(idColumn).append(" NOT IN (");
+            for (int i = 0; i < keepIds.size(); i++) {
+                whereClause.append((i == 0) ? "?" : ", ?");
+                whereArgs[i + 1] = keepIds.get(i);
+            }
+            whereClause.append(')');
+        }
+
+        db.delete(tableName, whereClause.toString(), whereArgs);
+    }
+
+    private static ContentValues toContentValues(final Movie movie) {
+
+        final ContentValues values = new ContentValues();
+        values.put(MovieEntry.ID, movie.getID());
+        values.put(MovieEntry.POSTER_PATH, movie.getPosterPath());
+        values.put(MovieEntry.IS_ADULT, movie.isAdult() ? 1 : 0);
+        values.put(MovieEntry.OVERVIEW, movie.getOverview());
+        values.put(MovieEntry.RELEASE_DATE, movie.getReleaseEpochDay());
+        values.put(MovieEntry.GENRE_IDS, GENRE_ID_JOINER.join(Longs.asList(movie.getGenreIDs())));
+        values.put(MovieEntry.ORIGINAL_TITLE, movie.getOriginalTitle());
+        values.put(MovieEntry.ORIGINAL_LANGUAGE_CODE, movie.getOriginalLanguageCode());
+        values.put(MovieEntry.TITLE, movie.getTitle());
+        values.put(MovieEntry.BACKDROP_PATH, movie.getBackdropPath());
+        values.put(MovieEntry.POPULARITY, movie.getPopularity());
+        values.put(MovieEntry.VOTE_COUNT, movie.getVoteCount());
+        values.put(MovieEntry.HAS_VIDEO, movie.hasVideo() ? 1 : 0);
+        values.put(MovieEntry.AVERAGE_VOTE, movie.getAverageVote());
+        return values;
+    }
+
+    private static Movie readMovie(final Cursor cursor) {
+
+        final List<Long> genreIDs = new ArrayList<>();
+        for (String genreID : GENRE_ID_SPLITTER.split(
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.GENRE_IDS)))) {
+            genreIDs.add(Long.parseLong(genreID));
+        }
+
+        return new Movie(
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.POSTER_PATH)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(MovieEntry.IS_ADULT)) != 0,
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.OVERVIEW)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(MovieEntry.RELEASE_DATE)),
+                Longs.toArray(genreIDs),
+                cursor.getLong(cursor.getColumnIndexOrThrow(MovieEntry.ID)),
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.ORIGINAL_TITLE)),
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.ORIGINAL_LANGUAGE_CODE)),
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.TITLE)),
+                cursor.getString(cursor.getColumnIndexOrThrow(MovieEntry.BACKDROP_PATH)),
+                cursor.getDouble(cursor.getColumnIndexOrThrow(MovieEntry.POPULARITY)),
+                cursor.getLong(cursor.getColumnIndexOrThrow(MovieEntry.VOTE_COUNT)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(MovieEntry.HAS_VIDEO)) != 0,
+                cursor.getDouble(cursor.getColumnIndexOrThrow(MovieEntry.AVERAGE_VOTE)));
+    }
+}
@@ -0,0 +1,211 @@
+package com.iopho.android.dataAccess.catalog;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A MovieListDiff describes how a page of a movie list changed between two versions, in terms of
+ * TMDB movie ids:
+ * <ul>
+ *     <li>inserted: movies in the new version only.</li>
+ *     <li>removed: movies in the old version only.</li>
+ *     <li>moved: movies in both versions whose position relative to the other movies changed. The
+ *     set is minimal: every movie not moved keeps its relative order.</li>
+ *     <li>changed: movies in both versions whose stored record content changed.</li>
+ * </ul>
+ */
+public class MovieListDiff {
+
+    private final List<Long> mInsertedMovieIds;
+    private final List<Long> mRemovedMovieIds;
+    private final List<Long> mMovedMovieIds;
+    private final List<Long> mChangedMovieIds;
+
+    private MovieListDiff(final List<Long> insertedMovieIds,
+                          final List<Long> removedMovieIds,
+                          final List<Long> movedMovieIds,
+                          final List<Long> changedMovieIds) {
+
+        this.mInsertedMovieIds = ImmutableList.copyOf(insertedMovieIds);
+        this.mRemovedMovieIds = ImmutableList.copyOf(removedMovieIds);
+        this.mMovedMovieIds = ImmutableList.copyOf(movedMovieIds);
+        this.mChangedMovieIds = ImmutableList.copyOf(changedMovieIds);
+    }
+
+    /**
+     * Compute the difference between two versions of a movie list page.
+     *
+     * @param oldMovieIds the movie ids of the old version, in list order.
+     * @param newMovieIds the movie ids of the new version, in list order.
+     * @param changedMovieIds the ids of movies whose record content changed.
+     * @return the MovieListDiff from the old to the new version.
+     */
+    static MovieListDiff compute(final List<Long> oldMovieIds, final List<Long> newMovieIds,
+                                 final Set<Long> changedMovieIds) {
+
+        Preconditions.checkNotNull(oldMovieIds, "oldMovieIds must not be null.");
+        Preconditions.checkNotNull(newMovieIds, "newMovieIds must not be null.");
+        Preconditions.checkNotNull(changedMovieIds, "changedMovieIds must not be null.");
+
+        final Map<Long, Integer> oldPositions = new HashMap<>();
+        for (int i = 0; i < oldMovieIds.size(); i++) {
+            if (!oldPositions.containsKey(oldMovieIds.get(i))) {
+                oldPositions.put(oldMovieIds.get(i), i);
+            }
+        }
+
+        final List<Long> insertedMovieIds = new ArrayList<>();
+        final List<Long> commonMovieIds = new ArrayList<>();
+        final List<Integer> commonOldPositions = new ArrayList<>();
+        final Set<Long> newMovieIdSet = new HashSet<>();
+        for (Long movieId : newMovieIds) {
+            if (!newMovieIdSet.add(movieId)) {
+                // A duplicate within the page. Only its first occurrence counts.
+                continue;
+            }
+
+            final Integer oldPosition = oldPositions.get(movieId);
+            if (oldPosition == null) {
+                insertedMovieIds.add(movieId);
+            } else {
+                commonMovieIds.add(movieId);
+                commonOldPositions.add(oldPosition);
+            }
+        }
+
+        final List<Long> removedMovieIds = new ArrayList<>();
+        for (Long movieId : oldPositions.keySet()) {
+            if (!newMovieIdSet.contains(movieId)) {
+                removedMovieIds.add(movieId);
+            }
+        }
+        Collections.sort(removedMovieIds, new PositionComparator(oldPositions));
+
+        // Movies in the longest run that kept its relative order stay put; all others moved.
+        final boolean[] isInPlace = longestIncreasingSubsequence(commonOldPositions);
+        final List<Long> movedMovieIds = new ArrayList<>();
+        final List<Long> changedCommonMovieIds = new ArrayList<>();
+        for (int i = 0; i < commonMovieIds.size(); i++) {
+            final Long movieId = commonMovieIds.get(i);
+            if (!isInPlace[i]) {
+                movedMovieIds.add(movieId);
+            }
+            if (changedMovieIds.contains(movieId)) {
+                changedCommonMovieIds.add(movieId);
+            }
+        }
+
+        return new MovieListDiff(insertedMovieIds, removedMovieIds, movedMovieIds,
+                changedCommonMovieIds);
+    }
+
+    /**
+     * @return true iff both versions hold the same movies, in the same order, with the same
+     * content.
+     */
+    public boolean isEmpty() {
+        return mInsertedMovieIds.isEmpty() && mRemovedMovieIds.isEmpty() &&
+                mMovedMovieIds.isEmpty() && mChangedMovieIds.isEmpty();
+    }
+
+    /**
+     * @return ids of movies in the new version only, in new list order.
+     */
+    public List<Long> getInsertedMovieIds() {
+        return mInsertedMovieIds;
+    }
+
+    /**
+     * @return ids of movies in the old version only, in old list order.
+     */
+    public List<Long> getRemovedMovieIds() {
+        return mRemovedMovieIds;
+    }
+
+    /**
+     * @return ids of movies whose relative position changed, in new list order.
+     */
+    public List<Long> getMovedMovieIds() {
+        return mMovedMovieIds;
+    }
+
+    /**
+     * @return ids of movies in both versions whose content changed, in new list order.
+     */
+    public List<Long> getChangedMovieIds() {
+        return mChangedMovieIds;
+    }
+
+    @Override
+    public String toString() {
+        return "[ InsertedMovieIds=" + mInsertedMovieIds +
+                ", RemovedMovieIds=" + mRemovedMovieIds +
+                ", MovedMovieIds=" + mMovedMovieIds +
+                ", ChangedMovieIds=" + mChangedMovieIds +
+                " ]";
+    }
+
+    /*
+     * Mark the elements of one longest strictly increasing subsequence of the given values
+     * (O(n log n) patience sorting).
+     */
+    private static boolean[] longestIncreasingSubsequence(final List<Integer> values) {
+
+        final int n = values.size();
+        // tailIndices[k]: index of the smallest tail of all increasing subsequences of length k+1.
+        final int[] tailIndices = new int[n];
+        final int[] predecessors = new int[n];
+        int length = 0;
+
+        for (int i = 0; i < n; i++) {
+            final int value = values.get(i);
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (values.get(tailIndices[mid]) < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[i] = (low > 0) ? tailIndices[low - 1] : -1;
+            tailIndices[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        final boolean[] isInSubsequence = new boolean[n];
+        for (int i = (length > 0) ? tailIndices[length - 1] : -1; i >= 0; i = predecessors[i]) {
+            isInSubsequence[i] = true;
+        }
+        return isInSubsequence;
+    }
+
+    /*
+     * Orders movie ids by their position in a list.
+     */
+    private static class PositionComparator implements Comparator<Long> {
+
+        private final Map<Long, Integer> mPositions;
+
+        PositionComparator(final Map<Long, Integer> positions) {
+            this.mPositions = positions;
+        }
+
+        @Override
+        public int compare(final Long lhs, final Long rhs) {
+            return mPositions.get(lhs).compareTo(mPositions.get(rhs));
+        }
+    }
+}
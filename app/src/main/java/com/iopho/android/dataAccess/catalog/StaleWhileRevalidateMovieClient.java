@@ -0,0 +1,264 @@
+package com.iopho.android.dataAccess.catalog;
+
+import android.database.SQLException;
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.TMDBMovieClient;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A StaleWhileRevalidateMovieClient is a {@link TMDBMovieClient} decorator which serves the movie
+ * list endpoints from a {@link MovieCatalogStore}.
+ *
+ * When a requested page of the popular or top rated movies is stored, it is returned immediately,
+ * however old, and refreshed from TMDB in the background unless it was stored within the
+ * <b>freshness</b> period. When the refreshed page differs from the stored one, registered
+ * {@link Listener}s are notified with a {@link MovieListDiff}. When the page is not stored, it is
+ * requested from TMDB (and stored) before returning.
+ *
+ * Movie list pages are requested through a separate client that must not serve results from
+ * memory, so that a page is only stored as updated when it came from TMDB. Concurrent refreshes of
+ * the same page are collapsed. Reviews, video links and movie details are requested from TMDB
+ * directly.
+ *
+ * This class is thread safe.
+ */
+public class StaleWhileRevalidateMovieClient implements TMDBMovieClient {
+
+    private static final String LOG_TAG = StaleWhileRevalidateMovieClient.class.getSimpleName();
+
+    /**
+     * A Listener is notified when a background refresh changes a stored movie list page.
+     * Callbacks are invoked on a background thread.
+     */
+    public interface Listener {
+
+        /**
+         * Invoked when a stored movie list page has been refreshed and differs from the page
+         * previously returned.
+         *
+         * @param movieList the {@link MovieCatalogStore.MovieList} of the page.
+         * @param moviePage the refreshed page.
+         * @param diff the changes from the previously stored page.
+         */
+        void onMoviePageRefreshed(@MovieCatalogStore.MovieList.Def String movieList,
+                                  DataPage<Movie> moviePage, MovieListDiff diff);
+    }
+
+    private final TMDBMovieClient mDelegate;
+    private final TMDBMovieClient mMovieListDelegate;
+    private final MovieCatalogStore mMovieCatalogStore;
+    private final Executor mRefreshExecutor;
+    private final long mFreshnessMillis;
+
+    private final List<Listener> mListeners;
+    private final Set<String> mRefreshingPages;
+
+    /**
+     * Construct a new StaleWhileRevalidateMovieClient.
+     *
+     * @param delegate the {@link TMDBMovieClient} to request reviews, video links and movie
+     *                 details through.
+     * @param movieListDelegate the {@link TMDBMovieClient} to request movie list pages through.
+     *                          It must not serve results from memory, or a refresh would not
+     *                          reach TMDB.
+     * @param movieCatalogStore the {@link MovieCatalogStore} holding stored pages.
+     * @param refreshExecutor the {@link Executor} to refresh stored pages on.
+     * @param freshnessMillis the period, in milliseconds, after a page is stored during which it
+     *                        is served without being refreshed. Must be non-negative. 0 refreshes
+     *                        on every request.
+     */
+    public StaleWhileRevalidateMovieClient(final TMDBMovieClient delegate,
+                                           final TMDBMovieClient movieListDelegate,
+                                           final MovieCatalogStore movieCatalogStore,
+                                           final Executor refreshExecutor,
+                                           final long freshnessMillis) {
+
+        Preconditions.checkNotNull(delegate, "delegate must not be null.");
+        Preconditions.checkNotNull(movieListDelegate, "movieListDelegate must not be null.");
+        Preconditions.checkNotNull(movieCatalogStore, "movieCatalogStore must not be null.");
+        Preconditions.checkNotNull(refreshExecutor, "refreshExecutor must not be null.");
+        Preconditions.checkArgument(freshnessMillis >= 0, "freshnessMillis must be non-negative.");
+
+        this.mDelegate = delegate;
+        this.mMovieListDelegate = movieListDelegate;
+        this.mMovieCatalogStore = movieCatalogStore;
+        this.mRefreshExecutor = refreshExecutor;
+        this.mFreshnessMillis = freshnessMillis;
+        this.mListeners = new CopyOnWriteArrayList<>();
+        this.mRefreshingPages =
+                Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+
+    /**
+     * Register a {@link Listener} to be notified of refreshed pages.
+     *
+     * @param listener the listener to register.
+     */
+    public void addListener(final Listener listener) {
+
+        Preconditions.checkNotNull(listener, "listener must not be null.");
+        mListeners.add(listener);
+    }
+
+    /**
+     * Unregister a previously registered {@link Listener}.
+     *
+     * @param listener the listener to unregister.
+     */
+    public void removeListener(final Listener listener) {
+
+        Preconditions.checkNotNull(listener, "listener must not be null.");
+        mListeners.remove(listener);
+    }
+
+    @Override
+    public DataPage<Movie> getTopRatedMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return getMoviePage(MovieCatalogStore.MovieList.TOP_RATED, pageNumber);
+    }
+
+    @Override
+    public DataPage<Movie> getPopularMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return getMoviePage(MovieCatalogStore.MovieList.POPULAR, pageNumber);
+    }
+
+    @Override
+    public DataPage<Review> getMovieReviews(final long movieId, final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return mDelegate.getMovieReviews(movieId, pageNumber);
+    }
+
+    @Override
+    public List<VideoLink> getMovieVideoLinks(final long movieId)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return mDelegate.getMovieVideoLinks(movieId);
+    }
+
+    @Override
+    public MovieDetails getMovieDetails(final long movieId,
+                                        final @MovieDetails.Part.Def String... parts)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return mDelegate.getMovieDetails(movieId, parts);
+    }
+
+    private DataPage<Movie> getMoviePage(final @MovieCatalogStore.MovieList.Def String movieList,
+                                         final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        DataPage<Movie> storedMoviePage = null;
+        long storedAt = -1;
+        try {
+            storedMoviePage = mMovieCatalogStore.getMoviePage(movieList, pageNumber);
+            if (storedMoviePage != null) {
+                storedAt = mMovieCatalogStore.getMoviePageUpdatedAt(movieList, pageNumber);
+            }
+        } catch (SQLException ex) {
+            Log.e(LOG_TAG, "Failed to read stored movie page. Requesting it from TMDB.", ex);
+        }
+
+        if (storedMoviePage == null) {
+            final DataPage<Movie> moviePage = requestMoviePage(movieList, pageNumber);
+            storeMoviePage(movieList, moviePage);
+            return moviePage;
+        }
+
+        if (System.currentTimeMillis() - storedAt >= mFreshnessMillis) {
+            scheduleRefresh(movieList, pageNumber);
+        }
+        return storedMoviePage;
+    }
+
+    private void scheduleRefresh(final @MovieCatalogStore.MovieList.Def String movieList,
+                                 final int pageNumber) {
+
+        final String pageKey = movieList + "|" + pageNumber;
+        if (!mRefreshingPages.add(pageKey)) {
+            // Already being refreshed.
+            return;
+        }
+
+        try {
+            mRefreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh(movieList, pageNumber);
+                    } finally {
+                        mRefreshingPages.remove(pageKey);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            mRefreshingPages.remove(pageKey);
+            Log.w(LOG_TAG, "Movie page refresh rejected.", ex);
+        }
+    }
+
+    private void refresh(final @MovieCatalogStore.MovieList.Def String movieList,
+                         final int pageNumber) {
+
+        final DataPage<Movie> moviePage;
+        try {
+            moviePage = requestMoviePage(movieList, pageNumber);
+        } catch (DataAccessRequestException | DataAccessParsingException ex) {
+            Log.w(LOG_TAG, "Failed to refresh stored movie page. Serving it stale.", ex);
+            return;
+        }
+
+        final MovieListDiff diff = storeMoviePage(movieList, moviePage);
+        if (diff == null || diff.isEmpty()) {
+            return;
+        }
+
+        Log.d(LOG_TAG, String.format("Refreshed %s page %d: %s", movieList, pageNumber, diff));
+        for (Listener listener : mListeners) {
+            try {
+                listener.onMoviePageRefreshed(movieList, moviePage, diff);
+            } catch (RuntimeException ex) {
+                Log.e(LOG_TAG, "Movie page refresh listener failed", ex);
+            }
+        }
+    }
+
+    private DataPage<Movie> requestMoviePage(
+            final @MovieCatalogStore.MovieList.Def String movieList, final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        if (MovieCatalogStore.MovieList.TOP_RATED.equals(movieList)) {
+            return mMovieListDelegate.getTopRatedMovies(pageNumber);
+        } else {
+            return mMovieListDelegate.getPopularMovies(pageNumber);
+        }
+    }
+
+    /*
+     * Returns the diff from the previously stored page, or null if the page could not be stored.
+     */
+    private MovieListDiff storeMoviePage(final @MovieCatalogStore.MovieList.Def String movieList,
+                                         final DataPage<Movie> moviePage) {
+
+        try {
+            return mMovieCatalogStore.putMoviePage(movieList, moviePage);
+        } catch (SQLException ex) {
+            Log.e(LOG_TAG, "Failed to store movie page.", ex);
+            return null;
+        }
+    }
+}
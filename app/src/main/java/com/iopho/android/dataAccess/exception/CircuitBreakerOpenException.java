@@ -0,0 +1,44 @@
+package com.iopho.android.dataAccess.exception;
+
+/**
+ * A CircuitBreakerOpenException indicates that a request to a data source was not attempted
+ * because the data source is considered unavailable (its circuit breaker is open).
+ *
+ * Requests failing with a CircuitBreakerOpenException fail fast. Callers may fall back to cached
+ * data and retry once {@link #getRetryAfterMillis()} has elapsed.
+ */
+public class CircuitBreakerOpenException extends DataAccessRequestException {
+
+    private final String mHost;
+    private final long mRetryAfterMillis;
+
+    /**
+     * Construct a new CircuitBreakerOpenException.
+     *
+     * @param host the host considered unavailable.
+     * @param retryAfterMillis the time, in milliseconds, until a request to the host is next
+     *                         attempted.
+     * @param throwable the failure that caused the circuit breaker to open, or null.
+     */
+    public CircuitBreakerOpenException(final String host, final long retryAfterMillis,
+                                       final Throwable throwable) {
+        super(String.format("Circuit breaker for host %s is open. Retry after %d ms.",
+                host, retryAfterMillis), throwable);
+        this.mHost = host;
+        this.mRetryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return the host considered unavailable.
+     */
+    public String getHost() {
+        return mHost;
+    }
+
+    /**
+     * @return the time, in milliseconds, until a request to the host is next attempted.
+     */
+    public long getRetryAfterMillis() {
+        return mRetryAfterMillis;
+    }
+}
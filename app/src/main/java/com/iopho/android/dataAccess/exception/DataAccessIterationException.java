@@ -0,0 +1,19 @@
+package com.iopho.android.dataAccess.exception;
+
+/**
+ * A DataAccessIterationException indicates an error when requesting or parsing data while
+ * iterating over a data source. Since {@link java.util.Iterator} methods cannot throw checked
+ * exceptions, the underlying {@link DataAccessRequestException} or
+ * {@link DataAccessParsingException} is stored as the cause.
+ */
+public class DataAccessIterationException extends RuntimeException {
+
+    /**
+     * Construct a new DataAccessIterationException.
+     *
+     * @see {@link RuntimeException#RuntimeException(String, Throwable)}
+     */
+    public DataAccessIterationException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+}
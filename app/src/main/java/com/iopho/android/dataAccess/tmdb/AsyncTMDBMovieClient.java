@@ -0,0 +1,72 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.util.List;
+
+/**
+ * An asynchronous TMDB (The Movie Database) client.
+ *
+ * An AsyncTMDBMovieClient mirrors {@link TMDBMovieClient}, but its methods return immediately with
+ * a {@link ListenableFuture} of the result, so that requests can be fanned out and composed (see
+ * {@link TMDBFutures}) without a blocking caller per request. A future fails with the
+ * {@link DataAccessRequestException} or {@link DataAccessParsingException} the equivalent
+ * {@link TMDBMovieClient} method would throw. Cancelling a future aborts its request.
+ *
+ * @see <a href="https://www.themoviedb.org/">https://www.themoviedb.org</a>
+ * @see <a href="http://docs.themoviedb.apiary.io">TMDB API Documentation</a>
+ */
+public interface AsyncTMDBMovieClient {
+
+    /**
+     * Queries TMDB to retrieve a page of Movies sorted by rating.
+     *
+     * @param pageNumber page number of movies to return. Must be in range: [1, 1000].
+     * @return a future {@link DataPage} of {@link Movie} results from the TMDB TopRated result
+     * set.
+     */
+    ListenableFuture<DataPage<Movie>> getTopRatedMovies(int pageNumber);
+
+    /**
+     * Queries TMDB to retrieve a page of Movies sorted by popularity.
+     *
+     * @param pageNumber page number of movies to return. Must be in range: [1, 1000].
+     * @return a future {@link DataPage} of {@link Movie} results from the TMDB Popular result set.
+     */
+    ListenableFuture<DataPage<Movie>> getPopularMovies(int pageNumber);
+
+    /**
+     * Queries TMDB to retrieve a page of Reviews for a Movie identified by a given ID.
+     *
+     * @param movieId the unique TMDB identifier of the movie to query reviews for.
+     * @param pageNumber page number of reviews to return. Must be in range: [1, 1000].
+     * @return a future {@link DataPage} of {@link Review}s.
+     */
+    ListenableFuture<DataPage<Review>> getMovieReviews(long movieId, int pageNumber);
+
+    /**
+     * Queries TMDB to retrieve the video links of a Movie identified by a given ID.
+     *
+     * @param movieId the unique TMDB identifier of the movie to query video links for.
+     * @return a future list of {@link VideoLink}s.
+     */
+    ListenableFuture<List<VideoLink>> getMovieVideoLinks(long movieId);
+
+    /**
+     * Queries TMDB to retrieve a Movie identified by a given ID along with any of its related
+     * resources in a single request.
+     *
+     * @param movieId the unique TMDB identifier of the movie to query.
+     * @param parts the {@link MovieDetails.Part}s to fetch along with the movie.
+     * @return a future {@link MovieDetails}.
+     */
+    ListenableFuture<MovieDetails> getMovieDetails(long movieId,
+                                                   @MovieDetails.Part.Def String... parts);
+}
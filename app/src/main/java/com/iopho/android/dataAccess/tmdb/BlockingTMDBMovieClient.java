@@ -0,0 +1,96 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A BlockingTMDBMovieClient is a {@link TMDBMovieClient} adapter over an
+ * {@link AsyncTMDBMovieClient}: each method waits for the result of the corresponding future.
+ *
+ * If the calling thread is interrupted while waiting, the future is cancelled and a
+ * {@link DataAccessRequestException} is thrown.
+ *
+ * This class is thread safe.
+ */
+public class BlockingTMDBMovieClient implements TMDBMovieClient {
+
+    private final AsyncTMDBMovieClient mDelegate;
+
+    /**
+     * Construct a new BlockingTMDBMovieClient.
+     *
+     * @param delegate the {@link AsyncTMDBMovieClient} to make requests through.
+     */
+    public BlockingTMDBMovieClient(final AsyncTMDBMovieClient delegate) {
+
+        Preconditions.checkNotNull(delegate, "delegate must not be null.");
+        this.mDelegate = delegate;
+    }
+
+    @Override
+    public DataPage<Movie> getTopRatedMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return await(mDelegate.getTopRatedMovies(pageNumber));
+    }
+
+    @Override
+    public DataPage<Movie> getPopularMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return await(mDelegate.getPopularMovies(pageNumber));
+    }
+
+    @Override
+    public DataPage<Review> getMovieReviews(final long movieId, final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return await(mDelegate.getMovieReviews(movieId, pageNumber));
+    }
+
+    @Override
+    public List<VideoLink> getMovieVideoLinks(final long movieId)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return await(mDelegate.getMovieVideoLinks(movieId));
+    }
+
+    @Override
+    public MovieDetails getMovieDetails(final long movieId,
+                                        final @MovieDetails.Part.Def String... parts)
+            throws DataAccessRequestException, DataAccessParsingException {
+        return await(mDelegate.getMovieDetails(movieId, parts));
+    }
+
+    private static <T> T await(final Future<T> future)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DataAccessRequestException("Interrupted while awaiting a TMDB request.", ex);
+        } catch (CancellationException ex) {
+            throw new DataAccessRequestException("TMDB request was cancelled.", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof DataAccessRequestException) {
+                throw (DataAccessRequestException) cause;
+            } else if (cause instanceof DataAccessParsingException) {
+                throw (DataAccessParsingException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new DataAccessRequestException("TMDB request failed.", cause);
+            }
+        }
+    }
+}
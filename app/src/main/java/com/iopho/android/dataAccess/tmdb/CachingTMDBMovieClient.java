@@ -0,0 +1,288 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableMap;
+import com.iopho.android.dataAccess.DataAccessMetrics;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A CachingTMDBMovieClient is a {@link TMDBMovieClient} decorator which keeps recently returned
+ * results in memory, so that repeating a query (e.g. toggling the sort order back and forth)
+ * returns instantly without a request or a parse.
+ *
+ * The cache is bounded by weight: each result weighs the number of items it holds (plus one, so
+ * empty results are not free). Once the maximum weight is exceeded, least recently used results
+ * are evicted. Each endpoint has its own time to live; results of endpoints without one are not
+ * cached.
+ *
+ * Since cached results are shared between callers, they must be treated as read-only.
+ *
+ * This class is thread safe.
+ */
+class CachingTMDBMovieClient implements TMDBMovieClient, DataAccessMetrics.CacheCounters {
+
+    private final TMDBMovieClient mDelegate;
+    private final Map<String, Long> mTTLNanosByEndpoint;
+    private final Cache<String, Entry> mCache;
+
+    private final AtomicLong mHitCount;
+    private final AtomicLong mMissCount;
+    private final AtomicLong mExpirationCount;
+
+    /**
+     * Construct a new CachingTMDBMovieClient.
+     *
+     * @param delegate the {@link TMDBMovieClient} to query on a cache miss.
+     * @param maxWeight the maximum total weight (number of result items) of all cached results.
+     *                  Must be positive.
+     * @param ttlMillisByEndpoint the time to live, in milliseconds, of cached results keyed by
+     *                            {@link TMDBURLBuilder.Endpoint}. Results of endpoints absent from
+     *                            the map, or with a non-positive time to live, are not cached.
+     */
+    CachingTMDBMovieClient(final TMDBMovieClient delegate, final long maxWeight,
+                           final Map<String, Long> ttlMillisByEndpoint) {
+
+        Preconditions.checkNotNull(delegate, "delegate must not be null.");
+        Preconditions.checkArgument(maxWeight > 0, "maxWeight must be positive.");
+        Preconditions.checkNotNull(ttlMillisByEndpoint, "ttlMillisByEndpoint must not be null.");
+
+        final ImmutableMap.Builder<String, Long> ttlNanosByEndpoint = ImmutableMap.builder();
+        for (Map.Entry<String, Long> ttlMillis : ttlMillisByEndpoint.entrySet()) {
+            if (ttlMillis.getValue() > 0) {
+                ttlNanosByEndpoint.put(ttlMillis.getKey(),
+                        TimeUnit.MILLISECONDS.toNanos(ttlMillis.getValue()));
+            }
+        }
+
+        this.mDelegate = delegate;
+        this.mTTLNanosByEndpoint = ttlNanosByEndpoint.build();
+        this.mCache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(new Weigher<String, Entry>() {
+                    @Override
+                    public int weigh(final String key, final Entry entry) {
+                        return entry.mWeight;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.mHitCount = new AtomicLong();
+        this.mMissCount = new AtomicLong();
+        this.mExpirationCount = new AtomicLong();
+    }
+
+    @Override
+    public DataPage<Movie> getTopRatedMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String endpoint = TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED;
+        final String key = TMDBURLBuilder.buildQueryKey(endpoint, 0, pageNumber);
+
+        DataPage<Movie> result = get(endpoint, key);
+        if (result == null) {
+            result = mDelegate.getTopRatedMovies(pageNumber);
+            put(endpoint, key, result, result.getResults().size());
+        }
+        return result;
+    }
+
+    @Override
+    public DataPage<Movie> getPopularMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String endpoint = TMDBURLBuilder.Endpoint.MOVIES_POPULAR;
+        final String key = TMDBURLBuilder.buildQueryKey(endpoint, 0, pageNumber);
+
+        DataPage<Movie> result = get(endpoint, key);
+        if (result == null) {
+            result = mDelegate.getPopularMovies(pageNumber);
+            put(endpoint, key, result, result.getResults().size());
+        }
+        return result;
+    }
+
+    @Override
+    public DataPage<Review> getMovieReviews(final long movieId, final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String endpoint = TMDBURLBuilder.Endpoint.MOVIE_REVIEWS;
+        final String key = TMDBURLBuilder.buildQueryKey(endpoint, movieId, pageNumber);
+
+        DataPage<Review> result = get(endpoint, key);
+        if (result == null) {
+            result = mDelegate.getMovieReviews(movieId, pageNumber);
+            put(endpoint, key, result, result.getResults().size());
+        }
+        return result;
+    }
+
+    @Override
+    public List<VideoLink> getMovieVideoLinks(final long movieId)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String endpoint = TMDBURLBuilder.Endpoint.MOVIE_VIDEOS;
+        final String key = TMDBURLBuilder.buildQueryKey(endpoint, movieId, 0);
+
+        List<VideoLink> result = get(endpoint, key);
+        if (result == null) {
+            result = mDelegate.getMovieVideoLinks(movieId);
+            put(endpoint, key, result, result.size());
+        }
+        return result;
+    }
+
+    @Override
+    public MovieDetails getMovieDetails(final long movieId,
+                                        final @MovieDetails.Part.Def String... parts)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String endpoint = TMDBURLBuilder.Endpoint.MOVIE;
+        final String key = TMDBURLBuilder.buildQueryKey(endpoint, movieId, 0) + "|" +
+                TMDBURLBuilder.buildAppendToResponse(parts);
+
+        MovieDetails result = get(endpoint, key);
+        if (result == null) {
+            result = mDelegate.getMovieDetails(movieId, parts);
+            put(endpoint, key, result, getItemCount(result));
+        }
+        return result;
+    }
+
+    /**
+     * Discard all cached results.
+     */
+    public void invalidateAll() {
+        mCache.invalidateAll();
+    }
+
+    /**
+     * @return the number of queries served from the cache.
+     */
+    @Override
+    public long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * @return the number of cacheable queries not found in the cache (including expired results).
+     */
+    @Override
+    public long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * @return the number of cached results discarded because their time to live elapsed.
+     */
+    public long getExpirationCount() {
+        return mExpirationCount.get();
+    }
+
+    /**
+     * @return the number of cached results evicted to keep within the maximum weight.
+     */
+    public long getEvictionCount() {
+        return mCache.stats().evictionCount();
+    }
+
+    /**
+     * @return the number of results currently cached.
+     */
+    public long getSize() {
+        return mCache.size();
+    }
+
+    @Override
+    public String toString() {
+        return "[ HitCount=" + getHitCount() +
+                ", MissCount=" + getMissCount() +
+                ", ExpirationCount=" + getExpirationCount() +
+                ", EvictionCount=" + getEvictionCount() +
+                ", Size=" + getSize() +
+                " ]";
+    }
+
+    /*
+     * Look up a cached result. Returns null on a miss, or if the endpoint is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(final String endpoint, final String key) {
+
+        if (!mTTLNanosByEndpoint.containsKey(endpoint)) {
+            return null;
+        }
+
+        final Entry entry = mCache.getIfPresent(key);
+        if (entry == null) {
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        if (System.nanoTime() - entry.mExpiresAtNanos >= 0) {
+            // Only discard the entry if it has not since been replaced with a fresh one.
+            mCache.asMap().remove(key, entry);
+            mExpirationCount.incrementAndGet();
+            mMissCount.incrementAndGet();
+            return null;
+        }
+
+        mHitCount.incrementAndGet();
+        return (T) entry.mValue;
+    }
+
+    /*
+     * The movie counts as one item, plus each of its video links and reviews.
+     */
+    private static int getItemCount(final MovieDetails movieDetails) {
+
+        int itemCount = 1;
+        if (movieDetails.getVideoLinks() != null) {
+            itemCount += movieDetails.getVideoLinks().size();
+        }
+        if (movieDetails.getReviews() != null) {
+            itemCount += movieDetails.getReviews().getResults().size();
+        }
+        return itemCount;
+    }
+
+    private void put(final String endpoint, final String key, final Object value,
+                     final int itemCount) {
+
+        final Long ttlNanos = mTTLNanosByEndpoint.get(endpoint);
+        if (ttlNanos == null) {
+            return;
+        }
+
+        mCache.put(key, new Entry(value, System.nanoTime() + ttlNanos, itemCount + 1));
+    }
+
+    /*
+     * A cached result along with its expiry time (System#nanoTime) and weight.
+     */
+    private static class Entry {
+
+        private final Object mValue;
+        private final long mExpiresAtNanos;
+        private final int mWeight;
+
+        Entry(final Object value, final long expiresAtNanos, final int weight) {
+            this.mValue = value;
+            this.mExpiresAtNanos = expiresAtNanos;
+            this.mWeight = weight;
+        }
+    }
+}
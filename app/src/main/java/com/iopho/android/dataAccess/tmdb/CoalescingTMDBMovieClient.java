@@ -0,0 +1,245 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.SettableFuture;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+import com.iopho.android.util.CancellationToken;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A CoalescingTMDBMovieClient is a {@link TMDBMovieClient} decorator which collapses concurrent
+ * identical queries into a single request (single-flight).
+ *
+ * Queries are identified by their endpoint, record id and page number (and, for movie details, the
+ * set of requested parts). The first caller for a
+ * query makes the request through the delegate {@link TMDBMovieClient}. Callers asking for the
+ * same query while that request is in flight block until it completes and then share its result
+ * (or its exception). Once a request completes, the next identical query makes a new request;
+ * results are not cached.
+ *
+ * Since results are shared between callers, they must be treated as read-only. A request is made
+ * on behalf of its first caller (see {@link CancellationToken#current()}); if that caller cancels
+ * it, the other callers are not failed but make the request again.
+ *
+ * This class is thread safe.
+ */
+class CoalescingTMDBMovieClient implements TMDBMovieClient {
+
+    // Shared with waiting callers in place of the result of a request cancelled by its caller.
+    private static final Object CANCELLED_REQUEST = new Object();
+
+    private final TMDBMovieClient mDelegate;
+
+    // Query key -> the result of the request in flight for that query.
+    private final ConcurrentMap<String, SettableFuture<Object>> mInFlightRequests;
+
+    private final AtomicLong mRequestCount;
+    private final AtomicLong mCoalescedRequestCount;
+
+    /**
+     * Construct a new CoalescingTMDBMovieClient.
+     *
+     * @param delegate the {@link TMDBMovieClient} to make requests through.
+     */
+    CoalescingTMDBMovieClient(final TMDBMovieClient delegate) {
+
+        Preconditions.checkNotNull(delegate, "delegate must not be null.");
+
+        this.mDelegate = delegate;
+        this.mInFlightRequests = new ConcurrentHashMap<>();
+        this.mRequestCount = new AtomicLong();
+        this.mCoalescedRequestCount = new AtomicLong();
+    }
+
+    @Override
+    public DataPage<Movie> getTopRatedMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String key = TMDBURLBuilder.buildQueryKey(
+                TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED, 0, pageNumber);
+
+        return coalesce(key, new Request<DataPage<Movie>>() {
+            @Override
+            public DataPage<Movie> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getTopRatedMovies(pageNumber);
+            }
+        });
+    }
+
+    @Override
+    public DataPage<Movie> getPopularMovies(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String key = TMDBURLBuilder.buildQueryKey(
+                TMDBURLBuilder.Endpoint.MOVIES_POPULAR, 0, pageNumber);
+
+        return coalesce(key, new Request<DataPage<Movie>>() {
+            @Override
+            public DataPage<Movie> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getPopularMovies(pageNumber);
+            }
+        });
+    }
+
+    @Override
+    public DataPage<Review> getMovieReviews(final long movieId, final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String key = TMDBURLBuilder.buildQueryKey(
+                TMDBURLBuilder.Endpoint.MOVIE_REVIEWS, movieId, pageNumber);
+
+        return coalesce(key, new Request<DataPage<Review>>() {
+            @Override
+            public DataPage<Review> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getMovieReviews(movieId, pageNumber);
+            }
+        });
+    }
+
+    @Override
+    public List<VideoLink> getMovieVideoLinks(final long movieId)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String key = TMDBURLBuilder.buildQueryKey(
+                TMDBURLBuilder.Endpoint.MOVIE_VIDEOS, movieId, 0);
+
+        return coalesce(key, new Request<List<VideoLink>>() {
+            @Override
+            public List<VideoLink> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getMovieVideoLinks(movieId);
+            }
+        });
+    }
+
+    @Override
+    public MovieDetails getMovieDetails(final long movieId,
+                                        final @MovieDetails.Part.Def String... parts)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String key = TMDBURLBuilder.buildQueryKey(
+                TMDBURLBuilder.Endpoint.MOVIE, movieId, 0) + "|" +
+                TMDBURLBuilder.buildAppendToResponse(parts);
+
+        return coalesce(key, new Request<MovieDetails>() {
+            @Override
+            public MovieDetails execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getMovieDetails(movieId, parts);
+            }
+        });
+    }
+
+    /**
+     * @return the total number of queries made through this client.
+     */
+    public long getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * @return the number of queries which were served by joining an identical in-flight request
+     * rather than making a request of their own.
+     */
+    public long getCoalescedRequestCount() {
+        return mCoalescedRequestCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[ RequestCount=" + getRequestCount() +
+                ", CoalescedRequestCount=" + getCoalescedRequestCount() +
+                ", InFlightRequestCount=" + mInFlightRequests.size() +
+                " ]";
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(final String key, final Request<T> request)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        mRequestCount.incrementAndGet();
+
+        while (true) {
+            final SettableFuture<Object> future = SettableFuture.create();
+            final SettableFuture<Object> inFlightFuture =
+                    mInFlightRequests.putIfAbsent(key, future);
+            if (inFlightFuture != null) {
+                mCoalescedRequestCount.incrementAndGet();
+                final Object result = await(inFlightFuture);
+                if (result == CANCELLED_REQUEST) {
+                    // The request was cancelled on behalf of its first caller only. Try again.
+                    continue;
+                }
+                return (T) result;
+            }
+
+            try {
+                final T result = request.execute();
+                future.set(result);
+                return result;
+            } catch (DataAccessRequestException | DataAccessParsingException |
+                    RuntimeException ex) {
+                if (CancellationToken.current().isCancelled()) {
+                    // Other callers did not ask to cancel. Unblock them to make their own request.
+                    mInFlightRequests.remove(key, future);
+                    future.set(CANCELLED_REQUEST);
+                } else {
+                    future.setException(ex);
+                }
+                throw ex;
+            } catch (Error error) {
+                // Never leave the callers awaiting this request blocked.
+                future.setException(error);
+                throw error;
+            } finally {
+                mInFlightRequests.remove(key, future);
+            }
+        }
+    }
+
+    private static Object await(final SettableFuture<Object> future)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessRequestException(
+                    "Interrupted while awaiting an in-flight TMDB request.", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof DataAccessRequestException) {
+                throw (DataAccessRequestException) cause;
+            } else if (cause instanceof DataAccessParsingException) {
+                throw (DataAccessParsingException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new DataAccessRequestException("In-flight TMDB request failed.", cause);
+            }
+        }
+    }
+
+    /*
+     * A single query against the delegate TMDBMovieClient.
+     */
+    private interface Request<T> {
+        T execute() throws DataAccessRequestException, DataAccessParsingException;
+    }
+}
@@ -0,0 +1,153 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+import com.iopho.android.util.CancellationToken;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An ExecutorAsyncTMDBMovieClient is an {@link AsyncTMDBMovieClient} which runs the requests of a
+ * blocking {@link TMDBMovieClient} on an {@link Executor}.
+ *
+ * The executor bounds how many requests run at once: a fan-out of any size occupies at most as
+ * many threads as the executor has. Each request is bound to its own {@link CancellationToken},
+ * cancelled along with its future, so cancelling a future aborts an in-flight download.
+ *
+ * This class is thread safe.
+ */
+public class ExecutorAsyncTMDBMovieClient implements AsyncTMDBMovieClient {
+
+    private final TMDBMovieClient mDelegate;
+    private final Executor mExecutor;
+
+    /**
+     * Construct a new ExecutorAsyncTMDBMovieClient.
+     *
+     * @param delegate the {@link TMDBMovieClient} to make requests through.
+     * @param executor the {@link Executor} to run requests on.
+     */
+    public ExecutorAsyncTMDBMovieClient(final TMDBMovieClient delegate, final Executor executor) {
+
+        Preconditions.checkNotNull(delegate, "delegate must not be null.");
+        Preconditions.checkNotNull(executor, "executor must not be null.");
+
+        this.mDelegate = delegate;
+        this.mExecutor = executor;
+    }
+
+    @Override
+    public ListenableFuture<DataPage<Movie>> getTopRatedMovies(final int pageNumber) {
+
+        return submit(new Request<DataPage<Movie>>() {
+            @Override
+            public DataPage<Movie> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getTopRatedMovies(pageNumber);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<DataPage<Movie>> getPopularMovies(final int pageNumber) {
+
+        return submit(new Request<DataPage<Movie>>() {
+            @Override
+            public DataPage<Movie> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getPopularMovies(pageNumber);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<DataPage<Review>> getMovieReviews(final long movieId,
+                                                              final int pageNumber) {
+
+        return submit(new Request<DataPage<Review>>() {
+            @Override
+            public DataPage<Review> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getMovieReviews(movieId, pageNumber);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<List<VideoLink>> getMovieVideoLinks(final long movieId) {
+
+        return submit(new Request<List<VideoLink>>() {
+            @Override
+            public List<VideoLink> execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getMovieVideoLinks(movieId);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<MovieDetails> getMovieDetails(
+            final long movieId, final @MovieDetails.Part.Def String... parts) {
+
+        return submit(new Request<MovieDetails>() {
+            @Override
+            public MovieDetails execute()
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mDelegate.getMovieDetails(movieId, parts);
+            }
+        });
+    }
+
+    private <T> ListenableFuture<T> submit(final Request<T> request) {
+
+        final CancellationToken cancellationToken = new CancellationToken();
+        final ListenableFutureTask<T> task = ListenableFutureTask.create(new Callable<T>() {
+            @Override
+            public T call() throws DataAccessRequestException, DataAccessParsingException {
+                final CancellationToken previousToken =
+                        CancellationToken.setCurrent(cancellationToken);
+                try {
+                    return request.execute();
+                } finally {
+                    CancellationToken.setCurrent(previousToken);
+                }
+            }
+        });
+
+        task.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (task.isCancelled()) {
+                    cancellationToken.cancel();
+                }
+            }
+        }, MoreExecutors.directExecutor());
+
+        try {
+            mExecutor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+        return task;
+    }
+
+    /*
+     * A single query against the delegate TMDBMovieClient.
+     */
+    private interface Request<T> {
+        T execute() throws DataAccessRequestException, DataAccessParsingException;
+    }
+}
@@ -0,0 +1,291 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A TMDBBulkPageFetcher fetches a range of pages of a TMDB paged query in parallel, e.g. to warm
+ * caches with pages 1 to N of several movie lists.
+ *
+ * Pages are requested through a {@link TMDBMovieClient} by at most <b>maxConcurrency</b> workers
+ * running on an {@link Executor}. Each worker takes the lowest page number not yet taken, so pages
+ * are requested roughly in order. Requests go through the client's usual request path, so a
+ * shared rate limit (or open circuit breaker) applies to them as to any other request: workers
+ * simply queue for permits.
+ *
+ * A failed page does not fail the range. The {@link Result} holds every fetched page, in page
+ * order, along with the failure of each page that could not be fetched.
+ *
+ * This class is thread safe.
+ */
+public class TMDBBulkPageFetcher {
+
+    /**
+     * The Result of fetching a range of pages.
+     *
+     * @param <T> the type of page results.
+     */
+    public static class Result<T> {
+
+        private final int mFirstPageNumber;
+        private final int mLastPageNumber;
+        private final List<DataPage<T>> mPages;
+        private final SortedMap<Integer, Exception> mFailures;
+
+        private Result(final int firstPageNumber,
+                       final int lastPageNumber,
+                       final List<DataPage<T>> pages,
+                       final SortedMap<Integer, Exception> failures) {
+
+            this.mFirstPageNumber = firstPageNumber;
+            this.mLastPageNumber = lastPageNumber;
+            this.mPages = ImmutableList.copyOf(pages);
+            this.mFailures = ImmutableSortedMap.copyOfSorted(failures);
+        }
+
+        /**
+         * @return the first page number of the requested range.
+         */
+        public int getFirstPageNumber() {
+            return mFirstPageNumber;
+        }
+
+        /**
+         * @return the last page number of the requested range.
+         */
+        public int getLastPageNumber() {
+            return mLastPageNumber;
+        }
+
+        /**
+         * @return the pages fetched successfully, in page order.
+         */
+        public List<DataPage<T>> getPages() {
+            return mPages;
+        }
+
+        /**
+         * @return the failure of each page that could not be fetched, by page number. Failures
+         * are {@link DataAccessRequestException}s or {@link DataAccessParsingException}s, or any
+         * unchecked exception thrown by the client.
+         */
+        public SortedMap<Integer, Exception> getFailures() {
+            return mFailures;
+        }
+
+        /**
+         * @return true iff every page of the range was fetched.
+         */
+        public boolean isComplete() {
+            return mFailures.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "[ FirstPageNumber=" + mFirstPageNumber +
+                    ", LastPageNumber=" + mLastPageNumber +
+                    ", FetchedPageCount=" + mPages.size() +
+                    ", FailedPageNumbers=" + mFailures.keySet() +
+                    " ]";
+        }
+    }
+
+    /*
+     * A paged query. Identifies which client method a worker calls.
+     */
+    private interface PageQuery<T> {
+
+        DataPage<T> getPage(int pageNumber)
+                throws DataAccessRequestException, DataAccessParsingException;
+    }
+
+    private final TMDBMovieClient mTMDBMovieClient;
+    private final Executor mExecutor;
+    private final int mMaxConcurrency;
+
+    /**
+     * Construct a new TMDBBulkPageFetcher.
+     *
+     * @param tmdbMovieClient the {@link TMDBMovieClient} to request pages through.
+     * @param executor the {@link Executor} to run workers on. Should be able to run
+     *                 <b>maxConcurrency</b> tasks at once for full parallelism.
+     * @param maxConcurrency the maximum number of pages requested at once per range. Must be
+     *                       positive.
+     */
+    public TMDBBulkPageFetcher(final TMDBMovieClient tmdbMovieClient,
+                               final Executor executor,
+                               final int maxConcurrency) {
+
+        Preconditions.checkNotNull(tmdbMovieClient, "tmdbMovieClient must not be null.");
+        Preconditions.checkNotNull(executor, "executor must not be null.");
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive.");
+
+        this.mTMDBMovieClient = tmdbMovieClient;
+        this.mExecutor = executor;
+        this.mMaxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Fetch a range of pages of the TMDB Popular result set. Blocks until every page of the range
+     * has been fetched or has failed.
+     *
+     * @param firstPageNumber the first page number to fetch. Must be in range: [1, 1000].
+     * @param lastPageNumber the last page number to fetch, inclusive. Must be in range:
+     *                       [firstPageNumber, 1000].
+     * @return the {@link Result} of fetching the range.
+     * @throws InterruptedException if interrupted while waiting. Pages not yet requested are
+     * abandoned.
+     */
+    public Result<Movie> getPopularMovies(final int firstPageNumber, final int lastPageNumber)
+            throws InterruptedException {
+
+        return fetch(firstPageNumber, lastPageNumber, new PageQuery<Movie>() {
+            @Override
+            public DataPage<Movie> getPage(final int pageNumber)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mTMDBMovieClient.getPopularMovies(pageNumber);
+            }
+        });
+    }
+
+    /**
+     * Fetch a range of pages of the TMDB TopRated result set. Blocks until every page of the range
+     * has been fetched or has failed.
+     *
+     * @param firstPageNumber the first page number to fetch. Must be in range: [1, 1000].
+     * @param lastPageNumber the last page number to fetch, inclusive. Must be in range:
+     *                       [firstPageNumber, 1000].
+     * @return the {@link Result} of fetching the range.
+     * @throws InterruptedException if interrupted while waiting. Pages not yet requested are
+     * abandoned.
+     */
+    public Result<Movie> getTopRatedMovies(final int firstPageNumber, final int lastPageNumber)
+            throws InterruptedException {
+
+        return fetch(firstPageNumber, lastPageNumber, new PageQuery<Movie>() {
+            @Override
+            public DataPage<Movie> getPage(final int pageNumber)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mTMDBMovieClient.getTopRatedMovies(pageNumber);
+            }
+        });
+    }
+
+    /**
+     * Fetch a range of pages of Reviews for a Movie identified by a given ID. Blocks until every
+     * page of the range has been fetched or has failed.
+     *
+     * @param movieId the unique TMDB identifier of the movie to query reviews for.
+     * @param firstPageNumber the first page number to fetch. Must be in range: [1, 1000].
+     * @param lastPageNumber the last page number to fetch, inclusive. Must be in range:
+     *                       [firstPageNumber, 1000].
+     * @return the {@link Result} of fetching the range.
+     * @throws InterruptedException if interrupted while waiting. Pages not yet requested are
+     * abandoned.
+     */
+    public Result<Review> getMovieReviews(final long movieId, final int firstPageNumber,
+                                          final int lastPageNumber)
+            throws InterruptedException {
+
+        return fetch(firstPageNumber, lastPageNumber, new PageQuery<Review>() {
+            @Override
+            public DataPage<Review> getPage(final int pageNumber)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                return mTMDBMovieClient.getMovieReviews(movieId, pageNumber);
+            }
+        });
+    }
+
+    private <T> Result<T> fetch(final int firstPageNumber, final int lastPageNumber,
+                                final PageQuery<T> pageQuery) throws InterruptedException {
+
+        Preconditions.checkArgument(firstPageNumber >= 1,
+                "firstPageNumber must be greater than or equal to 1.");
+        Preconditions.checkArgument(lastPageNumber >= firstPageNumber,
+                "lastPageNumber must be greater than or equal to firstPageNumber.");
+        Preconditions.checkArgument(lastPageNumber <= TMDBMovieClient.MAX_PAGE_NUMBER,
+                "lastPageNumber must be less than or equal to " +
+                        TMDBMovieClient.MAX_PAGE_NUMBER + ".");
+
+        final int pageCount = lastPageNumber - firstPageNumber + 1;
+        final AtomicReferenceArray<DataPage<T>> pages = new AtomicReferenceArray<>(pageCount);
+        final AtomicReferenceArray<Exception> failures = new AtomicReferenceArray<>(pageCount);
+        final AtomicInteger nextPageIndex = new AtomicInteger(0);
+        final AtomicBoolean isAbandoned = new AtomicBoolean(false);
+
+        final int workerCount = Math.min(mMaxConcurrency, pageCount);
+        final CountDownLatch workersDone = new CountDownLatch(workerCount);
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int pageIndex;
+                    while (!isAbandoned.get() &&
+                            (pageIndex = nextPageIndex.getAndIncrement()) < pageCount) {
+                        try {
+                            pages.set(pageIndex,
+                                    pageQuery.getPage(firstPageNumber + pageIndex));
+                        } catch (DataAccessRequestException | DataAccessParsingException ex) {
+                            failures.set(pageIndex, ex);
+                        } catch (RuntimeException ex) {
+                            // Would otherwise be lost on the worker thread.
+                            failures.set(pageIndex, ex);
+                        }
+                    }
+                } finally {
+                    workersDone.countDown();
+                }
+            }
+        };
+
+        int startedWorkerCount = 0;
+        for (int i = 0; i < workerCount; i++) {
+            try {
+                mExecutor.execute(worker);
+                startedWorkerCount++;
+            } catch (RejectedExecutionException ex) {
+                // The started workers take this worker's share of the pages.
+                workersDone.countDown();
+            }
+        }
+        if (startedWorkerCount == 0) {
+            // Nothing could be scheduled: fetch the range on the calling thread instead.
+            worker.run();
+        }
+
+        try {
+            workersDone.await();
+        } catch (InterruptedException ex) {
+            isAbandoned.set(true);
+            throw ex;
+        }
+
+        final List<DataPage<T>> fetchedPages = new ArrayList<>(pageCount);
+        final SortedMap<Integer, Exception> pageFailures = new TreeMap<>();
+        for (int i = 0; i < pageCount; i++) {
+            if (pages.get(i) != null) {
+                fetchedPages.add(pages.get(i));
+            } else {
+                pageFailures.put(firstPageNumber + i, failures.get(i));
+            }
+        }
+        return new Result<>(firstPageNumber, lastPageNumber, fetchedPages, pageFailures);
+    }
+}
@@ -0,0 +1,242 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.exception.CircuitBreakerOpenException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TMDBCircuitBreaker stops requests to a host that is failing, so callers fail fast instead of
+ * each waiting out connect/read timeouts.
+ *
+ * A circuit breaker is kept per host and moves between three {@link State}s:
+ * <ul>
+ *     <li>{@link State#CLOSED}: requests flow. After <b>failureThreshold</b> consecutive
+ *     transient failures the circuit opens.</li>
+ *     <li>{@link State#OPEN}: requests are rejected with a {@link CircuitBreakerOpenException}.
+ *     After <b>openDuration</b> the circuit becomes half-open.</li>
+ *     <li>{@link State#HALF_OPEN}: a single trial request is let through; all others are rejected.
+ *     The circuit closes if the trial succeeds and opens again if it fails. A trial that does not
+ *     report back within <b>openDuration</b> is replaced by a new one.</li>
+ * </ul>
+ *
+ * State changes are published to registered {@link Listener}s.
+ *
+ * This class is thread safe.
+ */
+public class TMDBCircuitBreaker {
+
+    private static final String LOG_TAG = TMDBCircuitBreaker.class.getSimpleName();
+
+    /**
+     * The state of a circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * A Listener is notified of circuit breaker state changes. Callbacks are invoked on the thread
+     * whose request caused the change and must not block.
+     */
+    public interface Listener {
+
+        /**
+         * Invoked when the circuit breaker of a host changes state.
+         *
+         * @param host the host whose circuit breaker changed state.
+         * @param oldState the previous state.
+         * @param newState the new state.
+         */
+        void onStateChanged(String host, State oldState, State newState);
+    }
+
+    private final int mFailureThreshold;
+    private final long mOpenDurationNanos;
+    private final Map<String, Circuit> mCircuits;
+    private final List<Listener> mListeners;
+
+    /**
+     * Construct a new TMDBCircuitBreaker.
+     *
+     * @param failureThreshold the number of consecutive transient failures after which a circuit
+     *                         opens. Must be positive.
+     * @param openDurationMillis the time, in milliseconds, a circuit stays open before a trial
+     *                           request is let through. Must be positive.
+     */
+    TMDBCircuitBreaker(final int failureThreshold, final long openDurationMillis) {
+
+        Preconditions.checkArgument(failureThreshold > 0, "failureThreshold must be positive.");
+        Preconditions.checkArgument(openDurationMillis > 0,
+                "openDurationMillis must be positive.");
+
+        this.mFailureThreshold = failureThreshold;
+        this.mOpenDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.mCircuits = new HashMap<>();
+        this.mListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Register a {@link Listener} to be notified of state changes.
+     *
+     * @param listener the listener to register.
+     */
+    public void addListener(final Listener listener) {
+
+        Preconditions.checkNotNull(listener, "listener must not be null.");
+        mListeners.add(listener);
+    }
+
+    /**
+     * Unregister a previously registered {@link Listener}.
+     *
+     * @param listener the listener to unregister.
+     */
+    public void removeListener(final Listener listener) {
+
+        Preconditions.checkNotNull(listener, "listener must not be null.");
+        mListeners.remove(listener);
+    }
+
+    /**
+     * @param host a host.
+     * @return the current {@link State} of the given host's circuit breaker.
+     */
+    public synchronized State getState(final String host) {
+
+        Preconditions.checkNotNull(host, "host must not be null.");
+
+        final Circuit circuit = mCircuits.get(host);
+        return (circuit == null) ? State.CLOSED : circuit.mState;
+    }
+
+    /**
+     * Check that a request to the given host may be made. Must be followed by a call to either
+     * {@link #onSuccess(String)} or {@link #onFailure(String, Throwable)} once the request
+     * completes.
+     *
+     * @param host the host to be requested.
+     * @throws CircuitBreakerOpenException if the host's circuit is open, or half-open with a trial
+     * request already in flight.
+     */
+    void checkPermitted(final String host) throws CircuitBreakerOpenException {
+
+        Preconditions.checkNotNull(host, "host must not be null.");
+
+        final long retryAfterNanos;
+        final Throwable lastFailure;
+        synchronized (this) {
+            final Circuit circuit = mCircuits.get(host);
+            if (circuit == null || circuit.mState == State.CLOSED) {
+                return;
+            }
+
+            // A circuit is half-open from the moment a trial starts. A trial whose outcome is never
+            // reported (e.g. it was interrupted) is superseded after another open duration.
+            final long now = System.nanoTime();
+            final long elapsedNanos = now - circuit.mStateChangedAtNanos;
+            if (elapsedNanos >= mOpenDurationNanos) {
+                // Let this request through as the trial.
+                setState(host, circuit, State.HALF_OPEN, now);
+                return;
+            }
+
+            retryAfterNanos = mOpenDurationNanos - elapsedNanos;
+            lastFailure = circuit.mLastFailure;
+        }
+
+        throw new CircuitBreakerOpenException(
+                host, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos), lastFailure);
+    }
+
+    /**
+     * Record that a request to the given host completed. Any response from the host, including
+     * client errors, counts as a success.
+     *
+     * @param host the requested host.
+     */
+    synchronized void onSuccess(final String host) {
+
+        Preconditions.checkNotNull(host, "host must not be null.");
+
+        final Circuit circuit = mCircuits.get(host);
+        if (circuit == null) {
+            return;
+        }
+
+        circuit.mConsecutiveFailureCount = 0;
+        circuit.mLastFailure = null;
+        if (circuit.mState != State.CLOSED) {
+            setState(host, circuit, State.CLOSED, System.nanoTime());
+        }
+    }
+
+    /**
+     * Record that a request to the given host failed transiently (the host is unreachable, timed
+     * out or reported a server error).
+     *
+     * @param host the requested host.
+     * @param failure the failure.
+     */
+    synchronized void onFailure(final String host, final Throwable failure) {
+
+        Preconditions.checkNotNull(host, "host must not be null.");
+
+        Circuit circuit = mCircuits.get(host);
+        if (circuit == null) {
+            circuit = new Circuit();
+            mCircuits.put(host, circuit);
+        }
+
+        circuit.mConsecutiveFailureCount++;
+        circuit.mLastFailure = failure;
+
+        final boolean isTrialFailure = circuit.mState == State.HALF_OPEN;
+        if (isTrialFailure || (circuit.mState == State.CLOSED &&
+                circuit.mConsecutiveFailureCount >= mFailureThreshold)) {
+            setState(host, circuit, State.OPEN, System.nanoTime());
+        }
+    }
+
+    private void setState(final String host, final Circuit circuit, final State newState,
+                          final long now) {
+
+        final State oldState = circuit.mState;
+        circuit.mState = newState;
+        circuit.mStateChangedAtNanos = now;
+
+        if (oldState == newState) {
+            // A superseded trial. Not a state change.
+            return;
+        }
+
+        Log.i(LOG_TAG, String.format("Circuit breaker for host %s: %s -> %s",
+                host, oldState, newState));
+
+        for (Listener listener : mListeners) {
+            try {
+                listener.onStateChanged(host, oldState, newState);
+            } catch (RuntimeException ex) {
+                Log.e(LOG_TAG, "Circuit breaker listener failed", ex);
+            }
+        }
+    }
+
+    /*
+     * The state of a single host's circuit breaker. Guarded by the enclosing TMDBCircuitBreaker.
+     */
+    private static class Circuit {
+        private State mState = State.CLOSED;
+        private long mStateChangedAtNanos;
+        private int mConsecutiveFailureCount;
+        private Throwable mLastFailure;
+    }
+}
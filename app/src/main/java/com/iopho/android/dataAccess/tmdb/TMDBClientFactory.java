@@ -3,28 +3,54 @@ package com.iopho.android.dataAccess.tmdb;
 import android.content.Context;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.iopho.android.dataAccess.DataAccessMetrics;
 import com.iopho.android.dataAccess.exception.DataAccessParsingException;
 import com.iopho.android.dataAccess.exception.DataAccessRequestException;
 import com.iopho.android.dataAccess.tmdb.json.JSONConfigurationTransformer;
+import com.iopho.android.util.HttpKeepAlive;
+import com.iopho.android.util.HttpResponseCache;
+import com.iopho.android.util.HttpTransferStats;
 import com.iopho.android.util.HttpURLDownloader;
+import com.iopho.android.util.TaskScheduler;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * The TMDBClientFactory is intended to be the main point of integration for an Android App.
  *
  * The TMDBClientFactory must be initialized with a call to {@link #init()} before attempting to
- * obtain client components to interact with TMDB.
+ * obtain client components to interact with TMDB. Initialization also configures the process wide
+ * HTTP keep-alive settings (see {@link HttpKeepAlive}), so an app should create and initialize a
+ * single TMDBClientFactory, at startup.
  */
 public class TMDBClientFactory {
 
+    // All TMDB endpoints in use are read-only (GET) and thus safe to retry.
+    private static final Set<String> IDEMPOTENT_ENDPOINTS = ImmutableSet.of(
+            TMDBURLBuilder.Endpoint.CONFIGURATION,
+            TMDBURLBuilder.Endpoint.MOVIES_POPULAR,
+            TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED,
+            TMDBURLBuilder.Endpoint.MOVIE,
+            TMDBURLBuilder.Endpoint.MOVIE_REVIEWS,
+            TMDBURLBuilder.Endpoint.MOVIE_VIDEOS);
+
     private final Context mContext;
     private final String mAPIKey;
 
     private TMDBProperties mTMDBProperties;
+    private DataAccessMetrics mDataAccessMetrics;
+    private HttpResponseCache mHTTPResponseCache;
     private HttpURLDownloader mHTTPURLDownloader;
+    private TMDBRequestExecutor mTMDBRequestExecutor;
     private TMDBConfigurationClient mTMDBConfigurationClient;
-    private TMDBMovieClient mTMDBMovieClient;
+    private CachingTMDBMovieClient mTMDBMovieClient;
+    private TMDBMovieClient mUncachedTMDBMovieClient;
     private TMDBConfigurationCacheManager mTMDBConfigurationCacheManager;
     private TMDBAssetURLFactory mTMDBAssetURLFactory;
 
@@ -64,14 +90,65 @@ public class TMDBClientFactory {
 
         mTMDBProperties = new TMDBProperties(mContext);
 
+        mDataAccessMetrics = new DataAccessMetrics();
+
+        HttpKeepAlive.configure(mTMDBProperties.getHTTPMaxIdleConnections(),
+                mTMDBProperties.getHTTPKeepAliveDuration());
+
+        if (mTMDBProperties.getHTTPCacheMaxSize() > 0) {
+            mHTTPResponseCache = new HttpResponseCache(
+                    new File(mContext.getCacheDir(), mTMDBProperties.getHTTPCacheDirName()),
+                    mTMDBProperties.getHTTPCacheMaxSize(),
+                    TMDBURLBuilder.CACHE_KEY_FUNCTION);
+        }
+
+        // A single HttpURLDownloader (and thus response cache) is shared by all TMDB clients.
         mHTTPURLDownloader = new HttpURLDownloader(
-                mTMDBProperties.getHTTPConnectTimeout(), mTMDBProperties.getHTTPReadTimeout());
+                mTMDBProperties.getHTTPReadTimeout(), mTMDBProperties.getHTTPConnectTimeout(),
+                mTMDBProperties.isHTTPCompressionEnabled(), mHTTPResponseCache);
+        mHTTPURLDownloader.addListener(mDataAccessMetrics);
+
+        // All TMDB clients share one rate limiter, so the request quota is honoured across them.
+        mTMDBRequestExecutor = new TMDBRequestExecutor(mHTTPURLDownloader,
+                new TMDBRateLimiter(
+                        mTMDBProperties.getRateLimitPermitsPerSecond(),
+                        mTMDBProperties.getRateLimitBurst()),
+                new TMDBRetryPolicy(
+                        mTMDBProperties.getRetryMaxAttempts(),
+                        mTMDBProperties.getRetryBaseBackoff(),
+                        mTMDBProperties.getRetryMaxBackoff(),
+                        mTMDBProperties.getRetryDeadline(),
+                        IDEMPOTENT_ENDPOINTS),
+                new TMDBCircuitBreaker(
+                        mTMDBProperties.getCircuitBreakerFailureThreshold(),
+                        mTMDBProperties.getCircuitBreakerOpenDuration()),
+                mDataAccessMetrics);
 
         this.mTMDBConfigurationClient = new TMDBConfigurationClient(
-                mTMDBProperties.getBaseURL(), mAPIKey, mHTTPURLDownloader);
+                mTMDBProperties.getBaseURL(), mAPIKey, mTMDBRequestExecutor);
 
-        this.mTMDBMovieClient = new TMDBMovieClientImpl(
-                mTMDBProperties.getBaseURL(), mAPIKey, mHTTPURLDownloader);
+        // Recently returned results are served from memory. On a miss, concurrent identical queries
+        // (e.g. after a configuration change) share one request.
+        final Map<String, Long> resultCacheTTLs = ImmutableMap.of(
+                TMDBURLBuilder.Endpoint.MOVIES_POPULAR,
+                (long) mTMDBProperties.getResultCacheMoviesTTL(),
+                TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED,
+                (long) mTMDBProperties.getResultCacheMoviesTTL(),
+                TMDBURLBuilder.Endpoint.MOVIE_REVIEWS,
+                (long) mTMDBProperties.getResultCacheReviewsTTL(),
+                TMDBURLBuilder.Endpoint.MOVIE_VIDEOS,
+                (long) mTMDBProperties.getResultCacheVideosTTL(),
+                TMDBURLBuilder.Endpoint.MOVIE,
+                (long) mTMDBProperties.getResultCacheMovieDetailsTTL());
+        this.mUncachedTMDBMovieClient = new CoalescingTMDBMovieClient(new TMDBMovieClientImpl(
+                mTMDBProperties.getBaseURL(), mAPIKey, mTMDBRequestExecutor,
+                mTMDBProperties.isJSONStreamingEnabled()));
+        final CachingTMDBMovieClient cachingTMDBMovieClient = new CachingTMDBMovieClient(
+                mUncachedTMDBMovieClient,
+                mTMDBProperties.getResultCacheMaxWeight(),
+                resultCacheTTLs);
+        this.mTMDBMovieClient = cachingTMDBMovieClient;
+        registerCaches(cachingTMDBMovieClient);
 
         this.mTMDBConfigurationCacheManager = new TMDBConfigurationCacheManager(
                 mContext, mTMDBConfigurationClient, new JSONConfigurationTransformer(),
@@ -98,6 +175,79 @@ public class TMDBClientFactory {
         return mTMDBMovieClient;
     }
 
+    /**
+     * Get a {@link TMDBMovieClient} which, unlike {@link #getTMDBMovieClient()}, does not serve
+     * results from memory: every call that is not already in flight makes a request, revalidating
+     * any HTTP cached response. For callers that must observe changes on TMDB, such as refreshes
+     * of stored data. The TMDBClientFactory must be initialized (via a call to {@link #init()})
+     * prior to calling this method.
+     *
+     * @return a {@link TMDBMovieClient} without a result cache.
+     */
+    public TMDBMovieClient getUncachedTMDBMovieClient() {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return mUncachedTMDBMovieClient;
+    }
+
+    /**
+     * Get the period, in milliseconds, for which a movie list page is considered fresh: the
+     * {@link #getTMDBMovieClient()} client serves popular and top rated pages from memory for
+     * this long. Copies of these pages kept elsewhere should be refreshed on the same schedule.
+     * The TMDBClientFactory must be initialized (via a call to {@link #init()}) prior to calling
+     * this method.
+     *
+     * @return the movie list freshness period, in milliseconds.
+     */
+    public long getMovieListFreshness() {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return mTMDBProperties.getResultCacheMoviesTTL();
+    }
+
+    /**
+     * Create an {@link AsyncTMDBMovieClient} which runs requests of the
+     * {@link #getTMDBMovieClient()} client on the given {@link Executor}. The TMDBClientFactory
+     * must be initialized (via a call to {@link #init()}) prior to calling this method.
+     *
+     * @param executor the {@link Executor} to run requests on. Bounds the number of concurrent
+     *                 requests.
+     * @return a new {@link AsyncTMDBMovieClient}
+     */
+    public AsyncTMDBMovieClient createAsyncTMDBMovieClient(final Executor executor) {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return new ExecutorAsyncTMDBMovieClient(mTMDBMovieClient, executor);
+    }
+
+    /**
+     * Create a {@link TMDBMovieDetailPrefetcher} which warms the result cache of the
+     * {@link #getTMDBMovieClient()} client on the given {@link TaskScheduler}, within the
+     * configured budget. The budget is kept per prefetcher, so an app should create only one. The
+     * TMDBClientFactory must be initialized (via a call to {@link #init()}) prior to calling this
+     * method.
+     *
+     * @param taskScheduler the {@link TaskScheduler} to prefetch on.
+     * @return a new {@link TMDBMovieDetailPrefetcher}
+     */
+    public TMDBMovieDetailPrefetcher createMovieDetailPrefetcher(
+            final TaskScheduler taskScheduler) {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return new TMDBMovieDetailPrefetcher(mTMDBMovieClient, taskScheduler,
+                mHTTPURLDownloader.getTransferStats(),
+                mTMDBProperties.getDetailPrefetchMaxRequestsPerMinute(),
+                mTMDBProperties.getDetailPrefetchMaxBytesPerMinute());
+    }
+
     /**
      * Get a {@link TMDBAssetURLFactory}. The TMDBClientFactory must be initialized (via a call to
      * {@link #init()}) prior to calling this method.
@@ -112,10 +262,93 @@ public class TMDBClientFactory {
         return mTMDBAssetURLFactory;
     }
 
+    /**
+     * Get the {@link HttpTransferStats} shared by all TMDB clients. Exposes, per TMDB endpoint,
+     * compressed (wire) and decompressed byte counts. The TMDBClientFactory must be initialized
+     * (via a call to {@link #init()}) prior to calling this method.
+     *
+     * @return the shared {@link HttpTransferStats}
+     */
+    public HttpTransferStats getHTTPTransferStats() {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return mHTTPURLDownloader.getTransferStats();
+    }
+
+    /**
+     * Get the {@link HttpResponseCache} shared by all TMDB clients. Exposes conditional request hit
+     * counters. The TMDBClientFactory must be initialized (via a call to {@link #init()}) prior to
+     * calling this method.
+     *
+     * @return the shared {@link HttpResponseCache}, or null if the HTTP response cache is disabled.
+     */
+    public HttpResponseCache getHTTPResponseCache() {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return mHTTPResponseCache;
+    }
+
+    /**
+     * Get the {@link TMDBCircuitBreaker} guarding all requests to TMDB. Register a
+     * {@link TMDBCircuitBreaker.Listener} to be notified when TMDB becomes unavailable and
+     * available again. The TMDBClientFactory must be initialized (via a call to {@link #init()})
+     * prior to calling this method.
+     *
+     * @return the shared {@link TMDBCircuitBreaker}
+     */
+    public TMDBCircuitBreaker getTMDBCircuitBreaker() {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return mTMDBRequestExecutor.getCircuitBreaker();
+    }
+
+    /**
+     * Get the {@link DataAccessMetrics} recording the requests of all TMDB clients: latencies per
+     * endpoint and request phase, errors, and the hit ratios of the result cache and HTTP
+     * response cache. The TMDBClientFactory must be initialized (via a call to
+     * {@link #init()}) prior to calling this method.
+     *
+     * @return the shared {@link DataAccessMetrics}
+     */
+    public DataAccessMetrics getDataAccessMetrics() {
+        if (!mIsInitialized) {
+            throw new IllegalStateException(
+                    "TMDBClientFactory is uninitialized. Must call #init() first.");
+        }
+        return mDataAccessMetrics;
+    }
+
     /**
      * @return true iff this TMDBClientFactory has been initialized.
      */
     public boolean isInitialized() {
         return mIsInitialized;
     }
+
+    private void registerCaches(final CachingTMDBMovieClient cachingTMDBMovieClient) {
+
+        mDataAccessMetrics.registerCache("result", cachingTMDBMovieClient);
+
+        if (mHTTPResponseCache != null) {
+            // A hit is a stored response revalidated by a 304 (Not Modified) response.
+            mDataAccessMetrics.registerCache("http", new DataAccessMetrics.CacheCounters() {
+                @Override
+                public long getHitCount() {
+                    return mHTTPResponseCache.getConditionalHitCount();
+                }
+
+                @Override
+                public long getMissCount() {
+                    return mHTTPResponseCache.getRequestCount() -
+                            mHTTPResponseCache.getConditionalHitCount();
+                }
+            });
+        }
+    }
 }
@@ -7,7 +7,6 @@ import com.iopho.android.dataAccess.exception.DataAccessParsingException;
 import com.iopho.android.dataAccess.exception.DataAccessRequestException;
 import com.iopho.android.dataAccess.tmdb.json.JSONConfigurationTransformer;
 import com.iopho.android.dataAccess.tmdb.model.Configuration;
-import com.iopho.android.util.HttpURLDownloader;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -29,7 +28,7 @@ class TMDBConfigurationClient {
 
     private final String mTMDBBaseURL;
     private final String mAPIKey;
-    private final HttpURLDownloader mHTTPURLDownloader;
+    private final TMDBRequestExecutor mRequestExecutor;
 
     /**
      * Construct a new TMDBConfigurationClient.
@@ -38,18 +37,18 @@ class TMDBConfigurationClient {
      * @param apiKey the TMDB API KEY. Required to make calls to the TMDB API. See
      *               <a href="https://www.themoviedb.org/documentation/api">
      *                   https://www.themoviedb.org/documentation/api</a>
-     * @param httpURLDownloader an HttpURLDownloader to make HTTP requests.
+     * @param requestExecutor the {@link TMDBRequestExecutor} to make HTTP requests through.
      */
     public TMDBConfigurationClient(final String tmdbBaseURL, final String apiKey,
-                                   final HttpURLDownloader httpURLDownloader) {
+                                   final TMDBRequestExecutor requestExecutor) {
 
         Preconditions.checkNotNull(tmdbBaseURL, "tmdbBaseURL must not be null.");
         Preconditions.checkNotNull(apiKey, "apiKey must not be null.");
-        Preconditions.checkNotNull(httpURLDownloader, "httpURLDownloader must not be null.");
+        Preconditions.checkNotNull(requestExecutor, "requestExecutor must not be null.");
 
         this.mTMDBBaseURL = tmdbBaseURL;
         this.mAPIKey = apiKey;
-        this.mHTTPURLDownloader = httpURLDownloader;
+        this.mRequestExecutor = requestExecutor;
     }
 
     /**
@@ -71,7 +70,8 @@ class TMDBConfigurationClient {
 
             Log.d(LOG_TAG, "Attempting to download content at URI: " + url.toString());
 
-            final String responseContent = mHTTPURLDownloader.downloadURL(url);
+            final String responseContent = mRequestExecutor.execute(
+                    url, TMDBURLBuilder.Endpoint.CONFIGURATION);
 
             final JSONObject contentJSONObject = new JSONObject(responseContent);
 
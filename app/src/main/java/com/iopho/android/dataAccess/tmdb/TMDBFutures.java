@@ -0,0 +1,121 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A helper class that provides combinators over the futures of an {@link AsyncTMDBMovieClient}.
+ *
+ * Combined futures fail as soon as any of their component requests fails, and cancelling a
+ * combined future cancels all of its outstanding component requests.
+ */
+public class TMDBFutures {
+
+    /**
+     * A MovieRequest makes an asynchronous request on behalf of a single movie.
+     *
+     * @param <T> the type of result of the request.
+     */
+    public interface MovieRequest<T> {
+
+        /**
+         * @param movie the movie to make the request for.
+         * @return the future result of the request.
+         */
+        ListenableFuture<T> request(Movie movie);
+    }
+
+    /**
+     * Make a request for each movie of a page, once the page is available. All requests are made
+     * at once; the client's executor bounds how many run concurrently.
+     *
+     * @param moviePage a future page of movies.
+     * @param movieRequest the {@link MovieRequest} to make for each movie.
+     * @param <T> the type of result of each request.
+     * @return a future map of movie id to request result, in page order.
+     */
+    public static <T> ListenableFuture<Map<Long, T>> forEachMovie(
+            final ListenableFuture<DataPage<Movie>> moviePage,
+            final MovieRequest<T> movieRequest) {
+
+        Preconditions.checkNotNull(moviePage, "moviePage must not be null.");
+        Preconditions.checkNotNull(movieRequest, "movieRequest must not be null.");
+
+        return Futures.transformAsync(moviePage,
+                new AsyncFunction<DataPage<Movie>, Map<Long, T>>() {
+                    @Override
+                    public ListenableFuture<Map<Long, T>> apply(final DataPage<Movie> page) {
+                        return forEachMovie(page.getResults(), movieRequest);
+                    }
+                }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Request the video links of each movie of a page, once the page is available.
+     *
+     * @param asyncTMDBMovieClient the {@link AsyncTMDBMovieClient} to request video links
+     *                             through.
+     * @param moviePage a future page of movies, e.g. from
+     *                  {@link AsyncTMDBMovieClient#getPopularMovies(int)}.
+     * @return a future map of movie id to the movie's video links, in page order.
+     */
+    public static ListenableFuture<Map<Long, List<VideoLink>>> getMovieVideoLinks(
+            final AsyncTMDBMovieClient asyncTMDBMovieClient,
+            final ListenableFuture<DataPage<Movie>> moviePage) {
+
+        Preconditions.checkNotNull(asyncTMDBMovieClient, "asyncTMDBMovieClient must not be null.");
+
+        return forEachMovie(moviePage, new MovieRequest<List<VideoLink>>() {
+            @Override
+            public ListenableFuture<List<VideoLink>> request(final Movie movie) {
+                return asyncTMDBMovieClient.getMovieVideoLinks(movie.getID());
+            }
+        });
+    }
+
+    private static <T> ListenableFuture<Map<Long, T>> forEachMovie(
+            final List<Movie> movies, final MovieRequest<T> movieRequest) {
+
+        // A movie listed twice is requested once.
+        final Map<Long, Movie> moviesById = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            if (!moviesById.containsKey(movie.getID())) {
+                moviesById.put(movie.getID(), movie);
+            }
+        }
+        if (moviesById.isEmpty()) {
+            return Futures.immediateFuture(Collections.<Long, T>emptyMap());
+        }
+
+        final List<Long> movieIds = new ArrayList<>(moviesById.keySet());
+        final List<ListenableFuture<T>> results = new ArrayList<>(movieIds.size());
+        for (Movie movie : moviesById.values()) {
+            results.add(movieRequest.request(movie));
+        }
+
+        return Futures.transform(Futures.allAsList(results),
+                new Function<List<T>, Map<Long, T>>() {
+                    @Override
+                    public Map<Long, T> apply(final List<T> resultList) {
+                        final Map<Long, T> resultsById = new LinkedHashMap<>();
+                        for (int i = 0; i < movieIds.size(); i++) {
+                            resultsById.put(movieIds.get(i), resultList.get(i));
+                        }
+                        return Collections.unmodifiableMap(resultsById);
+                    }
+                }, MoreExecutors.directExecutor());
+    }
+}
@@ -4,6 +4,7 @@ import com.iopho.android.dataAccess.exception.DataAccessRequestException;
 import com.iopho.android.dataAccess.exception.DataAccessParsingException;
 import com.iopho.android.dataAccess.tmdb.model.DataPage;
 import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
 import com.iopho.android.dataAccess.tmdb.model.Review;
 import com.iopho.android.dataAccess.tmdb.model.VideoLink;
 
@@ -19,6 +20,11 @@ import java.util.List;
  */
 public interface TMDBMovieClient {
 
+    /**
+     * The highest page number TMDB serves for any paged query.
+     */
+    int MAX_PAGE_NUMBER = 1000;
+
     /**
      * Queries TMDB to retrieve a page of Movies sorted by rating.
      *
@@ -67,5 +73,21 @@ public interface TMDBMovieClient {
     List<VideoLink> getMovieVideoLinks(long movieId)
             throws DataAccessRequestException, DataAccessParsingException;
 
+    /**
+     * Queries TMDB to retrieve a Movie identified by a given ID along with any of its related
+     * resources in a single request (see TMDB's append_to_response). Fetching a movie's details
+     * this way saves the latency of a request per resource.
+     *
+     * @param movieId the unique TMDB identifier of the movie to query.
+     * @param parts the {@link MovieDetails.Part}s to fetch along with the movie. Order and
+     *              duplicates are insignificant.
+     * @return the {@link MovieDetails}, holding exactly the requested parts.
+     * @throws DataAccessRequestException when unable to query TMDB. This can occur for various
+     * reasons. The Exception cause is stored.
+     * @throws DataAccessParsingException when unable to parse the TMDB response.
+     */
+    MovieDetails getMovieDetails(long movieId, @MovieDetails.Part.Def String... parts)
+            throws DataAccessRequestException, DataAccessParsingException;
+
 
 }
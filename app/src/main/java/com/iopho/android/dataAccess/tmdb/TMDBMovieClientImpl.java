@@ -3,24 +3,39 @@ package com.iopho.android.dataAccess.tmdb;
 import android.util.Log;
 
 import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 import com.iopho.android.dataAccess.exception.DataAccessParsingException;
 import com.iopho.android.dataAccess.exception.DataAccessRequestException;
 import com.iopho.android.dataAccess.tmdb.json.JSONDataPageTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONMovieDetailsTransformer;
 import com.iopho.android.dataAccess.tmdb.json.JSONMovieTransformer;
 import com.iopho.android.dataAccess.tmdb.json.JSONResultListTransformer;
 import com.iopho.android.dataAccess.tmdb.json.JSONReviewTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamDataPageTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamMovieDetailsTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamMovieTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamResultListTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamReviewTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamToObjectTransformer;
+import com.iopho.android.dataAccess.tmdb.json.JSONStreamVideoLinkTransformer;
 import com.iopho.android.dataAccess.tmdb.json.JSONToObjectTransformer;
 import com.iopho.android.dataAccess.tmdb.json.JSONVideoLinkTransformer;
 import com.iopho.android.dataAccess.tmdb.model.DataPage;
 import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
 import com.iopho.android.dataAccess.tmdb.model.Review;
 import com.iopho.android.dataAccess.tmdb.model.VideoLink;
 import com.iopho.android.util.HttpURLDownloader;
+import com.iopho.android.util.ResponseBodyReader;
+import com.iopho.android.util.Tracer;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.ParseException;
@@ -28,6 +43,10 @@ import java.util.List;
 
 /**
  * An implementation of a {@link TMDBMovieClient}
+ *
+ * Responses are either decoded directly from the response stream by a
+ * {@link JSONStreamToObjectTransformer} or, when streaming is disabled, read into a
+ * {@link JSONObject} tree and transformed by a {@link JSONToObjectTransformer}.
  */
 public class TMDBMovieClientImpl implements TMDBMovieClient {
 
@@ -35,7 +54,8 @@ public class TMDBMovieClientImpl implements TMDBMovieClient {
 
     private final String mTMDBBaseURL;
     private final String mAPIKey;
-    private final HttpURLDownloader mHTTPURLDownloader;
+    private final TMDBRequestExecutor mRequestExecutor;
+    private final boolean mIsStreamingParserEnabled;
 
     /**
      * Construct a new TMDBMovieClientImpl.
@@ -44,18 +64,22 @@ public class TMDBMovieClientImpl implements TMDBMovieClient {
      * @param apiKey the TMDB API KEY. Required to make calls to the TMDB API. See
      *               <a href="https://www.themoviedb.org/documentation/api">
      *                   https://www.themoviedb.org/documentation/api</a>
-     * @param httpURLDownloader an HttpURLDownloader to make HTTP requests.
+     * @param requestExecutor the {@link TMDBRequestExecutor} to make HTTP requests through.
+     * @param isStreamingParserEnabled true to decode responses directly from the response stream.
+     *                                 false to fall back on building a {@link JSONObject} tree.
      */
     TMDBMovieClientImpl(final String tmdbBaseURL, final String apiKey,
-                        final HttpURLDownloader httpURLDownloader) {
+                        final TMDBRequestExecutor requestExecutor,
+                        final boolean isStreamingParserEnabled) {
 
         Preconditions.checkNotNull(tmdbBaseURL, "tmdbBaseURL must not be null.");
         Preconditions.checkNotNull(apiKey, "apiKey must not be null.");
-        Preconditions.checkNotNull(httpURLDownloader, "httpURLDownloader must not be null.");
+        Preconditions.checkNotNull(requestExecutor, "requestExecutor must not be null.");
 
         this.mTMDBBaseURL = tmdbBaseURL;
         this.mAPIKey = apiKey;
-        this.mHTTPURLDownloader = httpURLDownloader;
+        this.mRequestExecutor = requestExecutor;
+        this.mIsStreamingParserEnabled = isStreamingParserEnabled;
     }
 
     /**
@@ -75,10 +99,9 @@ public class TMDBMovieClientImpl implements TMDBMovieClient {
                     .withQueryParam(TMDBURLBuilder.QueryParamKey.PAGE, String.valueOf(pageNumber))
                     .build();
 
-            final JSONDataPageTransformer<Movie> jsonMovieDataPageTransformer =
-                    new JSONDataPageTransformer<>(new JSONMovieTransformer());
-
-            return queryTMDB(url, jsonMovieDataPageTransformer);
+            return queryTMDB(url, TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED,
+                    new JSONDataPageTransformer<>(new JSONMovieTransformer()),
+                    new JSONStreamDataPageTransformer<>(new JSONStreamMovieTransformer()));
 
         } catch (final MalformedURLException ex) {
             throw new DataAccessRequestException("Failed to build request URL.", ex);
@@ -102,10 +125,9 @@ public class TMDBMovieClientImpl implements TMDBMovieClient {
                     .withQueryParam(TMDBURLBuilder.QueryParamKey.PAGE, String.valueOf(pageNumber))
                     .build();
 
-            final JSONDataPageTransformer<Movie> jsonMovieDataPageTransformer =
-                    new JSONDataPageTransformer<>(new JSONMovieTransformer());
-
-            return queryTMDB(url, jsonMovieDataPageTransformer);
+            return queryTMDB(url, TMDBURLBuilder.Endpoint.MOVIES_POPULAR,
+                    new JSONDataPageTransformer<>(new JSONMovieTransformer()),
+                    new JSONStreamDataPageTransformer<>(new JSONStreamMovieTransformer()));
 
         } catch (final MalformedURLException ex) {
             throw new DataAccessRequestException("Failed to build request URL.", ex);
@@ -130,10 +152,9 @@ public class TMDBMovieClientImpl implements TMDBMovieClient {
                     .withQueryParam(TMDBURLBuilder.QueryParamKey.PAGE, String.valueOf(pageNumber))
                     .build();
 
-            final JSONDataPageTransformer<Review> jsonReviewDataPageTransformer =
-                    new JSONDataPageTransformer<>(new JSONReviewTransformer());
-
-            return queryTMDB(url, jsonReviewDataPageTransformer);
+            return queryTMDB(url, TMDBURLBuilder.Endpoint.MOVIE_REVIEWS,
+                    new JSONDataPageTransformer<>(new JSONReviewTransformer()),
+                    new JSONStreamDataPageTransformer<>(new JSONStreamReviewTransformer()));
 
         } catch (final MalformedURLException ex) {
             throw new DataAccessRequestException("Failed to build request URL.", ex);
@@ -154,33 +175,197 @@ public class TMDBMovieClientImpl implements TMDBMovieClient {
                     .withRecordId(movieId)
                     .build();
 
-            final JSONResultListTransformer<VideoLink> jsonResultListTransformer =
-                    new JSONResultListTransformer(new JSONVideoLinkTransformer());
+            return queryTMDB(url, TMDBURLBuilder.Endpoint.MOVIE_VIDEOS,
+                    new JSONResultListTransformer<>(new JSONVideoLinkTransformer()),
+                    new JSONStreamResultListTransformer<>(new JSONStreamVideoLinkTransformer()));
+
+        } catch (final MalformedURLException ex) {
+            throw new DataAccessRequestException("Failed to build request URL.", ex);
+        }
+    }
 
-            return queryTMDB(url, jsonResultListTransformer);
+    /**
+     * @see {@link TMDBMovieClient#getMovieDetails(long, String...)}
+     */
+    @Override
+    public MovieDetails getMovieDetails(final long movieId,
+                                        final @MovieDetails.Part.Def String... parts)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        final String appendToResponse = TMDBURLBuilder.buildAppendToResponse(parts);
+
+        try {
+
+            final TMDBURLBuilder urlBuilder = new TMDBURLBuilder(
+                    mTMDBBaseURL, mAPIKey, TMDBURLBuilder.Endpoint.MOVIE)
+                    .withRecordId(movieId);
+            if (!appendToResponse.isEmpty()) {
+                urlBuilder.withQueryParam(
+                        TMDBURLBuilder.QueryParamKey.APPEND_TO_RESPONSE, appendToResponse);
+            }
+            final URL url = urlBuilder.build();
+
+            return queryTMDB(url, TMDBURLBuilder.Endpoint.MOVIE,
+                    new JSONMovieDetailsTransformer(parts),
+                    new JSONStreamMovieDetailsTransformer(parts));
 
         } catch (final MalformedURLException ex) {
             throw new DataAccessRequestException("Failed to build request URL.", ex);
         }
     }
 
-    private <T> T queryTMDB(final URL url, final JSONToObjectTransformer<T> jsonToObjectTransformer)
+    /**
+     * Query TMDB and transform the response.
+     *
+     * @param url the request URL.
+     * @param endpoint the requested endpoint.
+     * @param jsonToObjectTransformer transformer used when the streaming parser is disabled.
+     * @param jsonStreamToObjectTransformer transformer used when the streaming parser is enabled.
+     * @param <T> the type of result.
+     * @return the transformed response.
+     * @throws DataAccessRequestException when failing to download the response.
+     * @throws DataAccessParsingException when failing to parse the response.
+     */
+    private <T> T queryTMDB(final URL url,
+                            final @TMDBURLBuilder.Endpoint.Def String endpoint,
+                            final JSONToObjectTransformer<T> jsonToObjectTransformer,
+                            final JSONStreamToObjectTransformer<T> jsonStreamToObjectTransformer)
             throws DataAccessRequestException, DataAccessParsingException  {
 
+        final Tracer.Span span = Tracer.currentSpan().startChild("queryTMDB")
+                .putArg("endpoint", endpoint)
+                .putArg("streaming", mIsStreamingParserEnabled);
+        final Tracer.Span parentSpan = Tracer.setCurrentSpan(span);
         try {
-            Log.d(LOG_TAG, "Attempting to download content at URI: " + url.toString());
+            if (mIsStreamingParserEnabled) {
+                return queryTMDBStreaming(url, endpoint, jsonStreamToObjectTransformer);
+            } else {
+                return queryTMDB(url, endpoint, jsonToObjectTransformer);
+            }
+        } finally {
+            Tracer.setCurrentSpan(parentSpan);
+            span.end();
+        }
+    }
 
-            final String responseContent = mHTTPURLDownloader.downloadURL(url);
+    private <T> T queryTMDB(final URL url,
+                            final @TMDBURLBuilder.Endpoint.Def String endpoint,
+                            final JSONToObjectTransformer<T> jsonToObjectTransformer)
+            throws DataAccessRequestException, DataAccessParsingException  {
+
+        try {
+            Log.d(LOG_TAG, "Attempting to download content at URI: " + url.toString());
 
-            final JSONObject contentJSONObject = new JSONObject(responseContent);
+            // The response is parsed within the response handler, so that parsing is timed
+            // separately from the download.
+            final T result = mRequestExecutor.execute(url, endpoint,
+                    new HttpURLDownloader.ResponseHandler<T>() {
+                        @Override
+                        public T handleResponse(final InputStream inputStream,
+                                                final long contentLength)
+                                throws IOException, ParseException {
+
+                            final Tracer.Span readSpan =
+                                    Tracer.currentSpan().startChild("readBody");
+                            final String responseContent;
+                            try {
+                                responseContent = ResponseBodyReader.getDefault()
+                                        .read(inputStream, contentLength)
+                                        .asString();
+                            } finally {
+                                readSpan.end();
+                            }
+
+                            final Tracer.Span parseSpan = Tracer.currentSpan().startChild("parse")
+                                    .putArg("transformer",
+                                            jsonToObjectTransformer.getClass().getSimpleName());
+                            try {
+                                return jsonToObjectTransformer.transform(
+                                        new JSONObject(responseContent));
+                            } catch (final JSONException | IllegalArgumentException ex) {
+                                // An IllegalArgumentException is thrown by a model object given
+                                // a value out of its range.
+                                throw newParseException(ex);
+                            } finally {
+                                parseSpan.end();
+                            }
+                        }
+                    });
 
             Log.d(LOG_TAG, "Successfully downloaded content at URI: " + url.toString());
 
-            return jsonToObjectTransformer.transform(contentJSONObject);
+            return result;
         } catch (final IOException ex) {
             throw new DataAccessRequestException("Failed to download URL content.", ex);
-        } catch (final JSONException | ParseException ex) {
+        } catch (final ParseException ex) {
+            throw new DataAccessParsingException("Failed to parse response content.", ex);
+        }
+    }
+
+    private <T> T queryTMDBStreaming(
+            final URL url, final @TMDBURLBuilder.Endpoint.Def String endpoint,
+            final JSONStreamToObjectTransformer<T> jsonStreamToObjectTransformer)
+            throws DataAccessRequestException, DataAccessParsingException  {
+
+        try {
+            Log.d(LOG_TAG, "Attempting to stream content at URI: " + url.toString());
+
+            final T result = mRequestExecutor.execute(url, endpoint,
+                    new HttpURLDownloader.ResponseHandler<T>() {
+                        @Override
+                        public T handleResponse(final InputStream inputStream,
+                                                final long contentLength)
+                                throws IOException, ParseException {
+
+                            // Reading the body is interleaved with parsing it, so both are timed
+                            // by this span.
+                            final Tracer.Span parseSpan = Tracer.currentSpan().startChild("parse")
+                                    .putArg("transformer", jsonStreamToObjectTransformer
+                                            .getClass().getSimpleName());
+                            final JsonReader jsonReader = new JsonReader(
+                                    new InputStreamReader(inputStream, "UTF-8"));
+                            try {
+                                return jsonStreamToObjectTransformer.transform(jsonReader);
+                            } catch (final IllegalStateException | NumberFormatException ex) {
+                                // Thrown by JsonReader when a value is not of the expected type.
+                                throw new JSONStreamTypeMismatchException(ex);
+                            } catch (final IllegalArgumentException ex) {
+                                // Thrown by a model object given a value out of its range.
+                                throw newParseException(ex);
+                            } finally {
+                                parseSpan.end();
+                            }
+                        }
+                    });
+
+            Log.d(LOG_TAG, "Successfully streamed content at URI: " + url.toString());
+
+            return result;
+        } catch (final MalformedJsonException | JSONStreamTypeMismatchException ex) {
             throw new DataAccessParsingException("Failed to parse response content.", ex);
+        } catch (final IOException ex) {
+            throw new DataAccessRequestException("Failed to download URL content.", ex);
+        } catch (final ParseException ex) {
+            throw new DataAccessParsingException("Failed to parse response content.", ex);
+        }
+    }
+
+    private static ParseException newParseException(final Exception cause) {
+
+        final ParseException parseException = new ParseException(cause.getMessage(), 0);
+        parseException.initCause(cause);
+        return parseException;
+    }
+
+    /**
+     * Signals that a streamed JSON value was not of the expected type. Wraps the unchecked
+     * exception thrown by {@link JsonReader} so it can be told apart from transport errors (and is
+     * not retried by the {@link TMDBRetryPolicy}).
+     */
+    static class JSONStreamTypeMismatchException extends IOException {
+
+        JSONStreamTypeMismatchException(final Throwable cause) {
+            super(cause.getMessage(), cause);
         }
     }
 }
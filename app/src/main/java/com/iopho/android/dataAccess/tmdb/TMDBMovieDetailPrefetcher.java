@@ -0,0 +1,241 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.util.CancellationToken;
+import com.iopho.android.util.HttpTransferStats;
+import com.iopho.android.util.TaskScheduler;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A TMDBMovieDetailPrefetcher warms the result cache of a {@link TMDBMovieClient} with the
+ * details (the first page of reviews and the video links) of movies the user is likely to open,
+ * so that their detail screens open without waiting on the network.
+ *
+ * Each movie's details are fetched with a single
+ * {@link TMDBMovieClient#getMovieDetails(long, String...)} request for
+ * {@link MovieDetails.Part#REVIEWS} and {@link MovieDetails.Part#VIDEOS}, in the
+ * {@link TaskScheduler.Priority#BACKGROUND} lane so that prefetching never delays the content on
+ * screen. A detail screen requesting the same parts (in any order) is then served from the cache.
+ *
+ * Prefetching is speculative, so it is held to a budget over a sliding one minute window: once
+ * either the number of requests made or the number of bytes received over the wire in the last
+ * minute reaches its maximum, prefetches are dropped (not delayed) until the window frees up.
+ * Every prefetch missing the result cache is charged a request, whether it succeeds or fails, so
+ * the budget holds on a failing network too. Details served from the cache are free.
+ *
+ * This class is thread safe.
+ */
+public class TMDBMovieDetailPrefetcher {
+
+    private static final String LOG_TAG = TMDBMovieDetailPrefetcher.class.getSimpleName();
+
+    private static final long BUDGET_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final CachingTMDBMovieClient mMovieClient;
+    private final TaskScheduler mTaskScheduler;
+    private final HttpTransferStats mTransferStats;
+    private final int mMaxRequestsPerMinute;
+    private final long mMaxBytesPerMinute;
+
+    // All fields below are guarded by mLock.
+    private final Object mLock = new Object();
+    private final Deque<Spend> mSpends;
+    private int mWindowRequestCount;
+    private long mWindowBytes;
+    private long mPrefetchCount;
+    private long mDroppedCount;
+
+    /**
+     * Construct a new TMDBMovieDetailPrefetcher.
+     *
+     * @param movieClient the {@link CachingTMDBMovieClient} to warm.
+     * @param taskScheduler the {@link TaskScheduler} to prefetch on.
+     * @param transferStats the {@link HttpTransferStats} the movie client's downloads are recorded
+     *                      in. Used to meter the bytes spent by prefetches.
+     * @param maxRequestsPerMinute the maximum number of prefetch requests made within any minute.
+     *                             Must be non-negative. 0 disables prefetching.
+     * @param maxBytesPerMinute the maximum number of bytes received over the wire by prefetches
+     *                          within any minute. Must be non-negative. 0 disables prefetching.
+     */
+    TMDBMovieDetailPrefetcher(final CachingTMDBMovieClient movieClient,
+                              final TaskScheduler taskScheduler,
+                              final HttpTransferStats transferStats,
+                              final int maxRequestsPerMinute,
+                              final long maxBytesPerMinute) {
+
+        Preconditions.checkNotNull(movieClient, "movieClient must not be null.");
+        Preconditions.checkNotNull(taskScheduler, "taskScheduler must not be null.");
+        Preconditions.checkNotNull(transferStats, "transferStats must not be null.");
+        Preconditions.checkArgument(maxRequestsPerMinute >= 0,
+                "maxRequestsPerMinute must be non-negative.");
+        Preconditions.checkArgument(maxBytesPerMinute >= 0,
+                "maxBytesPerMinute must be non-negative.");
+
+        this.mMovieClient = movieClient;
+        this.mTaskScheduler = taskScheduler;
+        this.mTransferStats = transferStats;
+        this.mMaxRequestsPerMinute = maxRequestsPerMinute;
+        this.mMaxBytesPerMinute = maxBytesPerMinute;
+        this.mSpends = new ArrayDeque<>();
+    }
+
+    /**
+     * Prefetch the details of the given movies, in order. Movies are prefetched one at a time; the
+     * budget is checked as each prefetch starts.
+     *
+     * @param movieIds the unique TMDB identifiers of the movies, most likely to be opened first.
+     * @param cancellationToken the {@link CancellationToken} cancelling prefetches not yet made,
+     *                          e.g. once the movies scroll out of view.
+     */
+    public void prefetch(final Collection<Long> movieIds,
+                         final CancellationToken cancellationToken) {
+
+        Preconditions.checkNotNull(movieIds, "movieIds must not be null.");
+        Preconditions.checkNotNull(cancellationToken, "cancellationToken must not be null.");
+
+        if (mMaxRequestsPerMinute == 0 || mMaxBytesPerMinute == 0) {
+            return;
+        }
+
+        for (final long movieId : movieIds) {
+            mTaskScheduler.submit(TaskScheduler.Priority.BACKGROUND, cancellationToken,
+                    new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            prefetch(movieId);
+                            return null;
+                        }
+                    }, null);
+        }
+    }
+
+    /**
+     * @return the number of prefetches made, including those served from the cache.
+     */
+    public long getPrefetchCount() {
+        synchronized (mLock) {
+            return mPrefetchCount;
+        }
+    }
+
+    /**
+     * @return the number of prefetches dropped for exceeding the budget.
+     */
+    public long getDroppedCount() {
+        synchronized (mLock) {
+            return mDroppedCount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (mLock) {
+            return "[ PrefetchCount=" + mPrefetchCount +
+                    ", DroppedCount=" + mDroppedCount +
+                    ", WindowRequestCount=" + mWindowRequestCount +
+                    ", WindowBytes=" + mWindowBytes +
+                    " ]";
+        }
+    }
+
+    private void prefetch(final long movieId) {
+
+        if (!isWithinBudget(System.nanoTime())) {
+            Log.d(LOG_TAG, String.format("Prefetch budget spent. Dropped movie %d.", movieId));
+            return;
+        }
+
+        final long missCountBefore = mMovieClient.getMissCount();
+        final long wireBytesBefore = getWireBytes();
+
+        try {
+            mMovieClient.getMovieDetails(
+                    movieId, MovieDetails.Part.REVIEWS, MovieDetails.Part.VIDEOS);
+        } catch (DataAccessRequestException | DataAccessParsingException ex) {
+            if (!CancellationToken.current().isCancelled()) {
+                Log.d(LOG_TAG, String.format("Failed to prefetch movie %d.", movieId), ex);
+            }
+        } finally {
+            // Cache misses and movie detail bytes of other queries made meanwhile are charged too,
+            // which errs on the side of prefetching less.
+            final boolean isCacheMiss = mMovieClient.getMissCount() != missCountBefore;
+            spend(System.nanoTime(), isCacheMiss, getWireBytes() - wireBytesBefore);
+        }
+    }
+
+    private boolean isWithinBudget(final long nowNanos) {
+
+        synchronized (mLock) {
+            expireSpends(nowNanos);
+            if (mWindowRequestCount >= mMaxRequestsPerMinute ||
+                    mWindowBytes >= mMaxBytesPerMinute) {
+                mDroppedCount++;
+                return false;
+            }
+            mPrefetchCount++;
+            return true;
+        }
+    }
+
+    private void spend(final long nowNanos, final boolean isCacheMiss, final long wireBytes) {
+
+        if (!isCacheMiss && wireBytes == 0) {
+            return;
+        }
+        synchronized (mLock) {
+            // Retries of a request are not charged again, but the bytes they received are.
+            final Spend spend = new Spend(nowNanos, isCacheMiss, wireBytes);
+            mSpends.addLast(spend);
+            if (spend.mIsRequest) {
+                mWindowRequestCount++;
+            }
+            mWindowBytes += spend.mBytes;
+        }
+    }
+
+    private void expireSpends(final long nowNanos) {
+
+        while (!mSpends.isEmpty() &&
+                nowNanos - mSpends.peekFirst().mAtNanos >= BUDGET_WINDOW_NANOS) {
+            final Spend spend = mSpends.removeFirst();
+            if (spend.mIsRequest) {
+                mWindowRequestCount--;
+            }
+            mWindowBytes -= spend.mBytes;
+        }
+    }
+
+    private long getWireBytes() {
+
+        final HttpTransferStats.Endpoint stats =
+                mTransferStats.getEndpoint(TMDBURLBuilder.Endpoint.MOVIE);
+        return (stats != null) ? stats.getWireBytes() : 0;
+    }
+
+    /*
+     * A prefetch charged within the budget window: whether it made a request, and the bytes
+     * received over the wire meanwhile.
+     */
+    private static class Spend {
+
+        private final long mAtNanos;
+        private final boolean mIsRequest;
+        private final long mBytes;
+
+        Spend(final long atNanos, final boolean isRequest, final long bytes) {
+            this.mAtNanos = atNanos;
+            this.mIsRequest = isRequest;
+            this.mBytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.exception.DataAccessIterationException;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A TMDBMovieResultSet is an {@link Iterable} over every {@link Movie} of a TMDB movie list (the
+ * popular or top rated result set), across all of its pages.
+ *
+ * Pages are requested lazily through a {@link TMDBMovieClient}: nothing is requested until
+ * iteration starts, and iteration stops after the last page (as reported by
+ * {@link DataPage#getTotalPageCount()}, capped at {@link TMDBMovieClient#MAX_PAGE_NUMBER}). While
+ * a page is consumed, up to <b>readAheadPageCount</b> following pages are requested on an
+ * {@link Executor}. A page is released as soon as its last movie has been returned, so at most
+ * 1 + readAheadPageCount pages are held at a time.
+ *
+ * Each call to {@link #iterator()} iterates the result set from its first page. TMDB pages shift
+ * as the list is updated, so a movie may be returned twice, or not at all, by a single iteration.
+ *
+ * Request and parsing failures are thrown from {@link Iterator#hasNext()} and
+ * {@link Iterator#next()} as {@link DataAccessIterationException}s, after which the iterator is
+ * exhausted.
+ */
+public class TMDBMovieResultSet implements Iterable<Movie> {
+
+    private final TMDBMovieClient mTMDBMovieClient;
+    private final @TMDBURLBuilder.Endpoint.Def String mEndpoint;
+    private final int mReadAheadPageCount;
+    private final Executor mExecutor;
+
+    /**
+     * Create a TMDBMovieResultSet over all popular movies.
+     *
+     * @param tmdbMovieClient the {@link TMDBMovieClient} to request pages through.
+     * @param readAheadPageCount the number of pages to request ahead of the page being consumed.
+     *                           Must be non-negative.
+     * @param executor the {@link Executor} to request pages on.
+     * @return a TMDBMovieResultSet over all popular movies.
+     */
+    public static TMDBMovieResultSet popularMovies(final TMDBMovieClient tmdbMovieClient,
+                                                   final int readAheadPageCount,
+                                                   final Executor executor) {
+        return new TMDBMovieResultSet(tmdbMovieClient, TMDBURLBuilder.Endpoint.MOVIES_POPULAR,
+                readAheadPageCount, executor);
+    }
+
+    /**
+     * Create a TMDBMovieResultSet over all top rated movies.
+     *
+     * @param tmdbMovieClient the {@link TMDBMovieClient} to request pages through.
+     * @param readAheadPageCount the number of pages to request ahead of the page being consumed.
+     *                           Must be non-negative.
+     * @param executor the {@link Executor} to request pages on.
+     * @return a TMDBMovieResultSet over all top rated movies.
+     */
+    public static TMDBMovieResultSet topRatedMovies(final TMDBMovieClient tmdbMovieClient,
+                                                    final int readAheadPageCount,
+                                                    final Executor executor) {
+        return new TMDBMovieResultSet(tmdbMovieClient, TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED,
+                readAheadPageCount, executor);
+    }
+
+    private TMDBMovieResultSet(final TMDBMovieClient tmdbMovieClient,
+                               final @TMDBURLBuilder.Endpoint.Def String endpoint,
+                               final int readAheadPageCount,
+                               final Executor executor) {
+
+        Preconditions.checkNotNull(tmdbMovieClient, "tmdbMovieClient must not be null.");
+        Preconditions.checkArgument(readAheadPageCount >= 0,
+                "readAheadPageCount must be non-negative.");
+        Preconditions.checkNotNull(executor, "executor must not be null.");
+
+        this.mTMDBMovieClient = tmdbMovieClient;
+        this.mEndpoint = endpoint;
+        this.mReadAheadPageCount = readAheadPageCount;
+        this.mExecutor = executor;
+    }
+
+    @Override
+    public Iterator<Movie> iterator() {
+        return new MovieIterator();
+    }
+
+    /*
+     * Iterates the movies of one page at a time, keeping the requests of the following pages in
+     * flight.
+     */
+    private class MovieIterator implements Iterator<Movie> {
+
+        // Requests of the pages following the current one, in page order.
+        private final Deque<Future<DataPage<Movie>>> mPageRequests = new ArrayDeque<>();
+        private Iterator<Movie> mCurrentPageMovies = Collections.<Movie>emptyList().iterator();
+        private int mNextRequestedPageNumber = 1;
+        // Unknown until the first page arrives.
+        private int mTotalPageCount = 1;
+        private boolean mIsExhausted = false;
+
+        @Override
+        public boolean hasNext() {
+
+            while (!mCurrentPageMovies.hasNext()) {
+                if (mIsExhausted) {
+                    return false;
+                }
+
+                if (mPageRequests.isEmpty()) {
+                    requestPages(1);
+                    if (mPageRequests.isEmpty()) {
+                        mIsExhausted = true;
+                        return false;
+                    }
+                }
+
+                final DataPage<Movie> page = awaitPage(mPageRequests.removeFirst());
+                mTotalPageCount = Math.min(page.getTotalPageCount(),
+                        TMDBMovieClient.MAX_PAGE_NUMBER);
+                // Replacing the iterator releases the previous page.
+                mCurrentPageMovies = page.getResults().iterator();
+                requestPages(mReadAheadPageCount);
+            }
+            return true;
+        }
+
+        @Override
+        public Movie next() {
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return mCurrentPageMovies.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("TMDB result sets are read-only.");
+        }
+
+        /*
+         * Request pages until windowSize are in flight or the last page is requested. Until the
+         * first page arrives, the total page count is taken to be 1.
+         */
+        private void requestPages(final int windowSize) {
+
+            while (mPageRequests.size() < windowSize &&
+                    mNextRequestedPageNumber <= mTotalPageCount) {
+                final int pageNumber = mNextRequestedPageNumber++;
+                final FutureTask<DataPage<Movie>> pageRequest = new FutureTask<>(
+                        new Callable<DataPage<Movie>>() {
+                            @Override
+                            public DataPage<Movie> call()
+                                    throws DataAccessRequestException, DataAccessParsingException {
+                                return requestPage(pageNumber);
+                            }
+                        });
+                mPageRequests.addLast(pageRequest);
+                mExecutor.execute(pageRequest);
+            }
+        }
+
+        private DataPage<Movie> awaitPage(final Future<DataPage<Movie>> pageRequest) {
+
+            try {
+                return pageRequest.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw fail(new DataAccessRequestException(
+                        "Interrupted while awaiting a page of movies.", ex));
+            } catch (ExecutionException ex) {
+                throw fail(ex.getCause());
+            }
+        }
+
+        private DataAccessIterationException fail(final Throwable cause) {
+
+            mIsExhausted = true;
+            for (Future<DataPage<Movie>> pageRequest : mPageRequests) {
+                pageRequest.cancel(true);
+            }
+            mPageRequests.clear();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            return new DataAccessIterationException(
+                    String.format("Failed to iterate %s movies.", mEndpoint), cause);
+        }
+    }
+
+    private DataPage<Movie> requestPage(final int pageNumber)
+            throws DataAccessRequestException, DataAccessParsingException {
+
+        if (TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED.equals(mEndpoint)) {
+            return mTMDBMovieClient.getTopRatedMovies(pageNumber);
+        } else {
+            return mTMDBMovieClient.getPopularMovies(pageNumber);
+        }
+    }
+}
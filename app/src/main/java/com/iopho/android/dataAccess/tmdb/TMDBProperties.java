@@ -15,6 +15,31 @@ class TMDBProperties {
         private static final String REMOTE_CONFIG_CACHE_TTL_DAYS  = "REMOTE_CONFIG_CACHE_TTL_DAYS";
         private static final String HTTP_CONNECT_TIMEOUT          = "HTTP_CONNECT_TIMEOUT";
         private static final String HTTP_READ_TIMEOUT             = "HTTP_READ_TIMEOUT";
+        private static final String HTTP_MAX_IDLE_CONNECTIONS     = "HTTP_MAX_IDLE_CONNECTIONS";
+        private static final String HTTP_KEEP_ALIVE_DURATION      = "HTTP_KEEP_ALIVE_DURATION";
+        private static final String HTTP_COMPRESSION_ENABLED      = "HTTP_COMPRESSION_ENABLED";
+        private static final String HTTP_CACHE_DIR_NAME           = "HTTP_CACHE_DIR_NAME";
+        private static final String HTTP_CACHE_MAX_SIZE           = "HTTP_CACHE_MAX_SIZE";
+        private static final String RATE_LIMIT_PERMITS_PER_SECOND = "RATE_LIMIT_PERMITS_PER_SECOND";
+        private static final String RATE_LIMIT_BURST              = "RATE_LIMIT_BURST";
+        private static final String RETRY_MAX_ATTEMPTS            = "RETRY_MAX_ATTEMPTS";
+        private static final String RETRY_BASE_BACKOFF            = "RETRY_BASE_BACKOFF";
+        private static final String RETRY_MAX_BACKOFF             = "RETRY_MAX_BACKOFF";
+        private static final String RETRY_DEADLINE                = "RETRY_DEADLINE";
+        private static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD =
+                "CIRCUIT_BREAKER_FAILURE_THRESHOLD";
+        private static final String CIRCUIT_BREAKER_OPEN_DURATION = "CIRCUIT_BREAKER_OPEN_DURATION";
+        private static final String RESULT_CACHE_MAX_WEIGHT       = "RESULT_CACHE_MAX_WEIGHT";
+        private static final String RESULT_CACHE_MOVIES_TTL       = "RESULT_CACHE_MOVIES_TTL";
+        private static final String RESULT_CACHE_REVIEWS_TTL      = "RESULT_CACHE_REVIEWS_TTL";
+        private static final String RESULT_CACHE_VIDEOS_TTL       = "RESULT_CACHE_VIDEOS_TTL";
+        private static final String RESULT_CACHE_MOVIE_DETAILS_TTL =
+                "RESULT_CACHE_MOVIE_DETAILS_TTL";
+        private static final String JSON_STREAMING_ENABLED        = "JSON_STREAMING_ENABLED";
+        private static final String DETAIL_PREFETCH_MAX_REQUESTS_PER_MINUTE =
+                "DETAIL_PREFETCH_MAX_REQUESTS_PER_MINUTE";
+        private static final String DETAIL_PREFETCH_MAX_BYTES_PER_MINUTE =
+                "DETAIL_PREFETCH_MAX_BYTES_PER_MINUTE";
     }
 
 
@@ -74,4 +99,205 @@ class TMDBProperties {
     public int getHTTPReadTimeout() {
         return mApplicationProperties.getIntPropertyValue(Property.HTTP_READ_TIMEOUT);
     }
+
+    /**
+     * Maximum number of idle (keep-alive) connections to hold, over all hosts. 0 disables
+     * connection reuse.
+     *
+     * @return maximum number of idle connections.
+     */
+    public int getHTTPMaxIdleConnections() {
+        return mApplicationProperties.getIntPropertyValue(Property.HTTP_MAX_IDLE_CONNECTIONS);
+    }
+
+    /**
+     * Duration (in milliseconds) that an idle connection is kept alive before being closed.
+     *
+     * @return HTTP keep-alive duration.
+     */
+    public int getHTTPKeepAliveDuration() {
+        return mApplicationProperties.getIntPropertyValue(Property.HTTP_KEEP_ALIVE_DURATION);
+    }
+
+    /**
+     * When enabled, gzip/deflate compressed responses are requested from the TMDB Web Service.
+     *
+     * @return true iff HTTP response compression is enabled.
+     */
+    public boolean isHTTPCompressionEnabled() {
+        return mApplicationProperties.getBooleanPropertyValue(Property.HTTP_COMPRESSION_ENABLED);
+    }
+
+    /**
+     * @return the name of the HTTP response cache directory, relative to the application cache
+     * directory.
+     */
+    public String getHTTPCacheDirName() {
+        return mApplicationProperties.getStringPropertyValue(Property.HTTP_CACHE_DIR_NAME);
+    }
+
+    /**
+     * Maximum total size (in bytes) of the HTTP response cache. 0 disables the HTTP response cache.
+     *
+     * @return HTTP response cache maximum size.
+     */
+    public int getHTTPCacheMaxSize() {
+        return mApplicationProperties.getIntPropertyValue(Property.HTTP_CACHE_MAX_SIZE);
+    }
+
+    /**
+     * The sustained rate at which requests are made to the TMDB Web Service.
+     *
+     * @return the rate limit, in requests per second.
+     */
+    public int getRateLimitPermitsPerSecond() {
+        return mApplicationProperties.getIntPropertyValue(Property.RATE_LIMIT_PERMITS_PER_SECOND);
+    }
+
+    /**
+     * The maximum number of requests that can be made back to back to the TMDB Web Service after a
+     * period of inactivity.
+     *
+     * @return the rate limit burst size.
+     */
+    public int getRateLimitBurst() {
+        return mApplicationProperties.getIntPropertyValue(Property.RATE_LIMIT_BURST);
+    }
+
+    /**
+     * Maximum number of attempts (including the first) made for a single TMDB query. 1 disables
+     * retries.
+     *
+     * @return maximum number of attempts per query.
+     */
+    public int getRetryMaxAttempts() {
+        return mApplicationProperties.getIntPropertyValue(Property.RETRY_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Backoff ceiling (in milliseconds) before the first retry. The ceiling doubles with every
+     * subsequent retry.
+     *
+     * @return retry base backoff.
+     */
+    public int getRetryBaseBackoff() {
+        return mApplicationProperties.getIntPropertyValue(Property.RETRY_BASE_BACKOFF);
+    }
+
+    /**
+     * Maximum backoff ceiling (in milliseconds) between retries.
+     *
+     * @return retry maximum backoff.
+     */
+    public int getRetryMaxBackoff() {
+        return mApplicationProperties.getIntPropertyValue(Property.RETRY_MAX_BACKOFF);
+    }
+
+    /**
+     * Overall time budget (in milliseconds) of a single TMDB query across all of its attempts.
+     *
+     * @return retry deadline.
+     */
+    public int getRetryDeadline() {
+        return mApplicationProperties.getIntPropertyValue(Property.RETRY_DEADLINE);
+    }
+
+    /**
+     * Number of consecutive transient failures after which requests to the TMDB Web Service are
+     * stopped (the circuit breaker opens).
+     *
+     * @return circuit breaker failure threshold.
+     */
+    public int getCircuitBreakerFailureThreshold() {
+        return mApplicationProperties.getIntPropertyValue(
+                Property.CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+    }
+
+    /**
+     * Duration (in milliseconds) that requests are stopped for once the circuit breaker opens,
+     * before a trial request is made.
+     *
+     * @return circuit breaker open duration.
+     */
+    public int getCircuitBreakerOpenDuration() {
+        return mApplicationProperties.getIntPropertyValue(Property.CIRCUIT_BREAKER_OPEN_DURATION);
+    }
+
+    /**
+     * Maximum total weight of parsed query results held in memory. A result weighs the number of
+     * items (movies, reviews or videos) it holds.
+     *
+     * @return in-memory result cache maximum weight.
+     */
+    public int getResultCacheMaxWeight() {
+        return mApplicationProperties.getIntPropertyValue(Property.RESULT_CACHE_MAX_WEIGHT);
+    }
+
+    /**
+     * Duration (in milliseconds) that parsed movie list results are held in memory.
+     *
+     * @return in-memory movie list result TTL.
+     */
+    public int getResultCacheMoviesTTL() {
+        return mApplicationProperties.getIntPropertyValue(Property.RESULT_CACHE_MOVIES_TTL);
+    }
+
+    /**
+     * Duration (in milliseconds) that parsed movie review results are held in memory.
+     *
+     * @return in-memory movie review result TTL.
+     */
+    public int getResultCacheReviewsTTL() {
+        return mApplicationProperties.getIntPropertyValue(Property.RESULT_CACHE_REVIEWS_TTL);
+    }
+
+    /**
+     * Duration (in milliseconds) that parsed movie video results are held in memory.
+     *
+     * @return in-memory movie video result TTL.
+     */
+    public int getResultCacheVideosTTL() {
+        return mApplicationProperties.getIntPropertyValue(Property.RESULT_CACHE_VIDEOS_TTL);
+    }
+
+    /**
+     * Duration (in milliseconds) that parsed movie details results are held in memory.
+     *
+     * @return in-memory movie details result TTL.
+     */
+    public int getResultCacheMovieDetailsTTL() {
+        return mApplicationProperties.getIntPropertyValue(
+                Property.RESULT_CACHE_MOVIE_DETAILS_TTL);
+    }
+
+    /**
+     * When enabled, responses are decoded directly from the response stream instead of first
+     * being read into a {@link org.json.JSONObject} tree.
+     *
+     * @return true iff the streaming JSON parser is enabled.
+     */
+    public boolean isJSONStreamingEnabled() {
+        return mApplicationProperties.getBooleanPropertyValue(Property.JSON_STREAMING_ENABLED);
+    }
+
+    /**
+     * The maximum number of requests made to prefetch movie details within any minute.
+     *
+     * @return the movie detail prefetch request budget.
+     */
+    public int getDetailPrefetchMaxRequestsPerMinute() {
+        return mApplicationProperties.getIntPropertyValue(
+                Property.DETAIL_PREFETCH_MAX_REQUESTS_PER_MINUTE);
+    }
+
+    /**
+     * The maximum number of bytes received over the wire when prefetching movie details within
+     * any minute.
+     *
+     * @return the movie detail prefetch byte budget.
+     */
+    public int getDetailPrefetchMaxBytesPerMinute() {
+        return mApplicationProperties.getIntPropertyValue(
+                Property.DETAIL_PREFETCH_MAX_BYTES_PER_MINUTE);
+    }
 }
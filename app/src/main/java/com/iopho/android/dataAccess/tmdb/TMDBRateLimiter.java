@@ -0,0 +1,249 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A TMDBRateLimiter paces requests to the TMDB Web Service using a token bucket.
+ *
+ * The bucket holds up to <b>burst</b> permits and is refilled at <b>permitsPerSecond</b>. Each
+ * request takes one permit; when the bucket is empty, the caller is queued until a permit becomes
+ * available instead of being failed. Callers are served in the order they arrive (the bucket is
+ * guarded by a fair lock and each caller reserves its slot before waiting).
+ *
+ * When the server signals throttling (429 Too Many Requests, or a Retry-After header), the
+ * limiter can be {@link #pause(long)}d: the bucket is emptied and no permits are handed out until
+ * the pause elapses.
+ *
+ * This class is thread safe.
+ */
+class TMDBRateLimiter {
+
+    /**
+     * A SleepingTicker is the time source of a TMDBRateLimiter: it reads the time and waits for
+     * it to pass. Lets tests drive a limiter with a fake clock.
+     */
+    abstract static class SleepingTicker {
+
+        /**
+         * The system time source, reading {@link System#nanoTime()}.
+         */
+        static final SleepingTicker SYSTEM = new SleepingTicker() {
+            @Override
+            long read() {
+                return System.nanoTime();
+            }
+
+            @Override
+            void sleep(final long nanos) throws InterruptedException {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        };
+
+        /**
+         * @return the current time, in nanoseconds. Only meaningful relative to other reads.
+         */
+        abstract long read();
+
+        /**
+         * Block for the given duration.
+         *
+         * @param nanos the duration, in nanoseconds.
+         * @throws InterruptedException if interrupted while blocked.
+         */
+        abstract void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final SleepingTicker mTicker;
+    private final long mPermitIntervalNanos;
+    private final int mBurst;
+    private final ReentrantLock mLock;
+
+    // All fields below are guarded by mLock.
+
+    private double mStoredPermits;
+    // The time (mTicker) at which the next permit, beyond those stored, becomes available.
+    private long mNextFreePermitNanos;
+    // No permits are handed out before this time (mTicker).
+    private long mPausedUntilNanos;
+
+    private long mAcquireCount;
+    private long mThrottledCount;
+    private long mPauseCount;
+
+    /**
+     * Construct a new TMDBRateLimiter. The bucket starts full.
+     *
+     * @param permitsPerSecond the sustained rate at which permits are handed out. Must be positive.
+     * @param burst the maximum number of permits that can be stored, i.e. the maximum number of
+     *              requests that can be made back to back after a period of inactivity. Must be
+     *              positive.
+     */
+    TMDBRateLimiter(final double permitsPerSecond, final int burst) {
+        this(permitsPerSecond, burst, SleepingTicker.SYSTEM);
+    }
+
+    /**
+     * Construct a new TMDBRateLimiter on the given time source. The bucket starts full.
+     *
+     * @param permitsPerSecond the sustained rate at which permits are handed out. Must be positive.
+     * @param burst the maximum number of permits that can be stored. Must be positive.
+     * @param ticker the {@link SleepingTicker} to read the time from and wait on.
+     */
+    TMDBRateLimiter(final double permitsPerSecond, final int burst, final SleepingTicker ticker) {
+
+        Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond must be positive.");
+        Preconditions.checkArgument(burst > 0, "burst must be positive.");
+        Preconditions.checkNotNull(ticker, "ticker must not be null.");
+
+        this.mTicker = ticker;
+        this.mPermitIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.mBurst = burst;
+        this.mLock = new ReentrantLock(true);
+
+        final long now = ticker.read();
+        this.mStoredPermits = burst;
+        this.mNextFreePermitNanos = now;
+        this.mPausedUntilNanos = now;
+    }
+
+    /**
+     * Take a permit, blocking until one is available.
+     *
+     * @return the time spent waiting for a permit, in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    long acquire() throws InterruptedException {
+
+        final long start = mTicker.read();
+
+        long waitNanos = reserve(start);
+        while (waitNanos > 0) {
+            mTicker.sleep(waitNanos);
+            // A pause may have been requested while waiting.
+            waitNanos = getRemainingPauseNanos(mTicker.read());
+        }
+
+        return mTicker.read() - start;
+    }
+
+    /**
+     * Stop handing out permits for the given duration and discard all stored permits. Requests
+     * already waiting for a permit are held back until the pause elapses. Overlapping pauses do
+     * not accumulate; the latest end time wins.
+     *
+     * @param durationMillis the pause duration, in milliseconds. Must be non-negative.
+     */
+    void pause(final long durationMillis) {
+
+        Preconditions.checkArgument(durationMillis >= 0, "durationMillis must be non-negative.");
+
+        mLock.lock();
+        try {
+            final long now = mTicker.read();
+            final long pausedUntil = now + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+            mPausedUntilNanos = Math.max(mPausedUntilNanos, pausedUntil);
+            mNextFreePermitNanos = Math.max(mNextFreePermitNanos, mPausedUntilNanos);
+            mStoredPermits = 0;
+            mPauseCount++;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of permits handed out.
+     */
+    long getAcquireCount() {
+        mLock.lock();
+        try {
+            return mAcquireCount;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of permits that could not be handed out immediately.
+     */
+    long getThrottledCount() {
+        mLock.lock();
+        try {
+            return mThrottledCount;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of times the limiter was paused by the server.
+     */
+    long getPauseCount() {
+        mLock.lock();
+        try {
+            return mPauseCount;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[ AcquireCount=" + getAcquireCount() +
+                ", ThrottledCount=" + getThrottledCount() +
+                ", PauseCount=" + getPauseCount() +
+                " ]";
+    }
+
+    /*
+     * Reserve the next permit and return how long the caller must wait before using it.
+     */
+    private long reserve(final long now) {
+
+        mLock.lock();
+        try {
+            refill(now);
+
+            final long waitNanos = Math.max(0, mNextFreePermitNanos - now);
+
+            // Take what is stored and borrow the remainder of the permit against the future. The
+            // borrowed time is paid for by the next caller, which queues behind this one.
+            final double storedPermitsSpent = Math.min(1, mStoredPermits);
+            mStoredPermits -= storedPermitsSpent;
+            mNextFreePermitNanos += (long) ((1 - storedPermitsSpent) * mPermitIntervalNanos);
+
+            mAcquireCount++;
+            if (waitNanos > 0) {
+                mThrottledCount++;
+            }
+            return waitNanos;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /*
+     * Add the permits accrued since the next free permit time, up to the burst size.
+     */
+    private void refill(final long now) {
+
+        if (now > mNextFreePermitNanos) {
+            final double accrued = (double) (now - mNextFreePermitNanos) / mPermitIntervalNanos;
+            mStoredPermits = Math.min(mBurst, mStoredPermits + accrued);
+            mNextFreePermitNanos = now;
+        }
+    }
+
+    private long getRemainingPauseNanos(final long now) {
+
+        mLock.lock();
+        try {
+            return Math.max(0, mPausedUntilNanos - now);
+        } finally {
+            mLock.unlock();
+        }
+    }
+}
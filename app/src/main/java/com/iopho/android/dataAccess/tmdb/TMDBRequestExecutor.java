@@ -0,0 +1,298 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.DataAccessMetrics;
+import com.iopho.android.dataAccess.exception.CircuitBreakerOpenException;
+import com.iopho.android.util.HttpStatusException;
+import com.iopho.android.util.HttpURLDownloader;
+import com.iopho.android.util.ResponseBodyReader;
+import com.iopho.android.util.Tracer;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A TMDBRequestExecutor makes HTTP requests to the TMDB Web Service on behalf of all TMDB clients.
+ *
+ * It is the single point through which TMDB requests flow. Every request first takes a permit from
+ * a shared {@link TMDBRateLimiter}. When TMDB throttles a request (429 Too Many Requests) or
+ * reports itself unavailable with a Retry-After header (503 Service Unavailable), the rate limiter
+ * is paused so that all clients back off together.
+ *
+ * Failed attempts are retried as directed by a {@link TMDBRetryPolicy}. Each retry takes a new
+ * rate limiter permit. Each attempt is bounded by the time left before the retry policy's deadline,
+ * so the deadline bounds the whole call, including an attempt that is still in flight.
+ *
+ * Attempts are guarded by a {@link TMDBCircuitBreaker}. While the circuit for the TMDB host is
+ * open, requests are not made: a previously cached response is served if one exists (even if it
+ * could not be revalidated), otherwise a {@link CircuitBreakerOpenException} is thrown.
+ *
+ * Requests refused by the circuit breaker are recorded as errors in a {@link DataAccessMetrics}.
+ * (Requests that are made are recorded by the {@link HttpURLDownloader} itself.)
+ *
+ * This class is thread safe.
+ */
+class TMDBRequestExecutor {
+
+    private static final String LOG_TAG = TMDBRequestExecutor.class.getSimpleName();
+
+    // Pause applied when TMDB throttles a request without saying for how long.
+    private static final long DEFAULT_THROTTLE_PAUSE_MILLIS = 1000;
+
+    private final HttpURLDownloader mHTTPURLDownloader;
+    private final TMDBRateLimiter mRateLimiter;
+    private final TMDBRetryPolicy mRetryPolicy;
+    private final TMDBCircuitBreaker mCircuitBreaker;
+    private final DataAccessMetrics mMetrics;
+
+    private final AtomicLong mRetryCount;
+
+    /**
+     * Construct a new TMDBRequestExecutor.
+     *
+     * @param httpURLDownloader an HttpURLDownloader to make HTTP requests.
+     * @param rateLimiter the {@link TMDBRateLimiter} pacing all requests.
+     * @param retryPolicy the {@link TMDBRetryPolicy} deciding which failed requests are retried.
+     * @param circuitBreaker the {@link TMDBCircuitBreaker} guarding all requests.
+     * @param metrics the {@link DataAccessMetrics} to record refused requests in.
+     */
+    TMDBRequestExecutor(final HttpURLDownloader httpURLDownloader,
+                        final TMDBRateLimiter rateLimiter,
+                        final TMDBRetryPolicy retryPolicy,
+                        final TMDBCircuitBreaker circuitBreaker,
+                        final DataAccessMetrics metrics) {
+
+        Preconditions.checkNotNull(httpURLDownloader, "httpURLDownloader must not be null.");
+        Preconditions.checkNotNull(rateLimiter, "rateLimiter must not be null.");
+        Preconditions.checkNotNull(retryPolicy, "retryPolicy must not be null.");
+        Preconditions.checkNotNull(circuitBreaker, "circuitBreaker must not be null.");
+        Preconditions.checkNotNull(metrics, "metrics must not be null.");
+
+        this.mHTTPURLDownloader = httpURLDownloader;
+        this.mRateLimiter = rateLimiter;
+        this.mRetryPolicy = retryPolicy;
+        this.mCircuitBreaker = circuitBreaker;
+        this.mMetrics = metrics;
+        this.mRetryCount = new AtomicLong();
+    }
+
+    /**
+     * Request the given TMDB {@link URL} and read the response body into a {@link String}.
+     *
+     * @see {@link #execute(URL, String, HttpURLDownloader.ResponseHandler)}
+     */
+    String execute(final URL url, final @TMDBURLBuilder.Endpoint.Def String endpoint)
+            throws IOException, CircuitBreakerOpenException {
+
+        try {
+            return execute(url, endpoint, new HttpURLDownloader.ResponseHandler<String>() {
+                @Override
+                public String handleResponse(final InputStream inputStream,
+                                             final long contentLength) throws IOException {
+                    return ResponseBodyReader.getDefault()
+                            .read(inputStream, contentLength)
+                            .asString();
+                }
+            });
+        } catch (ParseException ex) {
+            // Never thrown when reading the raw response body.
+            throw new IOException("Failed to read response.", ex);
+        }
+    }
+
+    /**
+     * Request the given TMDB {@link URL}, blocking until the rate limiter allows it, and pass the
+     * response body to the given {@link HttpURLDownloader.ResponseHandler}. Transient failures are
+     * retried, within the retry policy's deadline, which no attempt may outlast.
+     *
+     * @param url the request URL.
+     * @param endpoint the requested endpoint.
+     * @param responseHandler the {@link HttpURLDownloader.ResponseHandler} consuming the response
+     *                        body.
+     * @param <T> the type of result produced by the response handler.
+     * @return the result produced by the response handler.
+     * @throws IOException if the request fails, after any retries. An
+     * {@link InterruptedIOException} is thrown if the calling thread is interrupted while waiting
+     * for the rate limiter or between retries. A {@link SocketTimeoutException} is thrown if the
+     * deadline passes.
+     * @throws ParseException if the response handler fails to interpret the response body.
+     * @throws CircuitBreakerOpenException if the TMDB host's circuit breaker is open and no cached
+     * response is available.
+     */
+    <T> T execute(final URL url, final @TMDBURLBuilder.Endpoint.Def String endpoint,
+                  final HttpURLDownloader.ResponseHandler<T> responseHandler)
+            throws IOException, ParseException, CircuitBreakerOpenException {
+
+        Preconditions.checkNotNull(url, "url must not be null.");
+        Preconditions.checkNotNull(endpoint, "endpoint must not be null.");
+        Preconditions.checkNotNull(responseHandler, "responseHandler must not be null.");
+
+        final String host = url.getHost();
+        final long start = System.nanoTime();
+        IOException lastException = null;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mCircuitBreaker.checkPermitted(host);
+            } catch (CircuitBreakerOpenException ex) {
+                return readCachedResponse(url, endpoint, responseHandler, ex);
+            }
+
+            acquirePermit(endpoint);
+
+            // The rate limiter may have used up what was left of the deadline.
+            final long remainingMillis = mRetryPolicy.getRemainingMillis(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (remainingMillis <= 0) {
+                final SocketTimeoutException timeoutException = new SocketTimeoutException(
+                        String.format("Deadline of request to %s passed before attempt %d.",
+                                endpoint, attempt));
+                timeoutException.initCause(lastException);
+                throw timeoutException;
+            }
+
+            try {
+                final T result = mHTTPURLDownloader.downloadURL(url, endpoint, remainingMillis,
+                        responseHandler);
+                mCircuitBreaker.onSuccess(host);
+                return result;
+            } catch (ParseException ex) {
+                mCircuitBreaker.onSuccess(host);
+                throw ex;
+            } catch (IOException ex) {
+                if (TMDBRetryPolicy.isTransient(ex)) {
+                    mCircuitBreaker.onFailure(host, ex);
+                } else if (!(ex instanceof InterruptedIOException)) {
+                    // The host responded (e.g. with a client error or an unexpected body).
+                    mCircuitBreaker.onSuccess(host);
+                }
+
+                if (ex instanceof HttpStatusException) {
+                    onHttpStatusException(endpoint, (HttpStatusException) ex);
+                }
+
+                final long elapsedMillis =
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                final long retryDelayMillis =
+                        mRetryPolicy.getRetryDelayMillis(endpoint, attempt, elapsedMillis, ex);
+                if (retryDelayMillis < 0) {
+                    throw ex;
+                }
+                lastException = ex;
+
+                Log.w(LOG_TAG, String.format("Attempt %d of request to %s failed (%s). " +
+                        "Retrying in %d ms.", attempt, endpoint, ex.getMessage(),
+                        retryDelayMillis));
+                mRetryCount.incrementAndGet();
+                final Tracer.Span span = Tracer.currentSpan().startChild("retryDelay")
+                        .putArg("attempt", attempt);
+                try {
+                    sleep(retryDelayMillis);
+                } finally {
+                    span.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the {@link TMDBRateLimiter} pacing all requests.
+     */
+    TMDBRateLimiter getRateLimiter() {
+        return mRateLimiter;
+    }
+
+    /**
+     * @return the {@link TMDBCircuitBreaker} guarding all requests.
+     */
+    TMDBCircuitBreaker getCircuitBreaker() {
+        return mCircuitBreaker;
+    }
+
+    /**
+     * @return the number of failed attempts that were retried.
+     */
+    long getRetryCount() {
+        return mRetryCount.get();
+    }
+
+    private void acquirePermit(final String endpoint) throws InterruptedIOException {
+
+        final Tracer.Span span = Tracer.currentSpan().startChild("rateLimit");
+        try {
+            final long waitNanos = mRateLimiter.acquire();
+            if (waitNanos > 0) {
+                Log.d(LOG_TAG, String.format("Request to %s delayed %d ms by the rate limiter.",
+                        endpoint, waitNanos / 1000000));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interruptedIOException = new InterruptedIOException(
+                    "Interrupted while waiting for the rate limiter.");
+            interruptedIOException.initCause(ex);
+            throw interruptedIOException;
+        } finally {
+            span.end();
+        }
+    }
+
+    /*
+     * Serve a request refused by the circuit breaker from the response cache. Rethrows the
+     * CircuitBreakerOpenException if no cached response exists.
+     */
+    private <T> T readCachedResponse(final URL url, final String endpoint,
+                                     final HttpURLDownloader.ResponseHandler<T> responseHandler,
+                                     final CircuitBreakerOpenException ex)
+            throws IOException, ParseException, CircuitBreakerOpenException {
+
+        try {
+            final T result = mHTTPURLDownloader.readCachedURL(url, endpoint, responseHandler);
+            Log.w(LOG_TAG, String.format("Circuit breaker open. Served %s from cache.", endpoint));
+            return result;
+        } catch (FileNotFoundException notCachedException) {
+            mMetrics.recordError(endpoint, ex);
+            throw ex;
+        }
+    }
+
+    private static void sleep(final long millis) throws InterruptedIOException {
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interruptedIOException = new InterruptedIOException(
+                    "Interrupted while waiting to retry.");
+            interruptedIOException.initCause(ex);
+            throw interruptedIOException;
+        }
+    }
+
+    private void onHttpStatusException(final String endpoint, final HttpStatusException ex) {
+
+        final long retryAfterMillis = ex.getRetryAfterMillis();
+
+        if (ex.getResponseCode() == HttpStatusException.HTTP_TOO_MANY_REQUESTS) {
+            final long pauseMillis = (retryAfterMillis != HttpStatusException.NO_RETRY_AFTER) ?
+                    retryAfterMillis : DEFAULT_THROTTLE_PAUSE_MILLIS;
+            Log.w(LOG_TAG, String.format("Request to %s throttled. Pausing requests for %d ms.",
+                    endpoint, pauseMillis));
+            mRateLimiter.pause(pauseMillis);
+        } else if (ex.getResponseCode() == HttpURLConnection.HTTP_UNAVAILABLE &&
+                retryAfterMillis != HttpStatusException.NO_RETRY_AFTER) {
+            Log.w(LOG_TAG, String.format("TMDB unavailable. Pausing requests for %d ms.",
+                    retryAfterMillis));
+            mRateLimiter.pause(retryAfterMillis);
+        }
+    }
+}
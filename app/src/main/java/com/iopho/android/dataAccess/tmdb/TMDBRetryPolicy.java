@@ -0,0 +1,147 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.stream.MalformedJsonException;
+import com.iopho.android.util.HttpStatusException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A TMDBRetryPolicy decides whether, and after how long, a failed TMDB request is retried.
+ *
+ * Only requests to endpoints known to be idempotent are retried, and only for transient failures:
+ * I/O errors (connection failures, timeouts, truncated responses), 429 (Too Many Requests) and 5xx
+ * server errors. Malformed responses, other client errors and interruptions are never retried.
+ *
+ * Backoff between attempts is exponential with full jitter: the delay before attempt <i>n + 1</i>
+ * is chosen uniformly at random in [0, min(maxBackoff, baseBackoff * 2^(n - 1))], so that clients
+ * failing together do not retry together. A server-provided Retry-After delay takes precedence
+ * when it is longer.
+ *
+ * All attempts of a logical call share a deadline: a retry is only made if its backoff ends
+ * before the deadline, and each attempt may only take the time remaining until it (see
+ * {@link #getRemainingMillis(long)}).
+ *
+ * This class is thread safe.
+ */
+class TMDBRetryPolicy {
+
+    private final int mMaxAttempts;
+    private final long mBaseBackoffMillis;
+    private final long mMaxBackoffMillis;
+    private final long mDeadlineMillis;
+    private final Set<String> mRetryableEndpoints;
+    private final Random mRandom;
+
+    /**
+     * Construct a new TMDBRetryPolicy.
+     *
+     * @param maxAttempts the maximum number of attempts per logical call, including the first.
+     *                    Must be positive. A value of 1 disables retries.
+     * @param baseBackoffMillis the backoff ceiling, in milliseconds, before the first retry. Must
+     *                          be non-negative.
+     * @param maxBackoffMillis the maximum backoff ceiling, in milliseconds. Must be no less than
+     *                         <b>baseBackoffMillis</b>.
+     * @param deadlineMillis the overall time budget, in milliseconds, of a logical call across all
+     *                       of its attempts. Must be positive.
+     * @param retryableEndpoints the endpoints ({@link TMDBURLBuilder.Endpoint}) that are idempotent
+     *                           and thus safe to retry.
+     */
+    TMDBRetryPolicy(final int maxAttempts, final long baseBackoffMillis,
+                    final long maxBackoffMillis, final long deadlineMillis,
+                    final Set<String> retryableEndpoints) {
+
+        Preconditions.checkArgument(maxAttempts > 0, "maxAttempts must be positive.");
+        Preconditions.checkArgument(baseBackoffMillis >= 0,
+                "baseBackoffMillis must be non-negative.");
+        Preconditions.checkArgument(maxBackoffMillis >= baseBackoffMillis,
+                "maxBackoffMillis must be no less than baseBackoffMillis.");
+        Preconditions.checkArgument(deadlineMillis > 0, "deadlineMillis must be positive.");
+        Preconditions.checkNotNull(retryableEndpoints, "retryableEndpoints must not be null.");
+
+        this.mMaxAttempts = maxAttempts;
+        this.mBaseBackoffMillis = baseBackoffMillis;
+        this.mMaxBackoffMillis = maxBackoffMillis;
+        this.mDeadlineMillis = deadlineMillis;
+        this.mRetryableEndpoints = ImmutableSet.copyOf(retryableEndpoints);
+        this.mRandom = new Random();
+    }
+
+    /**
+     * Decide whether a failed attempt is to be retried.
+     *
+     * @param endpoint the requested endpoint.
+     * @param attempt the number of the attempt that failed, starting at 1.
+     * @param elapsedMillis the time spent on the logical call so far, in milliseconds.
+     * @param ex the failure.
+     * @return the delay, in milliseconds, before the next attempt, or a negative value if the call
+     * must not be retried.
+     */
+    long getRetryDelayMillis(final @TMDBURLBuilder.Endpoint.Def String endpoint,
+                             final int attempt, final long elapsedMillis,
+                             final IOException ex) {
+
+        if (attempt >= mMaxAttempts || !mRetryableEndpoints.contains(endpoint) ||
+                !isTransient(ex)) {
+            return -1;
+        }
+
+        long delayMillis = getJitteredBackoffMillis(attempt);
+        if (ex instanceof HttpStatusException) {
+            final long retryAfterMillis = ((HttpStatusException) ex).getRetryAfterMillis();
+            delayMillis = Math.max(delayMillis, retryAfterMillis);
+        }
+
+        return (elapsedMillis + delayMillis < mDeadlineMillis) ? delayMillis : -1;
+    }
+
+    /**
+     * @param elapsedMillis the time spent on the logical call so far, in milliseconds.
+     * @return the time, in milliseconds, left to the logical call before its deadline. Zero or
+     * less if the deadline has passed, in which case no further attempt may be made.
+     */
+    long getRemainingMillis(final long elapsedMillis) {
+        return mDeadlineMillis - elapsedMillis;
+    }
+
+    /*
+     * A random delay in [0, min(maxBackoff, baseBackoff * 2^(attempt - 1))].
+     */
+    private long getJitteredBackoffMillis(final int attempt) {
+
+        // Cap the shift so the ceiling cannot overflow before being clamped to the maximum.
+        final long ceilingMillis = Math.min(mMaxBackoffMillis,
+                mBaseBackoffMillis << Math.min(attempt - 1, 30));
+
+        return (long) (mRandom.nextDouble() * (ceilingMillis + 1));
+    }
+
+    /**
+     * @param ex a request failure.
+     * @return true iff the failure is transient: the same request may succeed if made again.
+     */
+    static boolean isTransient(final IOException ex) {
+
+        if (ex instanceof HttpStatusException) {
+            final int responseCode = ((HttpStatusException) ex).getResponseCode();
+            return responseCode == HttpStatusException.HTTP_TOO_MANY_REQUESTS ||
+                    responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+        }
+
+        if (ex instanceof MalformedJsonException ||
+                ex instanceof TMDBMovieClientImpl.JSONStreamTypeMismatchException) {
+            // The same response would be returned again.
+            return false;
+        }
+
+        // A SocketTimeoutException is an InterruptedIOException, but is not caused by the calling
+        // thread being interrupted.
+        return !(ex instanceof InterruptedIOException) || ex instanceof SocketTimeoutException;
+    }
+}
@@ -3,14 +3,22 @@ package com.iopho.android.dataAccess.tmdb;
 import android.net.Uri;
 import android.support.annotation.StringDef;
 
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * A TMDBURLBuilder is a Builder to assist in the construction of URLs for requests to the TMDB API.
@@ -29,6 +37,8 @@ class TMDBURLBuilder {
         public static final String MOVIES_POPULAR = "movie/popular";
         public static final String MOVIES_TOP_RATED = "movie/top_rated";
 
+        public static final String MOVIE = "movie/" + ENDPOINT_RECORD_ID_PARAM;
+
         public static final String MOVIE_REVIEWS = "movie/" + ENDPOINT_RECORD_ID_PARAM + "/reviews";
         public static final String MOVIE_VIDEOS = "movie/" + ENDPOINT_RECORD_ID_PARAM + "/videos";
 
@@ -37,6 +47,7 @@ class TMDBURLBuilder {
                 CONFIGURATION,
                 MOVIES_POPULAR,
                 MOVIES_TOP_RATED,
+                MOVIE,
                 MOVIE_REVIEWS,
                 MOVIE_VIDEOS
         })
@@ -49,9 +60,10 @@ class TMDBURLBuilder {
     public static class QueryParamKey {
 
         public static final String PAGE = "page";
+        public static final String APPEND_TO_RESPONSE = "append_to_response";
 
         @Retention(RetentionPolicy.SOURCE)
-        @StringDef({PAGE})
+        @StringDef({PAGE, APPEND_TO_RESPONSE})
         public @interface Def {}
     }
 
@@ -59,6 +71,70 @@ class TMDBURLBuilder {
     // provided via the constructor.
     private static final String API_KEY_QUERY_PARAM = "api_key";
 
+    private static final Splitter QUERY_PARAM_SPLITTER = Splitter.on('&').omitEmptyStrings();
+    private static final Joiner QUERY_PARAM_JOINER = Joiner.on('&');
+    private static final Joiner APPENDED_RESPONSE_JOINER = Joiner.on(',');
+
+    /**
+     * Maps a URL produced by {@link #build()} to a key identifying the requested resource
+     * independently of the API key used to request it. The api_key query param is stripped and the
+     * remaining query params are sorted, so equivalent requests map to the same key regardless of
+     * query param order.
+     */
+    public static final Function<URL, String> CACHE_KEY_FUNCTION = new Function<URL, String>() {
+        @Override
+        public String apply(final URL url) {
+
+            final List<String> queryParams = new ArrayList<>();
+            if (url.getQuery() != null) {
+                for (String queryParam : QUERY_PARAM_SPLITTER.split(url.getQuery())) {
+                    if (!queryParam.startsWith(API_KEY_QUERY_PARAM + "=")) {
+                        queryParams.add(queryParam);
+                    }
+                }
+            }
+            Collections.sort(queryParams);
+
+            final String resource = url.getProtocol() + "://" + url.getAuthority() + url.getPath();
+            return queryParams.isEmpty() ? resource :
+                    resource + "?" + QUERY_PARAM_JOINER.join(queryParams);
+        }
+    };
+
+    /**
+     * Build a key identifying a TMDB query independently of the API key and base URL. Used to
+     * match identical queries.
+     *
+     * @param endpoint the queried endpoint.
+     * @param recordId the record ID of the queried resource, or 0 if the endpoint takes none.
+     * @param pageNumber the queried page number, or 0 if the endpoint is not paged.
+     * @return a key identifying the query.
+     */
+    static String buildQueryKey(final @Endpoint.Def String endpoint,
+                                final long recordId, final int pageNumber) {
+        return endpoint + "|" + recordId + "|" + pageNumber;
+    }
+
+    /**
+     * Build the value of the {@link QueryParamKey#APPEND_TO_RESPONSE} query param for a set of
+     * appended resources. Duplicates are dropped and the names are sorted, so any ordering of the
+     * same resources builds the same value (and the same query key).
+     *
+     * @param appendedResources the names of the resources to append, e.g. "videos".
+     * @return a comma separated list of resource names. Empty if none are given.
+     */
+    static String buildAppendToResponse(final String... appendedResources) {
+
+        Preconditions.checkNotNull(appendedResources, "appendedResources must not be null.");
+
+        final SortedSet<String> sortedResources = new TreeSet<>();
+        for (String appendedResource : appendedResources) {
+            Preconditions.checkNotNull(appendedResource, "appendedResource must not be null.");
+            sortedResources.add(appendedResource);
+        }
+        return APPENDED_RESPONSE_JOINER.join(sortedResources);
+    }
+
     private final String mTMDBBaseURL;
     private final String mAPIKey;
     private final @Endpoint.Def String mEndpoint;
@@ -35,14 +35,14 @@ public class JSONDataPageTransformer<T> implements JSONToObjectTransformer<DataP
      */
     public JSONDataPageTransformer(final JSONToObjectTransformer<T> resultJSONToObjectTransformer) {
         this.resultsJSONToListTransformer =
-                new JSONResultListTransformer(resultJSONToObjectTransformer);
+                new JSONResultListTransformer<>(resultJSONToObjectTransformer);
     }
 
     /**
      * @see {@link JSONToObjectTransformer#transform(JSONObject)}.
      */
     @Override
-    public DataPage transform(final JSONObject jsonObject) throws JSONException, ParseException {
+    public DataPage<T> transform(final JSONObject jsonObject) throws JSONException, ParseException {
 
         Preconditions.checkNotNull(jsonObject, "jsonObject must not be null.");
 
@@ -57,6 +57,6 @@ public class JSONDataPageTransformer<T> implements JSONToObjectTransformer<DataP
 
         final List<T> resultList = resultsJSONToListTransformer.transform(jsonObject);
 
-        return new DataPage(pageNumber, totalPageCount, totalResultCount, resultList);
+        return new DataPage<>(pageNumber, totalPageCount, totalResultCount, resultList);
     }
 }
@@ -0,0 +1,74 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implements a {@link JSONToObjectTransformer} to transform a movie/{id} response, with any
+ * resources appended via append_to_response, into {@link MovieDetails}.
+ *
+ * The movie itself is transformed by a {@link JSONMovieTransformer} and each appended
+ * {@link MovieDetails.Part} by the transformer of its own endpoint, so the result is identical to
+ * that of separate requests.
+ */
+public class JSONMovieDetailsTransformer implements JSONToObjectTransformer<MovieDetails> {
+
+    private final Set<String> mParts;
+    private final JSONMovieTransformer mMovieTransformer;
+    private final JSONResultListTransformer<VideoLink> mVideoLinksTransformer;
+    private final JSONDataPageTransformer<Review> mReviewsTransformer;
+
+    /**
+     * Construct a new JSONMovieDetailsTransformer.
+     *
+     * @param parts the {@link MovieDetails.Part}s appended to the response. Each must be present.
+     */
+    public JSONMovieDetailsTransformer(final @MovieDetails.Part.Def String... parts) {
+
+        Preconditions.checkNotNull(parts, "parts must not be null.");
+
+        this.mParts = ImmutableSet.copyOf(parts);
+        this.mMovieTransformer = new JSONMovieTransformer();
+        this.mVideoLinksTransformer =
+                new JSONResultListTransformer<>(new JSONVideoLinkTransformer());
+        this.mReviewsTransformer = new JSONDataPageTransformer<>(new JSONReviewTransformer());
+    }
+
+    /**
+     * @see {@link JSONToObjectTransformer#transform(JSONObject)}
+     */
+    @Override
+    public MovieDetails transform(final JSONObject jsonObject)
+            throws JSONException, ParseException {
+
+        Preconditions.checkNotNull(jsonObject, "jsonObject must not be null.");
+
+        final Movie movie = mMovieTransformer.transform(jsonObject);
+
+        List<VideoLink> videoLinks = null;
+        if (mParts.contains(MovieDetails.Part.VIDEOS)) {
+            videoLinks = mVideoLinksTransformer.transform(
+                    jsonObject.getJSONObject(MovieDetails.Part.VIDEOS));
+        }
+
+        DataPage<Review> reviews = null;
+        if (mParts.contains(MovieDetails.Part.REVIEWS)) {
+            reviews = mReviewsTransformer.transform(
+                    jsonObject.getJSONObject(MovieDetails.Part.REVIEWS));
+        }
+
+        return new MovieDetails(movie, videoLinks, reviews);
+    }
+}
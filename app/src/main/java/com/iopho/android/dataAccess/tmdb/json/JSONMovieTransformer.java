@@ -2,15 +2,13 @@ package com.iopho.android.dataAccess.tmdb.json;
 
 import com.google.common.base.Preconditions;
 import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.util.DateHelper;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  * Implements a {@link JSONToObjectTransformer} to transform a given {@link JSONObject} into a
@@ -24,6 +22,8 @@ public class JSONMovieTransformer implements JSONToObjectTransformer<Movie> {
         public static final String OVERVIEW          = "overview";
         public static final String RELEASE_DATE      = "release_date";
         public static final String GENRE_IDS         = "genre_ids";
+        public static final String GENRES            = "genres";
+        public static final String GENRE_ID          = "id";
         public static final String ID                = "id";
         public static final String ORIGINAL_TITLE    = "original_title";
         public static final String ORIGINAL_LANGUAGE = "original_language";
@@ -35,7 +35,8 @@ public class JSONMovieTransformer implements JSONToObjectTransformer<Movie> {
         public static final String VOTE_AVERAGE      = "vote_average";
     }
 
-    private static final String TMDB_MOVIE_DATE_FORMAT = "yyyy-MM-dd";
+    // A JSON null, as read by JSONObject#getString and JSONStreamHelper#nextString.
+    private static final String NULL_DATE = "null";
 
 
     /**
@@ -59,45 +60,71 @@ public class JSONMovieTransformer implements JSONToObjectTransformer<Movie> {
         final boolean hasVideo = jsonObject.getBoolean(JSON_KEY.VIDEO);
         final double averageVote = jsonObject.getDouble(JSON_KEY.VOTE_AVERAGE);
 
-        final Date releaseDate = parseReleaseDate(jsonObject);
+        final int releaseEpochDay = parseReleaseDate(jsonObject);
         final long[] genreIDs = parseGenreIDs(jsonObject);
 
-        return new Movie(posterPath, isAdult, overview, releaseDate, genreIDs, id, originalTitle,
-                originalLanguage, title, backdropPath, popularity, voteCount, hasVideo,
-                averageVote);
+        return new Movie(posterPath, isAdult, overview, releaseEpochDay, genreIDs, id,
+                originalTitle, originalLanguage, title, backdropPath, popularity, voteCount,
+                hasVideo, averageVote);
     }
 
     /**
-     * Parse the {@link JSON_KEY#RELEASE_DATE} key value from a given {@link JSONObject}. It is
-     * expected that the date format matches {@link JSONMovieTransformer#TMDB_MOVIE_DATE_FORMAT}.
+     * Parse the {@link JSON_KEY#RELEASE_DATE} key value from a given {@link JSONObject}.
      *
      * @param jsonObject the given {@link JSONObject} to read the {@link JSON_KEY#RELEASE_DATE} key
      *                   value from.
-     * @return a {@link Date} representing the movie's release date.
+     * @return the epoch day of the movie's release date, or {@link Movie#UNKNOWN_RELEASE_DATE}.
      * @throws JSONException when an error occurs when attempting to read the
      * {@link JSON_KEY#RELEASE_DATE} key or the key is missing.
      * @throws ParseException when the date format is unexpected.
      */
-    private Date parseReleaseDate(final JSONObject jsonObject)
+    private int parseReleaseDate(final JSONObject jsonObject)
             throws JSONException, ParseException {
 
-        final String releaseDateStr = jsonObject.getString(JSON_KEY.RELEASE_DATE);
-        final DateFormat dateFormat = new SimpleDateFormat(TMDB_MOVIE_DATE_FORMAT);
+        return parseReleaseDate(jsonObject.getString(JSON_KEY.RELEASE_DATE));
+    }
+
+    /**
+     * Parse a movie release date. Shared with {@link JSONStreamMovieTransformer}.
+     *
+     * TMDB serves an empty string or null for movies without a release date; these parse to
+     * {@link Movie#UNKNOWN_RELEASE_DATE}. Other dates are decoded straight from their characters
+     * (see {@link DateHelper#parseISODate(CharSequence)}) rather than through a DateFormat.
+     *
+     * @param releaseDateStr the serialized release date, formatted yyyy-MM-dd.
+     * @return the epoch day of the movie's release date, or {@link Movie#UNKNOWN_RELEASE_DATE}.
+     * @throws ParseException when the date format is unexpected.
+     */
+    static int parseReleaseDate(final String releaseDateStr) throws ParseException {
 
-        return dateFormat.parse(releaseDateStr);
+        if (releaseDateStr == null || releaseDateStr.isEmpty() ||
+                NULL_DATE.equals(releaseDateStr)) {
+            return Movie.UNKNOWN_RELEASE_DATE;
+        }
+        return DateHelper.parseISODate(releaseDateStr);
     }
 
     /**
-     * Parse the {@link JSON_KEY#GENRE_IDS} key value from a given {@link JSONObject}.
+     * Parse the genre IDs of a movie from a given {@link JSONObject}. Movie lists hold the IDs
+     * under the {@link JSON_KEY#GENRE_IDS} key whereas a single movie (see the movie/{id}
+     * endpoint) holds full genre objects under the {@link JSON_KEY#GENRES} key.
      *
-     * @param jsonObject the given {@link JSONObject} to read the {@link JSON_KEY#GENRE_IDS} key
-     *                   value from.
+     * @param jsonObject the given {@link JSONObject} to read the genre IDs from.
      * @return an Array of genre IDs stored as long ints.
-     * @throws JSONException when an error occurs when attempting to read the
-     * {@link JSON_KEY#GENRE_IDS} or the key is not present.
+     * @throws JSONException when an error occurs when attempting to read the genre IDs or neither
+     * key is present.
      */
     private long[] parseGenreIDs(final JSONObject jsonObject) throws JSONException {
 
+        if (!jsonObject.has(JSON_KEY.GENRE_IDS) && jsonObject.has(JSON_KEY.GENRES)) {
+            final JSONArray jsonArray = jsonObject.getJSONArray(JSON_KEY.GENRES);
+            final long[] genreIDs = new long[jsonArray.length()];
+            for (int i = 0; i < jsonArray.length(); i++) {
+                genreIDs[i] = jsonArray.getJSONObject(i).getLong(JSON_KEY.GENRE_ID);
+            }
+            return genreIDs;
+        }
+
         final JSONArray jsonArray = jsonObject.getJSONArray(JSON_KEY.GENRE_IDS);
         final long[] genreIDs = new long[jsonArray.length()];
         for (int i = 0; i < jsonArray.length(); i++) {
@@ -0,0 +1,88 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * A JSONStreamDataPageTransformer is an implementation of a
+ * {@link JSONStreamToObjectTransformer}. It reads a JSON object into a {@link DataPage}. The
+ * streaming counterpart of {@link JSONDataPageTransformer}.
+ *
+ * @param <T> the type of Object contained in the DataPage being transformed to.
+ */
+public class JSONStreamDataPageTransformer<T>
+        implements JSONStreamToObjectTransformer<DataPage<T>> {
+
+    private static class JSON_KEY {
+        public static final String PAGE          = "page";
+        public static final String TOTAL_PAGES   = "total_pages";
+        public static final String TOTAL_RESULTS = "total_results";
+        public static final String RESULTS       = "results";
+    }
+
+    private final JSONStreamResultListTransformer<T> mResultListTransformer;
+
+    /**
+     * Construct a new JSONStreamDataPageTransformer.
+     *
+     * @param resultTransformer a {@link JSONStreamToObjectTransformer} used to read each entry of
+     *                          the DataPage results into an instance of <b>T</b>.
+     */
+    public JSONStreamDataPageTransformer(final JSONStreamToObjectTransformer<T> resultTransformer) {
+        this.mResultListTransformer = new JSONStreamResultListTransformer<>(resultTransformer);
+    }
+
+    /**
+     * @see {@link JSONStreamToObjectTransformer#transform(JsonReader)}
+     */
+    @Override
+    public DataPage<T> transform(final JsonReader jsonReader) throws IOException, ParseException {
+
+        Preconditions.checkNotNull(jsonReader, "jsonReader must not be null.");
+
+        Integer pageNumber = null;
+        Integer totalPageCount = null;
+        Integer totalResultCount = null;
+        List<T> resultList = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case JSON_KEY.PAGE:
+                    pageNumber = jsonReader.nextInt();
+                    break;
+                case JSON_KEY.TOTAL_PAGES:
+                    totalPageCount = jsonReader.nextInt();
+                    break;
+                case JSON_KEY.TOTAL_RESULTS:
+                    totalResultCount = jsonReader.nextInt();
+                    break;
+                case JSON_KEY.RESULTS:
+                    resultList = mResultListTransformer.transformResults(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        JSONStreamHelper.checkKeyPresent(totalPageCount != null, JSON_KEY.TOTAL_PAGES);
+        JSONStreamHelper.checkKeyPresent(totalResultCount != null, JSON_KEY.TOTAL_RESULTS);
+        JSONStreamHelper.checkKeyPresent(resultList != null, JSON_KEY.RESULTS);
+
+        // See JSONDataPageTransformer: TMDB echoes the requested page number even when the result
+        // set is empty (page=1, total_pages=0), so the page number is forced to 0 in that case.
+        if (totalPageCount == 0) {
+            pageNumber = 0;
+        } else {
+            JSONStreamHelper.checkKeyPresent(pageNumber != null, JSON_KEY.PAGE);
+        }
+
+        return new DataPage<>(pageNumber, totalPageCount, totalResultCount, resultList);
+    }
+}
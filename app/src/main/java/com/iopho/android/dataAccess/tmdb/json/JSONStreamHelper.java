@@ -0,0 +1,47 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Helper routines shared by the {@link JSONStreamToObjectTransformer} implementations.
+ */
+class JSONStreamHelper {
+
+    private JSONStreamHelper() {}
+
+    /**
+     * Read the next string value. A JSON null is returned as the string "null", mirroring the
+     * coercion performed by {@link org.json.JSONObject#getString(String)} so that the streaming and
+     * DOM transformers produce identical models.
+     *
+     * @param jsonReader the {@link JsonReader} to read from.
+     * @return the next string value.
+     * @throws IOException if reading from the underlying stream fails.
+     */
+    static String nextString(final JsonReader jsonReader) throws IOException {
+
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return "null";
+        }
+        return jsonReader.nextString();
+    }
+
+    /**
+     * Throws a {@link ParseException} if a required key was not encountered.
+     *
+     * @param isPresent true iff the key was read.
+     * @param key the JSON key name.
+     * @throws ParseException if <b>isPresent</b> is false.
+     */
+    static void checkKeyPresent(final boolean isPresent, final String key) throws ParseException {
+
+        if (!isPresent) {
+            throw new ParseException("Required key missing: " + key, 0);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.stream.JsonReader;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implements a {@link JSONStreamToObjectTransformer} to read a movie/{id} response, with any
+ * resources appended via append_to_response, into {@link MovieDetails}. The streaming counterpart
+ * of {@link JSONMovieDetailsTransformer}.
+ *
+ * The response is read in a single pass: the appended objects are read as they are encountered
+ * among the movie's own keys.
+ */
+public class JSONStreamMovieDetailsTransformer
+        implements JSONStreamToObjectTransformer<MovieDetails> {
+
+    private final Set<String> mParts;
+    private final JSONStreamMovieTransformer mMovieTransformer;
+    private final JSONStreamResultListTransformer<VideoLink> mVideoLinksTransformer;
+    private final JSONStreamDataPageTransformer<Review> mReviewsTransformer;
+
+    /**
+     * Construct a new JSONStreamMovieDetailsTransformer.
+     *
+     * @param parts the {@link MovieDetails.Part}s appended to the response. Each must be present.
+     */
+    public JSONStreamMovieDetailsTransformer(final @MovieDetails.Part.Def String... parts) {
+
+        Preconditions.checkNotNull(parts, "parts must not be null.");
+
+        this.mParts = ImmutableSet.copyOf(parts);
+        this.mMovieTransformer = new JSONStreamMovieTransformer();
+        this.mVideoLinksTransformer =
+                new JSONStreamResultListTransformer<>(new JSONStreamVideoLinkTransformer());
+        this.mReviewsTransformer =
+                new JSONStreamDataPageTransformer<>(new JSONStreamReviewTransformer());
+    }
+
+    /**
+     * @see {@link JSONStreamToObjectTransformer#transform(JsonReader)}
+     */
+    @Override
+    public MovieDetails transform(final JsonReader jsonReader)
+            throws IOException, ParseException {
+
+        Preconditions.checkNotNull(jsonReader, "jsonReader must not be null.");
+
+        final PartReader partReader = new PartReader();
+        final Movie movie = mMovieTransformer.transform(jsonReader, partReader);
+
+        if (mParts.contains(MovieDetails.Part.VIDEOS)) {
+            JSONStreamHelper.checkKeyPresent(
+                    partReader.mVideoLinks != null, MovieDetails.Part.VIDEOS);
+        }
+        if (mParts.contains(MovieDetails.Part.REVIEWS)) {
+            JSONStreamHelper.checkKeyPresent(
+                    partReader.mReviews != null, MovieDetails.Part.REVIEWS);
+        }
+
+        return new MovieDetails(movie, partReader.mVideoLinks, partReader.mReviews);
+    }
+
+    /*
+     * Reads the requested parts as the movie transformer encounters them. Parts which were not
+     * requested are skipped.
+     */
+    private class PartReader implements JSONStreamMovieTransformer.KeyReader {
+
+        private List<VideoLink> mVideoLinks;
+        private DataPage<Review> mReviews;
+
+        @Override
+        public boolean readValue(final String key, final JsonReader jsonReader)
+                throws IOException, ParseException {
+
+            if (!mParts.contains(key)) {
+                return false;
+            }
+
+            switch (key) {
+                case MovieDetails.Part.VIDEOS:
+                    mVideoLinks = mVideoLinksTransformer.transform(jsonReader);
+                    return true;
+                case MovieDetails.Part.REVIEWS:
+                    mReviews = mReviewsTransformer.transform(jsonReader);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Implements a {@link JSONStreamToObjectTransformer} to read a {@link Movie} from a
+ * {@link JsonReader}. The streaming counterpart of {@link JSONMovieTransformer}.
+ */
+public class JSONStreamMovieTransformer implements JSONStreamToObjectTransformer<Movie> {
+
+    private static class JSON_KEY {
+        public static final String POSTER_PATH       = "poster_path";
+        public static final String ADULT             = "adult";
+        public static final String OVERVIEW          = "overview";
+        public static final String RELEASE_DATE      = "release_date";
+        public static final String GENRE_IDS         = "genre_ids";
+        public static final String GENRES            = "genres";
+        public static final String GENRE_ID          = "id";
+        public static final String ID                = "id";
+        public static final String ORIGINAL_TITLE    = "original_title";
+        public static final String ORIGINAL_LANGUAGE = "original_language";
+        public static final String TITLE             = "title";
+        public static final String BACKDROP_PATH     = "backdrop_path";
+        public static final String POPULARITY        = "popularity";
+        public static final String VOTE_COUNT        = "vote_count";
+        public static final String VIDEO             = "video";
+        public static final String VOTE_AVERAGE      = "vote_average";
+    }
+
+    // Bit flags tracking which of the primitive valued keys have been read.
+    private static final int ADULT_PRESENT        = 1;
+    private static final int ID_PRESENT           = 1 << 1;
+    private static final int POPULARITY_PRESENT   = 1 << 2;
+    private static final int VOTE_COUNT_PRESENT   = 1 << 3;
+    private static final int VIDEO_PRESENT        = 1 << 4;
+    private static final int VOTE_AVERAGE_PRESENT = 1 << 5;
+
+    private static final int INITIAL_GENRE_ID_CAPACITY = 4;
+
+    /**
+     * A KeyReader reads the values of keys a movie object holds in addition to the movie itself,
+     * e.g. the resources appended to a movie/{id} response. Lets a composite transformer read
+     * the whole response in a single pass.
+     */
+    interface KeyReader {
+
+        /**
+         * Read the value of a key not part of the movie. The given {@link JsonReader} is
+         * positioned at the value.
+         *
+         * @param key the JSON key name.
+         * @param jsonReader the {@link JsonReader} to read from.
+         * @return true if the value was read, false if it was not consumed and should be skipped.
+         * @throws IOException if reading from the underlying stream fails.
+         * @throws ParseException if the value fails to parse.
+         */
+        boolean readValue(String key, JsonReader jsonReader) throws IOException, ParseException;
+    }
+
+    /**
+     * @see {@link JSONStreamToObjectTransformer#transform(JsonReader)}
+     */
+    @Override
+    public Movie transform(final JsonReader jsonReader) throws IOException, ParseException {
+        return transform(jsonReader, null);
+    }
+
+    /**
+     * Read a {@link Movie}, handing the values of any unknown keys to a {@link KeyReader}.
+     *
+     * @param jsonReader the {@link JsonReader} to read from.
+     * @param extraKeyReader the {@link KeyReader} to read unknown keys with, or null to skip them.
+     * @return the {@link Movie} read.
+     * @throws IOException if reading from the underlying stream fails.
+     * @throws ParseException if the movie fails to parse.
+     */
+    Movie transform(final JsonReader jsonReader, final KeyReader extraKeyReader)
+            throws IOException, ParseException {
+
+        Preconditions.checkNotNull(jsonReader, "jsonReader must not be null.");
+
+        String posterPath = null;
+        boolean isAdult = false;
+        String overview = null;
+        String releaseDateStr = null;
+        long[] genreIDs = null;
+        long id = 0;
+        String originalTitle = null;
+        String originalLanguage = null;
+        String title = null;
+        String backdropPath = null;
+        double popularity = 0;
+        long voteCount = 0;
+        boolean hasVideo = false;
+        double averageVote = 0;
+
+        int presentKeys = 0;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            final String key = jsonReader.nextName();
+            switch (key) {
+                case JSON_KEY.POSTER_PATH:
+                    posterPath = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.ADULT:
+                    isAdult = jsonReader.nextBoolean();
+                    presentKeys |= ADULT_PRESENT;
+                    break;
+                case JSON_KEY.OVERVIEW:
+                    overview = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.RELEASE_DATE:
+                    releaseDateStr = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.GENRE_IDS:
+                    genreIDs = readGenreIDs(jsonReader);
+                    break;
+                case JSON_KEY.GENRES:
+                    // Movie lists only hold genre_ids, which take precedence if both are present.
+                    if (genreIDs == null) {
+                        genreIDs = readGenres(jsonReader);
+                    } else {
+                        jsonReader.skipValue();
+                    }
+                    break;
+                case JSON_KEY.ID:
+                    id = jsonReader.nextLong();
+                    presentKeys |= ID_PRESENT;
+                    break;
+                case JSON_KEY.ORIGINAL_TITLE:
+                    originalTitle = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.ORIGINAL_LANGUAGE:
+                    originalLanguage = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.TITLE:
+                    title = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.BACKDROP_PATH:
+                    backdropPath = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.POPULARITY:
+                    popularity = jsonReader.nextDouble();
+                    presentKeys |= POPULARITY_PRESENT;
+                    break;
+                case JSON_KEY.VOTE_COUNT:
+                    voteCount = jsonReader.nextLong();
+                    presentKeys |= VOTE_COUNT_PRESENT;
+                    break;
+                case JSON_KEY.VIDEO:
+                    hasVideo = jsonReader.nextBoolean();
+                    presentKeys |= VIDEO_PRESENT;
+                    break;
+                case JSON_KEY.VOTE_AVERAGE:
+                    averageVote = jsonReader.nextDouble();
+                    presentKeys |= VOTE_AVERAGE_PRESENT;
+                    break;
+                default:
+                    if (extraKeyReader == null || !extraKeyReader.readValue(key, jsonReader)) {
+                        jsonReader.skipValue();
+                    }
+            }
+        }
+        jsonReader.endObject();
+
+        JSONStreamHelper.checkKeyPresent(posterPath != null, JSON_KEY.POSTER_PATH);
+        JSONStreamHelper.checkKeyPresent((presentKeys & ADULT_PRESENT) != 0, JSON_KEY.ADULT);
+        JSONStreamHelper.checkKeyPresent(overview != null, JSON_KEY.OVERVIEW);
+        JSONStreamHelper.checkKeyPresent(releaseDateStr != null, JSON_KEY.RELEASE_DATE);
+        JSONStreamHelper.checkKeyPresent(genreIDs != null, JSON_KEY.GENRE_IDS);
+        JSONStreamHelper.checkKeyPresent((presentKeys & ID_PRESENT) != 0, JSON_KEY.ID);
+        JSONStreamHelper.checkKeyPresent(originalTitle != null, JSON_KEY.ORIGINAL_TITLE);
+        JSONStreamHelper.checkKeyPresent(originalLanguage != null, JSON_KEY.ORIGINAL_LANGUAGE);
+        JSONStreamHelper.checkKeyPresent(title != null, JSON_KEY.TITLE);
+        JSONStreamHelper.checkKeyPresent(backdropPath != null, JSON_KEY.BACKDROP_PATH);
+        JSONStreamHelper.checkKeyPresent(
+                (presentKeys & POPULARITY_PRESENT) != 0, JSON_KEY.POPULARITY);
+        JSONStreamHelper.checkKeyPresent(
+                (presentKeys & VOTE_COUNT_PRESENT) != 0, JSON_KEY.VOTE_COUNT);
+        JSONStreamHelper.checkKeyPresent((presentKeys & VIDEO_PRESENT) != 0, JSON_KEY.VIDEO);
+        JSONStreamHelper.checkKeyPresent(
+                (presentKeys & VOTE_AVERAGE_PRESENT) != 0, JSON_KEY.VOTE_AVERAGE);
+
+        final int releaseEpochDay = JSONMovieTransformer.parseReleaseDate(releaseDateStr);
+
+        return new Movie(posterPath, isAdult, overview, releaseEpochDay, genreIDs, id,
+                originalTitle, originalLanguage, title, backdropPath, popularity, voteCount,
+                hasVideo, averageVote);
+    }
+
+    /**
+     * Read the {@link JSON_KEY#GENRE_IDS} array. The given {@link JsonReader} must be positioned at
+     * the start of the array.
+     *
+     * @param jsonReader the {@link JsonReader} to read from.
+     * @return an Array of genre IDs stored as long ints.
+     * @throws IOException if reading from the underlying stream fails.
+     */
+    private long[] readGenreIDs(final JsonReader jsonReader) throws IOException {
+
+        long[] genreIDs = new long[INITIAL_GENRE_ID_CAPACITY];
+        int count = 0;
+
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            if (count == genreIDs.length) {
+                genreIDs = Arrays.copyOf(genreIDs, count * 2);
+            }
+            genreIDs[count++] = jsonReader.nextLong();
+        }
+        jsonReader.endArray();
+
+        return (count == genreIDs.length) ? genreIDs : Arrays.copyOf(genreIDs, count);
+    }
+
+    /**
+     * Read the IDs of the {@link JSON_KEY#GENRES} array of genre objects, as held by a single
+     * movie (see the movie/{id} endpoint). The given {@link JsonReader} must be positioned at the
+     * start of the array.
+     *
+     * @param jsonReader the {@link JsonReader} to read from.
+     * @return an Array of genre IDs stored as long ints.
+     * @throws IOException if reading from the underlying stream fails.
+     * @throws ParseException if a genre object has no {@link JSON_KEY#GENRE_ID}.
+     */
+    private long[] readGenres(final JsonReader jsonReader) throws IOException, ParseException {
+
+        long[] genreIDs = new long[INITIAL_GENRE_ID_CAPACITY];
+        int count = 0;
+
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            boolean isGenreIDPresent = false;
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if (JSON_KEY.GENRE_ID.equals(jsonReader.nextName())) {
+                    if (count == genreIDs.length) {
+                        genreIDs = Arrays.copyOf(genreIDs, count * 2);
+                    }
+                    genreIDs[count++] = jsonReader.nextLong();
+                    isGenreIDPresent = true;
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            JSONStreamHelper.checkKeyPresent(isGenreIDPresent, JSON_KEY.GENRE_ID);
+        }
+        jsonReader.endArray();
+
+        return (count == genreIDs.length) ? genreIDs : Arrays.copyOf(genreIDs, count);
+    }
+}
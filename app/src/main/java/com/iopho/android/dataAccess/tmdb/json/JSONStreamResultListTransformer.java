@@ -0,0 +1,84 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A JSONStreamResultListTransformer is an implementation of a
+ * {@link JSONStreamToObjectTransformer}. It reads a JSON object containing an array with key
+ * "results" into a List of type T. The streaming counterpart of {@link JSONResultListTransformer}.
+ *
+ * @param <T> the type of Object to transform each entry of the "results" array to.
+ */
+public class JSONStreamResultListTransformer<T> implements JSONStreamToObjectTransformer<List<T>> {
+
+    private static class JSON_KEY {
+        public static final String RESULTS = "results";
+    }
+
+    private final JSONStreamToObjectTransformer<T> mResultTransformer;
+
+    /**
+     * Construct a new JSONStreamResultListTransformer.
+     *
+     * @param resultTransformer a {@link JSONStreamToObjectTransformer} used to read each entry of
+     *                          the "results" array into an instance of <b>T</b>.
+     */
+    public JSONStreamResultListTransformer(final JSONStreamToObjectTransformer<T> resultTransformer) {
+
+        Preconditions.checkNotNull(resultTransformer, "resultTransformer must not be null.");
+        this.mResultTransformer = resultTransformer;
+    }
+
+    /**
+     * @see {@link JSONStreamToObjectTransformer#transform(JsonReader)}
+     */
+    @Override
+    public List<T> transform(final JsonReader jsonReader) throws IOException, ParseException {
+
+        Preconditions.checkNotNull(jsonReader, "jsonReader must not be null.");
+
+        List<T> resultList = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (JSON_KEY.RESULTS.equals(jsonReader.nextName())) {
+                resultList = transformResults(jsonReader);
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        JSONStreamHelper.checkKeyPresent(resultList != null, JSON_KEY.RESULTS);
+
+        return resultList;
+    }
+
+    /**
+     * Read a JSON array of results. The given {@link JsonReader} must be positioned at the start
+     * of the array.
+     *
+     * @param jsonReader the {@link JsonReader} to read from.
+     * @return a List of <b>T</b>, one per array entry.
+     * @throws IOException if reading from the underlying stream fails.
+     * @throws ParseException if a result entry fails to parse.
+     */
+    List<T> transformResults(final JsonReader jsonReader) throws IOException, ParseException {
+
+        final List<T> resultList = new ArrayList<>();
+
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            resultList.add(mResultTransformer.transform(jsonReader));
+        }
+        jsonReader.endArray();
+
+        return resultList;
+    }
+}
@@ -0,0 +1,58 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Implements a {@link JSONStreamToObjectTransformer} to read a {@link Review} from a
+ * {@link JsonReader}. The streaming counterpart of {@link JSONReviewTransformer}.
+ */
+public class JSONStreamReviewTransformer implements JSONStreamToObjectTransformer<Review> {
+
+    private static class JSON_KEY {
+        public static final String ID      = "id";
+        public static final String AUTHOR  = "author";
+        public static final String CONTENT = "content";
+    }
+
+    /**
+     * @see {@link JSONStreamToObjectTransformer#transform(JsonReader)}
+     */
+    @Override
+    public Review transform(final JsonReader jsonReader) throws IOException, ParseException {
+
+        Preconditions.checkNotNull(jsonReader, "jsonReader must not be null.");
+
+        String id = null;
+        String author = null;
+        String content = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case JSON_KEY.ID:
+                    id = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.AUTHOR:
+                    author = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.CONTENT:
+                    content = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        JSONStreamHelper.checkKeyPresent(id != null, JSON_KEY.ID);
+        JSONStreamHelper.checkKeyPresent(author != null, JSON_KEY.AUTHOR);
+        JSONStreamHelper.checkKeyPresent(content != null, JSON_KEY.CONTENT);
+
+        return new Review(id, author, content);
+    }
+}
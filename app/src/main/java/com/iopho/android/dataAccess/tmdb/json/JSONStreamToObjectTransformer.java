@@ -0,0 +1,32 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * A JSONStreamToObjectTransformer transforms a JSON value read from a {@link JsonReader} into an
+ * instance of <b>T</b>.
+ *
+ * Unlike a {@link JSONToObjectTransformer}, no intermediate {@link org.json.JSONObject} tree is
+ * built. Values are decoded directly from the token stream, which keeps peak heap usage bounded by
+ * the size of the resulting model objects rather than the size of the payload.
+ *
+ * @param <T> the type of instance to construct from the JSON value.
+ */
+public interface JSONStreamToObjectTransformer<T> {
+
+    /**
+     * Read the next JSON value from the given {@link JsonReader} and use it to construct an
+     * instance of <b>T</b>. On return, the reader is positioned after the consumed value.
+     *
+     * @param jsonReader the {@link JsonReader} to read from.
+     * @return an instance of <b>T</b>.
+     * @throws IOException if reading from the underlying stream fails or the JSON is malformed.
+     * @throws ParseException if a required JSON field is missing or a non JSON related fatal error
+     *                        occurs when parsing the payload (e.g. unexpected serialized Date
+     *                        format, etc).
+     */
+    T transform(JsonReader jsonReader) throws IOException, ParseException;
+}
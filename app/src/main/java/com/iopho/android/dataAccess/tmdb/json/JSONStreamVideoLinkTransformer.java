@@ -0,0 +1,76 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonReader;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Implements a {@link JSONStreamToObjectTransformer} to read a {@link VideoLink} from a
+ * {@link JsonReader}. The streaming counterpart of {@link JSONVideoLinkTransformer}.
+ */
+public class JSONStreamVideoLinkTransformer implements JSONStreamToObjectTransformer<VideoLink> {
+
+    private static class JSON_KEY {
+        public static final String ID   = "id";
+        public static final String KEY  = "key";
+        public static final String NAME = "name";
+        public static final String SITE = "site";
+        public static final String SIZE = "size";
+        public static final String TYPE = "type";
+    }
+
+    /**
+     * @see {@link JSONStreamToObjectTransformer#transform(JsonReader)}
+     */
+    @Override
+    public VideoLink transform(final JsonReader jsonReader) throws IOException, ParseException {
+
+        Preconditions.checkNotNull(jsonReader, "jsonReader must not be null.");
+
+        String id = null;
+        String key = null;
+        String name = null;
+        String site = null;
+        Integer size = null;
+        String type = null;
+
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case JSON_KEY.ID:
+                    id = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.KEY:
+                    key = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.NAME:
+                    name = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.SITE:
+                    site = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                case JSON_KEY.SIZE:
+                    size = jsonReader.nextInt();
+                    break;
+                case JSON_KEY.TYPE:
+                    type = JSONStreamHelper.nextString(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        JSONStreamHelper.checkKeyPresent(id != null, JSON_KEY.ID);
+        JSONStreamHelper.checkKeyPresent(key != null, JSON_KEY.KEY);
+        JSONStreamHelper.checkKeyPresent(name != null, JSON_KEY.NAME);
+        JSONStreamHelper.checkKeyPresent(site != null, JSON_KEY.SITE);
+        JSONStreamHelper.checkKeyPresent(size != null, JSON_KEY.SIZE);
+        JSONStreamHelper.checkKeyPresent(type != null, JSON_KEY.TYPE);
+
+        return new VideoLink(id, key, name, site, size, VideoLink.Type.transformToType(type));
+    }
+}
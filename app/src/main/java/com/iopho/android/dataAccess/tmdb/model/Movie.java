@@ -4,15 +4,19 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import com.google.common.base.Preconditions;
-
-import java.util.Date;
+import com.iopho.android.util.DateHelper;
 
 public class Movie implements Parcelable {
 
+    /**
+     * The release epoch day of a movie TMDB has no release date for.
+     */
+    public static final int UNKNOWN_RELEASE_DATE = Integer.MIN_VALUE;
+
     private final String mPosterPath;
     private final boolean mIsAdult;
     private final String mOverview;
-    private final Date mReleaseDate;
+    private final int mReleaseEpochDay;
     private final long[] mGenreIDs;
     private final long mID;
     private final String mOriginalTitle;
@@ -30,8 +34,10 @@ public class Movie implements Parcelable {
      * @param posterPath relative path to the movie poster.
      * @param isAdult true iff the movie is adult only.
      * @param overview small description of the movie.
-     * @param releaseDate Date of release.
-     * @param genreIDs array of TMDB Genre IDs that this movie is tagged with.
+     * @param releaseEpochDay the epoch day of release (see {@link DateHelper}), or
+     *                        {@link #UNKNOWN_RELEASE_DATE}.
+     * @param genreIDs array of TMDB Genre IDs that this movie is tagged with. Empty for movies
+     *                 not yet categorized, which are common in deep pages of movie lists.
      * @param id unique TMDB movie identifier.
      * @param originalTitle the untranslated original movie title.
      * @param originalLanguageCode the ISO 639-1 language code representing the name of movie's
@@ -46,7 +52,7 @@ public class Movie implements Parcelable {
     public Movie(final String posterPath,
                  final boolean isAdult,
                  final String overview,
-                 final Date releaseDate,
+                 final int releaseEpochDay,
                  final long[] genreIDs,
                  final long id,
                  final String originalTitle,
@@ -60,9 +66,7 @@ public class Movie implements Parcelable {
 
         Preconditions.checkNotNull(posterPath, "postPath must not be null.");
         Preconditions.checkNotNull(overview, "overview must not be null.");
-        Preconditions.checkNotNull(releaseDate, "releaseDate must not be null.");
         Preconditions.checkNotNull(genreIDs, "genreIDs must not be null.");
-        Preconditions.checkArgument(genreIDs.length > 0, "genreIDs must not be empty.");
         Preconditions.checkNotNull(originalTitle, "originalTitle must not be null.");
         Preconditions.checkNotNull(originalLanguageCode, "originalLanguage must not be null.");
         Preconditions.checkNotNull(title, "title must not be null.");
@@ -72,7 +76,7 @@ public class Movie implements Parcelable {
         this.mPosterPath = posterPath;
         this.mIsAdult = isAdult;
         this.mOverview = overview;
-        this.mReleaseDate = releaseDate;
+        this.mReleaseEpochDay = releaseEpochDay;
         this.mGenreIDs = genreIDs;
         this.mID = id;
         this.mOriginalTitle = originalTitle;
@@ -100,7 +104,7 @@ public class Movie implements Parcelable {
         this.mPosterPath = in.readString();
         this.mIsAdult = in.readInt() != 0;
         this.mOverview = in.readString();
-        this.mReleaseDate = (Date)in.readSerializable();
+        this.mReleaseEpochDay = in.readInt();
         final int genreIDCount = in.readInt();
         this.mGenreIDs = new long[genreIDCount];
         in.readLongArray(mGenreIDs);
@@ -135,7 +139,7 @@ public class Movie implements Parcelable {
         out.writeString(mPosterPath);
         out.writeInt(mIsAdult ? 1 : 0);
         out.writeString(mOverview);
-        out.writeSerializable(mReleaseDate);
+        out.writeInt(mReleaseEpochDay);
         out.writeInt(mGenreIDs.length);
         out.writeLongArray(mGenreIDs);
         out.writeLong(mID);
@@ -187,10 +191,18 @@ public class Movie implements Parcelable {
     }
 
     /**
-     * @return Date of the films release.
+     * @return the epoch day of the films release (see {@link DateHelper}), or
+     *         {@link #UNKNOWN_RELEASE_DATE}.
+     */
+    public int getReleaseEpochDay() {
+        return mReleaseEpochDay;
+    }
+
+    /**
+     * @return true iff TMDB has a release date for this movie.
      */
-    public Date getReleaseDate() {
-        return mReleaseDate;
+    public boolean hasReleaseDate() {
+        return mReleaseEpochDay != UNKNOWN_RELEASE_DATE;
     }
 
     /**
@@ -269,7 +281,7 @@ public class Movie implements Parcelable {
         return "[ PosterPath=" + mPosterPath +
                 ", IsAdult=" + mIsAdult +
                 ", Overview=" + mOverview +
-                ", ReleaseDate=" + mReleaseDate +
+                ", ReleaseEpochDay=" + mReleaseEpochDay +
                 ", GenreIDs=" + mGenreIDs +
                 ", ID=" + mID +
                 ", OriginalTitle=" + mOriginalTitle +
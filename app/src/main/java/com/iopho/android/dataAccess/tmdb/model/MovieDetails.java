@@ -0,0 +1,84 @@
+package com.iopho.android.dataAccess.tmdb.model;
+
+import android.support.annotation.StringDef;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+
+/**
+ * The MovieDetails of a movie are the {@link Movie} itself along with any of its related resources
+ * (its {@link Part}s) fetched in the same TMDB request.
+ */
+public class MovieDetails {
+
+    /**
+     * Type safe constants of the related resources which can be fetched along with a movie. Each
+     * value is the name TMDB expects in the append_to_response query param.
+     */
+    public static class Part {
+
+        public static final String VIDEOS = "videos";
+        public static final String REVIEWS = "reviews";
+
+        @Retention(RetentionPolicy.SOURCE)
+        @StringDef({VIDEOS, REVIEWS})
+        public @interface Def {}
+    }
+
+    private final Movie mMovie;
+    private final List<VideoLink> mVideoLinks;
+    private final DataPage<Review> mReviews;
+
+    /**
+     * Constructs new MovieDetails.
+     *
+     * @param movie the movie.
+     * @param videoLinks the movie's video links, or null if {@link Part#VIDEOS} was not fetched.
+     * @param reviews the first page of the movie's reviews, or null if {@link Part#REVIEWS} was
+     *                not fetched.
+     */
+    public MovieDetails(final Movie movie,
+                        final List<VideoLink> videoLinks,
+                        final DataPage<Review> reviews) {
+
+        Preconditions.checkNotNull(movie, "movie must not be null.");
+
+        this.mMovie = movie;
+        this.mVideoLinks = (videoLinks != null) ? ImmutableList.copyOf(videoLinks) : null;
+        this.mReviews = reviews;
+    }
+
+    /**
+     * @return the movie.
+     */
+    public Movie getMovie() {
+        return mMovie;
+    }
+
+    /**
+     * @return the movie's video links, or null if {@link Part#VIDEOS} was not fetched.
+     */
+    public List<VideoLink> getVideoLinks() {
+        return mVideoLinks;
+    }
+
+    /**
+     * @return the first page of the movie's reviews, or null if {@link Part#REVIEWS} was not
+     * fetched.
+     */
+    public DataPage<Review> getReviews() {
+        return mReviews;
+    }
+
+    @Override
+    public String toString() {
+        return "[ Movie=" + mMovie +
+                ", VideoLinks=" + mVideoLinks +
+                ", Reviews=" + mReviews +
+                " ]";
+    }
+}
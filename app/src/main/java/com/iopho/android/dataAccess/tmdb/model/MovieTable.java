@@ -0,0 +1,517 @@
+package com.iopho.android.dataAccess.tmdb.model;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.iopho.android.util.DateHelper;
+
+import java.util.Arrays;
+
+/**
+ * A MovieTable is a compact, append-only list of movies, stored column by column.
+ *
+ * A list of {@link Movie}s costs a handful of objects per movie (the Movie, its genre ID array and
+ * its strings). A MovieTable instead keeps each field in a parallel array:
+ * <ul>
+ *     <li>IDs, popularity, vote averages and vote counts in primitive arrays.</li>
+ *     <li>Release dates as epoch days (see {@link DateHelper}) in an int array.</li>
+ *     <li>Adult and has-video flags packed into a byte array.</li>
+ *     <li>Genre IDs as a bitset per movie, over the distinct genre IDs of the table.</li>
+ *     <li>Strings interned into a pool shared by all tables, so that repeated values (language
+ *         codes, or movies listed in more than one table) are held once.</li>
+ * </ul>
+ * The table grows by doubling, like an {@link java.util.ArrayList}.
+ *
+ * Movies are read through {@link Row} views, which expose the getters of {@link Movie} without
+ * materializing one. A Row reads the table on every call: it is only valid until the table is
+ * {@link #clear()}ed.
+ *
+ * This class is not thread safe.
+ */
+public class MovieTable implements Parcelable {
+
+    private static final int INITIAL_CAPACITY = 20;
+    private static final int GENRE_BITS_PER_WORD = 64;
+
+    private static final int ADULT_FLAG = 1;
+    private static final int HAS_VIDEO_FLAG = 1 << 1;
+
+    // Weak, so that strings no longer held by any table can be collected.
+    private static final Interner<String> STRING_POOL = Interners.newWeakInterner();
+
+    private int mSize;
+
+    private long[] mIDs;
+    private double[] mPopularities;
+    private double[] mAverageVotes;
+    private long[] mVoteCounts;
+    private int[] mReleaseEpochDays;
+    private byte[] mFlags;
+
+    private String[] mPosterPaths;
+    private String[] mOverviews;
+    private String[] mOriginalTitles;
+    private String[] mOriginalLanguageCodes;
+    private String[] mTitles;
+    private String[] mBackdropPaths;
+
+    // The distinct genre IDs of the table; a genre's index is its bit in the genre bitsets. Each
+    // movie's bitset spans mGenreWordCount consecutive words of mGenreBits.
+    private long[] mGenreIDs;
+    private int mGenreCount;
+    private int mGenreWordCount;
+    private long[] mGenreBits;
+
+    /**
+     * Construct a new, empty, MovieTable.
+     */
+    public MovieTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Construct a new, empty, MovieTable.
+     *
+     * @param capacity the number of movies to allocate space for. Must be non-negative.
+     */
+    public MovieTable(final int capacity) {
+
+        Preconditions.checkArgument(capacity >= 0, "capacity must be non-negative.");
+
+        this.mIDs = new long[capacity];
+        this.mPopularities = new double[capacity];
+        this.mAverageVotes = new double[capacity];
+        this.mVoteCounts = new long[capacity];
+        this.mReleaseEpochDays = new int[capacity];
+        this.mFlags = new byte[capacity];
+        this.mPosterPaths = new String[capacity];
+        this.mOverviews = new String[capacity];
+        this.mOriginalTitles = new String[capacity];
+        this.mOriginalLanguageCodes = new String[capacity];
+        this.mTitles = new String[capacity];
+        this.mBackdropPaths = new String[capacity];
+        this.mGenreIDs = new long[0];
+        this.mGenreWordCount = 1;
+        this.mGenreBits = new long[capacity];
+    }
+
+    /**
+     * Construct a new MovieTable given a {@link Parcel}
+     *
+     * @param in the {@link Parcel} containing serialized MovieTable data.
+     *
+     * @see {@link Parcel}
+     * @see {@link Parcelable}
+     */
+    private MovieTable(final Parcel in) {
+
+        Preconditions.checkNotNull(in, "in must not be null.");
+
+        this.mSize = in.readInt();
+        this.mIDs = in.createLongArray();
+        this.mPopularities = in.createDoubleArray();
+        this.mAverageVotes = in.createDoubleArray();
+        this.mVoteCounts = in.createLongArray();
+        this.mReleaseEpochDays = in.createIntArray();
+        this.mFlags = in.createByteArray();
+        this.mPosterPaths = readStrings(in, mSize);
+        this.mOverviews = readStrings(in, mSize);
+        this.mOriginalTitles = readStrings(in, mSize);
+        this.mOriginalLanguageCodes = readStrings(in, mSize);
+        this.mTitles = readStrings(in, mSize);
+        this.mBackdropPaths = readStrings(in, mSize);
+        this.mGenreIDs = in.createLongArray();
+        this.mGenreCount = mGenreIDs.length;
+        this.mGenreWordCount = in.readInt();
+        this.mGenreBits = in.createLongArray();
+    }
+
+    /**
+     * @see {@link Parcelable#describeContents()}
+     */
+    @Override
+    public int describeContents() {
+        // No special objects contained in this Parcelable
+        return 0;
+    }
+
+    /**
+     * @see {@link Parcelable#writeToParcel(Parcel, int)}
+     */
+    @Override
+    public void writeToParcel(final Parcel out, final int i) {
+
+        Preconditions.checkNotNull(out, "out must not be null.");
+
+        out.writeInt(mSize);
+        out.writeLongArray(Arrays.copyOf(mIDs, mSize));
+        out.writeDoubleArray(Arrays.copyOf(mPopularities, mSize));
+        out.writeDoubleArray(Arrays.copyOf(mAverageVotes, mSize));
+        out.writeLongArray(Arrays.copyOf(mVoteCounts, mSize));
+        out.writeIntArray(Arrays.copyOf(mReleaseEpochDays, mSize));
+        out.writeByteArray(mFlags, 0, mSize);
+        writeStrings(out, mPosterPaths, mSize);
+        writeStrings(out, mOverviews, mSize);
+        writeStrings(out, mOriginalTitles, mSize);
+        writeStrings(out, mOriginalLanguageCodes, mSize);
+        writeStrings(out, mTitles, mSize);
+        writeStrings(out, mBackdropPaths, mSize);
+        out.writeLongArray(Arrays.copyOf(mGenreIDs, mGenreCount));
+        out.writeInt(mGenreWordCount);
+        out.writeLongArray(Arrays.copyOf(mGenreBits, mSize * mGenreWordCount));
+    }
+
+    /**
+     * @see {@link android.os.Parcelable.Creator}
+     */
+    public static final Parcelable.Creator<MovieTable> CREATOR =
+            new Parcelable.Creator<MovieTable>() {
+
+                @Override
+                public MovieTable createFromParcel(final Parcel parcel) {
+                    return new MovieTable(parcel);
+                }
+
+                @Override
+                public MovieTable[] newArray(final int size) {
+                    return new MovieTable[size];
+                }
+            };
+
+    /**
+     * Append a movie.
+     *
+     * @param movie the {@link Movie} to append.
+     */
+    public void add(final Movie movie) {
+
+        Preconditions.checkNotNull(movie, "movie must not be null.");
+
+        ensureCapacity(mSize + 1);
+
+        final int row = mSize;
+        mIDs[row] = movie.getID();
+        mPopularities[row] = movie.getPopularity();
+        mAverageVotes[row] = movie.getAverageVote();
+        mVoteCounts[row] = movie.getVoteCount();
+        mReleaseEpochDays[row] = movie.getReleaseEpochDay();
+        mFlags[row] = (byte) ((movie.isAdult() ? ADULT_FLAG : 0) |
+                (movie.hasVideo() ? HAS_VIDEO_FLAG : 0));
+        mPosterPaths[row] = STRING_POOL.intern(movie.getPosterPath());
+        mOverviews[row] = STRING_POOL.intern(movie.getOverview());
+        mOriginalTitles[row] = STRING_POOL.intern(movie.getOriginalTitle());
+        mOriginalLanguageCodes[row] = STRING_POOL.intern(movie.getOriginalLanguageCode());
+        mTitles[row] = STRING_POOL.intern(movie.getTitle());
+        mBackdropPaths[row] = STRING_POOL.intern(movie.getBackdropPath());
+
+        for (long genreID : movie.getGenreIDs()) {
+            final int genre = getOrAddGenre(genreID);
+            mGenreBits[row * mGenreWordCount + genre / GENRE_BITS_PER_WORD] |=
+                    1L << (genre % GENRE_BITS_PER_WORD);
+        }
+
+        mSize++;
+    }
+
+    /**
+     * Append movies.
+     *
+     * @param movies the {@link Movie}s to append, in order.
+     */
+    public void addAll(final Iterable<Movie> movies) {
+
+        Preconditions.checkNotNull(movies, "movies must not be null.");
+
+        for (Movie movie : movies) {
+            add(movie);
+        }
+    }
+
+    /**
+     * Remove all movies. Space is retained for reuse.
+     */
+    public void clear() {
+
+        // Release the strings, so that they can leave the pool.
+        Arrays.fill(mPosterPaths, 0, mSize, null);
+        Arrays.fill(mOverviews, 0, mSize, null);
+        Arrays.fill(mOriginalTitles, 0, mSize, null);
+        Arrays.fill(mOriginalLanguageCodes, 0, mSize, null);
+        Arrays.fill(mTitles, 0, mSize, null);
+        Arrays.fill(mBackdropPaths, 0, mSize, null);
+        Arrays.fill(mGenreBits, 0, mSize * mGenreWordCount, 0);
+        mSize = 0;
+    }
+
+    /**
+     * @return the number of movies in the table.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return true iff the table holds no movies.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @param row the index of a movie. Must be in range: [0, {@link #size()}).
+     * @return a {@link Row} view of the movie.
+     */
+    public Row getRow(final int row) {
+
+        Preconditions.checkElementIndex(row, mSize, "row");
+        return new Row(row);
+    }
+
+    /**
+     * Read a movie's ID without creating a {@link Row}.
+     *
+     * @param row the index of a movie. Must be in range: [0, {@link #size()}).
+     * @return unique TMDB movie identifier.
+     */
+    public long getID(final int row) {
+
+        Preconditions.checkElementIndex(row, mSize, "row");
+        return mIDs[row];
+    }
+
+    @Override
+    public String toString() {
+        return "[ Size=" + mSize +
+                ", Capacity=" + mIDs.length +
+                ", GenreCount=" + mGenreCount +
+                " ]";
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+
+        if (minCapacity <= mIDs.length) {
+            return;
+        }
+
+        final int capacity = Math.max(minCapacity, mIDs.length * 2);
+        mIDs = Arrays.copyOf(mIDs, capacity);
+        mPopularities = Arrays.copyOf(mPopularities, capacity);
+        mAverageVotes = Arrays.copyOf(mAverageVotes, capacity);
+        mVoteCounts = Arrays.copyOf(mVoteCounts, capacity);
+        mReleaseEpochDays = Arrays.copyOf(mReleaseEpochDays, capacity);
+        mFlags = Arrays.copyOf(mFlags, capacity);
+        mPosterPaths = Arrays.copyOf(mPosterPaths, capacity);
+        mOverviews = Arrays.copyOf(mOverviews, capacity);
+        mOriginalTitles = Arrays.copyOf(mOriginalTitles, capacity);
+        mOriginalLanguageCodes = Arrays.copyOf(mOriginalLanguageCodes, capacity);
+        mTitles = Arrays.copyOf(mTitles, capacity);
+        mBackdropPaths = Arrays.copyOf(mBackdropPaths, capacity);
+        mGenreBits = Arrays.copyOf(mGenreBits, capacity * mGenreWordCount);
+    }
+
+    /*
+     * Returns the bit index of a genre, adding it to the table's genres if it is new. Widens every
+     * bitset by a word once the genres outgrow them (TMDB has fewer than 64 movie genres).
+     */
+    private int getOrAddGenre(final long genreID) {
+
+        for (int genre = 0; genre < mGenreCount; genre++) {
+            if (mGenreIDs[genre] == genreID) {
+                return genre;
+            }
+        }
+
+        if (mGenreCount == mGenreIDs.length) {
+            mGenreIDs = Arrays.copyOf(mGenreIDs, Math.max(8, mGenreCount * 2));
+        }
+        mGenreIDs[mGenreCount] = genreID;
+
+        if (mGenreCount == mGenreWordCount * GENRE_BITS_PER_WORD) {
+            final int genreWordCount = mGenreWordCount + 1;
+            final long[] genreBits = new long[mIDs.length * genreWordCount];
+            // Include the row being added.
+            for (int row = 0; row <= mSize; row++) {
+                System.arraycopy(mGenreBits, row * mGenreWordCount,
+                        genreBits, row * genreWordCount, mGenreWordCount);
+            }
+            mGenreWordCount = genreWordCount;
+            mGenreBits = genreBits;
+        }
+
+        return mGenreCount++;
+    }
+
+    private static String[] readStrings(final Parcel in, final int size) {
+
+        final String[] strings = new String[size];
+        for (int i = 0; i < size; i++) {
+            strings[i] = STRING_POOL.intern(in.readString());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(final Parcel out, final String[] strings, final int size) {
+
+        for (int i = 0; i < size; i++) {
+            out.writeString(strings[i]);
+        }
+    }
+
+    /**
+     * A Row is a view of a single movie of a {@link MovieTable}. It exposes the getters of
+     * {@link Movie}.
+     */
+    public class Row {
+
+        private final int mRow;
+
+        private Row(final int row) {
+            this.mRow = row;
+        }
+
+        /**
+         * @return relative path to the movie poster image.
+         */
+        public String getPosterPath() {
+            return mPosterPaths[mRow];
+        }
+
+        /**
+         * @return true iff the movie is adult only.
+         */
+        public boolean isAdult() {
+            return (mFlags[mRow] & ADULT_FLAG) != 0;
+        }
+
+        /**
+         * @return an overview (small text description) of the movie.
+         */
+        public String getOverview() {
+            return mOverviews[mRow];
+        }
+
+        /**
+         * @return the epoch day of the films release (see {@link DateHelper}), or
+         *         {@link Movie#UNKNOWN_RELEASE_DATE}.
+         */
+        public int getReleaseEpochDay() {
+            return mReleaseEpochDays[mRow];
+        }
+
+        /**
+         * @return true iff TMDB has a release date for this movie.
+         */
+        public boolean hasReleaseDate() {
+            return mReleaseEpochDays[mRow] != Movie.UNKNOWN_RELEASE_DATE;
+        }
+
+        /**
+         * @return a new Array of TMDB Genre identifiers that this Movie is tagged with. Unlike
+         * {@link Movie#getGenreIDs()}, the identifiers are in the order the table first
+         * encountered them, without duplicates.
+         */
+        public long[] getGenreIDs() {
+
+            final int offset = mRow * mGenreWordCount;
+            int count = 0;
+            for (int word = 0; word < mGenreWordCount; word++) {
+                count += Long.bitCount(mGenreBits[offset + word]);
+            }
+
+            final long[] genreIDs = new long[count];
+            int i = 0;
+            for (int genre = 0; genre < mGenreCount; genre++) {
+                if ((mGenreBits[offset + genre / GENRE_BITS_PER_WORD] &
+                        (1L << (genre % GENRE_BITS_PER_WORD))) != 0) {
+                    genreIDs[i++] = mGenreIDs[genre];
+                }
+            }
+            return genreIDs;
+        }
+
+        /**
+         * @return unique TMDB movie identifier.
+         */
+        public long getID() {
+            return mIDs[mRow];
+        }
+
+        /**
+         * @return the untranslated original movie title.
+         */
+        public String getOriginalTitle() {
+            return mOriginalTitles[mRow];
+        }
+
+        /**
+         * @return the ISO 639-1 alpha-2 language code representing the name of movie's original
+         *         language.
+         */
+        public String getOriginalLanguageCode() {
+            return mOriginalLanguageCodes[mRow];
+        }
+
+        /**
+         * @return translated title of this movie.
+         */
+        public String getTitle() {
+            return mTitles[mRow];
+        }
+
+        /**
+         * @return relative path to the movie's backdrop image.
+         */
+        public String getBackdropPath() {
+            return mBackdropPaths[mRow];
+        }
+
+        /**
+         * @return TMDB popularity score for this movie.
+         */
+        public double getPopularity() {
+            return mPopularities[mRow];
+        }
+
+        /**
+         * @return total number of votes accumulated for this movie.
+         */
+        public long getVoteCount() {
+            return mVoteCounts[mRow];
+        }
+
+        /**
+         * @return true iff TMDB has available videos (trailers, teasers, clips, etc)
+         */
+        public boolean hasVideo() {
+            return (mFlags[mRow] & HAS_VIDEO_FLAG) != 0;
+        }
+
+        /**
+         * @return average vote score.
+         */
+        public double getAverageVote() {
+            return mAverageVotes[mRow];
+        }
+
+        /**
+         * @return a new {@link Movie} holding the fields of this row, e.g. to parcel it.
+         */
+        public Movie toMovie() {
+            return new Movie(getPosterPath(), isAdult(), getOverview(), getReleaseEpochDay(),
+                    getGenreIDs(), getID(), getOriginalTitle(), getOriginalLanguageCode(),
+                    getTitle(), getBackdropPath(), getPopularity(), getVoteCount(), hasVideo(),
+                    getAverageVote());
+        }
+
+        @Override
+        public String toString() {
+            return "[ Row=" + mRow +
+                    ", ID=" + getID() +
+                    ", Title=" + getTitle() +
+                    " ]";
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.iopho.android.popularmovies;
+
+
+import android.support.annotation.IntDef;
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.TMDBMovieClient;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.util.CancellationToken;
+import com.iopho.android.util.TaskScheduler;
+import com.iopho.android.util.Tracer;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Callable;
+
+/**
+ * A FetchMoviesTask fetches a page of Movie metadata from TMDB. It is intended to be submitted to
+ * a {@link TaskScheduler}, which runs it on a worker thread and delivers the page (or the failure)
+ * on the UI thread.
+ */
+public class FetchMoviesTask implements Callable<DataPage<Movie>> {
+
+    private static final String LOG_TAG = FetchMoviesTask.class.getSimpleName();
+
+    /**
+     * A {@link TMDBQueryType}. Movies are queried with a sort order of rating.
+     */
+    public static final int RATING = 0;
+
+    /**
+     * A {@link TMDBQueryType}. Movies are queried with a sort order of popularity.
+     */
+    public static final int POPULARITY = 1;
+
+    /**
+     * A type safe definition for possible TMDB movie query types.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({POPULARITY, RATING})
+    public @interface TMDBQueryType {}
+
+    /**
+     * @param queryType an integer representation of a {@link TMDBQueryType}.
+     * @return a {@link TMDBQueryType} given its integer representation. Default to
+     * {@link #POPULARITY} if the given integer does not map to a {@link TMDBQueryType}
+     */
+    public static @TMDBQueryType int getTMDBQueryTypeForInt(final int queryType) {
+        return (queryType == RATING) ? RATING : POPULARITY;
+    }
+
+    private final TMDBMovieClient tmdbMovieClient;
+    private final @TMDBQueryType int queryType;
+    private final int pageNumber;
+
+    /**
+     * Construct a new FetchMoviesTask.
+     *
+     * @param tmdbMovieClient used to fetch movie metadata from TMDB.
+     * @param queryType the {@link TMDBQueryType} sort order to query TMDB by.
+     * @param pageNumber the page of movies to fetch. Must be in range:
+     *                   [1, {@link TMDBMovieClient#MAX_PAGE_NUMBER}].
+     */
+    public FetchMoviesTask(final TMDBMovieClient tmdbMovieClient,
+                           final @TMDBQueryType int queryType,
+                           final int pageNumber) {
+
+        Preconditions.checkNotNull(tmdbMovieClient, "tmdbMovieClient must not be null.");
+        Preconditions.checkArgument(
+                pageNumber >= 1 && pageNumber <= TMDBMovieClient.MAX_PAGE_NUMBER,
+                "pageNumber must be in range [1, TMDBMovieClient.MAX_PAGE_NUMBER].");
+
+        this.tmdbMovieClient = tmdbMovieClient;
+        this.queryType = queryType;
+        this.pageNumber = pageNumber;
+    }
+
+    /**
+     * @return the requested page of the result set from TMDB stored as a {@link DataPage} of
+     * {@link Movie}s
+     * @throws DataAccessRequestException when unable to query TMDB, including when the task is
+     * cancelled.
+     * @throws DataAccessParsingException when unable to parse the TMDB response.
+     */
+    @Override
+    public DataPage<Movie> call() throws DataAccessRequestException, DataAccessParsingException {
+
+        final Tracer.Span span = Tracer.currentSpan().startChild("fetchMovies")
+                .putArg("queryType", (queryType == RATING) ? "rating" : "popularity")
+                .putArg("pageNumber", pageNumber);
+        final Tracer.Span parentSpan = Tracer.setCurrentSpan(span);
+        try {
+            if (queryType == RATING) {
+                return tmdbMovieClient.getTopRatedMovies(pageNumber);
+            } else {
+                return tmdbMovieClient.getPopularMovies(pageNumber);
+            }
+
+        } catch (DataAccessRequestException | DataAccessParsingException ex) {
+            if (!CancellationToken.current().isCancelled()) {
+                Log.e(LOG_TAG, String.format("Failed to request page %d of movies from TMDB.",
+                        pageNumber), ex);
+            }
+            throw ex;
+        } finally {
+            Tracer.setCurrentSpan(parentSpan);
+            span.end();
+        }
+    }
+}
@@ -12,12 +12,9 @@ import android.widget.TextView;
 import com.iopho.android.dataAccess.tmdb.TMDBAssetURLFactory;
 import com.iopho.android.dataAccess.tmdb.model.ImageSize;
 import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.util.DateHelper;
 import com.squareup.picasso.Picasso;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 public class MovieDetailFragment extends Fragment {
 
     private static final String LOG_TAG = MovieDetailFragment.class.getSimpleName();
@@ -61,7 +58,7 @@ public class MovieDetailFragment extends Fragment {
                 (ImageView)rootView.findViewById(R.id.imageview_movie_detail_poster);
 
         movieTitleTextView.setText(movie.getTitle());
-        movieReleaseDateTextView.setText(getMovieReleaseDateDisplayString(movie.getReleaseDate()));
+        movieReleaseDateTextView.setText(getMovieReleaseDateDisplayString(movie));
         movieRatingTextView.setText(getMovieRatingDisplayString(movie.getAverageVote()));
         movieOverviewTextView.setText(movie.getOverview());
 
@@ -79,11 +76,11 @@ public class MovieDetailFragment extends Fragment {
         return String.format(ratingFormatStr, rating);
     }
 
-    private String getMovieReleaseDateDisplayString(final Date releaseDate) {
-
-        final String dateFormatStr = "yyyy";
+    private String getMovieReleaseDateDisplayString(final Movie movie) {
 
-        final DateFormat dateFormat = new SimpleDateFormat(dateFormatStr);
-        return dateFormat.format(releaseDate);
+        if (!movie.hasReleaseDate()) {
+            return getString(R.string.movie_detail_release_date_unknown);
+        }
+        return String.valueOf(DateHelper.getYear(movie.getReleaseEpochDay()));
     }
 }
@@ -7,8 +7,17 @@ import android.support.v7.widget.Toolbar;
 import android.view.Menu;
 import android.view.MenuItem;
 
+import com.iopho.android.dataAccess.tmdb.TMDBClientFactory;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
 public class MovieGalleryActivity extends AppCompatActivity {
 
+    private static final String TRACE_DUMP_ARG = "--trace";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -34,4 +43,32 @@ public class MovieGalleryActivity extends AppCompatActivity {
 
         return super.onOptionsItemSelected(item);
     }
+
+    /**
+     * Appends the data-access metrics to the Activity's dump, so that they can be read from a
+     * device with: adb shell dumpsys activity com.iopho.android.popularmovies
+     *
+     * With the "--trace" argument, the recorded traces are also exported to a file (see
+     * {@link PopularMoviesApplication#exportTrace()}), whose path is dumped.
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+
+        final PopularMoviesApplication app = (PopularMoviesApplication) getApplicationContext();
+        final TMDBClientFactory tmdbClientFactory = app.getTMDBClientFactory();
+        if (tmdbClientFactory.isInitialized()) {
+            writer.println(prefix + "DataAccessMetrics:");
+            tmdbClientFactory.getDataAccessMetrics().snapshot().dump(prefix + "  ", writer);
+        }
+
+        if (args != null && Arrays.asList(args).contains(TRACE_DUMP_ARG)) {
+            writer.println(prefix + "Tracer: " + app.getTracer());
+            try {
+                writer.println(prefix + "  Exported to: " + app.exportTrace().getAbsolutePath());
+            } catch (IOException ex) {
+                writer.println(prefix + "  Failed to export: " + ex);
+            }
+        }
+    }
 }
@@ -4,45 +4,126 @@ import android.app.Activity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
+import android.widget.BaseAdapter;
 import android.widget.ImageView;
 
 import com.google.common.base.Preconditions;
 import com.iopho.android.dataAccess.tmdb.TMDBAssetURLFactory;
 import com.iopho.android.dataAccess.tmdb.model.ImageSize;
 import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieTable;
 import com.squareup.picasso.Picasso;
 
-import java.util.List;
-
-public class MovieGalleryArrayAdapter extends ArrayAdapter<Movie> {
+/**
+ * A MovieGalleryArrayAdapter adapts the movies of a {@link MovieTable} to the gallery's poster
+ * grid. The table keeps deep scrolled galleries compact; items are {@link MovieTable.Row} views.
+ *
+ * Like an {@link android.widget.ArrayAdapter}, the adapter notifies its observers on each change
+ * unless disabled with {@link #setNotifyOnChange(boolean)}.
+ */
+public class MovieGalleryArrayAdapter extends BaseAdapter {
 
+    private final Activity mContext;
+    private final MovieTable mMovies;
     private final TMDBAssetURLFactory mTMDBAssetURLFactory;
+    private boolean mNotifyOnChange;
 
     /**
      * Construct a new MovieGalleryArrayAdapter.
      *
+     * @param movies the {@link MovieTable} holding the displayed movies. Owned by the adapter.
      * @param tmdbAssetURLFactory to build TMDB image asset URLs.
      */
-    public MovieGalleryArrayAdapter(final Activity context, final List<Movie> movies,
+    public MovieGalleryArrayAdapter(final Activity context, final MovieTable movies,
                                     final TMDBAssetURLFactory tmdbAssetURLFactory) {
-        super(context, 0, movies);
 
+        Preconditions.checkNotNull(context, "context must not be null.");
+        Preconditions.checkNotNull(movies, "movies must not be null.");
         Preconditions.checkNotNull(tmdbAssetURLFactory, "tmdbAssetURLFactory must not be null.");
+
+        this.mContext = context;
+        this.mMovies = movies;
         this.mTMDBAssetURLFactory = tmdbAssetURLFactory;
+        this.mNotifyOnChange = true;
+    }
+
+    /**
+     * Append a movie to the gallery.
+     *
+     * @param movie the {@link Movie} to append.
+     */
+    public void add(final Movie movie) {
+
+        mMovies.add(movie);
+        if (mNotifyOnChange) {
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Remove all movies from the gallery.
+     */
+    public void clear() {
+
+        mMovies.clear();
+        if (mNotifyOnChange) {
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * @param notifyOnChange true to notify observers on every {@link #add(Movie)} and
+     *                       {@link #clear()}. Reset to true by {@link #notifyDataSetChanged()}.
+     */
+    public void setNotifyOnChange(final boolean notifyOnChange) {
+        mNotifyOnChange = notifyOnChange;
+    }
+
+    /**
+     * @return the {@link MovieTable} holding the displayed movies, e.g. to save it.
+     */
+    public MovieTable getMovies() {
+        return mMovies;
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        super.notifyDataSetChanged();
+        mNotifyOnChange = true;
+    }
+
+    @Override
+    public int getCount() {
+        return mMovies.size();
+    }
+
+    @Override
+    public MovieTable.Row getItem(final int position) {
+        return mMovies.getRow(position);
+    }
+
+    @Override
+    public long getItemId(final int position) {
+        return mMovies.getID(position);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        // The gallery never displays a movie twice.
+        return true;
     }
 
     /**
-     * @see {@link ArrayAdapter#getView(int, View, ViewGroup)}
+     * @see {@link BaseAdapter#getView(int, View, ViewGroup)}
      */
     @Override
     public View getView(final int position, final View convertView, final ViewGroup parent) {
 
-        final Movie movie = getItem(position);
+        final MovieTable.Row movie = getItem(position);
         View resultView = convertView;
 
         if (resultView == null) {
-            resultView = LayoutInflater.from(getContext()).inflate(
+            resultView = LayoutInflater.from(mContext).inflate(
                     R.layout.grid_item_movie_poster, parent, false);
             resultView.setTag(new ViewHolder(resultView));
         }
@@ -53,7 +134,7 @@ public class MovieGalleryArrayAdapter extends ArrayAdapter<Movie> {
                     "convertView.getTag() did not return expected ViewHolder.");
         }
 
-        Picasso.with(getContext())
+        Picasso.with(mContext)
                 .load(mTMDBAssetURLFactory.getPosterImageURL(
                         movie.getPosterPath(), ImageSize.W_185))
                 .into(viewHolder.moviePosterImageView);
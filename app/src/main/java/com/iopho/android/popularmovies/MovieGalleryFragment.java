@@ -5,21 +5,41 @@ import android.app.ProgressDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.support.v4.app.Fragment;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.AbsListView;
 import android.widget.AdapterView;
 import android.widget.GridView;
 
+import com.iopho.android.dataAccess.catalog.MovieCatalogStore;
+import com.iopho.android.dataAccess.catalog.MovieListDiff;
+import com.iopho.android.dataAccess.catalog.StaleWhileRevalidateMovieClient;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
 import com.iopho.android.dataAccess.tmdb.TMDBClientFactory;
+import com.iopho.android.dataAccess.tmdb.TMDBMovieDetailPrefetcher;
+import com.iopho.android.dataAccess.tmdb.TMDBMovieClient;
 import com.iopho.android.dataAccess.tmdb.model.DataPage;
 import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieTable;
+import com.iopho.android.util.CancellationToken;
+import com.iopho.android.util.TaskScheduler;
+import com.iopho.android.util.Tracer;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 public class MovieGalleryFragment extends Fragment {
 
@@ -27,12 +47,50 @@ public class MovieGalleryFragment extends Fragment {
 
     private static final String MOVIES_BUNDLE_KEY = "MOVIES";
     private static final String QUERY_TYPE_BUNDLE_KEY = "QUERY_TYPE";
+    private static final String LOADED_PAGE_COUNT_BUNDLE_KEY = "LOADED_PAGE_COUNT";
+    private static final String TOTAL_PAGE_COUNT_BUNDLE_KEY = "TOTAL_PAGE_COUNT";
+
+    // Movies served from the catalog load well within this delay, so no progress dialog flashes.
+    private static final long PROGRESS_DIALOG_DELAY_MILLIS = 500;
+
+    // After failing to load a page, paging pauses for this long rather than retrying every scroll.
+    private static final long PAGE_RETRY_DELAY_MILLIS = 5000;
 
     private TMDBClientFactory mTMDBClientFactory;
+    private StaleWhileRevalidateMovieClient mStaleWhileRevalidateMovieClient;
+    private TaskScheduler mTaskScheduler;
+    private Tracer mTracer;
+    private TMDBMovieDetailPrefetcher mMovieDetailPrefetcher;
+    private Handler mHandler;
     private MovieGalleryArrayAdapter mMovieGalleryArrayAdapter;
+    private GridView mGridView;
     private ProgressDialog mProgressDialog;
+    private Runnable mShowProgressDialogRunnable;
+    private StaleWhileRevalidateMovieClient.Listener mMoviePageRefreshListener;
     private AlertDialog mAlertDialog;
-    private @FetchMoviesAsyncTask.TMDBQueryType int mTMDBQueryType;
+    private @FetchMoviesTask.TMDBQueryType int mTMDBQueryType;
+    private int mPrefetchDistance;
+    private int mMaxInFlightPages;
+    private int mDetailPrefetchDwellMillis;
+
+    // Paging state of the displayed movie list. Pages are displayed in order; a page loaded ahead
+    // of its predecessors is held back until they are displayed. Movies already displayed (TMDB
+    // pages shift between requests) are skipped. All loads of the list share a cancellation token,
+    // replaced whenever a different list is loaded.
+    private CancellationToken mLoadCancellationToken;
+    private int mLoadedPageCount;
+    private int mTotalPageCount;
+    private long mPagingSuspendedUntil;
+    private final Set<Integer> mInFlightPageNumbers = new HashSet<>();
+    private final SortedMap<Integer, DataPage<Movie>> mPendingPages = new TreeMap<>();
+    private final Set<Long> mDisplayedMovieIds = new HashSet<>();
+
+    // Detail prefetch state. The details of the visible movies are prefetched once the gallery
+    // rests on them; prefetches not yet made are cancelled as soon as the visible range changes.
+    private Runnable mPrefetchMovieDetailsRunnable;
+    private CancellationToken mDetailPrefetchCancellationToken;
+    private int mFirstVisiblePosition = -1;
+    private int mVisibleItemCount;
 
     @Override
     public void onCreate(final Bundle savedInstanceState) {
@@ -42,11 +100,32 @@ public class MovieGalleryFragment extends Fragment {
                 (PopularMoviesApplication)getActivity().getApplicationContext();
 
         mTMDBClientFactory = app.getTMDBClientFactory();
+        mStaleWhileRevalidateMovieClient = app.getStaleWhileRevalidateMovieClient();
+        mTaskScheduler = app.getTaskScheduler();
+        mTracer = app.getTracer();
+        mMovieDetailPrefetcher = app.getMovieDetailPrefetcher();
+        mLoadCancellationToken = new CancellationToken();
+        mHandler = new Handler();
+        mPrefetchDistance = getResources().getInteger(R.integer.movie_gallery_prefetch_distance);
+        mMaxInFlightPages = getResources().getInteger(R.integer.movie_gallery_max_in_flight_pages);
+        mDetailPrefetchDwellMillis =
+                getResources().getInteger(R.integer.movie_gallery_detail_prefetch_dwell_millis);
+        mDetailPrefetchCancellationToken = new CancellationToken();
+        mPrefetchMovieDetailsRunnable = createPrefetchMovieDetailsRunnable();
 
         // Create progress dialog
         mProgressDialog = new ProgressDialog(getActivity());
         mProgressDialog.setTitle(getString(R.string.movie_gallery_loading_dialog_title));
         mProgressDialog.setMessage(getString(R.string.movie_gallery_loading_dialog_description));
+        mShowProgressDialogRunnable = new Runnable() {
+            @Override
+            public void run() {
+                mProgressDialog.show();
+            }
+        };
+
+        // Listen for background refreshes of the displayed movies
+        mMoviePageRefreshListener = createMoviePageRefreshListener();
 
         // Create alert dialog
         mAlertDialog = createNetworkErrorAlertDialog();
@@ -56,15 +135,24 @@ public class MovieGalleryFragment extends Fragment {
     public View onCreateView(final LayoutInflater inflater, final ViewGroup container,
                              final Bundle savedInstanceState) {
 
-        // Load saved Movies instance and query type state if exists
-        List<Movie> movies;
+        // Load saved Movies instance, query type and paging state if exists
+        MovieTable movies;
         if (savedInstanceState != null) {
-            movies = savedInstanceState.getParcelableArrayList(MOVIES_BUNDLE_KEY);
-            mTMDBQueryType = FetchMoviesAsyncTask.getTMDBQueryTypeForInt(
+            movies = savedInstanceState.getParcelable(MOVIES_BUNDLE_KEY);
+            mTMDBQueryType = FetchMoviesTask.getTMDBQueryTypeForInt(
                     savedInstanceState.getInt(QUERY_TYPE_BUNDLE_KEY));
+            mLoadedPageCount = savedInstanceState.getInt(LOADED_PAGE_COUNT_BUNDLE_KEY);
+            mTotalPageCount = savedInstanceState.getInt(TOTAL_PAGE_COUNT_BUNDLE_KEY);
         } else {
-            movies = new ArrayList<>();
+            movies = new MovieTable();
             mTMDBQueryType = getQueryTypeForSortOrderPreference();
+            mLoadedPageCount = 0;
+            mTotalPageCount = 0;
+        }
+
+        mDisplayedMovieIds.clear();
+        for (int i = 0; i < movies.size(); i++) {
+            mDisplayedMovieIds.add(movies.getID(i));
         }
 
         // Create movie array adapter
@@ -76,17 +164,30 @@ public class MovieGalleryFragment extends Fragment {
                 R.layout.fragment_movie_gallery, container, false);
 
         // Setup the Movie GridView
-        final GridView gridView = (GridView)rootView.findViewById(R.id.movie_gridview);
-        gridView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+        mGridView = (GridView)rootView.findViewById(R.id.movie_gridview);
+        mGridView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
             public void onItemClick(AdapterView<?> adapterView, View view, int position, long l) {
-                final Movie selectedMovie = mMovieGalleryArrayAdapter.getItem(position);
+                final Movie selectedMovie =
+                        mMovieGalleryArrayAdapter.getItem(position).toMovie();
                 final Intent detailIntent = new Intent(getActivity(), MovieDetailActivity.class);
                 detailIntent.putExtra(MovieDetailActivity.MOVIE_INTENT_EXTRA, selectedMovie);
                 startActivity(detailIntent);
             }
         });
-        gridView.setAdapter(mMovieGalleryArrayAdapter);
+        mGridView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView absListView, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView absListView, int firstVisibleItem,
+                                 int visibleItemCount, int totalItemCount) {
+                prefetchMoviesPages();
+                onVisibleRangeChanged(firstVisibleItem, visibleItemCount);
+            }
+        });
+        mGridView.setAdapter(mMovieGalleryArrayAdapter);
 
         return rootView;
     }
@@ -94,12 +195,10 @@ public class MovieGalleryFragment extends Fragment {
     @Override
     public void onSaveInstanceState(final Bundle savedInstanceState) {
 
-        final ArrayList<Movie> movies = new ArrayList<>(mMovieGalleryArrayAdapter.getCount());
-        for (int i = 0; i < mMovieGalleryArrayAdapter.getCount(); i++) {
-            movies.add(mMovieGalleryArrayAdapter.getItem(i));
-        }
-        savedInstanceState.putParcelableArrayList(MOVIES_BUNDLE_KEY, movies);
+        savedInstanceState.putParcelable(MOVIES_BUNDLE_KEY, mMovieGalleryArrayAdapter.getMovies());
         savedInstanceState.putInt(QUERY_TYPE_BUNDLE_KEY, mTMDBQueryType);
+        savedInstanceState.putInt(LOADED_PAGE_COUNT_BUNDLE_KEY, mLoadedPageCount);
+        savedInstanceState.putInt(TOTAL_PAGE_COUNT_BUNDLE_KEY, mTotalPageCount);
 
         super.onSaveInstanceState(savedInstanceState);
     }
@@ -107,7 +206,7 @@ public class MovieGalleryFragment extends Fragment {
     @Override
     public void onStart() {
         super.onStart();
-        final @FetchMoviesAsyncTask.TMDBQueryType int queryTypePref =
+        final @FetchMoviesTask.TMDBQueryType int queryTypePref =
                 getQueryTypeForSortOrderPreference();
 
         // If the array adapter is empty or the current query type does not match the sort order
@@ -115,35 +214,283 @@ public class MovieGalleryFragment extends Fragment {
         if (mMovieGalleryArrayAdapter.isEmpty() || queryTypePref != mTMDBQueryType) {
             updateMoviesList(queryTypePref);
         }
+
+        mStaleWhileRevalidateMovieClient.addListener(mMoviePageRefreshListener);
+    }
+
+    @Override
+    public void onStop() {
+        mStaleWhileRevalidateMovieClient.removeListener(mMoviePageRefreshListener);
+        cancelMovieDetailPrefetch();
+        super.onStop();
+    }
+
+    @Override
+    public void onDestroy() {
+        // Abort loads of this fragment's movies; nothing is delivered to it from now on.
+        mLoadCancellationToken.cancel();
+        mHandler.removeCallbacks(mShowProgressDialogRunnable);
+        mProgressDialog.dismiss();
+        super.onDestroy();
     }
 
-    private void updateMoviesList(final @FetchMoviesAsyncTask.TMDBQueryType
+    /*
+     * Discard the paging state and load the given movie list from its first page. The displayed
+     * movies are kept until the first page arrives.
+     */
+    private void updateMoviesList(final @FetchMoviesTask.TMDBQueryType
                                   int tmdbQueryTypeFetchParam) {
 
-        final FetchMoviesAsyncTask fetchMoviesAsyncTask = new FetchMoviesAsyncTask(
-                mTMDBClientFactory.getTMDBMovieClient(),
-                new FetchMoviesAsyncTask.FetchMoviesAsyncTaskListener() {
+        // Loads of the previous list are stale and must not hold up the new one.
+        mLoadCancellationToken.cancel();
+        mLoadCancellationToken = new CancellationToken();
+        mHandler.removeCallbacks(mShowProgressDialogRunnable);
+
+        mLoadedPageCount = 0;
+        mTotalPageCount = 0;
+        mPagingSuspendedUntil = 0;
+        mInFlightPageNumbers.clear();
+        mPendingPages.clear();
+
+        requestMoviesPage(tmdbQueryTypeFetchParam, 1);
+    }
+
+    /*
+     * Request the next pages of the displayed movie list if the user has scrolled within the
+     * prefetch distance of the end of the gallery, up to the in-flight page limit.
+     */
+    private void prefetchMoviesPages() {
+
+        if (mLoadedPageCount == 0 || SystemClock.uptimeMillis() < mPagingSuspendedUntil ||
+                mGridView.getLastVisiblePosition() <
+                        mMovieGalleryArrayAdapter.getCount() - 1 - mPrefetchDistance) {
+            return;
+        }
+
+        int pageNumber = mLoadedPageCount + 1;
+        while (mInFlightPageNumbers.size() < mMaxInFlightPages) {
+            while (mInFlightPageNumbers.contains(pageNumber) ||
+                    mPendingPages.containsKey(pageNumber)) {
+                pageNumber++;
+            }
+            if (pageNumber > mTotalPageCount) {
+                return;
+            }
+            requestMoviesPage(mTMDBQueryType, pageNumber);
+        }
+    }
+
+    private void requestMoviesPage(final @FetchMoviesTask.TMDBQueryType
+                                   int tmdbQueryTypeFetchParam, final int pageNumber) {
+
+        mInFlightPageNumbers.add(pageNumber);
+
+        // The first page, or a page the user has scrolled to the end of the gallery for, is
+        // awaited; any other page is fetched ahead of need.
+        final boolean isAwaited = pageNumber == 1 ||
+                mGridView.getLastVisiblePosition() >= mMovieGalleryArrayAdapter.getCount() - 1;
+        if (pageNumber == 1) {
+            mHandler.postDelayed(mShowProgressDialogRunnable, PROGRESS_DIALOG_DELAY_MILLIS);
+        }
+
+        // Each page load is traced, from its request until the gallery draws its movies. The
+        // trace's span is carried over to the fetch and back to the callbacks by the scheduler.
+        final Tracer.Span traceSpan = mTracer.startTrace("gallery.loadPage")
+                .putArg("movieList", getMovieListForQueryType(tmdbQueryTypeFetchParam))
+                .putArg("pageNumber", pageNumber)
+                .putArg("awaited", isAwaited);
+        final CancellationToken.Registration traceCancellationRegistration =
+                mLoadCancellationToken.register(new Runnable() {
                     @Override
-                    public void onPreExecute() {
-                        mProgressDialog.show();
+                    public void run() {
+                        traceSpan.putArg("cancelled", true).end();
                     }
+                });
 
-                    @Override
-                    public void onPostExecute(DataPage<Movie> moviesPage) {
-                        if (moviesPage != null) {
-                            mMovieGalleryArrayAdapter.clear();
-                            for (Movie movie : moviesPage.getResults()) {
-                                mMovieGalleryArrayAdapter.add(movie);
+        final Tracer.Span previousSpan = Tracer.setCurrentSpan(traceSpan);
+        try {
+            mTaskScheduler.submit(
+                    isAwaited ? TaskScheduler.Priority.VISIBLE : TaskScheduler.Priority.PREFETCH,
+                    mLoadCancellationToken,
+                    new FetchMoviesTask(mStaleWhileRevalidateMovieClient, tmdbQueryTypeFetchParam,
+                            pageNumber),
+                    new TaskScheduler.Callback<DataPage<Movie>>() {
+                        // Never invoked once the load is cancelled, i.e. for a stale movie list or
+                        // after the fragment is destroyed.
+                        @Override
+                        public void onSuccess(final DataPage<Movie> moviesPage) {
+                            traceCancellationRegistration.unregister();
+                            onMoviesPageRequestDone(pageNumber);
+
+                            final Tracer.Span renderSpan = traceSpan.startChild("render");
+                            if (pageNumber == 1) {
+                                mTMDBQueryType = tmdbQueryTypeFetchParam;
+                                clearMovies();
+                            }
+                            onMoviesPageLoaded(moviesPage);
+                            renderSpan.end();
+
+                            endTraceOnNextDraw(traceSpan);
+                        }
+
+                        @Override
+                        public void onFailure(final Exception ex) {
+                            traceCancellationRegistration.unregister();
+                            onMoviesPageRequestDone(pageNumber);
+
+                            if (pageNumber == 1) {
+                                mAlertDialog.show();
+                            } else if (ex instanceof DataAccessParsingException) {
+                                // The same response would fail again. Skip the page rather
+                                // than hold back the pages after it.
+                                onMoviesPageLoaded(new DataPage<Movie>(pageNumber, mTotalPageCount,
+                                        0, Collections.<Movie>emptyList()));
+                            } else {
+                                mPagingSuspendedUntil =
+                                        SystemClock.uptimeMillis() + PAGE_RETRY_DELAY_MILLIS;
                             }
-                            mTMDBQueryType = tmdbQueryTypeFetchParam;
-                        } else {
-                            mAlertDialog.show();
+
+                            traceSpan.putArg("error", ex.getClass().getSimpleName()).end();
                         }
+                    });
+        } finally {
+            Tracer.setCurrentSpan(previousSpan);
+        }
+    }
+
+    /*
+     * End the trace of a page load when the gallery next draws, so that it includes the layout
+     * pass in which the adapter binds the views of the loaded movies.
+     */
+    private void endTraceOnNextDraw(final Tracer.Span traceSpan) {
 
-                        mProgressDialog.dismiss();
+        final Tracer.Span layoutSpan = traceSpan.startChild("layout");
+        mGridView.getViewTreeObserver().addOnPreDrawListener(
+                new ViewTreeObserver.OnPreDrawListener() {
+                    @Override
+                    public boolean onPreDraw() {
+                        mGridView.getViewTreeObserver().removeOnPreDrawListener(this);
+                        layoutSpan.end();
+                        traceSpan.end();
+                        return true;
                     }
                 });
-        fetchMoviesAsyncTask.execute(tmdbQueryTypeFetchParam);
+    }
+
+    private void onMoviesPageRequestDone(final int pageNumber) {
+
+        mInFlightPageNumbers.remove(pageNumber);
+
+        if (pageNumber == 1) {
+            mHandler.removeCallbacks(mShowProgressDialogRunnable);
+            mProgressDialog.dismiss();
+        }
+    }
+
+    private void onMoviesPageLoaded(final DataPage<Movie> moviesPage) {
+
+        mTotalPageCount = Math.min(moviesPage.getTotalPageCount(), TMDBMovieClient.MAX_PAGE_NUMBER);
+        mPendingPages.put(moviesPage.getPageNumber(), moviesPage);
+
+        mMovieGalleryArrayAdapter.setNotifyOnChange(false);
+        while (mPendingPages.containsKey(mLoadedPageCount + 1)) {
+            for (Movie movie : mPendingPages.remove(mLoadedPageCount + 1).getResults()) {
+                if (mDisplayedMovieIds.add(movie.getID())) {
+                    mMovieGalleryArrayAdapter.add(movie);
+                }
+            }
+            mLoadedPageCount++;
+        }
+        mMovieGalleryArrayAdapter.notifyDataSetChanged();
+
+        // The new movies may not fill the gallery.
+        prefetchMoviesPages();
+    }
+
+    private void clearMovies() {
+
+        mMovieGalleryArrayAdapter.clear();
+        mDisplayedMovieIds.clear();
+        mLoadedPageCount = 0;
+        cancelMovieDetailPrefetch();
+    }
+
+    /*
+     * Restart the dwell period whenever different movies come into view.
+     */
+    private void onVisibleRangeChanged(final int firstVisiblePosition, final int visibleItemCount) {
+
+        if (firstVisiblePosition == mFirstVisiblePosition &&
+                visibleItemCount == mVisibleItemCount) {
+            return;
+        }
+
+        cancelMovieDetailPrefetch();
+        mFirstVisiblePosition = firstVisiblePosition;
+        mVisibleItemCount = visibleItemCount;
+        mHandler.postDelayed(mPrefetchMovieDetailsRunnable, mDetailPrefetchDwellMillis);
+    }
+
+    private void cancelMovieDetailPrefetch() {
+
+        mHandler.removeCallbacks(mPrefetchMovieDetailsRunnable);
+        mDetailPrefetchCancellationToken.cancel();
+        mDetailPrefetchCancellationToken = new CancellationToken();
+        mFirstVisiblePosition = -1;
+        mVisibleItemCount = 0;
+    }
+
+    /*
+     * Prefetches the details of the movies in view, once the gallery has rested on them.
+     */
+    private Runnable createPrefetchMovieDetailsRunnable() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                final int endPosition = Math.min(mFirstVisiblePosition + mVisibleItemCount,
+                        mMovieGalleryArrayAdapter.getCount());
+                final List<Long> movieIds = new ArrayList<>();
+                for (int i = Math.max(mFirstVisiblePosition, 0); i < endPosition; i++) {
+                    movieIds.add(mMovieGalleryArrayAdapter.getItemId(i));
+                }
+                mMovieDetailPrefetcher.prefetch(movieIds, mDetailPrefetchCancellationToken);
+            }
+        };
+    }
+
+    /*
+     * Replaces the displayed movies when the displayed page is refreshed in the background.
+     */
+    private StaleWhileRevalidateMovieClient.Listener createMoviePageRefreshListener() {
+        return new StaleWhileRevalidateMovieClient.Listener() {
+            @Override
+            public void onMoviePageRefreshed(final String movieList,
+                                             final DataPage<Movie> moviePage,
+                                             final MovieListDiff diff) {
+                // Invoked on a background thread.
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Only a gallery showing just the first page is refreshed in place; deeper
+                        // pages would no longer line up with it.
+                        if (isAdded() && moviePage.getPageNumber() == 1 && mLoadedPageCount == 1 &&
+                                mInFlightPageNumbers.isEmpty() &&
+                                movieList.equals(getMovieListForQueryType(mTMDBQueryType))) {
+                            Log.d(LOG_TAG, "Displayed movies refreshed: " + diff);
+                            clearMovies();
+                            onMoviesPageLoaded(moviePage);
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    private static @MovieCatalogStore.MovieList.Def String getMovieListForQueryType(
+            final @FetchMoviesTask.TMDBQueryType int queryType) {
+
+        return (queryType == FetchMoviesTask.RATING) ?
+                MovieCatalogStore.MovieList.TOP_RATED : MovieCatalogStore.MovieList.POPULAR;
     }
 
     private AlertDialog createNetworkErrorAlertDialog() {
@@ -155,7 +502,7 @@ public class MovieGalleryFragment extends Fragment {
                             @Override
                             public void onClick(DialogInterface dialogInterface, int i) {
                                 // Re-fetch movie data
-                                final @FetchMoviesAsyncTask.TMDBQueryType int queryTypePref =
+                                final @FetchMoviesTask.TMDBQueryType int queryTypePref =
                                         getQueryTypeForSortOrderPreference();
                                 updateMoviesList(queryTypePref);
                             }
@@ -174,7 +521,7 @@ public class MovieGalleryFragment extends Fragment {
         return alertDialogBuilder.create();
     }
 
-    private @FetchMoviesAsyncTask.TMDBQueryType int getQueryTypeForSortOrderPreference() {
+    private @FetchMoviesTask.TMDBQueryType int getQueryTypeForSortOrderPreference() {
 
         final SharedPreferences sharedPreferences =
                 PreferenceManager.getDefaultSharedPreferences(getActivity());
@@ -183,9 +530,9 @@ public class MovieGalleryFragment extends Fragment {
                 getString(R.string.pref_sort_order_default));
 
         if (getString(R.string.pref_sort_order_value_rating).equals(sortOrderPref)) {
-            return FetchMoviesAsyncTask.RATING;
+            return FetchMoviesTask.RATING;
         } else {
-            return FetchMoviesAsyncTask.POPULARITY;
+            return FetchMoviesTask.POPULARITY;
         }
     }
 }
@@ -5,11 +5,17 @@ import android.content.Context;
 import android.support.annotation.StringDef;
 
 import com.google.common.base.Preconditions;
+import com.iopho.android.dataAccess.catalog.MovieCatalogStore;
+import com.iopho.android.dataAccess.catalog.StaleWhileRevalidateMovieClient;
 import com.iopho.android.dataAccess.exception.DataAccessParsingException;
 import com.iopho.android.dataAccess.tmdb.TMDBClientFactory;
+import com.iopho.android.dataAccess.tmdb.TMDBMovieDetailPrefetcher;
 import com.iopho.android.util.ApplicationProperties;
+import com.iopho.android.util.TaskScheduler;
+import com.iopho.android.util.Tracer;
 import com.squareup.picasso.Picasso;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -21,8 +27,21 @@ public class PopularMoviesApplication extends Application {
 
     private static final boolean DEBUG_MODE = true;
 
+    // Workers loading TMDB data. Visible content may use all of them; prefetches all but one.
+    private static final int TASK_SCHEDULER_THREAD_COUNT = 3;
+
+    // The most recent spans kept by the tracer. A gallery page load records about ten.
+    private static final int TRACER_CAPACITY = 4096;
+
+    private static final String TRACE_FILE_NAME = "trace.json";
+
     private PopularMoviesAppProperties mApplicationProperties;
+    private Tracer mTracer;
+    private TaskScheduler mTaskScheduler;
     private TMDBClientFactory mTMDBClientFactory;
+    private MovieCatalogStore mMovieCatalogStore;
+    private StaleWhileRevalidateMovieClient mStaleWhileRevalidateMovieClient;
+    private TMDBMovieDetailPrefetcher mMovieDetailPrefetcher;
 
     @Override
     public void onCreate() {
@@ -48,12 +67,58 @@ public class PopularMoviesApplication extends Application {
             throw new RuntimeException("Failed to initialize TMDB client library.", ex);
         }
 
+        mTracer = new Tracer(TRACER_CAPACITY);
+        mTaskScheduler = new TaskScheduler("tmdb-task", TASK_SCHEDULER_THREAD_COUNT);
+
+        // The catalog database is only opened on first use, off the UI thread.
+        mMovieCatalogStore = new MovieCatalogStore(this);
+
+        // Movie lists are served from the catalog and refreshed in the background lane, so
+        // refreshes never compete with loads of the content on screen. Pages bypass the result
+        // cache, and stored ones are refreshed as often as the result cache would expire them.
+        mStaleWhileRevalidateMovieClient = new StaleWhileRevalidateMovieClient(
+                mTMDBClientFactory.getTMDBMovieClient(),
+                mTMDBClientFactory.getUncachedTMDBMovieClient(), mMovieCatalogStore,
+                mTaskScheduler.asExecutor(TaskScheduler.Priority.BACKGROUND),
+                mTMDBClientFactory.getMovieListFreshness());
+
+        // One prefetcher for the whole app, so that its budget holds across screens.
+        mMovieDetailPrefetcher = mTMDBClientFactory.createMovieDetailPrefetcher(mTaskScheduler);
+
         // TODO: What is a better way of managing application environments?
         if (DEBUG_MODE) {
             Picasso.with(this).setIndicatorsEnabled(true);
         }
     }
 
+    /**
+     * @return the global {@link Tracer} instance, tracing user actions.
+     */
+    public Tracer getTracer() {
+        return mTracer;
+    }
+
+    /**
+     * Write the spans recorded by the {@link Tracer} to the app's files directory, in the Chrome
+     * trace-event format. The file is replaced on every export.
+     *
+     * @return the written file.
+     * @throws IOException if the file fails to be written.
+     */
+    public File exportTrace() throws IOException {
+
+        final File traceFile = new File(getFilesDir(), TRACE_FILE_NAME);
+        mTracer.writeChromeTrace(traceFile);
+        return traceFile;
+    }
+
+    /**
+     * @return the global {@link TaskScheduler} instance, running all TMDB data loads.
+     */
+    public TaskScheduler getTaskScheduler() {
+        return mTaskScheduler;
+    }
+
     /**
      * @return the global {@link TMDBClientFactory} instance.
      */
@@ -61,6 +126,29 @@ public class PopularMoviesApplication extends Application {
         return mTMDBClientFactory;
     }
 
+    /**
+     * @return the global {@link MovieCatalogStore} instance.
+     */
+    public MovieCatalogStore getMovieCatalogStore() {
+        return mMovieCatalogStore;
+    }
+
+    /**
+     * @return the global {@link StaleWhileRevalidateMovieClient} instance, serving movie lists
+     * from the {@link MovieCatalogStore} while refreshing them in the background.
+     */
+    public StaleWhileRevalidateMovieClient getStaleWhileRevalidateMovieClient() {
+        return mStaleWhileRevalidateMovieClient;
+    }
+
+    /**
+     * @return the global {@link TMDBMovieDetailPrefetcher} instance, warming the details of movies
+     * likely to be opened.
+     */
+    public TMDBMovieDetailPrefetcher getMovieDetailPrefetcher() {
+        return mMovieDetailPrefetcher;
+    }
+
     /**
      * An extension of {@link ApplicationProperties} that enforces (via static typing) that only
      * keys of annotated type @AppProperty can be read.
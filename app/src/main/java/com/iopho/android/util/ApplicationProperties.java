@@ -82,4 +82,26 @@ public class ApplicationProperties {
 
         return result;
     }
+
+    /**
+     * Returns the value of the property associated with the given key. Returns null if the property
+     * key is not found. A value of "true" (ignoring case) is parsed as true, any other value as
+     * false.
+     *
+     * @param key the property key
+     * @return the value associated with the given property key or null if non exists.
+     */
+    public Boolean getBooleanPropertyValue(final String key) {
+
+        Preconditions.checkNotNull(key, "key must not be null.");
+
+        final String valueStr = mProperties.getProperty(key);
+
+        Boolean result = null;
+        if (valueStr != null) {
+            result = Boolean.valueOf(valueStr.trim());
+        }
+
+        return result;
+    }
 }
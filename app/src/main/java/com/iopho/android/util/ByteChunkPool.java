@@ -0,0 +1,79 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A ByteChunkPool recycles fixed size byte array chunks used as transient read buffers. Reusing
+ * chunks across reads avoids allocating (and later collecting) a fresh buffer for every response.
+ *
+ * At most <b>maxPooledChunks</b> chunks are retained. Chunks released beyond that limit are left
+ * for the garbage collector.
+ *
+ * This class is thread safe.
+ */
+public class ByteChunkPool {
+
+    private final int mChunkSize;
+    private final int mMaxPooledChunks;
+    private final Deque<byte[]> mChunks;
+
+    /**
+     * Construct a new ByteChunkPool.
+     *
+     * @param chunkSize size, in bytes, of each chunk. Must be positive.
+     * @param maxPooledChunks maximum number of idle chunks retained for reuse. Must be
+     *                        non-negative.
+     */
+    public ByteChunkPool(final int chunkSize, final int maxPooledChunks) {
+
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be positive.");
+        Preconditions.checkArgument(maxPooledChunks >= 0, "maxPooledChunks must be non-negative.");
+
+        this.mChunkSize = chunkSize;
+        this.mMaxPooledChunks = maxPooledChunks;
+        this.mChunks = new ArrayDeque<>(maxPooledChunks);
+    }
+
+    /**
+     * @return a chunk of {@link #getChunkSize()} bytes. The chunk's contents are undefined.
+     */
+    public byte[] acquire() {
+
+        synchronized (mChunks) {
+            final byte[] chunk = mChunks.pollFirst();
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        return new byte[mChunkSize];
+    }
+
+    /**
+     * Return a chunk obtained via {@link #acquire()} to the pool. The caller must not use the chunk
+     * after releasing it.
+     *
+     * @param chunk the chunk to return.
+     */
+    public void release(final byte[] chunk) {
+
+        Preconditions.checkNotNull(chunk, "chunk must not be null.");
+        Preconditions.checkArgument(chunk.length == mChunkSize,
+                "chunk was not acquired from this pool.");
+
+        synchronized (mChunks) {
+            if (mChunks.size() < mMaxPooledChunks) {
+                mChunks.addFirst(chunk);
+            }
+        }
+    }
+
+    /**
+     * @return size, in bytes, of each chunk.
+     */
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+}
@@ -0,0 +1,171 @@
+package com.iopho.android.util;
+
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A CancellationToken signals that the work it was handed to is no longer wanted.
+ *
+ * Work checks {@link #isCancelled()} between steps, and blocking operations which cannot observe
+ * thread interruption (e.g. socket reads) {@link #register(Runnable)} a callback that aborts them.
+ * A token can be shared by any number of tasks, e.g. all loads made on behalf of one screen, and
+ * cancelling it cancels them all.
+ *
+ * Rather than being passed through every layer, a token is bound to the thread doing the work
+ * (see {@link #setCurrent(CancellationToken)}), and layers which can abort work, such as
+ * {@link HttpURLDownloader}, look it up with {@link #current()}.
+ *
+ * This class is thread safe.
+ */
+public class CancellationToken {
+
+    private static final String LOG_TAG = CancellationToken.class.getSimpleName();
+
+    /**
+     * A token which is never cancelled. {@link #current()} returns it on threads without a bound
+     * token.
+     */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private static final ThreadLocal<CancellationToken> CURRENT_TOKEN =
+            new ThreadLocal<CancellationToken>() {
+                @Override
+                protected CancellationToken initialValue() {
+                    return NONE;
+                }
+            };
+
+    /**
+     * A Registration of a cancellation callback.
+     */
+    public interface Registration {
+
+        /**
+         * Unregister the callback. Does nothing if it has already run.
+         */
+        void unregister();
+    }
+
+    // Guarded by this. Null once cancelled.
+    private Set<CallbackRegistration> mRegistrations = new LinkedHashSet<>();
+    private volatile boolean mIsCancelled;
+
+    /**
+     * @return the token bound to the calling thread, or {@link #NONE}.
+     */
+    public static CancellationToken current() {
+        return CURRENT_TOKEN.get();
+    }
+
+    /**
+     * Bind a token to the calling thread. The caller must restore the previously bound token when
+     * its work is done.
+     *
+     * @param token the token to bind.
+     * @return the previously bound token.
+     */
+    public static CancellationToken setCurrent(final CancellationToken token) {
+
+        Preconditions.checkNotNull(token, "token must not be null.");
+
+        final CancellationToken previousToken = CURRENT_TOKEN.get();
+        CURRENT_TOKEN.set(token);
+        return previousToken;
+    }
+
+    /**
+     * @return true iff this token has been cancelled.
+     */
+    public boolean isCancelled() {
+        return mIsCancelled;
+    }
+
+    /**
+     * Cancel this token, running all registered callbacks on the calling thread. Does nothing if
+     * this token is already cancelled.
+     */
+    public void cancel() {
+
+        if (this == NONE) {
+            throw new UnsupportedOperationException("CancellationToken.NONE cannot be cancelled.");
+        }
+
+        final List<CallbackRegistration> registrations;
+        synchronized (this) {
+            if (mIsCancelled) {
+                return;
+            }
+            mIsCancelled = true;
+            registrations = new ArrayList<>(mRegistrations);
+            mRegistrations = null;
+        }
+
+        for (CallbackRegistration registration : registrations) {
+            registration.run();
+        }
+    }
+
+    /**
+     * Register a callback to run when this token is cancelled. If this token is already
+     * cancelled, the callback runs immediately on the calling thread.
+     *
+     * @param onCancel the callback. Must be quick and must not block: it runs on the cancelling
+     *                 thread, which is typically the UI thread.
+     * @return a {@link Registration} to unregister the callback once the guarded work is done.
+     */
+    public Registration register(final Runnable onCancel) {
+
+        Preconditions.checkNotNull(onCancel, "onCancel must not be null.");
+
+        final CallbackRegistration registration = new CallbackRegistration(onCancel);
+        if (this == NONE) {
+            // Would never run, so is not retained.
+            return registration;
+        }
+
+        synchronized (this) {
+            if (!mIsCancelled) {
+                mRegistrations.add(registration);
+                return registration;
+            }
+        }
+
+        registration.run();
+        return registration;
+    }
+
+    /*
+     * A registered callback. Identity-based, so the same Runnable can be registered twice.
+     */
+    private class CallbackRegistration implements Registration {
+
+        private final Runnable mOnCancel;
+
+        CallbackRegistration(final Runnable onCancel) {
+            this.mOnCancel = onCancel;
+        }
+
+        @Override
+        public void unregister() {
+            synchronized (CancellationToken.this) {
+                if (mRegistrations != null) {
+                    mRegistrations.remove(this);
+                }
+            }
+        }
+
+        void run() {
+            try {
+                mOnCancel.run();
+            } catch (RuntimeException ex) {
+                Log.e(LOG_TAG, "Cancellation callback failed.", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Preconditions;
+
+import java.text.ParseException;
+
+/**
+ * A helper class that provides date routines over epoch days.
+ *
+ * An epoch day is the number of days since 1970-01-01 in the proleptic Gregorian calendar. It
+ * identifies a calendar date (no time, no time zone) in an int, so dates can be parsed, stored and
+ * formatted without allocating {@link java.util.Date}s, {@link java.util.Calendar}s or
+ * {@link java.text.DateFormat}s. All routines are thread safe.
+ */
+public class DateHelper {
+
+    private static final int ISO_DATE_LENGTH = 10;
+
+    // Days from 0000-03-01 to 1970-01-01, and in a 400 year era of the Gregorian calendar.
+    private static final int EPOCH_DAY_SHIFT = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    private DateHelper() {}
+
+    /**
+     * Compute the epoch day of a calendar date.
+     *
+     * @param year the year, e.g. 2016.
+     * @param month the month of the year. Must be in range: [1, 12].
+     * @param dayOfMonth the day of the month. Must be in range: [1, 31].
+     * @return the epoch day of the date.
+     */
+    public static int epochDayOf(final int year, final int month, final int dayOfMonth) {
+
+        Preconditions.checkArgument(month >= 1 && month <= 12, "month must be in range [1, 12].");
+        Preconditions.checkArgument(dayOfMonth >= 1 && dayOfMonth <= 31,
+                "dayOfMonth must be in range [1, 31].");
+
+        // Count from 0000-03-01 so that the leap day falls at the end of the (shifted) year.
+        final int shiftedYear = (month <= 2) ? year - 1 : year;
+        final int era = ((shiftedYear >= 0) ? shiftedYear : shiftedYear - 399) / 400;
+        final int yearOfEra = shiftedYear - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - EPOCH_DAY_SHIFT;
+    }
+
+    /**
+     * Parse a date in the fixed ISO 8601 format yyyy-MM-dd (e.g. 2016-07-31) directly from its
+     * characters, without allocating.
+     *
+     * @param text the characters to parse. Must be exactly a yyyy-MM-dd date.
+     * @return the epoch day of the date.
+     * @throws ParseException if the text is not a yyyy-MM-dd date, or the date does not exist
+     * (e.g. 2015-02-29).
+     */
+    public static int parseISODate(final CharSequence text) throws ParseException {
+
+        Preconditions.checkNotNull(text, "text must not be null.");
+
+        if (text.length() != ISO_DATE_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw new ParseException("Unparseable date: \"" + text + "\"", 0);
+        }
+
+        final int year = parseDigits(text, 0, 4);
+        final int month = parseDigits(text, 5, 7);
+        final int dayOfMonth = parseDigits(text, 8, 10);
+
+        if (month < 1 || month > 12) {
+            throw new ParseException("Invalid month: \"" + text + "\"", 5);
+        }
+        if (dayOfMonth < 1 || dayOfMonth > getDaysInMonth(year, month)) {
+            throw new ParseException("Invalid day of month: \"" + text + "\"", 8);
+        }
+
+        return epochDayOf(year, month, dayOfMonth);
+    }
+
+    /**
+     * @param epochDay an epoch day.
+     * @return the year the epoch day falls in.
+     */
+    public static int getYear(final int epochDay) {
+
+        final int shiftedEpochDay = epochDay + EPOCH_DAY_SHIFT;
+        final int era = ((shiftedEpochDay >= 0) ?
+                shiftedEpochDay : shiftedEpochDay - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+        final int dayOfEra = shiftedEpochDay - era * DAYS_PER_ERA;
+        final int yearOfEra =
+                (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+
+        // Shifted years start in March; January and February belong to the next calendar year.
+        return yearOfEra + era * 400 + (shiftedMonth >= 10 ? 1 : 0);
+    }
+
+    private static int getDaysInMonth(final int year, final int month) {
+
+        switch (month) {
+            case 2:
+                final boolean isLeapYear = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return isLeapYear ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int parseDigits(final CharSequence text, final int start, final int end)
+            throws ParseException {
+
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new ParseException("Unparseable date: \"" + text + "\"", i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
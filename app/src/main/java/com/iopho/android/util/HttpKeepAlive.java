@@ -0,0 +1,50 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * HttpKeepAlive configures the keep-alive connection pool of the platform
+ * {@link java.net.HttpURLConnection} implementation, which owns and reuses the sockets of all
+ * requests made in the process.
+ *
+ * The pool is configured through the "http.keepAlive", "http.maxConnections" and
+ * "http.keepAliveDuration" system properties. These are process wide and are read when the pool
+ * is created, so {@link #configure(int, long)} is to be called once, at application startup,
+ * before any request is made.
+ *
+ * On Android, "http.maxConnections" bounds the idle connections of the whole pool, across hosts.
+ * On the JVM it bounds them per host, and "http.keepAliveDuration" is not read: idle connections
+ * are kept for as long as the server's Keep-Alive header allows.
+ */
+public final class HttpKeepAlive {
+
+    private static final String KEEP_ALIVE_PROPERTY = "http.keepAlive";
+    private static final String MAX_CONNECTIONS_PROPERTY = "http.maxConnections";
+    private static final String KEEP_ALIVE_DURATION_PROPERTY = "http.keepAliveDuration";
+
+    private HttpKeepAlive() {}
+
+    /**
+     * Configure the platform keep-alive connection pool.
+     *
+     * @param maxIdleConnections the maximum number of idle connections to keep alive. Must be
+     *                           non-negative. A value of 0 disables connection reuse.
+     * @param keepAliveDurationMillis the duration, in milliseconds, that an idle connection is kept
+     *                                before being closed. Must be positive.
+     */
+    public static void configure(final int maxIdleConnections,
+                                 final long keepAliveDurationMillis) {
+
+        Preconditions.checkArgument(maxIdleConnections >= 0,
+                "maxIdleConnections must be non-negative.");
+        Preconditions.checkArgument(keepAliveDurationMillis > 0,
+                "keepAliveDurationMillis must be positive.");
+
+        System.setProperty(KEEP_ALIVE_PROPERTY, String.valueOf(maxIdleConnections > 0));
+        if (maxIdleConnections > 0) {
+            System.setProperty(MAX_CONNECTIONS_PROPERTY, String.valueOf(maxIdleConnections));
+            System.setProperty(KEEP_ALIVE_DURATION_PROPERTY,
+                    String.valueOf(keepAliveDurationMillis));
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.iopho.android.util;
+
+import android.util.Log;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A HttpResponseCache is a disk-backed cache of HTTP response bodies and their validators (the
+ * ETag and Last-Modified response headers). It allows a {@link HttpURLDownloader} to make
+ * conditional requests (If-None-Match / If-Modified-Since) and serve a 304 (Not Modified) response
+ * from a previously downloaded body.
+ *
+ * Entries are keyed by a caller supplied {@link Function} mapping a request {@link URL} to a cache
+ * key. This allows volatile parts of a URL (e.g. credentials in query params) to be excluded from
+ * the key. Each entry is stored in a single file holding a small header (the key and validators)
+ * followed by the decoded response body. Entries are written to a temporary file and renamed into
+ * place on commit, so a reader never observes a partially written entry. A looked up {@link Entry}
+ * keeps its file open until its body is read, so the body always belongs to the validators read
+ * with it, even if the entry is replaced or evicted in between.
+ *
+ * When the total size of all entries exceeds the configured maximum, least recently used entries
+ * (by file modification time) are deleted.
+ *
+ * This class is thread safe.
+ */
+public class HttpResponseCache {
+
+    private static final String LOG_TAG = HttpResponseCache.class.getSimpleName();
+
+    private static final int ENTRY_FORMAT_VERSION = 1;
+    private static final String ENTRY_FILE_SUFFIX = ".entry";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final long mMaxSizeBytes;
+    private final Function<URL, String> mKeyFunction;
+
+    private final AtomicLong mRequestCount;
+    private final AtomicLong mConditionalHitCount;
+    private final AtomicLong mStoreCount;
+
+    /**
+     * Construct a new HttpResponseCache.
+     *
+     * @param directory the directory in which to store cache entries. Created if it does not exist.
+     * @param maxSizeBytes the maximum total size, in bytes, of all cache entries. Must be positive.
+     * @param keyFunction maps a request {@link URL} to its cache key.
+     */
+    public HttpResponseCache(final File directory, final long maxSizeBytes,
+                             final Function<URL, String> keyFunction) {
+
+        Preconditions.checkNotNull(directory, "directory must not be null.");
+        Preconditions.checkArgument(maxSizeBytes > 0, "maxSizeBytes must be positive.");
+        Preconditions.checkNotNull(keyFunction, "keyFunction must not be null.");
+
+        this.mDirectory = directory;
+        this.mMaxSizeBytes = maxSizeBytes;
+        this.mKeyFunction = keyFunction;
+        this.mRequestCount = new AtomicLong();
+        this.mConditionalHitCount = new AtomicLong();
+        this.mStoreCount = new AtomicLong();
+    }
+
+    /**
+     * Look up the cache entry for the given request {@link URL}.
+     *
+     * @param url the request URL.
+     * @return the cached {@link Entry}, or null if no valid entry exists. The entry must be
+     * closed.
+     */
+    public Entry get(final URL url) {
+
+        Preconditions.checkNotNull(url, "url must not be null.");
+
+        mRequestCount.incrementAndGet();
+
+        final String key = mKeyFunction.apply(url);
+        final File entryFile = getEntryFile(key);
+        if (!entryFile.isFile()) {
+            return null;
+        }
+
+        FileInputStream fileInputStream = null;
+        Entry entry = null;
+        try {
+            fileInputStream = new FileInputStream(entryFile);
+
+            // The header is small, so it is read unbuffered to leave the file positioned exactly
+            // where the body begins.
+            final CountingInputStream countingInputStream =
+                    new CountingInputStream(fileInputStream);
+            final DataInputStream inputStream = new DataInputStream(countingInputStream);
+
+            if (inputStream.readInt() != ENTRY_FORMAT_VERSION ||
+                    !key.equals(inputStream.readUTF())) {
+                // Outdated format or hash collision. Treat as a miss.
+                return null;
+            }
+
+            final String eTag = readNullableUTF(inputStream);
+            final String lastModified = readNullableUTF(inputStream);
+
+            // The size of the open file, not of whatever is at its path by now.
+            final long bodyLength =
+                    fileInputStream.getChannel().size() - countingInputStream.getCount();
+
+            entry = new Entry(entryFile, eTag, lastModified, bodyLength, fileInputStream);
+            return entry;
+        } catch (FileNotFoundException ex) {
+            // Evicted since the check above.
+            return null;
+        } catch (IOException ex) {
+            Log.w(LOG_TAG, "Failed to read HTTP cache entry: " + entryFile, ex);
+            delete(entryFile);
+            return null;
+        } finally {
+            if (entry == null) {
+                closeQuietly(fileInputStream);
+            }
+        }
+    }
+
+    /**
+     * Begin writing a new cache entry for the given request {@link URL}. At least one of
+     * <b>eTag</b> or <b>lastModified</b> must be provided, otherwise the entry could never be
+     * revalidated.
+     *
+     * The returned {@link Editor} must be either committed or aborted.
+     *
+     * @param url the request URL.
+     * @param eTag the response ETag header value, or null.
+     * @param lastModified the response Last-Modified header value, or null.
+     * @return an {@link Editor} for the new entry.
+     * @throws IOException if the temporary entry file cannot be created.
+     */
+    public Editor edit(final URL url, final String eTag, final String lastModified)
+            throws IOException {
+
+        Preconditions.checkNotNull(url, "url must not be null.");
+        Preconditions.checkArgument(eTag != null || lastModified != null,
+                "At least one of eTag or lastModified must be provided.");
+
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Failed to create HTTP cache directory: " + mDirectory);
+        }
+
+        final String key = mKeyFunction.apply(url);
+        final File entryFile = getEntryFile(key);
+        final File tempFile = File.createTempFile(
+                entryFile.getName(), TEMP_FILE_SUFFIX, mDirectory);
+
+        return new Editor(key, entryFile, tempFile, eTag, lastModified);
+    }
+
+    /**
+     * Remove the cache entry, if any, for the given request {@link URL}.
+     *
+     * @param url the request URL.
+     */
+    public void remove(final URL url) {
+
+        Preconditions.checkNotNull(url, "url must not be null.");
+        delete(getEntryFile(mKeyFunction.apply(url)));
+    }
+
+    /**
+     * Record that the given entry was used to serve a 304 (Not Modified) response. Marks the entry
+     * as recently used.
+     *
+     * @param entry the revalidated entry.
+     */
+    public void onConditionalHit(final Entry entry) {
+
+        Preconditions.checkNotNull(entry, "entry must not be null.");
+
+        mConditionalHitCount.incrementAndGet();
+        if (!entry.mFile.setLastModified(System.currentTimeMillis())) {
+            Log.w(LOG_TAG, "Failed to touch HTTP cache entry: " + entry.mFile);
+        }
+    }
+
+    /**
+     * @return the number of cache lookups.
+     */
+    public long getRequestCount() {
+        return mRequestCount.get();
+    }
+
+    /**
+     * @return the number of responses served from the cache after a 304 (Not Modified).
+     */
+    public long getConditionalHitCount() {
+        return mConditionalHitCount.get();
+    }
+
+    /**
+     * @return the number of entries written to the cache.
+     */
+    public long getStoreCount() {
+        return mStoreCount.get();
+    }
+
+    /**
+     * @return the total size, in bytes, of all cache entries.
+     */
+    public synchronized long getSize() {
+        long size = 0;
+        for (File file : listEntryFiles()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "[ RequestCount=" + getRequestCount() +
+                ", ConditionalHitCount=" + getConditionalHitCount() +
+                ", StoreCount=" + getStoreCount() +
+                " ]";
+    }
+
+    /*
+     * Delete least recently used entries until the total size fits within the configured maximum.
+     */
+    private synchronized void trimToSize() {
+
+        final File[] entryFiles = listEntryFiles();
+        long size = 0;
+        for (File file : entryFiles) {
+            size += file.length();
+        }
+        if (size <= mMaxSizeBytes) {
+            return;
+        }
+
+        Arrays.sort(entryFiles, new Comparator<File>() {
+            @Override
+            public int compare(final File lhs, final File rhs) {
+                final long lhsModified = lhs.lastModified();
+                final long rhsModified = rhs.lastModified();
+                return (lhsModified < rhsModified) ? -1 : ((lhsModified == rhsModified) ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < entryFiles.length && size > mMaxSizeBytes; i++) {
+            size -= entryFiles[i].length();
+            delete(entryFiles[i]);
+        }
+    }
+
+    private synchronized void commit(final File tempFile, final File entryFile)
+            throws IOException {
+
+        // File#renameTo does not replace an existing file on all platforms.
+        delete(entryFile);
+        if (!tempFile.renameTo(entryFile)) {
+            throw new IOException("Failed to commit HTTP cache entry: " + entryFile);
+        }
+        mStoreCount.incrementAndGet();
+        trimToSize();
+    }
+
+    private File[] listEntryFiles() {
+        final File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(ENTRY_FILE_SUFFIX)) {
+                files[count++] = file;
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+
+    private File getEntryFile(final String key) {
+        return new File(mDirectory,
+                Hashing.sha1().hashString(key, Charsets.UTF_8).toString() + ENTRY_FILE_SUFFIX);
+    }
+
+    private static String readNullableUTF(final DataInputStream inputStream) throws IOException {
+        return inputStream.readBoolean() ? inputStream.readUTF() : null;
+    }
+
+    private static void writeNullableUTF(final DataOutputStream outputStream, final String value)
+            throws IOException {
+        outputStream.writeBoolean(value != null);
+        if (value != null) {
+            outputStream.writeUTF(value);
+        }
+    }
+
+    private static void delete(final File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(LOG_TAG, "Failed to delete HTTP cache file: " + file);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                Log.e(LOG_TAG, "Failed to close HTTP cache file", ex);
+            }
+        }
+    }
+
+    /**
+     * An Entry is a cached response body along with the validators required to revalidate it.
+     *
+     * The entry file is held open, positioned at the start of the body, from the lookup until the
+     * entry is closed. An open file outlives its replacement or deletion, so the body read is the
+     * one stored with the validators. An Entry must be closed, either directly or by closing the
+     * stream returned by {@link #openBody()}.
+     */
+    public static class Entry implements Closeable {
+
+        private final File mFile;
+        private final String mETag;
+        private final String mLastModified;
+        private final long mBodyLength;
+        private final InputStream mInputStream;
+        private boolean mIsBodyOpened;
+
+        private Entry(final File file, final String eTag, final String lastModified,
+                      final long bodyLength, final InputStream inputStream) {
+            this.mFile = file;
+            this.mETag = eTag;
+            this.mLastModified = lastModified;
+            this.mBodyLength = bodyLength;
+            this.mInputStream = inputStream;
+            this.mIsBodyOpened = false;
+        }
+
+        /**
+         * @return the ETag validator, or null if the response did not provide one.
+         */
+        public String getETag() {
+            return mETag;
+        }
+
+        /**
+         * @return the Last-Modified validator, or null if the response did not provide one.
+         */
+        public String getLastModified() {
+            return mLastModified;
+        }
+
+        /**
+         * @return the length, in bytes, of the cached (decoded) response body.
+         */
+        public long getBodyLength() {
+            return mBodyLength;
+        }
+
+        /**
+         * Open the cached response body. May only be called once. The caller is responsible for
+         * closing the returned {@link InputStream}, which closes this entry.
+         *
+         * @return an {@link InputStream} over the cached response body.
+         */
+        public synchronized InputStream openBody() {
+
+            Preconditions.checkState(!mIsBodyOpened, "The body has already been opened.");
+            mIsBodyOpened = true;
+            return ByteStreams.limit(mInputStream, mBodyLength);
+        }
+
+        /**
+         * Release the entry file. Has no effect if the entry is already closed.
+         */
+        @Override
+        public void close() {
+            closeQuietly(mInputStream);
+        }
+    }
+
+    /**
+     * An Editor writes a new cache entry. The response body is captured by reading it through the
+     * stream returned by {@link #tee(InputStream)}. Once the body has been fully read, the entry is
+     * published with {@link #commit()}; otherwise it must be discarded with {@link #abort()}.
+     */
+    public class Editor {
+
+        private final File mEntryFile;
+        private final File mTempFile;
+        private final OutputStream mOutputStream;
+        private boolean mIsDone;
+
+        private Editor(final String key, final File entryFile, final File tempFile,
+                       final String eTag, final String lastModified) throws IOException {
+            this.mEntryFile = entryFile;
+            this.mTempFile = tempFile;
+            this.mIsDone = false;
+
+            // The header is written up front; the body is appended as it is teed.
+            final DataOutputStream outputStream = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                outputStream.writeInt(ENTRY_FORMAT_VERSION);
+                outputStream.writeUTF(key);
+                writeNullableUTF(outputStream, eTag);
+                writeNullableUTF(outputStream, lastModified);
+            } catch (IOException ex) {
+                closeQuietly(outputStream);
+                delete(tempFile);
+                throw ex;
+            }
+            this.mOutputStream = outputStream;
+        }
+
+        /**
+         * Wrap the given response body stream such that all bytes read through the returned
+         * {@link InputStream} are also written to this cache entry.
+         *
+         * @param inputStream the (decoded) response body stream.
+         * @return an {@link InputStream} copying the response body into this entry.
+         */
+        public InputStream tee(final InputStream inputStream) {
+
+            Preconditions.checkNotNull(inputStream, "inputStream must not be null.");
+            return new TeeInputStream(inputStream, mOutputStream);
+        }
+
+        /**
+         * Publish this entry. The response body must have been fully read through
+         * {@link #tee(InputStream)}.
+         *
+         * @throws IOException if the entry fails to be written.
+         */
+        public void commit() throws IOException {
+
+            Preconditions.checkState(!mIsDone, "Editor has already been committed or aborted.");
+            mIsDone = true;
+
+            boolean isCommitted = false;
+            try {
+                mOutputStream.close();
+                HttpResponseCache.this.commit(mTempFile, mEntryFile);
+                isCommitted = true;
+            } finally {
+                if (!isCommitted) {
+                    delete(mTempFile);
+                }
+            }
+        }
+
+        /**
+         * Discard this entry. Has no effect if the entry has already been committed or aborted.
+         */
+        public void abort() {
+
+            if (mIsDone) {
+                return;
+            }
+            mIsDone = true;
+
+            closeQuietly(mOutputStream);
+            delete(mTempFile);
+        }
+    }
+
+    /*
+     * An InputStream that copies all bytes read from a source stream into an OutputStream.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+
+        private final OutputStream mOutputStream;
+
+        TeeInputStream(final InputStream inputStream, final OutputStream outputStream) {
+            super(inputStream);
+            this.mOutputStream = outputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                mOutputStream.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length)
+                throws IOException {
+            final int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                mOutputStream.write(buffer, offset, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            // Skipped bytes must still reach the cache entry.
+            final byte[] buffer = new byte[(int) Math.min(n, 1024)];
+            final int count = read(buffer, 0, buffer.length);
+            return (count == -1) ? 0 : count;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.iopho.android.util;
+
+import java.io.IOException;
+
+/**
+ * A HttpStatusException signals that an HTTP request completed with an unexpected response code.
+ *
+ * The response code and, if the server provided one, the Retry-After delay are retained so callers
+ * can react to throttling (429 Too Many Requests) and transient unavailability (503 Service
+ * Unavailable).
+ */
+public class HttpStatusException extends IOException {
+
+    /**
+     * Indicates that the response did not include a (valid) Retry-After header.
+     */
+    public static final long NO_RETRY_AFTER = -1;
+
+    /**
+     * HTTP response code 429 (Too Many Requests). Not defined by {@link java.net.HttpURLConnection}.
+     */
+    public static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final int mResponseCode;
+    private final long mRetryAfterMillis;
+
+    /**
+     * Construct a new HttpStatusException.
+     *
+     * @param message the detail message.
+     * @param responseCode the HTTP response code.
+     * @param retryAfterMillis the delay, in milliseconds, requested by the server's Retry-After
+     *                         header, or {@link #NO_RETRY_AFTER}.
+     */
+    public HttpStatusException(final String message, final int responseCode,
+                               final long retryAfterMillis) {
+        super(message);
+        this.mResponseCode = responseCode;
+        this.mRetryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return the HTTP response code.
+     */
+    public int getResponseCode() {
+        return mResponseCode;
+    }
+
+    /**
+     * @return the delay, in milliseconds, requested by the server's Retry-After header, or
+     * {@link #NO_RETRY_AFTER} if the response did not include one.
+     */
+    public long getRetryAfterMillis() {
+        return mRetryAfterMillis;
+    }
+}
@@ -0,0 +1,140 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HttpTransferStats records, per endpoint, how many bytes were transferred over the wire versus how
+ * many bytes were delivered after content decoding. The difference between the two is the saving
+ * from response compression and from bodies served out of a {@link HttpResponseCache} after a 304
+ * (Not Modified) response.
+ *
+ * This class is thread safe.
+ */
+public class HttpTransferStats {
+
+    private final ConcurrentMap<String, Endpoint> mEndpoints;
+
+    /**
+     * Construct a new, empty, HttpTransferStats.
+     */
+    public HttpTransferStats() {
+        this.mEndpoints = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Record a completed response.
+     *
+     * @param endpointKey key identifying the endpoint the response was received from.
+     * @param isCompressed true iff the response was content encoded.
+     * @param wireBytes number of bytes received over the wire.
+     * @param decodedBytes number of bytes after content decoding, or read from the response
+     *                     cache.
+     */
+    public void record(final String endpointKey, final boolean isCompressed,
+                       final long wireBytes, final long decodedBytes) {
+
+        Preconditions.checkNotNull(endpointKey, "endpointKey must not be null.");
+
+        Endpoint endpoint = mEndpoints.get(endpointKey);
+        if (endpoint == null) {
+            final Endpoint newEndpoint = new Endpoint();
+            endpoint = mEndpoints.putIfAbsent(endpointKey, newEndpoint);
+            if (endpoint == null) {
+                endpoint = newEndpoint;
+            }
+        }
+
+        endpoint.mResponseCount.incrementAndGet();
+        if (isCompressed) {
+            endpoint.mCompressedResponseCount.incrementAndGet();
+        }
+        endpoint.mWireBytes.addAndGet(wireBytes);
+        endpoint.mDecodedBytes.addAndGet(decodedBytes);
+    }
+
+    /**
+     * @param endpointKey key identifying an endpoint.
+     * @return the stats recorded for the given endpoint, or null if none have been recorded.
+     */
+    public Endpoint getEndpoint(final String endpointKey) {
+
+        Preconditions.checkNotNull(endpointKey, "endpointKey must not be null.");
+        return mEndpoints.get(endpointKey);
+    }
+
+    /**
+     * @return an unmodifiable live view of the stats of all endpoints, keyed by endpoint key.
+     */
+    public Map<String, Endpoint> getEndpoints() {
+        return Collections.unmodifiableMap(mEndpoints);
+    }
+
+    @Override
+    public String toString() {
+        return mEndpoints.toString();
+    }
+
+    /**
+     * Transfer counters for a single endpoint.
+     */
+    public static class Endpoint {
+
+        private final AtomicLong mResponseCount = new AtomicLong();
+        private final AtomicLong mCompressedResponseCount = new AtomicLong();
+        private final AtomicLong mWireBytes = new AtomicLong();
+        private final AtomicLong mDecodedBytes = new AtomicLong();
+
+        private Endpoint() {}
+
+        /**
+         * @return the number of responses received.
+         */
+        public long getResponseCount() {
+            return mResponseCount.get();
+        }
+
+        /**
+         * @return the number of responses that were content encoded (compressed).
+         */
+        public long getCompressedResponseCount() {
+            return mCompressedResponseCount.get();
+        }
+
+        /**
+         * @return total bytes received over the wire.
+         */
+        public long getWireBytes() {
+            return mWireBytes.get();
+        }
+
+        /**
+         * @return total bytes after content decoding.
+         */
+        public long getDecodedBytes() {
+            return mDecodedBytes.get();
+        }
+
+        /**
+         * @return bytes saved by content encoding and response caching, i.e. decoded bytes less
+         * wire bytes.
+         */
+        public long getSavedBytes() {
+            return getDecodedBytes() - getWireBytes();
+        }
+
+        @Override
+        public String toString() {
+            return "[ ResponseCount=" + getResponseCount() +
+                    ", CompressedResponseCount=" + getCompressedResponseCount() +
+                    ", WireBytes=" + getWireBytes() +
+                    ", DecodedBytes=" + getDecodedBytes() +
+                    " ]";
+        }
+    }
+}
@@ -3,13 +3,27 @@ package com.iopho.android.util;
 import android.util.Log;
 
 import com.google.common.base.Preconditions;
+import com.google.common.io.CountingInputStream;
 
-import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * A HttpURLDownloader provides the ability to download contents returned by making a request to an
@@ -18,21 +32,70 @@ import java.net.URL;
  * <b>Note</b>: this class's interface is somewhat bound to the {@link HttpURLConnection} class
  * interface. However, this is really a helper component to encapsulate routines of building a
  * {@link HttpURLConnection} request and reading the response into a buffer.
+ *
+ * Connections are kept alive and reused across requests by the platform (see
+ * {@link HttpKeepAlive}). To allow for this, response bodies are always fully consumed and a
+ * connection is only disconnected when a request fails.
+ *
+ * When compression is enabled, gzip and deflate content encodings are negotiated via the
+ * Accept-Encoding request header and response bodies are decompressed as they are streamed.
+ * Compressed (wire) and decompressed byte counts are recorded per endpoint in a
+ * {@link HttpTransferStats}.
+ *
+ * When a {@link HttpResponseCache} is provided, responses carrying an ETag or Last-Modified
+ * validator are stored as they are streamed to the {@link ResponseHandler}. Subsequent requests for
+ * the same resource are made conditional (If-None-Match / If-Modified-Since) and a 304
+ * (Not Modified) response is served from the cached body.
+ *
+ * Registered {@link Listener}s are told how long each phase of a request took (see
+ * {@link Timings}) and of failed requests. Each request is also traced as an "http" span nested in
+ * the calling thread's current {@link Tracer.Span}.
  */
 public class HttpURLDownloader {
 
     private static final String LOG_TAG = HttpURLDownloader.class.getSimpleName();
 
     /**
-     * Store a value of 0. Pass as an argument to {@link #HttpURLDownloader(int, int)} to indicate
-     * an infinite read/connect timeout.
+     * Store a value of 0. Pass as an argument to
+     * {@link #HttpURLDownloader(int, int, boolean)} to indicate an infinite
+     * read/connect timeout.
      *
-     * @see {@link #HttpURLDownloader(int, int)}
+     * @see {@link #HttpURLDownloader(int, int, boolean)}
      */
     public static final int INFINITE_TIMEOUT = 0;
 
+    private static final int DRAIN_BUFFER_SIZE = 1024;
+
+    private static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    private static final String ENCODING_GZIP = "gzip";
+    private static final String ENCODING_DEFLATE = "deflate";
+    private static final String ENCODING_IDENTITY = "identity";
+
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+    private static final String CACHE_CONTROL_NO_STORE = "no-store";
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
     private final int mReadTimeout;
     private final int mConnectTimeout;
+    private final ResponseBodyReader mResponseBodyReader;
+    private final boolean mIsCompressionEnabled;
+    private final HttpTransferStats mTransferStats;
+    private final HttpResponseCache mResponseCache;
+    private final List<Listener> mListeners;
+
+    /**
+     * Construct a new HttpURLDownloader without a response cache.
+     *
+     * @see {@link #HttpURLDownloader(int, int, boolean, HttpResponseCache)}
+     */
+    public HttpURLDownloader(final int readTimeout, final int connectTimeout,
+                             final boolean isCompressionEnabled) {
+        this(readTimeout, connectTimeout, isCompressionEnabled, null);
+    }
 
     /**
      * Construct a new HttpURLDownloader.
@@ -48,46 +111,505 @@ public class HttpURLDownloader {
      *                       timeout of zero is interpreted as an infinite timeout (see
      *                       {@link #INFINITE_TIMEOUT}).
      *
+     * @param isCompressionEnabled true to request gzip/deflate compressed responses.
+     * @param responseCache the {@link HttpResponseCache} used to revalidate responses, or null to
+     *                      disable response caching.
+     *
      * @see {@link HttpURLConnection#setReadTimeout(int)}
      * @see {@link HttpURLConnection#setConnectTimeout(int)}
      */
-    public HttpURLDownloader(final int readTimeout, final int connectTimeout) {
+    public HttpURLDownloader(final int readTimeout, final int connectTimeout,
+                             final boolean isCompressionEnabled,
+                             final HttpResponseCache responseCache) {
 
         Preconditions.checkArgument(readTimeout >= 0, "readTimeout must be non-negative.");
         Preconditions.checkArgument(connectTimeout >= 0, "connectTimeout must be non-negative.");
 
         this.mReadTimeout = readTimeout;
         this.mConnectTimeout = connectTimeout;
+        this.mResponseBodyReader = ResponseBodyReader.getDefault();
+        this.mIsCompressionEnabled = isCompressionEnabled;
+        this.mTransferStats = new HttpTransferStats();
+        this.mResponseCache = responseCache;
+        this.mListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Register a {@link Listener} to be notified of completed and failed requests.
+     *
+     * @param listener the listener to register.
+     */
+    public void addListener(final Listener listener) {
+
+        Preconditions.checkNotNull(listener, "listener must not be null.");
+        mListeners.add(listener);
+    }
+
+    /**
+     * Unregister a previously registered {@link Listener}.
+     *
+     * @param listener the listener to unregister.
+     */
+    public void removeListener(final Listener listener) {
+
+        Preconditions.checkNotNull(listener, "listener must not be null.");
+        mListeners.remove(listener);
+    }
+
+    /**
+     * @return the {@link HttpResponseCache} used by this HttpURLDownloader, or null if response
+     * caching is disabled.
+     */
+    public HttpResponseCache getResponseCache() {
+        return mResponseCache;
+    }
+
+    /**
+     * @return the {@link HttpTransferStats} recording wire and decoded byte counts per endpoint.
+     */
+    public HttpTransferStats getTransferStats() {
+        return mTransferStats;
+    }
+
+    /**
+     * A ResponseHandler consumes the body of a successful HTTP response.
+     *
+     * @param <T> the type of result produced from the response body.
+     */
+    public interface ResponseHandler<T> {
+
+        /**
+         * Consume the response body and produce a result. Implementations should read the given
+         * {@link InputStream} to completion; the stream is closed by the caller.
+         *
+         * @param inputStream providing a view into the payload from the HTTP response.
+         * @param contentLength the number of bytes readable from <b>inputStream</b> as advertised
+         *                      by the server, or {@link ResponseBodyReader#UNKNOWN_LENGTH}. Always
+         *                      unknown for compressed responses.
+         * @return the result of consuming the response body.
+         * @throws IOException if failure occurs when attempting to read from the given
+         * {@link InputStream}.
+         * @throws ParseException if the response body cannot be interpreted.
+         */
+        T handleResponse(InputStream inputStream, long contentLength)
+                throws IOException, ParseException;
+    }
+
+    /**
+     * A Listener is notified of the outcome of every request. Callbacks are invoked on the thread
+     * making the request and must not block.
+     */
+    public interface Listener {
+
+        /**
+         * Invoked when a response body has been passed to a {@link ResponseHandler} successfully,
+         * including bodies served from the {@link HttpResponseCache}.
+         *
+         * @param endpointKey key identifying the requested endpoint.
+         * @param timings the time taken by each phase of the request.
+         * @param wireBytes number of bytes received over the wire.
+         * @param decodedBytes number of bytes after content decoding, or read from the response
+         *                     cache.
+         */
+        void onResponse(String endpointKey, Timings timings, long wireBytes, long decodedBytes);
+
+        /**
+         * Invoked when a request fails, including when the {@link ResponseHandler} fails to
+         * interpret the response body.
+         *
+         * @param endpointKey key identifying the requested endpoint.
+         * @param ex the {@link IOException} or {@link ParseException} the request failed with.
+         */
+        void onFailure(String endpointKey, Exception ex);
+    }
+
+    /**
+     * The time taken by each phase of a request, in nanoseconds.
+     */
+    public static class Timings {
+
+        private final long mConnectNanos;
+        private final long mFirstByteNanos;
+        private final long mDownloadNanos;
+        private final long mHandleNanos;
+
+        private Timings(final long connectNanos, final long firstByteNanos,
+                        final long downloadNanos, final long handleNanos) {
+
+            this.mConnectNanos = connectNanos;
+            this.mFirstByteNanos = firstByteNanos;
+            this.mDownloadNanos = downloadNanos;
+            this.mHandleNanos = handleNanos;
+        }
+
+        /**
+         * @return the time taken to open the connection (a TCP and TLS handshake, unless a pooled
+         * connection was reused). 0 for a cached body served without a request.
+         */
+        public long getConnectNanos() {
+            return mConnectNanos;
+        }
+
+        /**
+         * @return the time from sending the request to receiving the response headers. 0 for a
+         * cached body served without a request.
+         */
+        public long getFirstByteNanos() {
+            return mFirstByteNanos;
+        }
+
+        /**
+         * @return the time spent reading (and decompressing) the response body, or the cached
+         * body.
+         */
+        public long getDownloadNanos() {
+            return mDownloadNanos;
+        }
+
+        /**
+         * @return the time spent in the {@link ResponseHandler} other than reading the body, i.e.
+         * interpreting it.
+         */
+        public long getHandleNanos() {
+            return mHandleNanos;
+        }
+
+        /**
+         * @return the sum of all phases.
+         */
+        public long getTotalNanos() {
+            return mConnectNanos + mFirstByteNanos + mDownloadNanos + mHandleNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "[ ConnectNanos=" + mConnectNanos +
+                    ", FirstByteNanos=" + mFirstByteNanos +
+                    ", DownloadNanos=" + mDownloadNanos +
+                    ", HandleNanos=" + mHandleNanos +
+                    " ]";
+        }
     }
 
     /**
      * Download the contents returned by making an HTTP request to the given {@link URL}.
      *
      * @return a {@link String} representation of the contains.
-     * @throws IOException if the underlying HTTP request fails or HttpURLDownloader encounters an
-     * error when attempting to parse the response.
+     * @throws IOException if the underlying HTTP request fails, the response code is not 200 (OK)
+     * or HttpURLDownloader encounters an error when attempting to parse the response.
      */
     public String downloadURL(final URL url) throws IOException {
+        return downloadURLBody(url).asString();
+    }
+
+    /**
+     * Download the raw bytes returned by making an HTTP request to the given {@link URL}. The
+     * returned {@link ResponseBody} can be passed to a parser as an {@link InputStream} without
+     * decoding it into a {@link String} first.
+     *
+     * @return a {@link ResponseBody} holding the response payload.
+     * @throws IOException if the underlying HTTP request fails, the response code is not 200 (OK)
+     * or HttpURLDownloader encounters an error when attempting to read the response.
+     */
+    public ResponseBody downloadURLBody(final URL url) throws IOException {
+
+        try {
+            return downloadURL(url, new ResponseHandler<ResponseBody>() {
+                @Override
+                public ResponseBody handleResponse(final InputStream inputStream,
+                                                   final long contentLength) throws IOException {
+                    return mResponseBodyReader.read(inputStream, contentLength);
+                }
+            });
+        } catch (ParseException ex) {
+            // Never thrown when reading the raw response body.
+            throw new IOException("Failed to read response.", ex);
+        }
+    }
+
+    /**
+     * Pass the cached response body for the given {@link URL} to the given
+     * {@link ResponseHandler}, without making an HTTP request. The cached response is served as
+     * is, even though it has not been revalidated. Intended as a fallback when the remote server
+     * is unavailable.
+     *
+     * @param url the {@link URL} whose cached response to read.
+     * @param endpointKey key identifying the requested endpoint in {@link HttpTransferStats}.
+     * @param responseHandler the {@link ResponseHandler} consuming the cached response body.
+     * @param <T> the type of result produced by the {@link ResponseHandler}.
+     * @return the result produced by the {@link ResponseHandler}.
+     * @throws FileNotFoundException if response caching is disabled or no cached response exists.
+     * @throws IOException if the cached response fails to be read.
+     * @throws ParseException if the {@link ResponseHandler} fails to interpret the response body.
+     */
+    public <T> T readCachedURL(final URL url, final String endpointKey,
+                               final ResponseHandler<T> responseHandler)
+            throws IOException, ParseException {
 
         Preconditions.checkNotNull(url, "url must not be null.");
+        Preconditions.checkNotNull(endpointKey, "endpointKey must not be null.");
+        Preconditions.checkNotNull(responseHandler, "responseHandler must not be null.");
+
+        final HttpResponseCache.Entry cacheEntry =
+                (mResponseCache != null) ? mResponseCache.get(url) : null;
+        if (cacheEntry == null) {
+            throw new FileNotFoundException("No cached response for URL: " + url);
+        }
+
+        return handleCachedResponse(endpointKey, cacheEntry, responseHandler, 0, 0);
+    }
+
+    /**
+     * Make an HTTP request to the given {@link URL} and pass the response body to the given
+     * {@link ResponseHandler} as it is downloaded. Transfer stats are recorded against the URL's
+     * path.
+     *
+     * @see {@link #downloadURL(URL, String, ResponseHandler)}
+     */
+    public <T> T downloadURL(final URL url, final ResponseHandler<T> responseHandler)
+            throws IOException, ParseException {
+
+        Preconditions.checkNotNull(url, "url must not be null.");
+        return downloadURL(url, url.getPath(), responseHandler);
+    }
+
+    /**
+     * Make an HTTP request to the given {@link URL} and pass the response body to the given
+     * {@link ResponseHandler} as it is downloaded. No intermediate copy of the response body is
+     * made.
+     *
+     * The request is bound to the calling thread's {@link CancellationToken}: cancelling it
+     * disconnects the connection, aborting a blocked connect or read.
+     *
+     * @param url the {@link URL} to request.
+     * @param endpointKey key identifying the requested endpoint in {@link HttpTransferStats}.
+     * @param responseHandler the {@link ResponseHandler} consuming the response body.
+     * @param <T> the type of result produced by the {@link ResponseHandler}.
+     * @return the result produced by the {@link ResponseHandler}.
+     * @throws IOException if the underlying HTTP request fails. A {@link HttpStatusException} is
+     * thrown if the response code is not 200 (OK), or 304 (Not Modified) for a cached resource.
+     * An {@link InterruptedIOException} is thrown if the request is cancelled.
+     * @throws ParseException if the {@link ResponseHandler} fails to interpret the response body.
+     */
+    public <T> T downloadURL(final URL url, final String endpointKey,
+                             final ResponseHandler<T> responseHandler)
+            throws IOException, ParseException {
+
+        return downloadURL(url, endpointKey, INFINITE_TIMEOUT, responseHandler);
+    }
+
+    /**
+     * Make an HTTP request to the given {@link URL}, completing within the given timeout, and pass
+     * the response body to the given {@link ResponseHandler} as it is downloaded.
+     *
+     * The connect and read timeouts are capped at the given timeout, and the connection is
+     * disconnected once it expires, so the whole request (connect, response and body) is bounded
+     * by it, however slowly the response arrives.
+     *
+     * @param url the {@link URL} to request.
+     * @param endpointKey key identifying the requested endpoint in {@link HttpTransferStats}.
+     * @param timeoutMillis the time in ms the request may take, or {@link #INFINITE_TIMEOUT}.
+     * @param responseHandler the {@link ResponseHandler} consuming the response body.
+     * @param <T> the type of result produced by the {@link ResponseHandler}.
+     * @return the result produced by the {@link ResponseHandler}.
+     * @throws IOException if the underlying HTTP request fails. A {@link SocketTimeoutException}
+     * is thrown if the request does not complete within the given timeout.
+     * @throws ParseException if the {@link ResponseHandler} fails to interpret the response body.
+     * @see {@link #downloadURL(URL, String, ResponseHandler)}
+     */
+    public <T> T downloadURL(final URL url, final String endpointKey, final long timeoutMillis,
+                             final ResponseHandler<T> responseHandler)
+            throws IOException, ParseException {
+
+        Preconditions.checkNotNull(url, "url must not be null.");
+        Preconditions.checkNotNull(endpointKey, "endpointKey must not be null.");
+        Preconditions.checkArgument(timeoutMillis >= 0, "timeoutMillis must be non-negative.");
+        Preconditions.checkNotNull(responseHandler, "responseHandler must not be null.");
+
+        final CancellationToken cancellationToken = CancellationToken.current();
+        if (cancellationToken.isCancelled()) {
+            throw new InterruptedIOException("Request cancelled: " + endpointKey);
+        }
+
+        final HttpResponseCache.Entry cacheEntry =
+                (mResponseCache != null) ? mResponseCache.get(url) : null;
+        HttpResponseCache.Editor cacheEditor = null;
+
+        boolean isReusable = false;
 
         HttpURLConnection connection = null;
+        CancellationToken.Registration cancellationRegistration = null;
+        ScheduledFuture<?> deadlineTimer = null;
         InputStream inputStream = null;
 
+        // Bound to the thread while the response is handled, so that parsing nests within it.
+        final Tracer.Span span = Tracer.currentSpan().startChild("http")
+                .putArg("endpoint", endpointKey);
+        final Tracer.Span parentSpan = Tracer.setCurrentSpan(span);
+
         try {
+            final long startNanos = System.nanoTime();
             connection = (HttpURLConnection) url.openConnection();
+            final HttpURLConnection cancellableConnection = connection;
+            cancellationRegistration = cancellationToken.register(new Runnable() {
+                @Override
+                public void run() {
+                    // Blocking socket operations do not observe interruption; closing the socket
+                    // makes them fail immediately.
+                    cancellableConnection.disconnect();
+                }
+            });
+            if (timeoutMillis != INFINITE_TIMEOUT) {
+                // Socket timeouts only bound each blocking call. Disconnecting at the deadline
+                // bounds the request as a whole.
+                deadlineTimer = DeadlineTimer.INSTANCE.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        cancellableConnection.disconnect();
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
             connection.setRequestMethod("GET");
-            connection.setReadTimeout(mReadTimeout);
-            connection.setConnectTimeout(mConnectTimeout);
+            connection.setReadTimeout(capTimeout(mReadTimeout, timeoutMillis));
+            connection.setConnectTimeout(capTimeout(mConnectTimeout, timeoutMillis));
+            // Setting Accept-Encoding explicitly also stops the platform from transparently
+            // decompressing gzip responses, leaving the wire byte count observable.
+            connection.setRequestProperty(ACCEPT_ENCODING_HEADER, mIsCompressionEnabled ?
+                    ENCODING_GZIP + ", " + ENCODING_DEFLATE : ENCODING_IDENTITY);
+            if (cacheEntry != null) {
+                if (cacheEntry.getETag() != null) {
+                    connection.setRequestProperty(IF_NONE_MATCH_HEADER, cacheEntry.getETag());
+                }
+                if (cacheEntry.getLastModified() != null) {
+                    connection.setRequestProperty(IF_MODIFIED_SINCE_HEADER,
+                            cacheEntry.getLastModified());
+                }
+            }
+            final Tracer.Span connectSpan = span.startChild("connect");
             connection.connect();
+            connectSpan.end();
+            final long connectedNanos = System.nanoTime();
 
+            final Tracer.Span firstByteSpan = span.startChild("awaitResponse");
             final int responseCode = connection.getResponseCode();
-            inputStream = connection.getInputStream();
+            firstByteSpan.end();
+            final long connectNanos = connectedNanos - startNanos;
+            final long firstByteNanos = System.nanoTime() - connectedNanos;
+            span.putArg("responseCode", responseCode);
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cacheEntry != null) {
+                // A 304 response has no body; the connection is free once its headers are read.
+                drain(connection.getInputStream());
+                isReusable = isKeepAlive(connection);
 
-            return parseResponse(responseCode, inputStream);
+                mResponseCache.onConditionalHit(cacheEntry);
+                return handleCachedResponse(endpointKey, cacheEntry, responseHandler,
+                        connectNanos, firstByteNanos);
+            }
+
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                // Drain the response body so the connection can be returned to the pool.
+                drain((responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) ?
+                        connection.getErrorStream() : connection.getInputStream());
+                isReusable = isKeepAlive(connection);
+                throw new HttpStatusException(String.format(
+                        "Response code of 200 expected. Got: %d",
+                        responseCode), responseCode, getRetryAfterMillis(connection));
+            }
+
+            final String contentEncoding = connection.getContentEncoding();
+            final boolean isCompressed = ENCODING_GZIP.equalsIgnoreCase(contentEncoding) ||
+                    ENCODING_DEFLATE.equalsIgnoreCase(contentEncoding);
+
+            final CountingInputStream wireInputStream =
+                    new CountingInputStream(connection.getInputStream());
+            inputStream = wireInputStream;
+
+            final CountingInputStream decodedInputStream =
+                    new CountingInputStream(decode(wireInputStream, contentEncoding));
+            inputStream = decodedInputStream;
+
+            cacheEditor = editCacheEntry(url, connection, cacheEntry);
+            final InputStream bodyInputStream = (cacheEditor != null) ?
+                    cacheEditor.tee(decodedInputStream) : decodedInputStream;
+
+            final TimedInputStream timedInputStream = new TimedInputStream(bodyInputStream);
+            final long handleStartNanos = System.nanoTime();
+            final T result = responseHandler.handleResponse(timedInputStream,
+                    isCompressed ? ResponseBodyReader.UNKNOWN_LENGTH :
+                            getContentLength(connection));
+            final long drainStartNanos = System.nanoTime();
+
+            // Consume anything the handler left unread (e.g. trailing whitespace or a compression
+            // trailer) so the connection can be reused and the cache entry is complete.
+            drainWithoutClosing(bodyInputStream);
+            drainWithoutClosing(wireInputStream);
+            decodedInputStream.close();
+            inputStream = null;
+
+            final long readNanos = timedInputStream.getReadNanos();
+            final Timings timings = new Timings(connectNanos, firstByteNanos,
+                    readNanos + (System.nanoTime() - drainStartNanos),
+                    drainStartNanos - handleStartNanos - readNanos);
+
+            span.putArg("wireBytes", wireInputStream.getCount())
+                    .putArg("decodedBytes", decodedInputStream.getCount());
+            mTransferStats.record(endpointKey, isCompressed,
+                    wireInputStream.getCount(), decodedInputStream.getCount());
+            notifyResponse(endpointKey, timings,
+                    wireInputStream.getCount(), decodedInputStream.getCount());
+
+            isReusable = isKeepAlive(connection);
+
+            if (cacheEditor != null) {
+                try {
+                    cacheEditor.commit();
+                } catch (IOException ex) {
+                    // The response itself was handled successfully. Only the cache misses out.
+                    Log.w(LOG_TAG, "Failed to store response in HTTP cache: " + endpointKey, ex);
+                }
+            }
+
+            return result;
+        } catch (IOException | ParseException ex) {
+            if (cancellationToken.isCancelled()) {
+                final InterruptedIOException cancelledException =
+                        new InterruptedIOException("Request cancelled: " + endpointKey);
+                cancelledException.initCause(ex);
+                notifyFailure(endpointKey, cancelledException);
+                span.putArg("error", cancelledException.getClass().getSimpleName());
+                throw cancelledException;
+            }
+            if (ex instanceof IOException && deadlineTimer != null && deadlineTimer.isDone()) {
+                final SocketTimeoutException timeoutException = new SocketTimeoutException(
+                        String.format("Request timed out after %d ms: %s",
+                                timeoutMillis, endpointKey));
+                timeoutException.initCause(ex);
+                notifyFailure(endpointKey, timeoutException);
+                span.putArg("error", timeoutException.getClass().getSimpleName());
+                throw timeoutException;
+            }
+            notifyFailure(endpointKey, ex);
+            span.putArg("error", ex.getClass().getSimpleName());
+            throw ex;
         } finally {
-            if (connection != null) {
-                connection.disconnect();
+            if (cancellationRegistration != null) {
+                cancellationRegistration.unregister();
+            }
+            if (deadlineTimer != null && !deadlineTimer.cancel(false)) {
+                // The deadline passed, so the connection has been (or is being) disconnected.
+                isReusable = false;
+            }
+            if (cancellationToken.isCancelled()) {
+                // The connection may have been disconnected under us.
+                isReusable = false;
+            }
+
+            if (cacheEditor != null) {
+                cacheEditor.abort();
+            }
+            if (cacheEntry != null) {
+                // Already closed if the cached body was served.
+                cacheEntry.close();
             }
 
             if (inputStream != null) {
@@ -97,46 +619,259 @@ public class HttpURLDownloader {
                     Log.e(LOG_TAG, "Failed to close input stream", ex);
                 }
             }
+
+            // Only tear down the socket when it cannot be reused. Disconnecting a healthy
+            // connection would defeat keep-alive.
+            if (connection != null && !isReusable) {
+                connection.disconnect();
+            }
+
+            Tracer.setCurrentSpan(parentSpan);
+            span.end();
+        }
+    }
+
+    /*
+     * Pass a cached response body to the given ResponseHandler, closing the cache entry. The
+     * connect and first byte times are those of the conditional request revalidating the entry, if
+     * any.
+     */
+    private <T> T handleCachedResponse(final String endpointKey,
+                                       final HttpResponseCache.Entry cacheEntry,
+                                       final ResponseHandler<T> responseHandler,
+                                       final long connectNanos, final long firstByteNanos)
+            throws IOException, ParseException {
+
+        final InputStream cachedInputStream = cacheEntry.openBody();
+        try {
+            final TimedInputStream timedInputStream = new TimedInputStream(cachedInputStream);
+            final long handleStartNanos = System.nanoTime();
+            final T result = responseHandler.handleResponse(
+                    timedInputStream, cacheEntry.getBodyLength());
+            final long readNanos = timedInputStream.getReadNanos();
+            final Timings timings = new Timings(connectNanos, firstByteNanos, readNanos,
+                    System.nanoTime() - handleStartNanos - readNanos);
+
+            Tracer.currentSpan().putArg("cachedBytes", cacheEntry.getBodyLength());
+            mTransferStats.record(endpointKey, false, 0, cacheEntry.getBodyLength());
+            notifyResponse(endpointKey, timings, 0, cacheEntry.getBodyLength());
+            return result;
+        } finally {
+            try {
+                cachedInputStream.close();
+            } catch (IOException ex) {
+                Log.e(LOG_TAG, "Failed to close cached input stream", ex);
+            }
+        }
+    }
+
+    /*
+     * Begin a new cache entry for a 200 (OK) response, if response caching is enabled and the
+     * response can be revalidated. Returns null if the response is not to be cached.
+     */
+    private HttpResponseCache.Editor editCacheEntry(final URL url,
+                                                    final HttpURLConnection connection,
+                                                    final HttpResponseCache.Entry cacheEntry) {
+
+        if (mResponseCache == null) {
+            return null;
+        }
+
+        final String eTag = connection.getHeaderField(ETAG_HEADER);
+        final String lastModified = connection.getHeaderField(LAST_MODIFIED_HEADER);
+        final String cacheControl = connection.getHeaderField(CACHE_CONTROL_HEADER);
+        final boolean isStorable = (eTag != null || lastModified != null) &&
+                (cacheControl == null || !cacheControl.toLowerCase(Locale.US)
+                        .contains(CACHE_CONTROL_NO_STORE));
+
+        if (!isStorable) {
+            if (cacheEntry != null) {
+                // The resource can no longer be revalidated. Drop the outdated entry.
+                mResponseCache.remove(url);
+            }
+            return null;
+        }
+
+        try {
+            return mResponseCache.edit(url, eTag, lastModified);
+        } catch (IOException ex) {
+            Log.w(LOG_TAG, "Failed to create HTTP cache entry", ex);
+            return null;
+        }
+    }
+
+    private void notifyResponse(final String endpointKey, final Timings timings,
+                                final long wireBytes, final long decodedBytes) {
+
+        for (Listener listener : mListeners) {
+            listener.onResponse(endpointKey, timings, wireBytes, decodedBytes);
+        }
+    }
+
+    private void notifyFailure(final String endpointKey, final Exception ex) {
+
+        for (Listener listener : mListeners) {
+            listener.onFailure(endpointKey, ex);
         }
     }
 
     /**
-     * Read the contents accessible by the given {@link InputStream} into a {@link String} buffer.
-     *
-     * @param responseCode HTTP response code associated with the HTTP response
-     * @param inputStream providing a view into the payload from the HTTP response.
-     * @return a {@link String} containing the contents of the given {@link InputStream}.
-     * @throws IOException if the given response code is not 200 (OK) or if failure occurs when
-     * attempting to read from the given {@link InputStream}.
+     * @return the response Content-Length, or {@link ResponseBodyReader#UNKNOWN_LENGTH} if absent.
+     */
+    private static long getContentLength(final HttpURLConnection connection) {
+        final int contentLength = connection.getContentLength();
+        return (contentLength < 0) ? ResponseBodyReader.UNKNOWN_LENGTH : contentLength;
+    }
+
+    /**
+     * @return the delay requested by the Retry-After header, in milliseconds, or
+     * {@link HttpStatusException#NO_RETRY_AFTER} if absent. Both the delta-seconds and HTTP-date
+     * forms are supported.
+     */
+    private static long getRetryAfterMillis(final HttpURLConnection connection) {
+
+        final String retryAfter = connection.getHeaderField(RETRY_AFTER_HEADER);
+        if (retryAfter == null) {
+            return HttpStatusException.NO_RETRY_AFTER;
+        }
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException ex) {
+            final long retryAt = connection.getHeaderFieldDate(RETRY_AFTER_HEADER, 0);
+            return (retryAt == 0) ? HttpStatusException.NO_RETRY_AFTER :
+                    Math.max(0, retryAt - System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @return true iff the server did not request that the connection be closed.
      */
-    private String parseResponse(final int responseCode, final InputStream inputStream)
+    private static boolean isKeepAlive(final HttpURLConnection connection) {
+        return !"close".equalsIgnoreCase(connection.getHeaderField("Connection"));
+    }
+
+    /*
+     * Wrap the given (raw) response stream in a decoder for the given content encoding.
+     */
+    private static InputStream decode(final InputStream inputStream, final String contentEncoding)
             throws IOException {
 
-        if (responseCode != 200) {
-            throw new IOException(String.format(
-                    "Response code of 200 expected. Got: %d",
-                    responseCode));
+        if (ENCODING_GZIP.equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(inputStream);
+        } else if (ENCODING_DEFLATE.equalsIgnoreCase(contentEncoding)) {
+            return new InflaterInputStream(inputStream);
+        } else {
+            return inputStream;
+        }
+    }
+
+    /*
+     * Read and discard the remaining contents of an InputStream without closing it.
+     */
+    private static void drainWithoutClosing(final InputStream inputStream) throws IOException {
+
+        final byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        while (inputStream.read(buffer) != -1) {
+            // Discard.
         }
+    }
 
-        BufferedReader reader = null;
-        StringBuffer result = new StringBuffer();
+    /*
+     * Read and discard the remaining contents of an InputStream, then close it. The given stream
+     * can be null in which case no action is performed.
+     */
+    private static void drain(final InputStream inputStream) throws IOException {
+
+        if (inputStream == null) {
+            return;
+        }
 
         try {
-            reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
-            String line;
+            drainWithoutClosing(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /*
+     * Cap a connect or read timeout at the time left to a request. Either may be infinite.
+     */
+    private static int capTimeout(final int timeoutMillis, final long maxTimeoutMillis) {
+
+        if (maxTimeoutMillis == INFINITE_TIMEOUT) {
+            return timeoutMillis;
+        }
+        final long cappedMillis = (timeoutMillis == INFINITE_TIMEOUT) ?
+                maxTimeoutMillis : Math.min(timeoutMillis, maxTimeoutMillis);
+        return (int) Math.min(cappedMillis, Integer.MAX_VALUE);
+    }
+
+    /*
+     * The daemon thread disconnecting requests whose deadline has passed, shared by all
+     * downloaders and only started when a request first has a deadline.
+     */
+    private static class DeadlineTimer {
+
+        static final ScheduledExecutorService INSTANCE =
+                Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "http-deadline");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /*
+     * An InputStream which accumulates the time spent blocked in reads of the wrapped stream, so
+     * that the time a ResponseHandler spends waiting for the body can be told apart from the time
+     * it spends interpreting it. Not thread safe; a response body is read by a single thread.
+     */
+    private static class TimedInputStream extends FilterInputStream {
+
+        private long mReadNanos;
+
+        TimedInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        long getReadNanos() {
+            return mReadNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
 
-            while ((line = reader.readLine()) != null) {
-                result.append(line);
+            final long startNanos = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                mReadNanos += System.nanoTime() - startNanos;
             }
+        }
 
-            return result.toString();
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException ex) {
-                    Log.e(LOG_TAG, "Failed to close buffered reader", ex);
-                }
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length)
+                throws IOException {
+
+            final long startNanos = System.nanoTime();
+            try {
+                return super.read(buffer, offset, length);
+            } finally {
+                mReadNanos += System.nanoTime() - startNanos;
+            }
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+
+            final long startNanos = System.nanoTime();
+            try {
+                return super.skip(n);
+            } finally {
+                mReadNanos += System.nanoTime() - startNanos;
             }
         }
     }
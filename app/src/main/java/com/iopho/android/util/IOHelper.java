@@ -6,7 +6,6 @@ import android.util.Log;
 
 import com.google.common.base.Preconditions;
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -14,7 +13,6 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 /**
  * A helper class that provides helper IO routines (e.g. reading and writing from local files).
@@ -65,7 +63,7 @@ public class IOHelper {
 
         try {
             fileInputStream = new FileInputStream(file);
-            return readInputToString(fileInputStream);
+            return ResponseBodyReader.getDefault().read(fileInputStream, file.length()).asString();
         } catch (FileNotFoundException ex) {
             Log.e(LOG_TAG, "File not found: " + file.getAbsolutePath(), ex);
             throw ex;
@@ -122,21 +120,8 @@ public class IOHelper {
      * Read the contents of an InputStream into a String.
      */
     private static String readInputToString(final InputStream inputStream) throws IOException {
-
-        BufferedReader reader = null;
-        StringBuffer result = new StringBuffer();
-
-        try {
-            reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                result.append(line);
-            }
-        } finally {
-            silentlyCloseResource(reader);
-        }
-
-        return result.toString();
+        return ResponseBodyReader.getDefault()
+                .read(inputStream, ResponseBodyReader.UNKNOWN_LENGTH)
+                .asString();
     }
 }
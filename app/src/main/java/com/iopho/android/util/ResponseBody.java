@@ -0,0 +1,65 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * A ResponseBody holds the raw bytes of a fully read response (or file).
+ *
+ * The bytes can be handed to a parser as an {@link InputStream} without building an intermediate
+ * {@link String}, or decoded (as UTF-8) once into a String.
+ */
+public class ResponseBody {
+
+    private final byte[] mBytes;
+    private final int mLength;
+
+    /**
+     * Construct a new ResponseBody.
+     *
+     * @param bytes buffer holding the body. Not copied; must not be modified afterwards.
+     * @param length number of valid bytes at the start of <b>bytes</b>.
+     */
+    ResponseBody(final byte[] bytes, final int length) {
+
+        Preconditions.checkNotNull(bytes, "bytes must not be null.");
+        Preconditions.checkArgument(length >= 0 && length <= bytes.length,
+                "length must be in range [0, bytes.length].");
+
+        this.mBytes = bytes;
+        this.mLength = length;
+    }
+
+    /**
+     * @return the number of bytes in this body.
+     */
+    public int length() {
+        return mLength;
+    }
+
+    /**
+     * @return a copy of the bytes in this body.
+     */
+    public byte[] toByteArray() {
+        final byte[] result = new byte[mLength];
+        System.arraycopy(mBytes, 0, result, 0, mLength);
+        return result;
+    }
+
+    /**
+     * @return an {@link InputStream} reading this body's bytes. No copy is made.
+     */
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(mBytes, 0, mLength);
+    }
+
+    /**
+     * @return this body decoded as UTF-8.
+     */
+    public String asString() {
+        return new String(mBytes, 0, mLength, Charsets.UTF_8);
+    }
+}
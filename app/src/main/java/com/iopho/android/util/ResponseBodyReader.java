@@ -0,0 +1,156 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Preconditions;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ResponseBodyReader reads the full contents of an {@link InputStream} into a
+ * {@link ResponseBody}.
+ *
+ * When the length of the content is known up front (e.g. from a Content-Length header) the bytes
+ * are read directly into a buffer of exactly that size. Otherwise the content is read into pooled
+ * chunks (see {@link ByteChunkPool}) which are copied into a single exactly sized buffer once the
+ * stream is exhausted. In both cases the only allocation that outlives the read is the final
+ * buffer.
+ *
+ * This class is thread safe.
+ */
+public class ResponseBodyReader {
+
+    /**
+     * Pass as the expected length to {@link #read(InputStream, long)} when the content length is
+     * not known.
+     */
+    public static final long UNKNOWN_LENGTH = -1;
+
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    private static final int DEFAULT_MAX_POOLED_CHUNKS = 32;
+
+    private static class DefaultInstanceHolder {
+        private static final ResponseBodyReader INSTANCE = new ResponseBodyReader(
+                new ByteChunkPool(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_POOLED_CHUNKS));
+    }
+
+    private final ByteChunkPool mChunkPool;
+
+    /**
+     * Construct a new ResponseBodyReader.
+     *
+     * @param chunkPool the {@link ByteChunkPool} supplying read buffers.
+     */
+    public ResponseBodyReader(final ByteChunkPool chunkPool) {
+
+        Preconditions.checkNotNull(chunkPool, "chunkPool must not be null.");
+        this.mChunkPool = chunkPool;
+    }
+
+    /**
+     * @return a process wide ResponseBodyReader backed by a shared {@link ByteChunkPool}.
+     */
+    public static ResponseBodyReader getDefault() {
+        return DefaultInstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Read the given {@link InputStream} to completion. The stream is not closed.
+     *
+     * @param inputStream the stream to read.
+     * @param expectedLength the expected number of bytes, or {@link #UNKNOWN_LENGTH}. Used to size
+     *                       the result buffer up front. If the stream turns out to be longer, the
+     *                       remaining content is still read.
+     * @return a {@link ResponseBody} holding the stream's contents.
+     * @throws IOException when failing to read from the given stream, or if the stream ends before
+     * <b>expectedLength</b> bytes are read.
+     */
+    public ResponseBody read(final InputStream inputStream, final long expectedLength)
+            throws IOException {
+
+        Preconditions.checkNotNull(inputStream, "inputStream must not be null.");
+        Preconditions.checkArgument(expectedLength >= UNKNOWN_LENGTH,
+                "expectedLength must be non-negative or UNKNOWN_LENGTH.");
+        Preconditions.checkArgument(expectedLength <= Integer.MAX_VALUE,
+                "expectedLength is too large.");
+
+        if (expectedLength == UNKNOWN_LENGTH) {
+            return readChunked(inputStream, null, 0);
+        }
+
+        final byte[] buffer = new byte[(int) expectedLength];
+        int offset = 0;
+        while (offset < buffer.length) {
+            final int count = inputStream.read(buffer, offset, buffer.length - offset);
+            if (count == -1) {
+                throw new EOFException(String.format(
+                        "Expected %d bytes. Stream ended after %d.", expectedLength, offset));
+            }
+            offset += count;
+        }
+
+        final int next = inputStream.read();
+        if (next == -1) {
+            return new ResponseBody(buffer, buffer.length);
+        }
+
+        // The stream is longer than advertised. Read the remainder without losing what we have.
+        final byte[] head = new byte[buffer.length + 1];
+        System.arraycopy(buffer, 0, head, 0, buffer.length);
+        head[buffer.length] = (byte) next;
+        return readChunked(inputStream, head, head.length);
+    }
+
+    /*
+     * Read the remainder of an InputStream into pooled chunks, then concatenate <b>head</b> and
+     * the chunks into a single buffer.
+     */
+    private ResponseBody readChunked(final InputStream inputStream, final byte[] head,
+                                     final int headLength) throws IOException {
+
+        final List<byte[]> chunks = new ArrayList<>();
+        int lastChunkLength = 0;
+        long totalLength = headLength;
+
+        try {
+            byte[] chunk = null;
+            while (true) {
+                if (chunk == null || lastChunkLength == chunk.length) {
+                    chunk = mChunkPool.acquire();
+                    chunks.add(chunk);
+                    lastChunkLength = 0;
+                }
+                final int count = inputStream.read(chunk, lastChunkLength,
+                        chunk.length - lastChunkLength);
+                if (count == -1) {
+                    break;
+                }
+                lastChunkLength += count;
+                totalLength += count;
+                if (totalLength > Integer.MAX_VALUE) {
+                    throw new IOException("Content is too large to buffer.");
+                }
+            }
+
+            final byte[] result = new byte[(int) totalLength];
+            int offset = 0;
+            if (head != null) {
+                System.arraycopy(head, 0, result, 0, headLength);
+                offset = headLength;
+            }
+            for (int i = 0; i < chunks.size(); i++) {
+                final int length = (i == chunks.size() - 1) ? lastChunkLength : chunks.get(i).length;
+                System.arraycopy(chunks.get(i), 0, result, offset, length);
+                offset += length;
+            }
+
+            return new ResponseBody(result, result.length);
+        } finally {
+            for (byte[] chunk : chunks) {
+                mChunkPool.release(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.iopho.android.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.IntDef;
+import android.util.Log;
+
+import com.google.common.base.Preconditions;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A TaskScheduler runs data loading work on a fixed pool of worker threads, in priority lanes,
+ * and delivers results on the main thread.
+ *
+ * Each task is submitted to one of three {@link Priority} lanes. A free worker always takes the
+ * oldest task of the most important lane it may run. Lanes are also limited in how many workers
+ * they may occupy at once, so that less important work cannot tie up the pool:
+ * <ul>
+ *     <li>{@link Priority#VISIBLE}: all workers.</li>
+ *     <li>{@link Priority#PREFETCH}: all workers but one.</li>
+ *     <li>{@link Priority#BACKGROUND}: one worker.</li>
+ * </ul>
+ *
+ * Every task carries a {@link CancellationToken}. Cancelling it removes the task if it is still
+ * queued; if it is running, the token is bound to its worker (see
+ * {@link CancellationToken#current()}) so that in-flight requests are aborted, and the worker is
+ * interrupted. Results of a task whose token is cancelled are never delivered, so a caller which
+ * cancels on the main thread receives no callbacks afterwards.
+ *
+ * The {@link Tracer.Span} bound to the submitting thread (see {@link Tracer#currentSpan()}) is
+ * bound to the worker while the task runs, and to the main thread while its outcome is delivered,
+ * so that a traced user action is followed across threads.
+ *
+ * This class is thread safe.
+ */
+public class TaskScheduler {
+
+    private static final String LOG_TAG = TaskScheduler.class.getSimpleName();
+
+    /**
+     * Task priorities, from most to least important.
+     */
+    public static class Priority {
+
+        /**
+         * Work for content the user is looking at, or waiting for.
+         */
+        public static final int VISIBLE = 0;
+
+        /**
+         * Work for content the user is expected to look at soon.
+         */
+        public static final int PREFETCH = 1;
+
+        /**
+         * Work the user is not waiting for, e.g. refreshing stored data.
+         */
+        public static final int BACKGROUND = 2;
+
+        @Retention(RetentionPolicy.SOURCE)
+        @IntDef({VISIBLE, PREFETCH, BACKGROUND})
+        public @interface Def {}
+
+        private static final int COUNT = 3;
+    }
+
+    /**
+     * A Callback receives the outcome of a task on the main thread.
+     *
+     * @param <T> the type of result produced by the task.
+     */
+    public interface Callback<T> {
+
+        /**
+         * Invoked on the main thread when the task completes successfully.
+         *
+         * @param result the result of the task.
+         */
+        void onSuccess(T result);
+
+        /**
+         * Invoked on the main thread when the task throws.
+         *
+         * @param ex the exception thrown by the task, or an {@link ExecutionException} wrapping
+         *           the {@link Error} it threw.
+         */
+        void onFailure(Exception ex);
+    }
+
+    private final Handler mMainThreadHandler;
+    private final int[] mMaxRunningTaskCounts;
+
+    // Guarded by mLock.
+    private final Object mLock = new Object();
+    private final List<Deque<Task<?>>> mLanes;
+    private final int[] mRunningTaskCounts;
+
+    /**
+     * Construct a new TaskScheduler and start its worker threads.
+     *
+     * @param name the name of the scheduler. Used to name worker threads.
+     * @param threadCount the number of worker threads. Must be positive.
+     */
+    public TaskScheduler(final String name, final int threadCount) {
+
+        Preconditions.checkNotNull(name, "name must not be null.");
+        Preconditions.checkArgument(threadCount > 0, "threadCount must be positive.");
+
+        this.mMainThreadHandler = new Handler(Looper.getMainLooper());
+        this.mMaxRunningTaskCounts = new int[Priority.COUNT];
+        this.mMaxRunningTaskCounts[Priority.VISIBLE] = threadCount;
+        this.mMaxRunningTaskCounts[Priority.PREFETCH] = Math.max(1, threadCount - 1);
+        this.mMaxRunningTaskCounts[Priority.BACKGROUND] = 1;
+
+        this.mLanes = new ArrayList<>(Priority.COUNT);
+        for (int i = 0; i < Priority.COUNT; i++) {
+            mLanes.add(new ArrayDeque<Task<?>>());
+        }
+        this.mRunningTaskCounts = new int[Priority.COUNT];
+
+        for (int i = 0; i < threadCount; i++) {
+            final Thread worker = new Thread(new Worker(), String.format("%s-%d", name, i));
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Submit a task.
+     *
+     * @param priority the {@link Priority} lane of the task.
+     * @param cancellationToken the {@link CancellationToken} cancelling the task.
+     * @param work the work to run on a worker thread.
+     * @param callback the {@link Callback} to deliver the outcome to on the main thread, or null.
+     * @param <T> the type of result produced by the task.
+     */
+    public <T> void submit(final @Priority.Def int priority,
+                           final CancellationToken cancellationToken,
+                           final Callable<T> work,
+                           final Callback<T> callback) {
+
+        Preconditions.checkArgument(priority >= 0 && priority < Priority.COUNT,
+                "priority must be a TaskScheduler.Priority.");
+        Preconditions.checkNotNull(cancellationToken, "cancellationToken must not be null.");
+        Preconditions.checkNotNull(work, "work must not be null.");
+
+        final Task<T> task = new Task<>(priority, cancellationToken, Tracer.currentSpan(), work,
+                callback);
+        task.mCancellationRegistration = cancellationToken.register(new Runnable() {
+            @Override
+            public void run() {
+                cancel(task);
+            }
+        });
+
+        synchronized (mLock) {
+            // A token cancelled before the task was queued finds nothing to remove.
+            if (cancellationToken.isCancelled()) {
+                return;
+            }
+            mLanes.get(priority).addLast(task);
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * @param priority the {@link Priority} lane to run tasks in.
+     * @return an {@link Executor} submitting uncancellable tasks, without callbacks, to the given
+     * lane. Runnables which throw are logged.
+     */
+    public Executor asExecutor(final @Priority.Def int priority) {
+
+        return new Executor() {
+            @Override
+            public void execute(final Runnable runnable) {
+
+                Preconditions.checkNotNull(runnable, "runnable must not be null.");
+                submit(priority, CancellationToken.NONE, new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        runnable.run();
+                        return null;
+                    }
+                }, null);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        synchronized (mLock) {
+            return "[ QueuedVisible=" + mLanes.get(Priority.VISIBLE).size() +
+                    ", QueuedPrefetch=" + mLanes.get(Priority.PREFETCH).size() +
+                    ", QueuedBackground=" + mLanes.get(Priority.BACKGROUND).size() +
+                    ", RunningVisible=" + mRunningTaskCounts[Priority.VISIBLE] +
+                    ", RunningPrefetch=" + mRunningTaskCounts[Priority.PREFETCH] +
+                    ", RunningBackground=" + mRunningTaskCounts[Priority.BACKGROUND] +
+                    " ]";
+        }
+    }
+
+    private void cancel(final Task<?> task) {
+
+        synchronized (mLock) {
+            if (task.mWorkerThread != null) {
+                // Wakes the worker if it is blocked interruptibly, e.g. on the rate limiter.
+                task.mWorkerThread.interrupt();
+            } else if (!task.mIsDone) {
+                mLanes.get(task.mPriority).remove(task);
+            }
+        }
+    }
+
+    /*
+     * Take the oldest task of the most important lane below its running task limit. Blocks until
+     * one is available.
+     */
+    private Task<?> take() {
+
+        synchronized (mLock) {
+            while (true) {
+                for (int priority = 0; priority < Priority.COUNT; priority++) {
+                    if (!mLanes.get(priority).isEmpty() &&
+                            mRunningTaskCounts[priority] < mMaxRunningTaskCounts[priority]) {
+                        final Task<?> task = mLanes.get(priority).removeFirst();
+                        task.mWorkerThread = Thread.currentThread();
+                        mRunningTaskCounts[priority]++;
+                        return task;
+                    }
+                }
+
+                try {
+                    mLock.wait();
+                } catch (InterruptedException ex) {
+                    // Workers are only interrupted to cancel a running task; one has just ended.
+                }
+            }
+        }
+    }
+
+    private void onTaskDone(final Task<?> task) {
+
+        synchronized (mLock) {
+            task.mWorkerThread = null;
+            task.mIsDone = true;
+            mRunningTaskCounts[task.mPriority]--;
+            // Clear an interrupt meant for the task, so it cannot leak into the next one.
+            Thread.interrupted();
+            mLock.notifyAll();
+        }
+
+        if (task.mCancellationRegistration != null) {
+            task.mCancellationRegistration.unregister();
+        }
+    }
+
+    /*
+     * A submitted task. Scheduling state is guarded by mLock.
+     */
+    private class Task<T> {
+
+        private final @Priority.Def int mPriority;
+        private final CancellationToken mCancellationToken;
+        private final Tracer.Span mTraceSpan;
+        private final Callable<T> mWork;
+        private final Callback<T> mCallback;
+
+        private CancellationToken.Registration mCancellationRegistration;
+        private Thread mWorkerThread;
+        private boolean mIsDone;
+
+        Task(final @Priority.Def int priority, final CancellationToken cancellationToken,
+             final Tracer.Span traceSpan, final Callable<T> work, final Callback<T> callback) {
+
+            this.mPriority = priority;
+            this.mCancellationToken = cancellationToken;
+            this.mTraceSpan = traceSpan;
+            this.mWork = work;
+            this.mCallback = callback;
+        }
+
+        void run() {
+
+            if (mCancellationToken.isCancelled()) {
+                return;
+            }
+
+            final CancellationToken previousToken =
+                    CancellationToken.setCurrent(mCancellationToken);
+            final Tracer.Span previousSpan = Tracer.setCurrentSpan(mTraceSpan);
+            try {
+                deliver(mWork.call(), null);
+            } catch (Exception ex) {
+                if (mCallback == null && !mCancellationToken.isCancelled()) {
+                    Log.e(LOG_TAG, "Task failed.", ex);
+                }
+                deliver(null, ex);
+            } catch (Error error) {
+                // Delivered so the caller does not wait on the task forever. Rethrown for the
+                // worker to log.
+                deliver(null, new ExecutionException(error));
+                throw error;
+            } finally {
+                Tracer.setCurrentSpan(previousSpan);
+                CancellationToken.setCurrent(previousToken);
+            }
+        }
+
+        private void deliver(final T result, final Exception ex) {
+
+            if (mCallback == null) {
+                return;
+            }
+
+            mMainThreadHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    // Checked on the main thread, where callers cancel.
+                    if (mCancellationToken.isCancelled()) {
+                        return;
+                    }
+                    final Tracer.Span previousSpan = Tracer.setCurrentSpan(mTraceSpan);
+                    try {
+                        if (ex == null) {
+                            mCallback.onSuccess(result);
+                        } else {
+                            mCallback.onFailure(ex);
+                        }
+                    } finally {
+                        Tracer.setCurrentSpan(previousSpan);
+                    }
+                }
+            });
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while (true) {
+                final Task<?> task = take();
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    // A dead worker would never be replaced, leaving the scheduler short of
+                    // threads; carry on with the next task instead.
+                    Log.e(LOG_TAG, "Task failed with an error.", throwable);
+                } finally {
+                    onTaskDone(task);
+                }
+            }
+        }
+    }
+}
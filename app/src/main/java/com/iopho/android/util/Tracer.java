@@ -0,0 +1,397 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A Tracer records where the time of a user action goes, across threads and layers.
+ *
+ * Each user action (e.g. loading a page of the gallery) starts a trace with
+ * {@link #startTrace(String)}. Every stage of the action, such as a fetch, a request or a parse,
+ * then records a {@link Span} nested in the span of the stage that started it. All spans of a
+ * trace share its trace ID.
+ *
+ * As with a {@link CancellationToken}, rather than being passed through every layer, the span of
+ * the current stage is bound to the thread doing the work (see {@link #setCurrentSpan(Span)}).
+ * Layers start child spans of {@link #currentSpan()}, which is {@link Span#NONE} on threads
+ * without a bound span, so that nothing is recorded outside of a trace. {@link TaskScheduler}
+ * carries the span of the submitting thread over to the task's worker thread and callback.
+ *
+ * Ended spans are kept in a ring buffer of fixed capacity, overwriting the oldest, and can be
+ * exported in the Chrome trace-event format (see {@link #writeChromeTrace(Writer)}), to be viewed
+ * in chrome://tracing or Perfetto.
+ *
+ * This class is thread safe.
+ */
+public class Tracer {
+
+    private static final ThreadLocal<Span> CURRENT_SPAN = new ThreadLocal<Span>() {
+        @Override
+        protected Span initialValue() {
+            return Span.NONE;
+        }
+    };
+
+    private static final long NO_PARENT_SPAN_ID = 0;
+
+    private final AtomicReferenceArray<Span> mEndedSpans;
+    private final AtomicLong mEndedSpanCount;
+    private final AtomicLong mLastTraceId;
+    private final AtomicLong mLastSpanId;
+
+    /**
+     * Construct a new Tracer.
+     *
+     * @param capacity the number of ended spans kept. Must be positive.
+     */
+    public Tracer(final int capacity) {
+
+        Preconditions.checkArgument(capacity > 0, "capacity must be positive.");
+
+        this.mEndedSpans = new AtomicReferenceArray<>(capacity);
+        this.mEndedSpanCount = new AtomicLong();
+        this.mLastTraceId = new AtomicLong();
+        this.mLastSpanId = new AtomicLong();
+    }
+
+    /**
+     * @return the span bound to the calling thread, or {@link Span#NONE}.
+     */
+    public static Span currentSpan() {
+        return CURRENT_SPAN.get();
+    }
+
+    /**
+     * Bind a span to the calling thread, so that the spans of the work it does are nested in it.
+     * The caller must restore the previously bound span when its work is done.
+     *
+     * @param span the span to bind.
+     * @return the previously bound span.
+     */
+    public static Span setCurrentSpan(final Span span) {
+
+        Preconditions.checkNotNull(span, "span must not be null.");
+
+        final Span previousSpan = CURRENT_SPAN.get();
+        CURRENT_SPAN.set(span);
+        return previousSpan;
+    }
+
+    /**
+     * Start a new trace for a user action. The returned root span is not bound to the calling
+     * thread; bind it with {@link #setCurrentSpan(Span)} around work done for the action. It may
+     * be ended on another thread than it was started on.
+     *
+     * @param name the name of the user action, e.g. "gallery.loadPage".
+     * @return the root {@link Span} of the new trace.
+     */
+    public Span startTrace(final String name) {
+
+        Preconditions.checkNotNull(name, "name must not be null.");
+        return new Span(this, name, mLastTraceId.incrementAndGet(), NO_PARENT_SPAN_ID);
+    }
+
+    /**
+     * @return the ended spans kept, in the order they ended.
+     */
+    public List<Span> getEndedSpans() {
+
+        final long endedSpanCount = mEndedSpanCount.get();
+        final int capacity = mEndedSpans.length();
+        final List<Span> spans = new ArrayList<>();
+        for (long i = Math.max(0, endedSpanCount - capacity); i < endedSpanCount; i++) {
+            final Span span = mEndedSpans.get((int) (i % capacity));
+            // Null if the span's slot was claimed but not yet written.
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    /**
+     * Write the ended spans to a file in the Chrome trace-event format.
+     *
+     * @param file the file to write. Replaced if it exists.
+     * @throws IOException if the file fails to be written.
+     * @see {@link #writeChromeTrace(Writer)}
+     */
+    public void writeChromeTrace(final File file) throws IOException {
+
+        Preconditions.checkNotNull(file, "file must not be null.");
+
+        final Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8));
+        try {
+            writeChromeTrace(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write the ended spans in the Chrome trace-event format. Root spans are written as async
+     * events keyed by trace ID, so that each user action shows as one bar even though it spans
+     * threads. All other spans are written as complete events on the thread that recorded them.
+     * The trace and span IDs of every span are written as its arguments.
+     *
+     * @param writer the {@link Writer} to write the trace to. Not closed.
+     * @throws IOException if the trace fails to be written.
+     */
+    public void writeChromeTrace(final Writer writer) throws IOException {
+
+        Preconditions.checkNotNull(writer, "writer must not be null.");
+
+        final List<Span> spans = getEndedSpans();
+        Collections.sort(spans, new Comparator<Span>() {
+            @Override
+            public int compare(final Span lhs, final Span rhs) {
+                return (lhs.mStartNanos < rhs.mStartNanos) ? -1 :
+                        (lhs.mStartNanos == rhs.mStartNanos) ? 0 : 1;
+            }
+        });
+
+        final JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.beginObject();
+        jsonWriter.name("displayTimeUnit").value("ms");
+        jsonWriter.name("traceEvents").beginArray();
+
+        final Map<Long, String> threadNames = new HashMap<>();
+        for (Span span : spans) {
+            threadNames.put(span.mThreadId, span.mThreadName);
+            if (span.mParentSpanId == NO_PARENT_SPAN_ID) {
+                writeAsyncEvent(jsonWriter, span, "b", span.mStartNanos);
+                writeAsyncEvent(jsonWriter, span, "e", span.mEndNanos);
+            } else {
+                writeCompleteEvent(jsonWriter, span);
+            }
+        }
+
+        for (Map.Entry<Long, String> entry : threadNames.entrySet()) {
+            jsonWriter.beginObject();
+            jsonWriter.name("ph").value("M");
+            jsonWriter.name("name").value("thread_name");
+            jsonWriter.name("pid").value(0);
+            jsonWriter.name("tid").value(entry.getKey());
+            jsonWriter.name("args").beginObject().name("name").value(entry.getValue()).endObject();
+            jsonWriter.endObject();
+        }
+
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    @Override
+    public String toString() {
+        return "[ EndedSpanCount=" + mEndedSpanCount.get() +
+                ", Capacity=" + mEndedSpans.length() +
+                ", TraceCount=" + mLastTraceId.get() +
+                " ]";
+    }
+
+    private void onSpanEnded(final Span span) {
+        final long index = mEndedSpanCount.getAndIncrement();
+        mEndedSpans.set((int) (index % mEndedSpans.length()), span);
+    }
+
+    private long nextSpanId() {
+        return mLastSpanId.incrementAndGet();
+    }
+
+    private static void writeCompleteEvent(final JsonWriter jsonWriter, final Span span)
+            throws IOException {
+
+        jsonWriter.beginObject();
+        jsonWriter.name("ph").value("X");
+        jsonWriter.name("name").value(span.mName);
+        jsonWriter.name("pid").value(0);
+        jsonWriter.name("tid").value(span.mThreadId);
+        jsonWriter.name("ts").value(toMicros(span.mStartNanos));
+        jsonWriter.name("dur").value(toMicros(span.mEndNanos - span.mStartNanos));
+        writeArgs(jsonWriter, span);
+        jsonWriter.endObject();
+    }
+
+    private static void writeAsyncEvent(final JsonWriter jsonWriter, final Span span,
+                                        final String phase, final long timestampNanos)
+            throws IOException {
+
+        jsonWriter.beginObject();
+        jsonWriter.name("ph").value(phase);
+        jsonWriter.name("cat").value("trace");
+        jsonWriter.name("name").value(span.mName);
+        jsonWriter.name("id").value(span.mTraceId);
+        jsonWriter.name("pid").value(0);
+        jsonWriter.name("tid").value(span.mThreadId);
+        jsonWriter.name("ts").value(toMicros(timestampNanos));
+        if ("b".equals(phase)) {
+            writeArgs(jsonWriter, span);
+        }
+        jsonWriter.endObject();
+    }
+
+    private static void writeArgs(final JsonWriter jsonWriter, final Span span)
+            throws IOException {
+
+        jsonWriter.name("args").beginObject();
+        jsonWriter.name("traceId").value(span.mTraceId);
+        jsonWriter.name("spanId").value(span.mSpanId);
+        if (span.mParentSpanId != NO_PARENT_SPAN_ID) {
+            jsonWriter.name("parentSpanId").value(span.mParentSpanId);
+        }
+        for (Map.Entry<String, String> arg : span.mArgs.entrySet()) {
+            jsonWriter.name(arg.getKey()).value(arg.getValue());
+        }
+        jsonWriter.endObject();
+    }
+
+    private static double toMicros(final long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * A Span times one stage of a traced user action. It is recorded by its {@link Tracer} when
+     * ended.
+     *
+     * A span is used by one thread at a time: it is started, annotated and ended by the thread
+     * doing the stage's work. Only a root span may be ended on another thread than it was started
+     * on.
+     */
+    public static class Span {
+
+        /**
+         * A span which records nothing. {@link #currentSpan()} returns it on threads without a
+         * bound span, and its children are NONE as well.
+         */
+        public static final Span NONE = new Span(null, "none", 0, NO_PARENT_SPAN_ID);
+
+        private final Tracer mTracer;
+        private final String mName;
+        private final long mTraceId;
+        private final long mSpanId;
+        private final long mParentSpanId;
+        private final long mStartNanos;
+        private final long mThreadId;
+        private final String mThreadName;
+        private final Map<String, String> mArgs;
+
+        private long mEndNanos;
+
+        private Span(final Tracer tracer, final String name, final long traceId,
+                     final long parentSpanId) {
+
+            this.mTracer = tracer;
+            this.mName = name;
+            this.mTraceId = traceId;
+            this.mSpanId = (tracer != null) ? tracer.nextSpanId() : 0;
+            this.mParentSpanId = parentSpanId;
+            this.mArgs = new LinkedHashMap<>();
+
+            final Thread thread = Thread.currentThread();
+            this.mThreadId = thread.getId();
+            this.mThreadName = thread.getName();
+            this.mStartNanos = System.nanoTime();
+        }
+
+        /**
+         * Start a span nested in this span, on the calling thread. The child is not bound to the
+         * thread; bind it with {@link #setCurrentSpan(Span)} if the stage it times starts spans
+         * of its own.
+         *
+         * @param name the name of the stage, e.g. "http".
+         * @return the new child {@link Span}, or {@link #NONE} if this span is NONE.
+         */
+        public Span startChild(final String name) {
+
+            Preconditions.checkNotNull(name, "name must not be null.");
+
+            if (mTracer == null) {
+                return NONE;
+            }
+            return new Span(mTracer, name, mTraceId, mSpanId);
+        }
+
+        /**
+         * Annotate this span, e.g. with the requested endpoint. Does nothing if this span is
+         * {@link #NONE}.
+         *
+         * @param key the name of the annotation.
+         * @param value the value of the annotation.
+         * @return this span.
+         */
+        public Span putArg(final String key, final Object value) {
+
+            Preconditions.checkNotNull(key, "key must not be null.");
+
+            if (mTracer != null) {
+                mArgs.put(key, String.valueOf(value));
+            }
+            return this;
+        }
+
+        /**
+         * End this span, recording it. Does nothing if this span is {@link #NONE} or has already
+         * ended.
+         */
+        public void end() {
+
+            if (mTracer == null || mEndNanos != 0) {
+                return;
+            }
+            mEndNanos = System.nanoTime();
+            mTracer.onSpanEnded(this);
+        }
+
+        /**
+         * @return the ID of the trace this span belongs to, or 0 if this span is {@link #NONE}.
+         */
+        public long getTraceId() {
+            return mTraceId;
+        }
+
+        /**
+         * @return the name of the stage this span times.
+         */
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * @return the duration of this span, in nanoseconds, or -1 if it has not ended.
+         */
+        public long getDurationNanos() {
+            return (mEndNanos != 0) ? mEndNanos - mStartNanos : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "[ Name=" + mName +
+                    ", TraceId=" + mTraceId +
+                    ", SpanId=" + mSpanId +
+                    ", ParentSpanId=" + mParentSpanId +
+                    ", Thread=" + mThreadName +
+                    ", DurationNanos=" + getDurationNanos() +
+                    ", Args=" + mArgs +
+                    " ]";
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.iopho.android.dataAccess.catalog;
+
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MovieListDiffTest {
+
+    private static final Set<Long> NO_CHANGES = Collections.emptySet();
+
+    @Test
+    public void compute_sameList_isEmpty() {
+
+        final MovieListDiff diff = MovieListDiff.compute(ids(1, 2, 3), ids(1, 2, 3), NO_CHANGES);
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void compute_insertedAndRemoved_inListOrder() {
+
+        final MovieListDiff diff =
+                MovieListDiff.compute(ids(1, 5, 2, 6, 3), ids(7, 1, 2, 8, 3), NO_CHANGES);
+
+        assertEquals(ids(7, 8), diff.getInsertedMovieIds());
+        assertEquals(ids(5, 6), diff.getRemovedMovieIds());
+        assertTrue(diff.getMovedMovieIds().isEmpty());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void compute_singleMovieMovedToEnd_movesOnlyThatMovie() {
+
+        final MovieListDiff diff =
+                MovieListDiff.compute(ids(1, 2, 3, 4, 5), ids(2, 3, 4, 5, 1), NO_CHANGES);
+
+        assertEquals(ids(1), diff.getMovedMovieIds());
+        assertTrue(diff.getInsertedMovieIds().isEmpty());
+        assertTrue(diff.getRemovedMovieIds().isEmpty());
+    }
+
+    @Test
+    public void compute_reversedList_movesAllButOne() {
+
+        final MovieListDiff diff =
+                MovieListDiff.compute(ids(1, 2, 3, 4), ids(4, 3, 2, 1), NO_CHANGES);
+
+        assertEquals(3, diff.getMovedMovieIds().size());
+    }
+
+    @Test
+    public void compute_shiftByRemovalAndInsertion_isNotAMove() {
+
+        // Movie 1 dropping off shifts the others up, without changing their relative order.
+        final MovieListDiff diff =
+                MovieListDiff.compute(ids(1, 2, 3, 4), ids(2, 3, 4, 5), NO_CHANGES);
+
+        assertTrue(diff.getMovedMovieIds().isEmpty());
+        assertEquals(ids(5), diff.getInsertedMovieIds());
+        assertEquals(ids(1), diff.getRemovedMovieIds());
+    }
+
+    @Test
+    public void compute_changedMovies_onlyThoseInBothVersions() {
+
+        final MovieListDiff diff = MovieListDiff.compute(ids(1, 2, 3), ids(3, 2, 4),
+                ImmutableSet.of(2L, 3L, 4L));
+
+        assertEquals(ids(3, 2), diff.getChangedMovieIds());
+        assertEquals(ids(4), diff.getInsertedMovieIds());
+    }
+
+    @Test
+    public void compute_duplicateInNewList_countsFirstOccurrence() {
+
+        final MovieListDiff diff =
+                MovieListDiff.compute(ids(1, 2, 3), ids(1, 2, 3, 1), NO_CHANGES);
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void compute_emptyLists() {
+
+        assertTrue(MovieListDiff.compute(ids(), ids(), NO_CHANGES).isEmpty());
+        assertEquals(ids(1, 2),
+                MovieListDiff.compute(ids(), ids(1, 2), NO_CHANGES).getInsertedMovieIds());
+        assertEquals(ids(1, 2),
+                MovieListDiff.compute(ids(1, 2), ids(), NO_CHANGES).getRemovedMovieIds());
+    }
+
+    @Test
+    public void compute_randomReorderings_movedSetIsMinimal() {
+
+        final Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            final List<Long> oldMovieIds = new ArrayList<>();
+            for (long id = 0; id < 20; id++) {
+                oldMovieIds.add(id);
+            }
+            final List<Long> newMovieIds = new ArrayList<>(oldMovieIds);
+            Collections.shuffle(newMovieIds, random);
+
+            final MovieListDiff diff = MovieListDiff.compute(oldMovieIds, newMovieIds, NO_CHANGES);
+
+            // The movies not moved keep their relative order...
+            final Set<Long> movedMovieIds = new HashSet<>(diff.getMovedMovieIds());
+            long previousId = -1;
+            for (Long movieId : newMovieIds) {
+                if (!movedMovieIds.contains(movieId)) {
+                    assertTrue(movieId > previousId);
+                    previousId = movieId;
+                }
+            }
+            // ...and are as many as possible.
+            assertEquals(newMovieIds.size() - longestIncreasingSubsequenceLength(newMovieIds),
+                    movedMovieIds.size());
+        }
+    }
+
+    private static List<Long> ids(final long... movieIds) {
+
+        final List<Long> ids = new ArrayList<>();
+        for (long movieId : movieIds) {
+            ids.add(movieId);
+        }
+        return ids;
+    }
+
+    /*
+     * The length of the longest strictly increasing subsequence, by O(n^2) dynamic programming.
+     */
+    private static int longestIncreasingSubsequenceLength(final List<Long> values) {
+
+        final int[] lengths = new int[values.size()];
+        Arrays.fill(lengths, 1);
+        int maxLength = 0;
+        for (int i = 0; i < values.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (values.get(j) < values.get(i)) {
+                    lengths[i] = Math.max(lengths[i], lengths[j] + 1);
+                }
+            }
+            maxLength = Math.max(maxLength, lengths[i]);
+        }
+        return maxLength;
+    }
+}
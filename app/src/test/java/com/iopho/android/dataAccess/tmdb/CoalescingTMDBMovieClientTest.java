@@ -0,0 +1,167 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CoalescingTMDBMovieClientTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService mExecutor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentIdenticalQueries_shareOneRequest() throws Exception {
+
+        final DataPage<Movie> page =
+                new DataPage<>(1, 1, 0, Collections.<Movie>emptyList());
+        final BlockingMovieClient delegate = new BlockingMovieClient(page, null);
+        final CoalescingTMDBMovieClient client = new CoalescingTMDBMovieClient(delegate);
+
+        final Future<DataPage<Movie>> first = mExecutor.submit(getPopularMovies(client));
+        assertTrue(delegate.mStartedLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        final Future<DataPage<Movie>> second = mExecutor.submit(getPopularMovies(client));
+        awaitCoalesced(client);
+        delegate.mReleaseLatch.countDown();
+
+        assertSame(page, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(page, second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, delegate.mRequestCount.get());
+    }
+
+    @Test
+    public void errorThrownByRequest_isSharedWithWaitingCallers() throws Exception {
+
+        final AssertionError error = new AssertionError("Request error");
+        final BlockingMovieClient delegate = new BlockingMovieClient(null, error);
+        final CoalescingTMDBMovieClient client = new CoalescingTMDBMovieClient(delegate);
+
+        final Future<DataPage<Movie>> first = mExecutor.submit(getPopularMovies(client));
+        assertTrue(delegate.mStartedLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        final Future<DataPage<Movie>> second = mExecutor.submit(getPopularMovies(client));
+        awaitCoalesced(client);
+        delegate.mReleaseLatch.countDown();
+
+        assertSame(error, getFailure(first));
+        assertSame(error, getFailure(second));
+    }
+
+    private static Callable<DataPage<Movie>> getPopularMovies(
+            final CoalescingTMDBMovieClient client) {
+
+        return new Callable<DataPage<Movie>>() {
+            @Override
+            public DataPage<Movie> call() throws Exception {
+                return client.getPopularMovies(1);
+            }
+        };
+    }
+
+    /*
+     * Wait for a second caller to join the request in flight.
+     */
+    private static void awaitCoalesced(final CoalescingTMDBMovieClient client)
+            throws InterruptedException {
+
+        final long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (client.getCoalescedRequestCount() == 0) {
+            assertTrue(System.nanoTime() < deadlineNanos);
+            Thread.sleep(1);
+        }
+    }
+
+    private static Throwable getFailure(final Future<?> future) throws Exception {
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        }
+        fail("Request succeeded.");
+        return null;
+    }
+
+    /*
+     * A TMDBMovieClient whose popular movies requests block until released, then return the given
+     * page or throw the given error.
+     */
+    private static class BlockingMovieClient implements TMDBMovieClient {
+
+        private final DataPage<Movie> mPage;
+        private final Error mError;
+        private final CountDownLatch mStartedLatch = new CountDownLatch(1);
+        private final CountDownLatch mReleaseLatch = new CountDownLatch(1);
+        private final AtomicInteger mRequestCount = new AtomicInteger();
+
+        BlockingMovieClient(final DataPage<Movie> page, final Error error) {
+            this.mPage = page;
+            this.mError = error;
+        }
+
+        @Override
+        public DataPage<Movie> getPopularMovies(final int pageNumber)
+                throws DataAccessRequestException {
+
+            mRequestCount.incrementAndGet();
+            mStartedLatch.countDown();
+            try {
+                mReleaseLatch.await();
+            } catch (InterruptedException ex) {
+                throw new DataAccessRequestException("Interrupted.", ex);
+            }
+            if (mError != null) {
+                throw mError;
+            }
+            return mPage;
+        }
+
+        @Override
+        public DataPage<Movie> getTopRatedMovies(final int pageNumber) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataPage<Review> getMovieReviews(final long movieId, final int pageNumber) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<VideoLink> getMovieVideoLinks(final long movieId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MovieDetails getMovieDetails(final long movieId,
+                                            final @MovieDetails.Part.Def String... parts)
+                throws DataAccessRequestException, DataAccessParsingException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
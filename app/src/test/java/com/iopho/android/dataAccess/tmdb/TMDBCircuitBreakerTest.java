@@ -0,0 +1,181 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.iopho.android.dataAccess.exception.CircuitBreakerOpenException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TMDBCircuitBreakerTest {
+
+    private static final String HOST = "api.themoviedb.org";
+    private static final String OTHER_HOST = "image.tmdb.org";
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_DURATION_MILLIS = 100;
+
+    private TMDBCircuitBreaker mCircuitBreaker;
+    private List<String> mStateChanges;
+
+    @Before
+    public void setUp() {
+
+        mCircuitBreaker = new TMDBCircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION_MILLIS);
+        mStateChanges = new ArrayList<>();
+        mCircuitBreaker.addListener(new TMDBCircuitBreaker.Listener() {
+            @Override
+            public void onStateChanged(final String host, final TMDBCircuitBreaker.State oldState,
+                                       final TMDBCircuitBreaker.State newState) {
+                mStateChanges.add(host + ": " + oldState + " -> " + newState);
+            }
+        });
+    }
+
+    @Test
+    public void newCircuit_isClosed() throws CircuitBreakerOpenException {
+
+        assertEquals(TMDBCircuitBreaker.State.CLOSED, mCircuitBreaker.getState(HOST));
+        mCircuitBreaker.checkPermitted(HOST);
+    }
+
+    @Test
+    public void failuresBelowThreshold_keepCircuitClosed() throws CircuitBreakerOpenException {
+
+        failRequests(HOST, FAILURE_THRESHOLD - 1);
+
+        assertEquals(TMDBCircuitBreaker.State.CLOSED, mCircuitBreaker.getState(HOST));
+        mCircuitBreaker.checkPermitted(HOST);
+        assertTrue(mStateChanges.isEmpty());
+    }
+
+    @Test
+    public void success_resetsConsecutiveFailureCount() {
+
+        failRequests(HOST, FAILURE_THRESHOLD - 1);
+        mCircuitBreaker.onSuccess(HOST);
+        failRequests(HOST, FAILURE_THRESHOLD - 1);
+
+        assertEquals(TMDBCircuitBreaker.State.CLOSED, mCircuitBreaker.getState(HOST));
+    }
+
+    @Test
+    public void failuresAtThreshold_openCircuitAndRejectRequests() {
+
+        final IOException lastFailure = new IOException("Connection refused");
+        failRequests(HOST, FAILURE_THRESHOLD - 1);
+        mCircuitBreaker.onFailure(HOST, lastFailure);
+
+        assertEquals(TMDBCircuitBreaker.State.OPEN, mCircuitBreaker.getState(HOST));
+        final CircuitBreakerOpenException ex = assertRejected(HOST);
+        assertEquals(HOST, ex.getHost());
+        assertTrue(ex.getRetryAfterMillis() <= OPEN_DURATION_MILLIS);
+        assertSame(lastFailure, ex.getCause());
+        assertEquals(1, mStateChanges.size());
+        assertEquals(HOST + ": CLOSED -> OPEN", mStateChanges.get(0));
+    }
+
+    @Test
+    public void openCircuit_doesNotAffectOtherHosts() throws CircuitBreakerOpenException {
+
+        failRequests(HOST, FAILURE_THRESHOLD);
+
+        assertEquals(TMDBCircuitBreaker.State.CLOSED, mCircuitBreaker.getState(OTHER_HOST));
+        mCircuitBreaker.checkPermitted(OTHER_HOST);
+    }
+
+    @Test
+    public void openCircuit_afterOpenDuration_letsOneTrialThrough()
+            throws CircuitBreakerOpenException, InterruptedException {
+
+        failRequests(HOST, FAILURE_THRESHOLD);
+        Thread.sleep(OPEN_DURATION_MILLIS + 20);
+
+        mCircuitBreaker.checkPermitted(HOST);
+
+        assertEquals(TMDBCircuitBreaker.State.HALF_OPEN, mCircuitBreaker.getState(HOST));
+        assertRejected(HOST);
+    }
+
+    @Test
+    public void successfulTrial_closesCircuit()
+            throws CircuitBreakerOpenException, InterruptedException {
+
+        openAndStartTrial();
+        mCircuitBreaker.onSuccess(HOST);
+
+        assertEquals(TMDBCircuitBreaker.State.CLOSED, mCircuitBreaker.getState(HOST));
+        mCircuitBreaker.checkPermitted(HOST);
+        assertEquals(HOST + ": HALF_OPEN -> CLOSED", mStateChanges.get(2));
+    }
+
+    @Test
+    public void failedTrial_reopensCircuit()
+            throws CircuitBreakerOpenException, InterruptedException {
+
+        openAndStartTrial();
+        mCircuitBreaker.onFailure(HOST, new IOException("Connection refused"));
+
+        assertEquals(TMDBCircuitBreaker.State.OPEN, mCircuitBreaker.getState(HOST));
+        assertRejected(HOST);
+        assertEquals(HOST + ": HALF_OPEN -> OPEN", mStateChanges.get(2));
+    }
+
+    @Test
+    public void unreportedTrial_isSupersededAfterOpenDuration()
+            throws CircuitBreakerOpenException, InterruptedException {
+
+        openAndStartTrial();
+        Thread.sleep(OPEN_DURATION_MILLIS + 20);
+
+        mCircuitBreaker.checkPermitted(HOST);
+
+        assertEquals(TMDBCircuitBreaker.State.HALF_OPEN, mCircuitBreaker.getState(HOST));
+        // A superseded trial is not a state change.
+        assertEquals(2, mStateChanges.size());
+    }
+
+    @Test
+    public void failingListener_doesNotPreventStateChange() {
+
+        mCircuitBreaker.addListener(new TMDBCircuitBreaker.Listener() {
+            @Override
+            public void onStateChanged(final String host, final TMDBCircuitBreaker.State oldState,
+                                       final TMDBCircuitBreaker.State newState) {
+                throw new IllegalStateException("Listener failure");
+            }
+        });
+
+        failRequests(HOST, FAILURE_THRESHOLD);
+
+        assertEquals(TMDBCircuitBreaker.State.OPEN, mCircuitBreaker.getState(HOST));
+    }
+
+    private void openAndStartTrial() throws CircuitBreakerOpenException, InterruptedException {
+
+        failRequests(HOST, FAILURE_THRESHOLD);
+        Thread.sleep(OPEN_DURATION_MILLIS + 20);
+        mCircuitBreaker.checkPermitted(HOST);
+    }
+
+    private void failRequests(final String host, final int failureCount) {
+        for (int i = 0; i < failureCount; i++) {
+            mCircuitBreaker.onFailure(host, new IOException("Connection refused"));
+        }
+    }
+
+    private CircuitBreakerOpenException assertRejected(final String host) {
+        try {
+            mCircuitBreaker.checkPermitted(host);
+        } catch (CircuitBreakerOpenException ex) {
+            return ex;
+        }
+        throw new AssertionError("Request to " + host + " was permitted.");
+    }
+}
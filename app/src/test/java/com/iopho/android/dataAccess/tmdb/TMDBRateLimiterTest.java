@@ -0,0 +1,170 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs limiters on a {@link FakeTicker}, so that waits are exact and the tests never sleep.
+ */
+public class TMDBRateLimiterTest {
+
+    private final FakeTicker mTicker = new FakeTicker();
+
+    @Test
+    public void acquire_withinBurst_doesNotWait() throws InterruptedException {
+
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(1, 3, mTicker);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.acquire());
+        }
+        assertEquals(3, rateLimiter.getAcquireCount());
+        assertEquals(0, rateLimiter.getThrottledCount());
+    }
+
+    @Test
+    public void acquire_beyondBurst_waitsForPermitInterval() throws InterruptedException {
+
+        // One permit every 200 ms.
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(5, 1, mTicker);
+
+        assertEquals(0, rateLimiter.acquire());
+        // Borrows its permit against the future; the next caller pays for it.
+        assertEquals(0, rateLimiter.acquire());
+        assertEquals(millis(200), rateLimiter.acquire());
+        assertEquals(millis(200), rateLimiter.acquire());
+
+        assertEquals(4, rateLimiter.getAcquireCount());
+        assertEquals(2, rateLimiter.getThrottledCount());
+    }
+
+    @Test
+    public void acquire_afterIdlePeriod_refillsBucketUpToBurst() throws InterruptedException {
+
+        // One permit every 50 ms.
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(20, 2, mTicker);
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+
+        // Accrues 3 permits, of which only 2 fit in the bucket.
+        mTicker.advance(millis(150));
+
+        assertEquals(0, rateLimiter.acquire());
+        assertEquals(0, rateLimiter.acquire());
+        assertEquals(0, rateLimiter.acquire());
+        assertEquals(millis(50), rateLimiter.acquire());
+    }
+
+    @Test
+    public void acquire_afterPartialInterval_waitsForRemainder() throws InterruptedException {
+
+        // One permit every 100 ms.
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(10, 1, mTicker);
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+
+        mTicker.advance(millis(30));
+
+        assertEquals(millis(70), rateLimiter.acquire());
+    }
+
+    @Test
+    public void pause_holdsBackPermits() throws InterruptedException {
+
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(1000, 10, mTicker);
+
+        rateLimiter.pause(200);
+
+        assertEquals(millis(200), rateLimiter.acquire());
+        assertEquals(1, rateLimiter.getPauseCount());
+    }
+
+    @Test
+    public void pause_discardsStoredPermits() throws InterruptedException {
+
+        // One permit every 100 ms.
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(10, 10, mTicker);
+
+        rateLimiter.pause(0);
+
+        assertEquals(0, rateLimiter.acquire());
+        assertEquals(millis(100), rateLimiter.acquire());
+    }
+
+    @Test
+    public void pause_overlapping_latestEndWins() throws InterruptedException {
+
+        final TMDBRateLimiter rateLimiter = new TMDBRateLimiter(1000, 10, mTicker);
+
+        rateLimiter.pause(300);
+        rateLimiter.pause(100);
+
+        assertEquals(millis(300), rateLimiter.acquire());
+        assertEquals(2, rateLimiter.getPauseCount());
+    }
+
+    @Test
+    public void pause_whileWaiting_extendsWait() throws InterruptedException {
+
+        // One permit every 100 ms.
+        final TMDBRateLimiter[] rateLimiter = new TMDBRateLimiter[1];
+        final FakeTicker ticker = new FakeTicker() {
+
+            private boolean mIsPaused;
+
+            @Override
+            void sleep(final long nanos) {
+                super.sleep(nanos);
+                // The server throttles another caller while this one waits.
+                if (!mIsPaused) {
+                    mIsPaused = true;
+                    rateLimiter[0].pause(500);
+                }
+            }
+        };
+        rateLimiter[0] = new TMDBRateLimiter(10, 1, ticker);
+        rateLimiter[0].acquire();
+        rateLimiter[0].acquire();
+
+        assertEquals(millis(100 + 500), rateLimiter[0].acquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_withNonPositiveRate_throws() {
+        new TMDBRateLimiter(0, 1, mTicker);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_withNonPositiveBurst_throws() {
+        new TMDBRateLimiter(1, 0, mTicker);
+    }
+
+    private static long millis(final long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /*
+     * A clock which only moves when advanced, or slept on.
+     */
+    private static class FakeTicker extends TMDBRateLimiter.SleepingTicker {
+
+        private long mNowNanos = TimeUnit.HOURS.toNanos(1);
+
+        @Override
+        long read() {
+            return mNowNanos;
+        }
+
+        @Override
+        void sleep(final long nanos) {
+            advance(nanos);
+        }
+
+        void advance(final long nanos) {
+            mNowNanos += nanos;
+        }
+    }
+}
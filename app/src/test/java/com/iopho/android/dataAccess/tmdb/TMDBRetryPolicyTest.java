@@ -0,0 +1,141 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.stream.MalformedJsonException;
+import com.iopho.android.util.HttpStatusException;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TMDBRetryPolicyTest {
+
+    private static final String ENDPOINT = TMDBURLBuilder.Endpoint.MOVIES_POPULAR;
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 400;
+    private static final long DEADLINE_MILLIS = 20000;
+
+    // Enough samples for a jittered delay to approach the bounds it must stay within.
+    private static final int SAMPLE_COUNT = 1000;
+
+    private final TMDBRetryPolicy mRetryPolicy = new TMDBRetryPolicy(MAX_ATTEMPTS,
+            BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS, DEADLINE_MILLIS, ImmutableSet.of(ENDPOINT));
+
+    @Test
+    public void getRetryDelayMillis_backoffCeilingDoublesPerAttempt() {
+
+        assertDelaysWithin(1, BASE_BACKOFF_MILLIS);
+        assertDelaysWithin(2, 2 * BASE_BACKOFF_MILLIS);
+        assertDelaysWithin(3, MAX_BACKOFF_MILLIS);
+        assertDelaysWithin(4, MAX_BACKOFF_MILLIS);
+    }
+
+    @Test
+    public void getRetryDelayMillis_longerRetryAfterTakesPrecedence() {
+
+        final HttpStatusException ex = new HttpStatusException("Service Unavailable", 503, 5000);
+
+        assertEquals(5000, mRetryPolicy.getRetryDelayMillis(ENDPOINT, 1, 0, ex));
+    }
+
+    @Test
+    public void getRetryDelayMillis_retriesTransientFailures() {
+
+        assertRetried(new IOException("Connection reset"));
+        assertRetried(new SocketTimeoutException("Read timed out"));
+        assertRetried(new HttpStatusException("Too Many Requests",
+                HttpStatusException.HTTP_TOO_MANY_REQUESTS, HttpStatusException.NO_RETRY_AFTER));
+        assertRetried(new HttpStatusException("Internal Server Error", 500,
+                HttpStatusException.NO_RETRY_AFTER));
+    }
+
+    @Test
+    public void getRetryDelayMillis_doesNotRetryPermanentFailures() {
+
+        assertNotRetried(new HttpStatusException("Not Found", 404,
+                HttpStatusException.NO_RETRY_AFTER));
+        assertNotRetried(new MalformedJsonException("Unterminated object"));
+        assertNotRetried(new TMDBMovieClientImpl.JSONStreamTypeMismatchException(
+                new IllegalStateException("Expected a string but was NUMBER")));
+        assertNotRetried(new InterruptedIOException("Request cancelled"));
+    }
+
+    @Test
+    public void getRetryDelayMillis_doesNotRetryNonIdempotentEndpoint() {
+
+        assertTrue(mRetryPolicy.getRetryDelayMillis(TMDBURLBuilder.Endpoint.MOVIE_REVIEWS, 1, 0,
+                new IOException()) < 0);
+    }
+
+    @Test
+    public void getRetryDelayMillis_stopsAtMaxAttempts() {
+
+        assertTrue(mRetryPolicy.getRetryDelayMillis(ENDPOINT, MAX_ATTEMPTS - 1, 0,
+                new IOException()) >= 0);
+        assertTrue(mRetryPolicy.getRetryDelayMillis(ENDPOINT, MAX_ATTEMPTS, 0,
+                new IOException()) < 0);
+    }
+
+    @Test
+    public void getRetryDelayMillis_doesNotRetryPastDeadline() {
+
+        final TMDBRetryPolicy retryPolicy = new TMDBRetryPolicy(MAX_ATTEMPTS, 0, 0,
+                DEADLINE_MILLIS, ImmutableSet.of(ENDPOINT));
+
+        assertEquals(0, retryPolicy.getRetryDelayMillis(ENDPOINT, 1, DEADLINE_MILLIS - 1,
+                new IOException()));
+        assertTrue(retryPolicy.getRetryDelayMillis(ENDPOINT, 1, DEADLINE_MILLIS,
+                new IOException()) < 0);
+    }
+
+    @Test
+    public void getRetryDelayMillis_doesNotRetryWhenRetryAfterEndsPastDeadline() {
+
+        final HttpStatusException ex =
+                new HttpStatusException("Service Unavailable", 503, DEADLINE_MILLIS);
+
+        assertTrue(mRetryPolicy.getRetryDelayMillis(ENDPOINT, 1, 0, ex) < 0);
+    }
+
+    @Test
+    public void getRemainingMillis_countsDownToDeadline() {
+
+        assertEquals(DEADLINE_MILLIS, mRetryPolicy.getRemainingMillis(0));
+        assertEquals(1, mRetryPolicy.getRemainingMillis(DEADLINE_MILLIS - 1));
+        assertFalse(mRetryPolicy.getRemainingMillis(DEADLINE_MILLIS + 1) > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void construct_withMaxBackoffBelowBase_throws() {
+        new TMDBRetryPolicy(MAX_ATTEMPTS, 100, 50, DEADLINE_MILLIS, ImmutableSet.of(ENDPOINT));
+    }
+
+    private void assertDelaysWithin(final int attempt, final long ceilingMillis) {
+
+        long maxDelayMillis = 0;
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            final long delayMillis =
+                    mRetryPolicy.getRetryDelayMillis(ENDPOINT, attempt, 0, new IOException());
+            assertTrue(delayMillis >= 0 && delayMillis <= ceilingMillis);
+            maxDelayMillis = Math.max(maxDelayMillis, delayMillis);
+        }
+        // Jitter is spread over the whole range, not just its lower part.
+        assertTrue(maxDelayMillis > ceilingMillis / 2);
+    }
+
+    private void assertRetried(final IOException ex) {
+        assertTrue(ex.toString(), mRetryPolicy.getRetryDelayMillis(ENDPOINT, 1, 0, ex) >= 0);
+    }
+
+    private void assertNotRetried(final IOException ex) {
+        assertTrue(ex.toString(), mRetryPolicy.getRetryDelayMillis(ENDPOINT, 1, 0, ex) < 0);
+    }
+}
@@ -0,0 +1,306 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.google.gson.stream.JsonReader;
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that each JSONStream*Transformer reads the same models as the DOM transformer it
+ * replaces, and rejects the same payloads. Recorded payloads are shared with the benchmark module.
+ */
+public class JSONStreamTransformerEquivalenceTest {
+
+    private static final String MOVIE_POPULAR = "movie_popular.json";
+    private static final String MOVIE_REVIEWS = "movie_reviews.json";
+    private static final String MOVIE_VIDEOS  = "movie_videos.json";
+
+    private static final String RESULTS_KEY = "results";
+
+    private final JSONToObjectTransformer<Movie> mMovieTransformer = new JSONMovieTransformer();
+    private final JSONStreamToObjectTransformer<Movie> mStreamMovieTransformer =
+            new JSONStreamMovieTransformer();
+    private final JSONToObjectTransformer<Review> mReviewTransformer =
+            new JSONReviewTransformer();
+    private final JSONStreamToObjectTransformer<Review> mStreamReviewTransformer =
+            new JSONStreamReviewTransformer();
+    private final JSONToObjectTransformer<VideoLink> mVideoLinkTransformer =
+            new JSONVideoLinkTransformer();
+    private final JSONStreamToObjectTransformer<VideoLink> mStreamVideoLinkTransformer =
+            new JSONStreamVideoLinkTransformer();
+
+    @Test
+    public void moviePage_recordedPayload_matches() throws Exception {
+
+        final String payload = readPayload(MOVIE_POPULAR);
+
+        final DataPage<Movie> page = new JSONDataPageTransformer<>(mMovieTransformer)
+                .transform(new JSONObject(payload));
+        final DataPage<Movie> streamedPage =
+                new JSONStreamDataPageTransformer<>(mStreamMovieTransformer)
+                        .transform(newJsonReader(payload));
+
+        assertFalse(page.getResults().isEmpty());
+        assertPagesEqual(page, streamedPage);
+        for (int i = 0; i < page.getResults().size(); i++) {
+            assertMoviesEqual(page.getResults().get(i), streamedPage.getResults().get(i));
+        }
+    }
+
+    @Test
+    public void reviewPage_recordedPayload_matches() throws Exception {
+
+        final String payload = readPayload(MOVIE_REVIEWS);
+
+        final DataPage<Review> page = new JSONDataPageTransformer<>(mReviewTransformer)
+                .transform(new JSONObject(payload));
+        final DataPage<Review> streamedPage =
+                new JSONStreamDataPageTransformer<>(mStreamReviewTransformer)
+                        .transform(newJsonReader(payload));
+
+        assertFalse(page.getResults().isEmpty());
+        assertPagesEqual(page, streamedPage);
+        for (int i = 0; i < page.getResults().size(); i++) {
+            assertReviewsEqual(page.getResults().get(i), streamedPage.getResults().get(i));
+        }
+    }
+
+    @Test
+    public void videoLinkList_recordedPayload_matches() throws Exception {
+
+        final String payload = readPayload(MOVIE_VIDEOS);
+
+        final List<VideoLink> videoLinks = new JSONResultListTransformer<>(mVideoLinkTransformer)
+                .transform(new JSONObject(payload));
+        final List<VideoLink> streamedVideoLinks =
+                new JSONStreamResultListTransformer<>(mStreamVideoLinkTransformer)
+                        .transform(newJsonReader(payload));
+
+        assertFalse(videoLinks.isEmpty());
+        assertEquals(videoLinks.size(), streamedVideoLinks.size());
+        for (int i = 0; i < videoLinks.size(); i++) {
+            assertVideoLinksEqual(videoLinks.get(i), streamedVideoLinks.get(i));
+        }
+    }
+
+    @Test
+    public void emptyPage_matches() throws Exception {
+
+        // TMDB echoes the requested page number even when there are no results.
+        final String payload = "{\"page\": 1, \"total_pages\": 0, \"total_results\": 0, " +
+                "\"results\": []}";
+
+        assertPagesEqual(
+                new JSONDataPageTransformer<>(mMovieTransformer)
+                        .transform(new JSONObject(payload)),
+                new JSONStreamDataPageTransformer<>(mStreamMovieTransformer)
+                        .transform(newJsonReader(payload)));
+    }
+
+    @Test
+    public void movie_nullFields_match() throws Exception {
+
+        for (String key : new String[] { "poster_path", "backdrop_path", "overview", "title" }) {
+            assertMoviesMatch(readMovie().put(key, JSONObject.NULL));
+        }
+    }
+
+    @Test
+    public void movie_unknownReleaseDate_matches() throws Exception {
+
+        assertMoviesMatch(readMovie().put("release_date", ""));
+        assertMoviesMatch(readMovie().put("release_date", JSONObject.NULL));
+    }
+
+    @Test
+    public void movie_emptyGenreIDs_match() throws Exception {
+        assertMoviesMatch(readMovie().put("genre_ids", new JSONArray()));
+    }
+
+    @Test
+    public void movie_coercedValues_match() throws Exception {
+
+        assertMoviesMatch(readMovie().put("id", "328111"));
+        assertMoviesMatch(readMovie().put("vote_count", 2612.0));
+        assertMoviesMatch(readMovie().put("popularity", "54.864791"));
+        assertMoviesMatch(readMovie().put("title", 1917));
+    }
+
+    @Test
+    public void movie_missingRequiredKey_bothReject() throws Exception {
+
+        final JSONObject movie = readMovie();
+        final Iterator<String> keys = movie.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            final JSONObject incompleteMovie = readMovie();
+            incompleteMovie.remove(key);
+            assertBothReject(mMovieTransformer, mStreamMovieTransformer,
+                    incompleteMovie.toString());
+        }
+    }
+
+    @Test
+    public void movie_typeMismatch_bothReject() throws Exception {
+
+        assertMoviesRejected(readMovie().put("id", "not a number"));
+        assertMoviesRejected(readMovie().put("id", JSONObject.NULL));
+        assertMoviesRejected(readMovie().put("adult", new JSONArray()));
+        assertMoviesRejected(readMovie().put("genre_ids", 12));
+        assertMoviesRejected(readMovie().put("genre_ids", new JSONArray().put("comedy")));
+        assertMoviesRejected(readMovie().put("vote_average", new JSONObject()));
+        assertMoviesRejected(readMovie().put("release_date", "18/06/2016"));
+        assertMoviesRejected(readMovie().put("release_date", "2015-02-29"));
+    }
+
+    @Test
+    public void review_nullAndMissingFields() throws Exception {
+
+        final JSONObject review = readFirstResult(MOVIE_REVIEWS);
+        review.put("author", JSONObject.NULL);
+        assertReviewsEqual(mReviewTransformer.transform(review),
+                mStreamReviewTransformer.transform(newJsonReader(review.toString())));
+
+        review.remove("content");
+        assertBothReject(mReviewTransformer, mStreamReviewTransformer, review.toString());
+    }
+
+    @Test
+    public void videoLink_invalidFields_bothReject() throws Exception {
+
+        final JSONObject unknownType = readFirstResult(MOVIE_VIDEOS).put("type", "Bloopers");
+        assertBothReject(mVideoLinkTransformer, mStreamVideoLinkTransformer,
+                unknownType.toString());
+
+        final JSONObject invalidSize = readFirstResult(MOVIE_VIDEOS).put("size", "HD");
+        assertBothReject(mVideoLinkTransformer, mStreamVideoLinkTransformer,
+                invalidSize.toString());
+
+        final JSONObject missingKey = readFirstResult(MOVIE_VIDEOS);
+        missingKey.remove("key");
+        assertBothReject(mVideoLinkTransformer, mStreamVideoLinkTransformer,
+                missingKey.toString());
+    }
+
+    @Test
+    public void page_missingRequiredKey_bothReject() throws Exception {
+
+        for (String key : new String[] { "page", "total_pages", "total_results", RESULTS_KEY }) {
+            final JSONObject page = new JSONObject(readPayload(MOVIE_REVIEWS));
+            page.remove(key);
+            assertBothReject(new JSONDataPageTransformer<>(mReviewTransformer),
+                    new JSONStreamDataPageTransformer<>(mStreamReviewTransformer),
+                    page.toString());
+        }
+    }
+
+    private void assertMoviesMatch(final JSONObject movie) throws Exception {
+        assertMoviesEqual(mMovieTransformer.transform(movie),
+                mStreamMovieTransformer.transform(newJsonReader(movie.toString())));
+    }
+
+    private void assertMoviesRejected(final JSONObject movie) {
+        assertBothReject(mMovieTransformer, mStreamMovieTransformer, movie.toString());
+    }
+
+    /*
+     * Assert that both transformers fail the given payload with an exception TMDBMovieClientImpl
+     * reports as a parsing failure.
+     */
+    private static void assertBothReject(final JSONToObjectTransformer<?> transformer,
+                                         final JSONStreamToObjectTransformer<?> streamTransformer,
+                                         final String payload) {
+        try {
+            transformer.transform(new JSONObject(payload));
+            fail("DOM transformer accepted: " + payload);
+        } catch (JSONException | ParseException | IllegalArgumentException ex) {
+            // Expected.
+        }
+        try {
+            streamTransformer.transform(newJsonReader(payload));
+            fail("Stream transformer accepted: " + payload);
+        } catch (IOException | ParseException | IllegalStateException |
+                IllegalArgumentException ex) {
+            // Expected. A NumberFormatException is an IllegalArgumentException.
+        }
+    }
+
+    private static void assertPagesEqual(final DataPage<?> expected, final DataPage<?> actual) {
+
+        assertEquals(expected.getPageNumber(), actual.getPageNumber());
+        assertEquals(expected.getTotalPageCount(), actual.getTotalPageCount());
+        assertEquals(expected.getTotalResultCount(), actual.getTotalResultCount());
+        assertEquals(expected.getResults().size(), actual.getResults().size());
+    }
+
+    private static void assertMoviesEqual(final Movie expected, final Movie actual) {
+
+        assertEquals(expected.getPosterPath(), actual.getPosterPath());
+        assertEquals(expected.isAdult(), actual.isAdult());
+        assertEquals(expected.getOverview(), actual.getOverview());
+        assertEquals(expected.getReleaseEpochDay(), actual.getReleaseEpochDay());
+        assertArrayEquals(expected.getGenreIDs(), actual.getGenreIDs());
+        assertEquals(expected.getID(), actual.getID());
+        assertEquals(expected.getOriginalTitle(), actual.getOriginalTitle());
+        assertEquals(expected.getOriginalLanguageCode(), actual.getOriginalLanguageCode());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getBackdropPath(), actual.getBackdropPath());
+        assertEquals(expected.getPopularity(), actual.getPopularity(), 0);
+        assertEquals(expected.getVoteCount(), actual.getVoteCount());
+        assertEquals(expected.hasVideo(), actual.hasVideo());
+        assertEquals(expected.getAverageVote(), actual.getAverageVote(), 0);
+    }
+
+    private static void assertReviewsEqual(final Review expected, final Review actual) {
+
+        assertEquals(expected.getID(), actual.getID());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getContent(), actual.getContent());
+    }
+
+    private static void assertVideoLinksEqual(final VideoLink expected, final VideoLink actual) {
+
+        assertEquals(expected.getID(), actual.getID());
+        assertEquals(expected.getKey(), actual.getKey());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getSite(), actual.getSite());
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getType(), actual.getType());
+    }
+
+    private static JSONObject readMovie() throws IOException, JSONException {
+        return readFirstResult(MOVIE_POPULAR);
+    }
+
+    private static JSONObject readFirstResult(final String name)
+            throws IOException, JSONException {
+        return new JSONObject(readPayload(name)).getJSONArray(RESULTS_KEY).getJSONObject(0);
+    }
+
+    private static String readPayload(final String name) throws IOException {
+        return Resources.toString(Resources.getResource("tmdb/" + name), Charsets.UTF_8);
+    }
+
+    private static JsonReader newJsonReader(final String payload) {
+        return new JsonReader(new StringReader(payload));
+    }
+}
@@ -0,0 +1,165 @@
+package com.iopho.android.dataAccess.tmdb.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MovieTableTest {
+
+    @Test
+    public void add_fieldsReadBackThroughRow() {
+
+        final MovieTable movieTable = new MovieTable();
+        final List<Movie> movies = new ArrayList<>();
+        movies.add(newMovie(1, genreRange(1, 4)));
+        movies.add(newMovie(2, new long[0]));
+        movies.add(newMovie(3, genreRange(2, 3)));
+
+        movieTable.addAll(movies);
+
+        assertRowsMatch(movies, movieTable);
+    }
+
+    @Test
+    public void add_pastInitialCapacity_growsTable() {
+
+        final MovieTable movieTable = new MovieTable(1);
+        final List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            movies.add(newMovie(i, genreRange(i % 7, 3)));
+        }
+
+        movieTable.addAll(movies);
+
+        assertRowsMatch(movies, movieTable);
+    }
+
+    @Test
+    public void add_moreThan64GenresInOneMovie_widensBitsets() {
+
+        final MovieTable movieTable = new MovieTable();
+        final List<Movie> movies = new ArrayList<>();
+        movies.add(newMovie(1, genreRange(1, 10)));
+        // Widened while its own row is being written.
+        movies.add(newMovie(2, genreRange(1, 140)));
+        movies.add(newMovie(3, new long[] { 5, 70, 139 }));
+
+        movieTable.addAll(movies);
+
+        assertRowsMatch(movies, movieTable);
+    }
+
+    @Test
+    public void add_moreThan64GenresAcrossRows_widensBitsets() {
+
+        // Growing from 2 rows makes widening and growth interleave.
+        final MovieTable movieTable = new MovieTable(2);
+        final List<Movie> movies = new ArrayList<>();
+        movies.add(newMovie(1, genreRange(1, 40)));
+        movies.add(newMovie(2, genreRange(31, 40)));
+        movies.add(newMovie(3, new long[] { 3, 64, 65, 70 }));
+        movies.add(newMovie(4, genreRange(60, 80)));
+
+        movieTable.addAll(movies);
+
+        assertRowsMatch(movies, movieTable);
+    }
+
+    @Test
+    public void clear_thenAdd_reusesTable() {
+
+        final MovieTable movieTable = new MovieTable(2);
+        movieTable.add(newMovie(1, genreRange(1, 100)));
+        movieTable.add(newMovie(2, genreRange(50, 30)));
+        movieTable.add(newMovie(3, genreRange(120, 10)));
+
+        movieTable.clear();
+
+        assertTrue(movieTable.isEmpty());
+        final List<Movie> movies = new ArrayList<>();
+        // No genre bits may be left over from the rows cleared.
+        movies.add(newMovie(4, new long[0]));
+        movies.add(newMovie(5, new long[] { 2 }));
+        movies.add(newMovie(6, genreRange(125, 10)));
+        movies.add(newMovie(7, new long[0]));
+        movieTable.addAll(movies);
+
+        assertRowsMatch(movies, movieTable);
+    }
+
+    @Test
+    public void getGenreIDs_inTableOrderWithoutDuplicates() {
+
+        final MovieTable movieTable = new MovieTable();
+        movieTable.add(newMovie(1, new long[] { 28, 12 }));
+        movieTable.add(newMovie(2, new long[] { 12, 35, 28, 12 }));
+
+        assertArrayEquals(new long[] { 28, 12, 35 }, movieTable.getRow(1).getGenreIDs());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getRow_pastSize_throws() {
+
+        final MovieTable movieTable = new MovieTable();
+        movieTable.add(newMovie(1, new long[0]));
+        movieTable.clear();
+
+        movieTable.getRow(0);
+    }
+
+    /*
+     * Assert that the table holds the given movies, in order. The genre IDs of each movie must be
+     * in the order the table first encounters them.
+     */
+    private static void assertRowsMatch(final List<Movie> movies, final MovieTable movieTable) {
+
+        assertEquals(movies.size(), movieTable.size());
+        for (int i = 0; i < movies.size(); i++) {
+            final Movie expected = movies.get(i);
+            final MovieTable.Row row = movieTable.getRow(i);
+            assertArrayEquals("Row " + i, expected.getGenreIDs(), row.getGenreIDs());
+            assertEquals(expected.getID(), movieTable.getID(i));
+            assertMoviesEqual(expected, row.toMovie());
+        }
+    }
+
+    private static void assertMoviesEqual(final Movie expected, final Movie actual) {
+
+        assertEquals(expected.getPosterPath(), actual.getPosterPath());
+        assertEquals(expected.isAdult(), actual.isAdult());
+        assertEquals(expected.getOverview(), actual.getOverview());
+        assertEquals(expected.getReleaseEpochDay(), actual.getReleaseEpochDay());
+        assertArrayEquals(expected.getGenreIDs(), actual.getGenreIDs());
+        assertEquals(expected.getID(), actual.getID());
+        assertEquals(expected.getOriginalTitle(), actual.getOriginalTitle());
+        assertEquals(expected.getOriginalLanguageCode(), actual.getOriginalLanguageCode());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getBackdropPath(), actual.getBackdropPath());
+        assertEquals(expected.getPopularity(), actual.getPopularity(), 0);
+        assertEquals(expected.getVoteCount(), actual.getVoteCount());
+        assertEquals(expected.hasVideo(), actual.hasVideo());
+        assertEquals(expected.getAverageVote(), actual.getAverageVote(), 0);
+    }
+
+    private static Movie newMovie(final long id, final long[] genreIDs) {
+
+        return new Movie("/poster" + id + ".jpg", id % 2 == 0, "Overview of movie " + id,
+                (id % 3 == 0) ? Movie.UNKNOWN_RELEASE_DATE : 16000 + (int) id, genreIDs, id,
+                "Original title " + id, (id % 2 == 0) ? "en" : "fr", "Title " + id,
+                "/backdrop" + id + ".jpg", id * 1.5, id * 10, id % 3 == 1, id / 10.0);
+    }
+
+    private static long[] genreRange(final long firstGenreID, final int count) {
+
+        final long[] genreIDs = new long[count];
+        for (int i = 0; i < count; i++) {
+            genreIDs[i] = firstGenreID + i;
+        }
+        return genreIDs;
+    }
+}
@@ -0,0 +1,103 @@
+package com.iopho.android.util;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DateHelperTest {
+
+    @Test
+    public void epochDayOf_knownDates() {
+
+        assertEquals(0, DateHelper.epochDayOf(1970, 1, 1));
+        assertEquals(-1, DateHelper.epochDayOf(1969, 12, 31));
+        assertEquals(59, DateHelper.epochDayOf(1970, 3, 1));
+        assertEquals(11016, DateHelper.epochDayOf(2000, 2, 29));
+        assertEquals(17013, DateHelper.epochDayOf(2016, 7, 31));
+        assertEquals(-719528, DateHelper.epochDayOf(0, 1, 1));
+    }
+
+    @Test
+    public void epochDayOf_andGetYear_matchProlepticGregorianCalendar() {
+
+        final GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        calendar.clear();
+        calendar.set(1600, Calendar.JANUARY, 1);
+
+        while (calendar.get(Calendar.YEAR) < 2401) {
+            final int year = calendar.get(Calendar.YEAR);
+            final int epochDay = (int) TimeUnit.MILLISECONDS.toDays(calendar.getTimeInMillis());
+
+            assertEquals(epochDay, DateHelper.epochDayOf(year,
+                    calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH)));
+            assertEquals(year, DateHelper.getYear(epochDay));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @Test
+    public void getYear_aroundYearBoundaries() {
+
+        assertEquals(1969, DateHelper.getYear(-1));
+        assertEquals(1970, DateHelper.getYear(0));
+        assertEquals(2016, DateHelper.getYear(DateHelper.epochDayOf(2016, 1, 1)));
+        assertEquals(2016, DateHelper.getYear(DateHelper.epochDayOf(2016, 2, 29)));
+        assertEquals(2016, DateHelper.getYear(DateHelper.epochDayOf(2016, 12, 31)));
+        assertEquals(-1, DateHelper.getYear(DateHelper.epochDayOf(-1, 12, 31)));
+    }
+
+    @Test
+    public void parseISODate_validDates() throws ParseException {
+
+        assertEquals(0, DateHelper.parseISODate("1970-01-01"));
+        assertEquals(17013, DateHelper.parseISODate("2016-07-31"));
+        assertEquals(11016, DateHelper.parseISODate("2000-02-29"));
+        assertEquals(DateHelper.epochDayOf(2015, 12, 31),
+                DateHelper.parseISODate(new StringBuilder("2015-12-31")));
+    }
+
+    @Test
+    public void parseISODate_malformedText_throws() {
+
+        assertUnparseable("");
+        assertUnparseable("2016-7-31");
+        assertUnparseable("2016-07-31T00:00:00");
+        assertUnparseable("2016/07/31");
+        assertUnparseable("2016-0a-31");
+        assertUnparseable(" 016-07-31");
+    }
+
+    @Test
+    public void parseISODate_nonexistentDates_throws() {
+
+        assertUnparseable("2016-00-10");
+        assertUnparseable("2016-13-10");
+        assertUnparseable("2016-07-00");
+        assertUnparseable("2016-04-31");
+        assertUnparseable("2015-02-29");
+        assertUnparseable("1900-02-29");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void epochDayOf_withInvalidMonth_throws() {
+        DateHelper.epochDayOf(2016, 13, 1);
+    }
+
+    private static void assertUnparseable(final String text) {
+        try {
+            DateHelper.parseISODate(text);
+            fail("Parsed \"" + text + "\".");
+        } catch (ParseException ex) {
+            // Expected.
+        }
+    }
+}
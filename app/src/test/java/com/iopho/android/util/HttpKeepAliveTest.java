@@ -0,0 +1,58 @@
+package com.iopho.android.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HttpKeepAliveTest {
+
+    private Properties mSystemProperties;
+
+    @Before
+    public void setUp() {
+        mSystemProperties = (Properties) System.getProperties().clone();
+        System.clearProperty("http.keepAlive");
+        System.clearProperty("http.maxConnections");
+        System.clearProperty("http.keepAliveDuration");
+    }
+
+    @After
+    public void tearDown() {
+        System.setProperties(mSystemProperties);
+    }
+
+    @Test
+    public void configure_setsPoolProperties() {
+
+        HttpKeepAlive.configure(5, 300000);
+
+        assertEquals("true", System.getProperty("http.keepAlive"));
+        assertEquals("5", System.getProperty("http.maxConnections"));
+        assertEquals("300000", System.getProperty("http.keepAliveDuration"));
+    }
+
+    @Test
+    public void configure_withoutIdleConnections_disablesKeepAlive() {
+
+        HttpKeepAlive.configure(0, 300000);
+
+        assertEquals("false", System.getProperty("http.keepAlive"));
+        assertNull(System.getProperty("http.maxConnections"));
+        assertNull(System.getProperty("http.keepAliveDuration"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configure_withNegativeIdleConnections_throws() {
+        HttpKeepAlive.configure(-1, 300000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configure_withNonPositiveDuration_throws() {
+        HttpKeepAlive.configure(5, 0);
+    }
+}
@@ -0,0 +1,205 @@
+package com.iopho.android.util;
+
+import com.google.common.base.Function;
+import com.google.common.io.ByteStreams;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class HttpResponseCacheTest {
+
+    // Drops the query, as TMDB cache keys drop the API key.
+    private static final Function<URL, String> KEY_FUNCTION = new Function<URL, String>() {
+        @Override
+        public String apply(final URL url) {
+            return url.getProtocol() + "://" + url.getHost() + url.getPath();
+        }
+    };
+
+    private static final String ETAG = "\"0123456789\"";
+    private static final String LAST_MODIFIED = "Sat, 01 Oct 2016 10:00:00 GMT";
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private File mDirectory;
+    private HttpResponseCache mCache;
+    private URL mURL;
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = new File(mTemporaryFolder.getRoot(), "http_cache");
+        mCache = new HttpResponseCache(mDirectory, 1024 * 1024, KEY_FUNCTION);
+        mURL = new URL("http://api.themoviedb.org/3/movie/popular?api_key=abc");
+    }
+
+    @Test
+    public void get_withoutEntry_returnsNull() {
+
+        assertNull(mCache.get(mURL));
+        assertEquals(1, mCache.getRequestCount());
+    }
+
+    @Test
+    public void commit_thenGet_returnsValidatorsAndBody() throws IOException {
+
+        final byte[] body = "{\"page\":1}".getBytes("UTF-8");
+        store(mURL, ETAG, LAST_MODIFIED, body);
+
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+        assertNotNull(entry);
+        assertEquals(ETAG, entry.getETag());
+        assertEquals(LAST_MODIFIED, entry.getLastModified());
+        assertEquals(body.length, entry.getBodyLength());
+        assertArrayEquals(body, readBody(entry));
+        assertEquals(1, mCache.getStoreCount());
+    }
+
+    @Test
+    public void commit_withETagOnly_storesNullLastModified() throws IOException {
+
+        store(mURL, ETAG, null, new byte[] {1, 2, 3});
+
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+        assertNotNull(entry);
+        assertEquals(ETAG, entry.getETag());
+        assertNull(entry.getLastModified());
+        entry.close();
+    }
+
+    @Test
+    public void get_ignoresPartsOfTheURLExcludedFromTheKey() throws IOException {
+
+        store(mURL, ETAG, null, new byte[] {1, 2, 3});
+
+        final HttpResponseCache.Entry entry =
+                mCache.get(new URL("http://api.themoviedb.org/3/movie/popular?api_key=xyz"));
+        assertNotNull(entry);
+        entry.close();
+        assertNull(mCache.get(new URL("http://api.themoviedb.org/3/movie/top_rated")));
+    }
+
+    @Test
+    public void commit_replacesEntryAndItsETag() throws IOException {
+
+        store(mURL, ETAG, null, "old".getBytes("UTF-8"));
+        store(mURL, "\"new\"", null, "new body".getBytes("UTF-8"));
+
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+        assertEquals("\"new\"", entry.getETag());
+        assertArrayEquals("new body".getBytes("UTF-8"), readBody(entry));
+    }
+
+    @Test
+    public void openBody_afterEntryIsReplaced_readsBodyOfItsValidators() throws IOException {
+
+        store(mURL, ETAG, null, "old".getBytes("UTF-8"));
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+
+        store(mURL, "\"new\"", null, "a longer, new body".getBytes("UTF-8"));
+
+        assertEquals(ETAG, entry.getETag());
+        assertArrayEquals("old".getBytes("UTF-8"), readBody(entry));
+    }
+
+    @Test
+    public void openBody_afterEntryIsRemoved_readsBody() throws IOException {
+
+        store(mURL, ETAG, null, "body".getBytes("UTF-8"));
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+
+        mCache.remove(mURL);
+
+        assertArrayEquals("body".getBytes("UTF-8"), readBody(entry));
+        assertNull(mCache.get(mURL));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void openBody_twice_throws() throws IOException {
+
+        store(mURL, ETAG, null, new byte[] {1});
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+        entry.openBody().close();
+        entry.openBody();
+    }
+
+    @Test
+    public void abort_doesNotStoreEntry() throws IOException {
+
+        final HttpResponseCache.Editor editor = mCache.edit(mURL, ETAG, null);
+        ByteStreams.toByteArray(editor.tee(new ByteArrayInputStream(new byte[] {1, 2, 3})));
+        editor.abort();
+
+        assertNull(mCache.get(mURL));
+        assertEquals(0, mCache.getStoreCount());
+        assertEquals(0, mCache.getSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void edit_withoutValidators_throws() throws IOException {
+        mCache.edit(mURL, null, null);
+    }
+
+    @Test
+    public void commit_overMaxSize_evictsLeastRecentlyUsedEntry() throws IOException {
+
+        final URL otherURL = new URL("http://api.themoviedb.org/3/movie/top_rated");
+        mCache = new HttpResponseCache(mDirectory, 1500, KEY_FUNCTION);
+
+        store(mURL, ETAG, null, new byte[1000]);
+        final File[] entryFiles = mDirectory.listFiles();
+        assertEquals(1, entryFiles.length);
+        entryFiles[0].setLastModified(System.currentTimeMillis() - 60000);
+
+        store(otherURL, ETAG, null, new byte[1000]);
+
+        assertNull(mCache.get(mURL));
+        final HttpResponseCache.Entry entry = mCache.get(otherURL);
+        assertNotNull(entry);
+        entry.close();
+    }
+
+    @Test
+    public void onConditionalHit_countsHit() throws IOException {
+
+        store(mURL, ETAG, null, new byte[] {1});
+        final HttpResponseCache.Entry entry = mCache.get(mURL);
+
+        mCache.onConditionalHit(entry);
+        entry.close();
+
+        assertEquals(1, mCache.getConditionalHitCount());
+    }
+
+    private void store(final URL url, final String eTag, final String lastModified,
+                       final byte[] body) throws IOException {
+
+        final HttpResponseCache.Editor editor = mCache.edit(url, eTag, lastModified);
+        final InputStream inputStream = editor.tee(new ByteArrayInputStream(body));
+        assertArrayEquals(body, ByteStreams.toByteArray(inputStream));
+        editor.commit();
+    }
+
+    private static byte[] readBody(final HttpResponseCache.Entry entry) throws IOException {
+
+        final InputStream inputStream = entry.openBody();
+        try {
+            return ByteStreams.toByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
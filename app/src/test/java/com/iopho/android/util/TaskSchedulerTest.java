@@ -0,0 +1,142 @@
+package com.iopho.android.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tasks are submitted without callbacks, which are delivered on the main thread.
+ */
+public class TaskSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    public void errorThrownByTask_doesNotStopWorker() throws InterruptedException {
+
+        final TaskScheduler taskScheduler = new TaskScheduler("test", 1);
+        final CountDownLatch ranLatch = new CountDownLatch(1);
+
+        submit(taskScheduler, TaskScheduler.Priority.VISIBLE, CancellationToken.NONE,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        throw new AssertionError("Task error");
+                    }
+                });
+        submit(taskScheduler, TaskScheduler.Priority.VISIBLE, CancellationToken.NONE,
+                countDown(ranLatch));
+
+        assertTrue(ranLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void queuedTasks_runInPriorityOrder() throws InterruptedException {
+
+        final TaskScheduler taskScheduler = new TaskScheduler("test", 1);
+        final CountDownLatch gate = blockWorker(taskScheduler);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch doneLatch = new CountDownLatch(3);
+
+        submit(taskScheduler, TaskScheduler.Priority.BACKGROUND, CancellationToken.NONE,
+                record(order, "background", doneLatch));
+        submit(taskScheduler, TaskScheduler.Priority.PREFETCH, CancellationToken.NONE,
+                record(order, "prefetch", doneLatch));
+        submit(taskScheduler, TaskScheduler.Priority.VISIBLE, CancellationToken.NONE,
+                record(order, "visible", doneLatch));
+        gate.countDown();
+
+        assertTrue(doneLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(3, order.size());
+        assertEquals("visible", order.get(0));
+        assertEquals("prefetch", order.get(1));
+        assertEquals("background", order.get(2));
+    }
+
+    @Test
+    public void cancelledQueuedTask_doesNotRun() throws InterruptedException {
+
+        final TaskScheduler taskScheduler = new TaskScheduler("test", 1);
+        final CountDownLatch gate = blockWorker(taskScheduler);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch doneLatch = new CountDownLatch(1);
+        final CancellationToken cancellationToken = new CancellationToken();
+
+        submit(taskScheduler, TaskScheduler.Priority.VISIBLE, cancellationToken,
+                record(order, "cancelled", new CountDownLatch(1)));
+        submit(taskScheduler, TaskScheduler.Priority.VISIBLE, CancellationToken.NONE,
+                record(order, "kept", doneLatch));
+        cancellationToken.cancel();
+        gate.countDown();
+
+        assertTrue(doneLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("kept"), order);
+    }
+
+    /*
+     * Occupy the worker of a single threaded scheduler until the returned latch is counted down,
+     * so that tasks submitted meanwhile are queued.
+     */
+    private static CountDownLatch blockWorker(final TaskScheduler taskScheduler)
+            throws InterruptedException {
+
+        final CountDownLatch startedLatch = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        submit(taskScheduler, TaskScheduler.Priority.VISIBLE, CancellationToken.NONE,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        startedLatch.countDown();
+                        try {
+                            gate.await();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+        assertTrue(startedLatch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return gate;
+    }
+
+    private static void submit(final TaskScheduler taskScheduler,
+                               final @TaskScheduler.Priority.Def int priority,
+                               final CancellationToken cancellationToken,
+                               final Runnable runnable) {
+
+        taskScheduler.submit(priority, cancellationToken, new Callable<Void>() {
+            @Override
+            public Void call() {
+                runnable.run();
+                return null;
+            }
+        }, null);
+    }
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+    private static Runnable record(final List<String> order, final String name,
+                                   final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+                latch.countDown();
+            }
+        };
+    }
+}
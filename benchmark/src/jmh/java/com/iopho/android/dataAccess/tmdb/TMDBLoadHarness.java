@@ -0,0 +1,574 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.iopho.android.dataAccess.DataAccessMetrics;
+import com.iopho.android.dataAccess.exception.DataAccessParsingException;
+import com.iopho.android.dataAccess.exception.DataAccessRequestException;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+import com.iopho.android.dataAccess.tmdb.model.MovieDetails;
+import com.iopho.android.util.HttpKeepAlive;
+import com.iopho.android.util.HttpStatusException;
+import com.iopho.android.util.HttpURLDownloader;
+import com.iopho.android.util.Tracer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TMDBLoadHarness drives the movie client end to end ({@link TMDBMovieClientImpl},
+ * {@link TMDBRequestExecutor} and {@link HttpURLDownloader}) against a local
+ * {@link TMDBStubServer}, and reports the latency and throughput callers see.
+ *
+ * The client is built as {@link TMDBClientFactory} builds it, from the app's TMDB configuration
+ * (the file named by the "tmdb.config" system property), without the result cache and HTTP response
+ * cache so that every call reaches the server. Options are passed as key=value arguments:
+ * <ul>
+ *     <li>Upper case keys override a TMDB configuration property, e.g.
+ *         RATE_LIMIT_PERMITS_PER_SECOND=1000 to measure transport rather than the rate limit.</li>
+ *     <li>scenario: "load" (default) or "bulk".</li>
+ *     <li>latencyMillis, jitterMillis, bandwidthBytesPerSecond, errorRate, throttleRate and
+ *         retryAfterSeconds: the faults injected by the stub server (see {@link TMDBStubServer}).
+ *         Defaults to 50ms latency with up to 20ms jitter, and no other faults.</li>
+ * </ul>
+ *
+ * The load scenario runs <b>callers</b> (default 8) concurrent callers, each calling the client in
+ * a loop over a mix of popular and top rated pages, reviews, videos and movie details, for
+ * <b>warmupSeconds</b> (default 2) and then <b>durationSeconds</b> (default 10). It reports the
+ * throughput and the p50/p95/p99 latency of successful calls, per call and overall, and counts
+ * failures by exception type. The client's own {@link DataAccessMetrics} follow, splitting request
+ * latency into phases. With <b>trace</b> set to a file path, every call is traced (see
+ * {@link Tracer}) and the most recent spans are written to that file in the Chrome trace-event
+ * format.
+ *
+ * The bulk scenario fetches popular pages 1 to <b>pages</b> (default 40) with a
+ * {@link TMDBBulkPageFetcher} once per worker count in <b>workers</b> (default 1,2,4,8,16), and
+ * reports how throughput scales with the worker count.
+ */
+public class TMDBLoadHarness {
+
+    private static final String API_KEY = "stub";
+
+    private static final Set<String> IDEMPOTENT_ENDPOINTS = ImmutableSet.of(
+            TMDBURLBuilder.Endpoint.CONFIGURATION,
+            TMDBURLBuilder.Endpoint.MOVIES_POPULAR,
+            TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED,
+            TMDBURLBuilder.Endpoint.MOVIE,
+            TMDBURLBuilder.Endpoint.MOVIE_REVIEWS,
+            TMDBURLBuilder.Endpoint.MOVIE_VIDEOS);
+
+    // Movie IDs of the recorded popular movies page, cycled through by the record endpoints.
+    private static final long[] MOVIE_IDS = {297761, 127380, 324668, 188927, 328111, 271110};
+    private static final int PAGE_COUNT = 10;
+    private static final int TRACER_CAPACITY = 65536;
+
+    /*
+     * The calls made by the load scenario, in the order each caller cycles through them.
+     */
+    private enum Call {
+
+        POPULAR {
+            @Override
+            void call(final TMDBMovieClient client, final int iteration)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                client.getPopularMovies(1 + iteration % PAGE_COUNT);
+            }
+        },
+        TOP_RATED {
+            @Override
+            void call(final TMDBMovieClient client, final int iteration)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                client.getTopRatedMovies(1 + iteration % PAGE_COUNT);
+            }
+        },
+        REVIEWS {
+            @Override
+            void call(final TMDBMovieClient client, final int iteration)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                client.getMovieReviews(MOVIE_IDS[iteration % MOVIE_IDS.length], 1);
+            }
+        },
+        VIDEOS {
+            @Override
+            void call(final TMDBMovieClient client, final int iteration)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                client.getMovieVideoLinks(MOVIE_IDS[iteration % MOVIE_IDS.length]);
+            }
+        },
+        DETAILS {
+            @Override
+            void call(final TMDBMovieClient client, final int iteration)
+                    throws DataAccessRequestException, DataAccessParsingException {
+                client.getMovieDetails(MOVIE_IDS[iteration % MOVIE_IDS.length],
+                        MovieDetails.Part.REVIEWS, MovieDetails.Part.VIDEOS);
+            }
+        };
+
+        abstract void call(TMDBMovieClient client, int iteration)
+                throws DataAccessRequestException, DataAccessParsingException;
+    }
+
+    private final Map<String, String> mOptions;
+    private final Properties mTMDBProperties;
+    private final TMDBStubServer mStubServer;
+
+    private TMDBLoadHarness(final Map<String, String> options,
+                            final Properties tmdbProperties,
+                            final TMDBStubServer stubServer) {
+
+        this.mOptions = options;
+        this.mTMDBProperties = tmdbProperties;
+        this.mStubServer = stubServer;
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+
+        final Map<String, String> options = new TreeMap<>();
+        final Properties tmdbProperties = readTMDBProperties();
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            final String key = arg.substring(0, separator);
+            final String value = arg.substring(separator + 1);
+            if (key.equals(key.toUpperCase())) {
+                tmdbProperties.setProperty(key, value);
+            } else {
+                options.put(key, value);
+            }
+        }
+
+        final TMDBStubServer stubServer = new TMDBStubServer();
+        stubServer.start();
+        try {
+            final TMDBLoadHarness harness =
+                    new TMDBLoadHarness(options, tmdbProperties, stubServer);
+            harness.configureStubServer();
+            // As TMDBClientFactory does, once and before any request.
+            HttpKeepAlive.configure(harness.getIntProperty("HTTP_MAX_IDLE_CONNECTIONS"),
+                    harness.getLongProperty("HTTP_KEEP_ALIVE_DURATION"));
+
+            final String scenario = harness.getOption("scenario", "load");
+            switch (scenario) {
+                case "load":
+                    harness.runLoad();
+                    break;
+                case "bulk":
+                    harness.runBulk();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown scenario: " + scenario);
+            }
+            System.out.println();
+            System.out.println("Stub server: " + stubServer);
+        } finally {
+            stubServer.stop();
+        }
+    }
+
+    private void configureStubServer() {
+
+        mStubServer.setLatency(getLongOption("latencyMillis", 50),
+                getLongOption("jitterMillis", 20));
+        mStubServer.setBandwidth(getLongOption("bandwidthBytesPerSecond", 0));
+        mStubServer.setErrorRate(getDoubleOption("errorRate", 0));
+        mStubServer.setThrottleRate(getDoubleOption("throttleRate", 0),
+                (int) getLongOption("retryAfterSeconds", 1));
+    }
+
+    private void runLoad() throws IOException, InterruptedException {
+
+        final int callerCount = (int) getLongOption("callers", 8);
+        final long warmupNanos = TimeUnit.SECONDS.toNanos(getLongOption("warmupSeconds", 2));
+        final long durationNanos = TimeUnit.SECONDS.toNanos(getLongOption("durationSeconds", 10));
+
+        final String traceFileName = getOption("trace", null);
+        final Tracer tracer = (traceFileName != null) ? new Tracer(TRACER_CAPACITY) : null;
+
+        final DataAccessMetrics metrics = new DataAccessMetrics();
+        final TMDBRequestExecutor requestExecutor = createRequestExecutor(metrics);
+        final TMDBMovieClient movieClient = createMovieClient(requestExecutor);
+
+        printHeader("Load: " + callerCount + " callers, " +
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s");
+
+        final long startNanos = System.nanoTime();
+        final long measureStartNanos = startNanos + warmupNanos;
+        final long endNanos = measureStartNanos + durationNanos;
+
+        final List<Caller> callers = new ArrayList<>();
+        final CountDownLatch doneLatch = new CountDownLatch(callerCount);
+        for (int i = 0; i < callerCount; i++) {
+            final Caller caller =
+                    new Caller(movieClient, tracer, i, measureStartNanos, endNanos);
+            callers.add(caller);
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        caller.run();
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }, "TMDBLoadHarness-caller-" + i);
+            thread.start();
+        }
+        doneLatch.await();
+
+        final double measuredSeconds = durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        final Latencies allLatencies = new Latencies();
+        final Map<String, Long> failureCounts = new TreeMap<>();
+        long failureCount = 0;
+
+        System.out.println(String.format("%-10s %10s %10s %10s %10s %10s %10s %10s",
+                "call", "ok", "failed", "ok/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Call call : Call.values()) {
+            final Latencies latencies = new Latencies();
+            long callFailureCount = 0;
+            for (Caller caller : callers) {
+                latencies.addAll(caller.mLatencies.get(call.ordinal()));
+                callFailureCount += caller.mFailureCounts[call.ordinal()];
+            }
+            printLatencyRow(call.name().toLowerCase(), latencies, callFailureCount,
+                    measuredSeconds);
+            allLatencies.addAll(latencies);
+            failureCount += callFailureCount;
+        }
+        printLatencyRow("all", allLatencies, failureCount, measuredSeconds);
+
+        for (Caller caller : callers) {
+            for (Map.Entry<String, Long> entry : caller.mFailureTypeCounts.entrySet()) {
+                final Long count = failureCounts.get(entry.getKey());
+                failureCounts.put(entry.getKey(),
+                        (count != null ? count : 0) + entry.getValue());
+            }
+        }
+        if (!failureCounts.isEmpty()) {
+            System.out.println();
+            System.out.println("Failures by type:");
+            for (Map.Entry<String, Long> entry : failureCounts.entrySet()) {
+                System.out.println(String.format("  %8d  %s", entry.getValue(), entry.getKey()));
+            }
+        }
+
+        printClientStats(requestExecutor);
+
+        // Includes the warmup.
+        System.out.println();
+        System.out.println("DataAccessMetrics:");
+        final PrintWriter writer = new PrintWriter(System.out);
+        metrics.snapshot().dump("  ", writer);
+        writer.flush();
+
+        if (tracer != null) {
+            tracer.writeChromeTrace(new File(traceFileName));
+            System.out.println();
+            System.out.println("Trace written to " + traceFileName + ": " + tracer);
+        }
+    }
+
+    private void runBulk() throws InterruptedException {
+
+        final int pageCount = (int) getLongOption("pages", 40);
+        final List<Integer> workerCounts = new ArrayList<>();
+        for (String workerCount : Splitter.on(',').trimResults().split(
+                getOption("workers", "1,2,4,8,16"))) {
+            workerCounts.add(Integer.parseInt(workerCount));
+        }
+
+        printHeader("Bulk: popular pages 1-" + pageCount);
+        System.out.println(String.format("%8s %10s %10s %10s %10s",
+                "workers", "pages", "failed", "seconds", "pages/s"));
+
+        for (int workerCount : workerCounts) {
+            // A new client per run, so that no rate limiter credit carries over between runs.
+            final TMDBRequestExecutor requestExecutor =
+                    createRequestExecutor(new DataAccessMetrics());
+            final ExecutorService executorService = Executors.newFixedThreadPool(workerCount);
+            try {
+                final TMDBBulkPageFetcher bulkPageFetcher = new TMDBBulkPageFetcher(
+                        createMovieClient(requestExecutor), executorService, workerCount);
+
+                final long startNanos = System.nanoTime();
+                final TMDBBulkPageFetcher.Result<Movie> result =
+                        bulkPageFetcher.getPopularMovies(1, pageCount);
+                final double seconds = (System.nanoTime() - startNanos) /
+                        (double) TimeUnit.SECONDS.toNanos(1);
+
+                System.out.println(String.format("%8d %10d %10d %10.2f %10.1f",
+                        workerCount, result.getPages().size(), result.getFailures().size(),
+                        seconds, result.getPages().size() / seconds));
+            } finally {
+                executorService.shutdown();
+            }
+        }
+    }
+
+    private TMDBRequestExecutor createRequestExecutor(final DataAccessMetrics metrics) {
+
+        final HttpURLDownloader httpURLDownloader = new HttpURLDownloader(
+                getIntProperty("HTTP_READ_TIMEOUT"), getIntProperty("HTTP_CONNECT_TIMEOUT"),
+                getBooleanProperty("HTTP_COMPRESSION_ENABLED"));
+        httpURLDownloader.addListener(metrics);
+
+        return new TMDBRequestExecutor(httpURLDownloader,
+                new TMDBRateLimiter(
+                        getDoubleProperty("RATE_LIMIT_PERMITS_PER_SECOND"),
+                        getIntProperty("RATE_LIMIT_BURST")),
+                new TMDBRetryPolicy(
+                        getIntProperty("RETRY_MAX_ATTEMPTS"),
+                        getLongProperty("RETRY_BASE_BACKOFF"),
+                        getLongProperty("RETRY_MAX_BACKOFF"),
+                        getLongProperty("RETRY_DEADLINE"),
+                        IDEMPOTENT_ENDPOINTS),
+                new TMDBCircuitBreaker(
+                        getIntProperty("CIRCUIT_BREAKER_FAILURE_THRESHOLD"),
+                        getLongProperty("CIRCUIT_BREAKER_OPEN_DURATION")),
+                metrics);
+    }
+
+    private TMDBMovieClient createMovieClient(final TMDBRequestExecutor requestExecutor) {
+        return new TMDBMovieClientImpl(mStubServer.getBaseURL(), API_KEY, requestExecutor,
+                getBooleanProperty("JSON_STREAMING_ENABLED"));
+    }
+
+    private void printHeader(final String title) {
+
+        System.out.println(title);
+        System.out.println(String.format(
+                "Stub faults: latency=%sms+%sms bandwidth=%sB/s errorRate=%s throttleRate=%s",
+                getOption("latencyMillis", "50"), getOption("jitterMillis", "20"),
+                getOption("bandwidthBytesPerSecond", "unlimited "),
+                getOption("errorRate", "0"), getOption("throttleRate", "0")));
+        System.out.println(String.format(
+                "Client: rateLimit=%s/s burst=%s retries=%s compression=%s streaming=%s",
+                getDoubleProperty("RATE_LIMIT_PERMITS_PER_SECOND"),
+                getIntProperty("RATE_LIMIT_BURST"), getIntProperty("RETRY_MAX_ATTEMPTS") - 1,
+                getBooleanProperty("HTTP_COMPRESSION_ENABLED"),
+                getBooleanProperty("JSON_STREAMING_ENABLED")));
+        System.out.println();
+    }
+
+    private static void printLatencyRow(final String name, final Latencies latencies,
+                                        final long failureCount, final double seconds) {
+
+        System.out.println(String.format("%-10s %10d %10d %10.1f %10.1f %10.1f %10.1f %10.1f",
+                name, latencies.size(), failureCount, latencies.size() / seconds,
+                latencies.getPercentileMillis(50), latencies.getPercentileMillis(95),
+                latencies.getPercentileMillis(99), latencies.getPercentileMillis(100)));
+    }
+
+    private static void printClientStats(final TMDBRequestExecutor requestExecutor) {
+
+        System.out.println();
+        System.out.println("Retries: " + requestExecutor.getRetryCount());
+        System.out.println("Rate limiter: " + requestExecutor.getRateLimiter());
+    }
+
+    private String getOption(final String key, final String defaultValue) {
+        final String value = mOptions.get(key);
+        return (value != null) ? value : defaultValue;
+    }
+
+    private long getLongOption(final String key, final long defaultValue) {
+        return Long.parseLong(getOption(key, String.valueOf(defaultValue)));
+    }
+
+    private double getDoubleOption(final String key, final double defaultValue) {
+        return Double.parseDouble(getOption(key, String.valueOf(defaultValue)));
+    }
+
+    private String getProperty(final String key) {
+
+        final String value = mTMDBProperties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing TMDB configuration property: " + key);
+        }
+        return value.trim();
+    }
+
+    private int getIntProperty(final String key) {
+        return Integer.parseInt(getProperty(key));
+    }
+
+    private long getLongProperty(final String key) {
+        return Long.parseLong(getProperty(key));
+    }
+
+    private double getDoubleProperty(final String key) {
+        return Double.parseDouble(getProperty(key));
+    }
+
+    private boolean getBooleanProperty(final String key) {
+        return Boolean.parseBoolean(getProperty(key));
+    }
+
+    private static Properties readTMDBProperties() throws IOException {
+
+        final String fileName = System.getProperty("tmdb.config");
+        if (fileName == null) {
+            throw new IllegalStateException("The tmdb.config system property must name the " +
+                    "TMDB configuration file (app/src/main/res/raw/tmdb_config.properties).");
+        }
+
+        final Properties properties = new Properties();
+        final InputStream in = new FileInputStream(fileName);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        return properties;
+    }
+
+    /*
+     * A Caller calls the movie client in a loop, cycling through each Call, and records the
+     * latency of the calls started within the measured window.
+     */
+    private static class Caller implements Runnable {
+
+        private final TMDBMovieClient mMovieClient;
+        private final Tracer mTracer;
+        private final int mFirstCall;
+        private final long mMeasureStartNanos;
+        private final long mEndNanos;
+
+        private final List<Latencies> mLatencies;
+        private final long[] mFailureCounts;
+        private final Map<String, Long> mFailureTypeCounts;
+
+        Caller(final TMDBMovieClient movieClient, final Tracer tracer, final int firstCall,
+               final long measureStartNanos, final long endNanos) {
+
+            this.mMovieClient = movieClient;
+            this.mTracer = tracer;
+            this.mFirstCall = firstCall;
+            this.mMeasureStartNanos = measureStartNanos;
+            this.mEndNanos = endNanos;
+
+            this.mLatencies = new ArrayList<>();
+            for (int i = 0; i < Call.values().length; i++) {
+                mLatencies.add(new Latencies());
+            }
+            this.mFailureCounts = new long[Call.values().length];
+            this.mFailureTypeCounts = new TreeMap<>();
+        }
+
+        @Override
+        public void run() {
+
+            final Call[] calls = Call.values();
+            // Callers start at different calls so that the mix is spread evenly over time.
+            for (int i = mFirstCall; ; i++) {
+                final long startNanos = System.nanoTime();
+                if (startNanos >= mEndNanos) {
+                    return;
+                }
+
+                final Call call = calls[i % calls.length];
+                final Tracer.Span traceSpan = (mTracer != null) ?
+                        mTracer.startTrace(call.name().toLowerCase()) : Tracer.Span.NONE;
+                final Tracer.Span previousSpan = Tracer.setCurrentSpan(traceSpan);
+                Exception failure = null;
+                try {
+                    call.call(mMovieClient, i / calls.length);
+                } catch (final DataAccessRequestException | DataAccessParsingException |
+                        RuntimeException ex) {
+                    failure = ex;
+                    traceSpan.putArg("error", getFailureType(ex));
+                } finally {
+                    Tracer.setCurrentSpan(previousSpan);
+                    traceSpan.end();
+                }
+
+                if (startNanos < mMeasureStartNanos) {
+                    continue;
+                }
+                if (failure == null) {
+                    mLatencies.get(call.ordinal()).add(System.nanoTime() - startNanos);
+                } else {
+                    mFailureCounts[call.ordinal()]++;
+                    final String failureType = getFailureType(failure);
+                    final Long count = mFailureTypeCounts.get(failureType);
+                    mFailureTypeCounts.put(failureType, (count != null ? count : 0) + 1);
+                }
+            }
+        }
+
+        private static String getFailureType(final Exception failure) {
+
+            final StringBuilder failureType = new StringBuilder(
+                    failure.getClass().getSimpleName());
+            final Throwable cause = failure.getCause();
+            if (cause != null) {
+                failureType.append(" <- ").append(cause.getClass().getSimpleName());
+                if (cause instanceof HttpStatusException) {
+                    failureType.append(' ')
+                            .append(((HttpStatusException) cause).getResponseCode());
+                }
+            }
+            return failureType.toString();
+        }
+    }
+
+    /*
+     * A growable list of latencies, in nanoseconds.
+     */
+    private static class Latencies {
+
+        private long[] mNanos = new long[1024];
+        private int mSize = 0;
+        private boolean mIsSorted = true;
+
+        void add(final long nanos) {
+
+            if (mSize == mNanos.length) {
+                mNanos = Arrays.copyOf(mNanos, mSize * 2);
+            }
+            mNanos[mSize++] = nanos;
+            mIsSorted = false;
+        }
+
+        void addAll(final Latencies latencies) {
+            for (int i = 0; i < latencies.mSize; i++) {
+                add(latencies.mNanos[i]);
+            }
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        /*
+         * The nearest-rank percentile, or NaN if no latency was recorded.
+         */
+        double getPercentileMillis(final double percentile) {
+
+            if (mSize == 0) {
+                return Double.NaN;
+            }
+            if (!mIsSorted) {
+                Arrays.sort(mNanos, 0, mSize);
+                mIsSorted = true;
+            }
+            final int rank = (int) Math.ceil(percentile / 100 * mSize);
+            return mNanos[Math.max(rank, 1) - 1] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
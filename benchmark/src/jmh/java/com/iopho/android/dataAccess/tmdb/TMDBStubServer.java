@@ -0,0 +1,562 @@
+package com.iopho.android.dataAccess.tmdb;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.io.Resources;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A TMDBStubServer is an embeddable local HTTP server standing in for the TMDB API, so that the
+ * behaviour of the movie client can be measured reproducibly and without the network.
+ *
+ * It replays the recorded TMDB responses under the tmdb/ resource directory for every
+ * {@link TMDBURLBuilder.Endpoint}, at {@link #getBaseURL()}. Responses are adjusted to the request:
+ * list pages carry the requested page number, records carry the requested ID and movies carry the
+ * resources requested with {@link TMDBURLBuilder.QueryParamKey#APPEND_TO_RESPONSE}. Like TMDB, the
+ * server honours gzip compression and revalidates responses by ETag.
+ *
+ * Faults can be injected, and changed while the server runs:
+ * <ul>
+ *     <li>A latency (plus random jitter) before every response.</li>
+ *     <li>A bandwidth cap on each response body.</li>
+ *     <li>An error rate: the fraction of requests failed with 500 (Internal Server Error).</li>
+ *     <li>A throttle rate: the fraction of requests refused with 429 (Too Many Requests) and a
+ *         Retry-After header, as TMDB does once the request quota is exceeded.</li>
+ * </ul>
+ *
+ * This class is thread safe.
+ */
+public class TMDBStubServer {
+
+    private static final String API_PATH = "/3/";
+    private static final String API_KEY_QUERY_PARAM = "api_key";
+
+    private static final Pattern MOVIE_LIST_PATH =
+            Pattern.compile("movie/(popular|top_rated)");
+    private static final Pattern MOVIE_PATH = Pattern.compile("movie/(\\d+)");
+    private static final Pattern MOVIE_REVIEWS_PATH = Pattern.compile("movie/(\\d+)/reviews");
+    private static final Pattern MOVIE_VIDEOS_PATH = Pattern.compile("movie/(\\d+)/videos");
+
+    private static final int MAX_PAGE_NUMBER = 1000;
+    private static final int BANDWIDTH_CHUNK_SIZE = 4096;
+
+    private static final String RESPONSE_NOT_FOUND = buildStatusResponse(
+            34, "The resource you requested could not be found.");
+    private static final String RESPONSE_INVALID_API_KEY = buildStatusResponse(
+            7, "Invalid API key: You must be granted a valid key.");
+    private static final String RESPONSE_THROTTLED = buildStatusResponse(
+            25, "Your request count is over the allowed limit of 40.");
+    private static final String RESPONSE_INTERNAL_ERROR = buildStatusResponse(
+            11, "Internal error: Something went wrong, contact TMDb.");
+    private static final String RESPONSE_INVALID_PAGE =
+            "{\"errors\":[\"page must be less than or equal to 1000\"]}";
+
+    private final HttpServer mHttpServer;
+    private final ExecutorService mExecutorService;
+
+    private final JSONObject mConfiguration;
+    private final JSONObject mMoviePage;
+    private final JSONObject mMovie;
+    private final JSONObject mReviewPage;
+    private final JSONObject mVideoList;
+
+    // Response bodies (identity and gzip encoded) by the request path and query they answer.
+    private final ConcurrentMap<String, Body> mBodies;
+
+    private volatile long mLatencyMillis;
+    private volatile long mLatencyJitterMillis;
+    private volatile long mBandwidthBytesPerSecond;
+    private volatile double mErrorRate;
+    private volatile double mThrottleRate;
+    private volatile int mRetryAfterSeconds;
+
+    private final ConcurrentMap<String, AtomicLong> mRequestCounts;
+    private final AtomicLong mErrorCount;
+    private final AtomicLong mThrottledCount;
+    private final AtomicLong mNotModifiedCount;
+    private final AtomicLong mBytesSent;
+
+    /**
+     * Construct a new TMDBStubServer bound to an ephemeral port of the loopback interface. The
+     * server is started with {@link #start()}. No faults are injected until configured.
+     *
+     * @throws IOException when failing to read the recorded responses or to bind the server.
+     */
+    public TMDBStubServer() throws IOException {
+
+        try {
+            this.mConfiguration = readRecording("configuration.json");
+            this.mMoviePage = readRecording("movie_popular.json");
+            this.mMovie = readRecording("movie.json");
+            this.mReviewPage = readRecording("movie_reviews.json");
+            this.mVideoList = readRecording("movie_videos.json");
+        } catch (final JSONException ex) {
+            throw new IOException("Failed to read recorded responses.", ex);
+        }
+
+        this.mBodies = new ConcurrentHashMap<>();
+        this.mRequestCounts = new ConcurrentHashMap<>();
+        this.mErrorCount = new AtomicLong();
+        this.mThrottledCount = new AtomicLong();
+        this.mNotModifiedCount = new AtomicLong();
+        this.mBytesSent = new AtomicLong();
+        this.mRetryAfterSeconds = 1;
+
+        // The server writes the headers and the body of a response separately. Without TCP_NODELAY
+        // the body waits on the client's delayed ACK of the headers, adding ~40ms to every call.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        this.mHttpServer = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.mHttpServer.createContext(API_PATH, new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    TMDBStubServer.this.handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        // Requests are served concurrently, so that injected latency does not serialize them.
+        this.mExecutorService = Executors.newCachedThreadPool();
+        this.mHttpServer.setExecutor(mExecutorService);
+    }
+
+    /**
+     * Start serving requests.
+     */
+    public void start() {
+        mHttpServer.start();
+    }
+
+    /**
+     * Stop serving requests, without waiting for exchanges in progress.
+     */
+    public void stop() {
+        mHttpServer.stop(0);
+        mExecutorService.shutdownNow();
+    }
+
+    /**
+     * @return the base URL of the stub TMDB API, to construct clients with in place of the TMDB
+     * base URL.
+     */
+    public String getBaseURL() {
+        final InetSocketAddress address = mHttpServer.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort() +
+                API_PATH;
+    }
+
+    /**
+     * Delay every response.
+     *
+     * @param latencyMillis the delay before responding, in milliseconds. Must be non-negative.
+     * @param jitterMillis the maximum random delay added to <b>latencyMillis</b>, in milliseconds.
+     *                     Must be non-negative.
+     */
+    public void setLatency(final long latencyMillis, final long jitterMillis) {
+
+        Preconditions.checkArgument(latencyMillis >= 0, "latencyMillis must be non-negative.");
+        Preconditions.checkArgument(jitterMillis >= 0, "jitterMillis must be non-negative.");
+
+        mLatencyMillis = latencyMillis;
+        mLatencyJitterMillis = jitterMillis;
+    }
+
+    /**
+     * Cap the rate at which each response body is sent.
+     *
+     * @param bytesPerSecond the maximum number of bytes sent per second per response. Must be
+     *                       non-negative. 0 removes the cap.
+     */
+    public void setBandwidth(final long bytesPerSecond) {
+
+        Preconditions.checkArgument(bytesPerSecond >= 0, "bytesPerSecond must be non-negative.");
+
+        mBandwidthBytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Fail a fraction of requests with 500 (Internal Server Error).
+     *
+     * @param errorRate the fraction of requests to fail. Must be in range: [0, 1].
+     */
+    public void setErrorRate(final double errorRate) {
+
+        Preconditions.checkArgument(errorRate >= 0 && errorRate <= 1,
+                "errorRate must be in range [0, 1].");
+
+        mErrorRate = errorRate;
+    }
+
+    /**
+     * Refuse a fraction of requests with 429 (Too Many Requests).
+     *
+     * @param throttleRate the fraction of requests to refuse. Must be in range: [0, 1].
+     * @param retryAfterSeconds the delay requested by the Retry-After header of refusals, in
+     *                          seconds. Must be non-negative.
+     */
+    public void setThrottleRate(final double throttleRate, final int retryAfterSeconds) {
+
+        Preconditions.checkArgument(throttleRate >= 0 && throttleRate <= 1,
+                "throttleRate must be in range [0, 1].");
+        Preconditions.checkArgument(retryAfterSeconds >= 0,
+                "retryAfterSeconds must be non-negative.");
+
+        mThrottleRate = throttleRate;
+        mRetryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return the number of requests received per {@link TMDBURLBuilder.Endpoint}, including those
+     * failed or refused. Requests for unknown resources are counted under "unknown".
+     */
+    public Map<String, Long> getRequestCounts() {
+
+        final Map<String, Long> requestCounts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> requestCount : mRequestCounts.entrySet()) {
+            requestCounts.put(requestCount.getKey(), requestCount.getValue().get());
+        }
+        return requestCounts;
+    }
+
+    /**
+     * @return the number of requests failed with 500 (Internal Server Error).
+     */
+    public long getErrorCount() {
+        return mErrorCount.get();
+    }
+
+    /**
+     * @return the number of requests refused with 429 (Too Many Requests).
+     */
+    public long getThrottledCount() {
+        return mThrottledCount.get();
+    }
+
+    /**
+     * @return the number of requests answered with 304 (Not Modified).
+     */
+    public long getNotModifiedCount() {
+        return mNotModifiedCount.get();
+    }
+
+    /**
+     * @return the number of response body bytes sent, as encoded on the wire.
+     */
+    public long getBytesSent() {
+        return mBytesSent.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[ BaseURL=" + getBaseURL() +
+                ", RequestCounts=" + getRequestCounts() +
+                ", ErrorCount=" + mErrorCount.get() +
+                ", ThrottledCount=" + mThrottledCount.get() +
+                ", NotModifiedCount=" + mNotModifiedCount.get() +
+                ", BytesSent=" + mBytesSent.get() +
+                " ]";
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+
+        final String path = exchange.getRequestURI().getPath().substring(API_PATH.length());
+        final Map<String, String> queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        final String endpoint = getEndpoint(path);
+        countRequest((endpoint != null) ? endpoint : "unknown");
+
+        sleepLatency();
+
+        if (endpoint == null) {
+            sendError(exchange, 404, RESPONSE_NOT_FOUND);
+            return;
+        }
+        if (!queryParams.containsKey(API_KEY_QUERY_PARAM)) {
+            sendError(exchange, 401, RESPONSE_INVALID_API_KEY);
+            return;
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < mThrottleRate) {
+            mThrottledCount.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(mRetryAfterSeconds));
+            sendError(exchange, 429, RESPONSE_THROTTLED);
+            return;
+        }
+        if (random.nextDouble() < mErrorRate) {
+            mErrorCount.incrementAndGet();
+            sendError(exchange, 500, RESPONSE_INTERNAL_ERROR);
+            return;
+        }
+
+        final Body body;
+        try {
+            body = getBody(endpoint, path, queryParams);
+        } catch (final NumberFormatException ex) {
+            sendError(exchange, 422, RESPONSE_INVALID_PAGE);
+            return;
+        } catch (final JSONException ex) {
+            throw new IOException("Failed to build response.", ex);
+        }
+        if (body == null) {
+            sendError(exchange, 422, RESPONSE_INVALID_PAGE);
+            return;
+        }
+
+        final Headers responseHeaders = exchange.getResponseHeaders();
+        responseHeaders.set("Content-Type", "application/json;charset=utf-8");
+        responseHeaders.set("ETag", body.mETag);
+        responseHeaders.set("Cache-Control", "public, max-age=0");
+
+        if (body.mETag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            mNotModifiedCount.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        final boolean isGzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        if (isGzip) {
+            responseHeaders.set("Content-Encoding", "gzip");
+        }
+        send(exchange, 200, isGzip ? body.mGzipBytes : body.mBytes);
+    }
+
+    private Body getBody(final @TMDBURLBuilder.Endpoint.Def String endpoint, final String path,
+                         final Map<String, String> queryParams) throws JSONException {
+
+        final String page = queryParams.get(TMDBURLBuilder.QueryParamKey.PAGE);
+        final String appendToResponse =
+                queryParams.get(TMDBURLBuilder.QueryParamKey.APPEND_TO_RESPONSE);
+        final String bodyKey = path + "|" + page + "|" + appendToResponse;
+
+        final Body cachedBody = mBodies.get(bodyKey);
+        if (cachedBody != null) {
+            return cachedBody;
+        }
+
+        final int pageNumber = (page != null) ? Integer.parseInt(page) : 1;
+        if (pageNumber < 1 || pageNumber > MAX_PAGE_NUMBER) {
+            return null;
+        }
+
+        final JSONObject response;
+        switch (endpoint) {
+            case TMDBURLBuilder.Endpoint.CONFIGURATION:
+                response = mConfiguration;
+                break;
+            case TMDBURLBuilder.Endpoint.MOVIES_POPULAR:
+            case TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED:
+                response = copy(mMoviePage).put("page", pageNumber);
+                break;
+            case TMDBURLBuilder.Endpoint.MOVIE:
+                response = copy(mMovie).put("id", getRecordId(path));
+                if (appendToResponse != null) {
+                    for (String part : Splitter.on(',').split(appendToResponse)) {
+                        // Appended resources are served without their own record ID.
+                        if ("videos".equals(part)) {
+                            final JSONObject videos = copy(mVideoList);
+                            videos.remove("id");
+                            response.put(part, videos);
+                        } else if ("reviews".equals(part)) {
+                            final JSONObject reviews = copy(mReviewPage);
+                            reviews.remove("id");
+                            response.put(part, reviews);
+                        }
+                    }
+                }
+                break;
+            case TMDBURLBuilder.Endpoint.MOVIE_REVIEWS:
+                response = copy(mReviewPage)
+                        .put("id", getRecordId(path))
+                        .put("page", pageNumber);
+                break;
+            case TMDBURLBuilder.Endpoint.MOVIE_VIDEOS:
+                response = copy(mVideoList).put("id", getRecordId(path));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+
+        final Body body = new Body(response.toString().getBytes(Charsets.UTF_8));
+        final Body existingBody = mBodies.putIfAbsent(bodyKey, body);
+        return (existingBody != null) ? existingBody : body;
+    }
+
+    private void sleepLatency() throws IOException {
+
+        final long jitterMillis = mLatencyJitterMillis;
+        final long delayMillis = mLatencyMillis +
+                ((jitterMillis > 0) ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        sleep(delayMillis);
+    }
+
+    private void sendError(final HttpExchange exchange, final int responseCode,
+                           final String response) throws IOException {
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        send(exchange, responseCode, response.getBytes(Charsets.UTF_8));
+    }
+
+    private void send(final HttpExchange exchange, final int responseCode, final byte[] bytes)
+            throws IOException {
+
+        exchange.sendResponseHeaders(responseCode, bytes.length);
+
+        final OutputStream out = exchange.getResponseBody();
+        final long bytesPerSecond = mBandwidthBytesPerSecond;
+        if (bytesPerSecond == 0) {
+            out.write(bytes);
+        } else {
+            // Send the body in chunks, waiting before each until the cap allows for it.
+            final long startNanos = System.nanoTime();
+            for (int offset = 0; offset < bytes.length; offset += BANDWIDTH_CHUNK_SIZE) {
+                final long dueNanos = startNanos +
+                        TimeUnit.SECONDS.toNanos(1) * offset / bytesPerSecond;
+                sleep(TimeUnit.NANOSECONDS.toMillis(dueNanos - System.nanoTime()));
+                out.write(bytes, offset, Math.min(BANDWIDTH_CHUNK_SIZE, bytes.length - offset));
+                out.flush();
+            }
+        }
+        out.close();
+        mBytesSent.addAndGet(bytes.length);
+    }
+
+    private void countRequest(final String endpoint) {
+
+        AtomicLong requestCount = mRequestCounts.get(endpoint);
+        if (requestCount == null) {
+            final AtomicLong newRequestCount = new AtomicLong();
+            requestCount = mRequestCounts.putIfAbsent(endpoint, newRequestCount);
+            if (requestCount == null) {
+                requestCount = newRequestCount;
+            }
+        }
+        requestCount.incrementAndGet();
+    }
+
+    private static String getEndpoint(final String path) {
+
+        if (path.equals(TMDBURLBuilder.Endpoint.CONFIGURATION)) {
+            return TMDBURLBuilder.Endpoint.CONFIGURATION;
+        }
+        if (MOVIE_LIST_PATH.matcher(path).matches()) {
+            return path.equals(TMDBURLBuilder.Endpoint.MOVIES_POPULAR) ?
+                    TMDBURLBuilder.Endpoint.MOVIES_POPULAR :
+                    TMDBURLBuilder.Endpoint.MOVIES_TOP_RATED;
+        }
+        if (MOVIE_PATH.matcher(path).matches()) {
+            return TMDBURLBuilder.Endpoint.MOVIE;
+        }
+        if (MOVIE_REVIEWS_PATH.matcher(path).matches()) {
+            return TMDBURLBuilder.Endpoint.MOVIE_REVIEWS;
+        }
+        if (MOVIE_VIDEOS_PATH.matcher(path).matches()) {
+            return TMDBURLBuilder.Endpoint.MOVIE_VIDEOS;
+        }
+        return null;
+    }
+
+    private static String buildStatusResponse(final int statusCode, final String statusMessage) {
+        return "{\"status_code\":" + statusCode + ",\"status_message\":\"" + statusMessage + "\"}";
+    }
+
+    private static long getRecordId(final String path) {
+        return Long.parseLong(Splitter.on('/').splitToList(path).get(1));
+    }
+
+    private static Map<String, String> parseQuery(final String rawQuery) throws IOException {
+
+        final Map<String, String> queryParams = new HashMap<>();
+        if (rawQuery == null) {
+            return queryParams;
+        }
+        for (String queryParam : Splitter.on('&').omitEmptyStrings().split(rawQuery)) {
+            final int separator = queryParam.indexOf('=');
+            final String key = (separator < 0) ? queryParam : queryParam.substring(0, separator);
+            final String value = (separator < 0) ? "" : queryParam.substring(separator + 1);
+            queryParams.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return queryParams;
+    }
+
+    private static JSONObject readRecording(final String name) throws IOException, JSONException {
+        return new JSONObject(
+                Resources.toString(Resources.getResource("tmdb/" + name), Charsets.UTF_8));
+    }
+
+    private static JSONObject copy(final JSONObject jsonObject) throws JSONException {
+        return new JSONObject(jsonObject.toString());
+    }
+
+    private static void sleep(final long millis) throws IOException {
+
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while delaying the response.", ex);
+        }
+    }
+
+    /*
+     * A response body, along with its gzip encoding and ETag.
+     */
+    private static class Body {
+
+        private final byte[] mBytes;
+        private final byte[] mGzipBytes;
+        private final String mETag;
+
+        Body(final byte[] bytes) {
+            this.mBytes = bytes;
+            this.mGzipBytes = gzip(bytes);
+            this.mETag = "\"" + Integer.toHexString(Arrays.hashCode(bytes)) + "\"";
+        }
+
+        private static byte[] gzip(final byte[] bytes) {
+
+            final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream();
+            try {
+                final GZIPOutputStream gzipOut = new GZIPOutputStream(gzipBytes);
+                gzipOut.write(bytes);
+                gzipOut.close();
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Failed to gzip in memory.", ex);
+            }
+            return gzipBytes.toByteArray();
+        }
+    }
+}
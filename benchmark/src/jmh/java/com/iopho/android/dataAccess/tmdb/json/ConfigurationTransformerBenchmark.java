@@ -0,0 +1,50 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.iopho.android.dataAccess.tmdb.model.Configuration;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks transforming the TMDB API configuration with {@link JSONConfigurationTransformer}, in
+ * both directions: the configuration is parsed from the network or the local cache file, and
+ * serialized back to the cache file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConfigurationTransformerBenchmark {
+
+    private final JSONConfigurationTransformer mConfigurationTransformer =
+            new JSONConfigurationTransformer();
+
+    private String mPayload;
+    private Configuration mConfiguration;
+
+    @Setup
+    public void setUp() throws IOException, JSONException, ParseException {
+        mPayload = TMDBPayloads.read(TMDBPayloads.CONFIGURATION);
+        mConfiguration = mConfigurationTransformer.transform(new JSONObject(mPayload));
+    }
+
+    @Benchmark
+    public Configuration parse() throws JSONException, ParseException {
+        return mConfigurationTransformer.transform(new JSONObject(mPayload));
+    }
+
+    @Benchmark
+    public String serialize() throws JSONException {
+        return mConfigurationTransformer.transform(mConfiguration).toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks transforming a page of a movie list (e.g. movie/popular) with
+ * {@link JSONDataPageTransformer} and {@link JSONStreamDataPageTransformer}, as the movie client
+ * does for the gallery. TMDB serves 20 movies per page; the other page sizes show how parsing
+ * scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataPageTransformerBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int pageSize;
+
+    private final JSONDataPageTransformer<Movie> mDataPageTransformer =
+            new JSONDataPageTransformer<>(new JSONMovieTransformer());
+    private final JSONStreamDataPageTransformer<Movie> mStreamDataPageTransformer =
+            new JSONStreamDataPageTransformer<>(new JSONStreamMovieTransformer());
+
+    private String mPayload;
+    private byte[] mPayloadBytes;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        mPayload = TMDBPayloads.read(TMDBPayloads.MOVIE_POPULAR, pageSize);
+        mPayloadBytes = mPayload.getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public DataPage<Movie> tree() throws JSONException, ParseException {
+        return mDataPageTransformer.transform(new JSONObject(mPayload));
+    }
+
+    @Benchmark
+    public DataPage<Movie> stream() throws IOException, ParseException {
+        return mStreamDataPageTransformer.transform(TMDBPayloads.newJsonReader(mPayloadBytes));
+    }
+}
@@ -0,0 +1,50 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.iopho.android.dataAccess.tmdb.model.Movie;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks transforming a single movie, as listed in a movie list page, with
+ * {@link JSONMovieTransformer} and {@link JSONStreamMovieTransformer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MovieTransformerBenchmark {
+
+    private final JSONMovieTransformer mMovieTransformer = new JSONMovieTransformer();
+    private final JSONStreamMovieTransformer mStreamMovieTransformer =
+            new JSONStreamMovieTransformer();
+
+    private String mPayload;
+    private byte[] mPayloadBytes;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        mPayload = TMDBPayloads.readFirstResult(TMDBPayloads.MOVIE_POPULAR);
+        mPayloadBytes = mPayload.getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public Movie tree() throws JSONException, ParseException {
+        return mMovieTransformer.transform(new JSONObject(mPayload));
+    }
+
+    @Benchmark
+    public Movie stream() throws IOException, ParseException {
+        return mStreamMovieTransformer.transform(TMDBPayloads.newJsonReader(mPayloadBytes));
+    }
+}
@@ -0,0 +1,72 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing the release dates of a corpus of 10,000 movies with
+ * {@link JSONMovieTransformer#parseReleaseDate(String)}, against the SimpleDateFormat per date it
+ * replaced. Scores are per release date.
+ *
+ * Release dates are spread over a century, with 1 in 50 movies lacking one (an empty string), as
+ * TMDB serves for unreleased movies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReleaseDateBenchmark {
+
+    private static final int CORPUS_SIZE = 10000;
+    private static final int UNKNOWN_RELEASE_DATE_ONE_IN = 50;
+    private static final long CORPUS_SEED = 2016;
+
+    private final String[] mReleaseDates = new String[CORPUS_SIZE];
+
+    @Setup
+    public void setUp() {
+
+        final Random random = new Random(CORPUS_SEED);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            mReleaseDates[i] = (random.nextInt(UNKNOWN_RELEASE_DATE_ONE_IN) == 0) ? "" :
+                    String.format("%04d-%02d-%02d",
+                            1917 + random.nextInt(100), 1 + random.nextInt(12),
+                            1 + random.nextInt(28));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void parseReleaseDate(final Blackhole blackhole) throws ParseException {
+
+        for (final String releaseDate : mReleaseDates) {
+            blackhole.consume(JSONMovieTransformer.parseReleaseDate(releaseDate));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void simpleDateFormat(final Blackhole blackhole) throws ParseException {
+
+        for (final String releaseDate : mReleaseDates) {
+            if (releaseDate.isEmpty()) {
+                blackhole.consume(releaseDate);
+                continue;
+            }
+            final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            blackhole.consume(dateFormat.parse(releaseDate));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.iopho.android.dataAccess.tmdb.model.DataPage;
+import com.iopho.android.dataAccess.tmdb.model.Review;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks transforming a page of a movie's reviews (movie/{id}/reviews) with
+ * {@link JSONReviewTransformer} and {@link JSONStreamReviewTransformer}. Reviews carry long free
+ * text, so these payloads are dominated by string decoding rather than structure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReviewTransformerBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int pageSize;
+
+    private final JSONDataPageTransformer<Review> mReviewPageTransformer =
+            new JSONDataPageTransformer<>(new JSONReviewTransformer());
+    private final JSONStreamDataPageTransformer<Review> mStreamReviewPageTransformer =
+            new JSONStreamDataPageTransformer<>(new JSONStreamReviewTransformer());
+
+    private String mPayload;
+    private byte[] mPayloadBytes;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        mPayload = TMDBPayloads.read(TMDBPayloads.MOVIE_REVIEWS, pageSize);
+        mPayloadBytes = mPayload.getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public DataPage<Review> tree() throws JSONException, ParseException {
+        return mReviewPageTransformer.transform(new JSONObject(mPayload));
+    }
+
+    @Benchmark
+    public DataPage<Review> stream() throws IOException, ParseException {
+        return mStreamReviewPageTransformer.transform(TMDBPayloads.newJsonReader(mPayloadBytes));
+    }
+}
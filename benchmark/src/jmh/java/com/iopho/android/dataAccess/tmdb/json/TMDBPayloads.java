@@ -0,0 +1,94 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.io.Resources;
+import com.google.gson.stream.JsonReader;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * A helper class that provides the recorded TMDB response payloads the benchmarks parse.
+ *
+ * Payloads are recorded TMDB API v3 responses stored under the tmdb/ resource directory. List
+ * payloads can be resized to any number of results, to measure how parsing scales with page size.
+ */
+class TMDBPayloads {
+
+    static final String CONFIGURATION = "configuration.json";
+    static final String MOVIE_POPULAR = "movie_popular.json";
+    static final String MOVIE_REVIEWS = "movie_reviews.json";
+    static final String MOVIE_VIDEOS  = "movie_videos.json";
+
+    private static final String RESULTS_KEY = "results";
+
+    private TMDBPayloads() {}
+
+    /**
+     * Read a recorded payload.
+     *
+     * @param name the name of the payload, e.g. {@link #MOVIE_POPULAR}.
+     * @return the payload.
+     * @throws IOException when failing to read the payload.
+     */
+    static String read(final String name) throws IOException {
+
+        Preconditions.checkNotNull(name, "name must not be null.");
+
+        return Resources.toString(Resources.getResource("tmdb/" + name), Charsets.UTF_8);
+    }
+
+    /**
+     * Read a recorded list payload, resized to the given number of results. Results are repeated
+     * in order when more are requested than were recorded; all other keys are kept as recorded.
+     *
+     * @param name the name of the payload. Must hold a "results" array.
+     * @param resultCount the number of results. Must be positive.
+     * @return the resized payload.
+     * @throws IOException when failing to read the payload.
+     * @throws JSONException when the payload holds no "results" array.
+     */
+    static String read(final String name, final int resultCount)
+            throws IOException, JSONException {
+
+        Preconditions.checkArgument(resultCount > 0, "resultCount must be positive.");
+
+        final JSONObject payload = new JSONObject(read(name));
+        final JSONArray recordedResults = payload.getJSONArray(RESULTS_KEY);
+        final JSONArray results = new JSONArray();
+        for (int i = 0; i < resultCount; i++) {
+            results.put(recordedResults.get(i % recordedResults.length()));
+        }
+        payload.put(RESULTS_KEY, results);
+        return payload.toString();
+    }
+
+    /**
+     * Read the first result of a recorded list payload.
+     *
+     * @param name the name of the payload. Must hold a "results" array.
+     * @return the first result.
+     * @throws IOException when failing to read the payload.
+     * @throws JSONException when the payload holds no "results" array.
+     */
+    static String readFirstResult(final String name) throws IOException, JSONException {
+        return new JSONObject(read(name)).getJSONArray(RESULTS_KEY).getJSONObject(0).toString();
+    }
+
+    /**
+     * Open a payload for streaming, the way the movie client opens a response body.
+     *
+     * @param payload the UTF-8 encoded payload.
+     * @return a new {@link JsonReader} over the payload.
+     */
+    static JsonReader newJsonReader(final byte[] payload) {
+        return new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(payload), Charsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package com.iopho.android.dataAccess.tmdb.json;
+
+import com.iopho.android.dataAccess.tmdb.model.VideoLink;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks transforming a movie's video links (movie/{id}/videos) with
+ * {@link JSONVideoLinkTransformer} and {@link JSONStreamVideoLinkTransformer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VideoLinkTransformerBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int listSize;
+
+    private final JSONResultListTransformer<VideoLink> mVideoLinkListTransformer =
+            new JSONResultListTransformer<>(new JSONVideoLinkTransformer());
+    private final JSONStreamResultListTransformer<VideoLink> mStreamVideoLinkListTransformer =
+            new JSONStreamResultListTransformer<>(new JSONStreamVideoLinkTransformer());
+
+    private String mPayload;
+    private byte[] mPayloadBytes;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        mPayload = TMDBPayloads.read(TMDBPayloads.MOVIE_VIDEOS, listSize);
+        mPayloadBytes = mPayload.getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public List<VideoLink> tree() throws JSONException, ParseException {
+        return mVideoLinkListTransformer.transform(new JSONObject(mPayload));
+    }
+
+    @Benchmark
+    public List<VideoLink> stream() throws IOException, ParseException {
+        return mStreamVideoLinkListTransformer.transform(
+                TMDBPayloads.newJsonReader(mPayloadBytes));
+    }
+}
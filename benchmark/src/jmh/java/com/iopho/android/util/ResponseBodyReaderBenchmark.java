@@ -0,0 +1,112 @@
+package com.iopho.android.util;
+
+import com.google.common.io.Resources;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading a 4 MiB response body into a String with {@link ResponseBodyReader}, with and
+ * without a known content length, against the BufferedReader.readLine / StringBuffer loop it
+ * replaced in {@link HttpURLDownloader}. Scores are per MiB read, so the gc profiler's
+ * gc.alloc.rate.norm is the number of bytes allocated per MiB of body:
+ *
+ *   ./gradlew :benchmark:jmh -PjmhInclude=ResponseBodyReaderBenchmark
+ *
+ * The body is made of copies of a recorded movie/popular page, either on a single line as TMDB
+ * serves them ("compact"), or one copy per line ("lines"). The readLine path drops the line
+ * breaks of the latter, as it did in the app.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResponseBodyReaderBenchmark {
+
+    private static final int PAYLOAD_MEBIBYTES = 4;
+    private static final int PAYLOAD_BYTES = PAYLOAD_MEBIBYTES * 1024 * 1024;
+
+    @Param({"compact", "lines"})
+    public String shape;
+
+    private byte[] mPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        final byte[] page = Resources.toByteArray(Resources.getResource("tmdb/movie_popular.json"));
+        final byte separator = "lines".equals(shape) ? (byte) '\n' : (byte) ',';
+
+        // [page,page,...,page<padding>]
+        mPayload = new byte[PAYLOAD_BYTES];
+        Arrays.fill(mPayload, (byte) ' ');
+        mPayload[0] = '[';
+        int offset = 1;
+        while (offset + page.length + 2 <= PAYLOAD_BYTES) {
+            if (offset > 1) {
+                mPayload[offset++] = separator;
+            }
+            System.arraycopy(page, 0, mPayload, offset, page.length);
+            offset += page.length;
+        }
+        mPayload[PAYLOAD_BYTES - 1] = ']';
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MEBIBYTES)
+    public String readLine() throws IOException {
+
+        // As HttpURLDownloader read response bodies before ResponseBodyReader.
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(mPayload), "UTF-8"));
+        try {
+            final StringBuffer result = new StringBuffer();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.append(line);
+            }
+            return result.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MEBIBYTES)
+    public String responseBodyReaderKnownLength() throws IOException {
+        return ResponseBodyReader.getDefault()
+                .read(new ByteArrayInputStream(mPayload), mPayload.length)
+                .asString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MEBIBYTES)
+    public String responseBodyReaderUnknownLength() throws IOException {
+        return ResponseBodyReader.getDefault()
+                .read(new ByteArrayInputStream(mPayload), ResponseBodyReader.UNKNOWN_LENGTH)
+                .asString();
+    }
+
+    /**
+     * @return the body read into pooled bytes only, as handed to a streaming parser.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PAYLOAD_MEBIBYTES)
+    public ResponseBody responseBodyReaderBytes() throws IOException {
+        return ResponseBodyReader.getDefault()
+                .read(new ByteArrayInputStream(mPayload), ResponseBodyReader.UNKNOWN_LENGTH);
+    }
+}
@@ -0,0 +1,108 @@
+package android.util;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * A JVM implementation of the public API of {@link android.util.Log}, which is implemented
+ * natively in the Android framework. Messages at or above the priority given by the
+ * "android.util.Log.level" system property (one of V, D, I, W, E or A; W by default) are written to
+ * standard error, so that debug logging does not skew what the benchmarks measure.
+ */
+public final class Log {
+
+    public static final int VERBOSE = 2;
+    public static final int DEBUG   = 3;
+    public static final int INFO    = 4;
+    public static final int WARN    = 5;
+    public static final int ERROR   = 6;
+    public static final int ASSERT  = 7;
+
+    private static final String PRIORITY_LETTERS = "??VDIWEA";
+    private static final int MIN_PRIORITY =
+            PRIORITY_LETTERS.indexOf(System.getProperty("android.util.Log.level", "W"));
+
+    private Log() {}
+
+    public static int v(final String tag, final String msg) {
+        return println(VERBOSE, tag, msg);
+    }
+
+    public static int v(final String tag, final String msg, final Throwable tr) {
+        return println(VERBOSE, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static int d(final String tag, final String msg) {
+        return println(DEBUG, tag, msg);
+    }
+
+    public static int d(final String tag, final String msg, final Throwable tr) {
+        return println(DEBUG, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static int i(final String tag, final String msg) {
+        return println(INFO, tag, msg);
+    }
+
+    public static int i(final String tag, final String msg, final Throwable tr) {
+        return println(INFO, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static int w(final String tag, final String msg) {
+        return println(WARN, tag, msg);
+    }
+
+    public static int w(final String tag, final String msg, final Throwable tr) {
+        return println(WARN, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static int w(final String tag, final Throwable tr) {
+        return println(WARN, tag, getStackTraceString(tr));
+    }
+
+    public static int e(final String tag, final String msg) {
+        return println(ERROR, tag, msg);
+    }
+
+    public static int e(final String tag, final String msg, final Throwable tr) {
+        return println(ERROR, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static int wtf(final String tag, final String msg) {
+        return println(ASSERT, tag, msg);
+    }
+
+    public static int wtf(final String tag, final Throwable tr) {
+        return println(ASSERT, tag, getStackTraceString(tr));
+    }
+
+    public static int wtf(final String tag, final String msg, final Throwable tr) {
+        return println(ASSERT, tag, msg + '\n' + getStackTraceString(tr));
+    }
+
+    public static boolean isLoggable(final String tag, final int priority) {
+        return priority >= MIN_PRIORITY;
+    }
+
+    public static String getStackTraceString(final Throwable tr) {
+
+        if (tr == null) {
+            return "";
+        }
+        final StringWriter stringWriter = new StringWriter();
+        final PrintWriter printWriter = new PrintWriter(stringWriter);
+        tr.printStackTrace(printWriter);
+        printWriter.flush();
+        return stringWriter.toString();
+    }
+
+    public static int println(final int priority, final String tag, final String msg) {
+
+        if (priority < MIN_PRIORITY) {
+            return 0;
+        }
+        final String line = PRIORITY_LETTERS.charAt(priority) + "/" + tag + ": " + msg;
+        System.err.println(line);
+        return line.length();
+    }
+}